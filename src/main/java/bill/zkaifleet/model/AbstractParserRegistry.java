@@ -1,8 +1,16 @@
 package bill.zkaifleet.model;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +30,10 @@ public abstract class AbstractParserRegistry implements ParserRegistry {
     
     private final Map<String, Class<? extends Ject>> rootSubjects = new HashMap<>();
     private final Map<String, Predicate> predicates = new HashMap<>();
+    private final Map<String, PredicateQualifier> runtimeQualifiers = new HashMap<>();
+    private final Set<Class<? extends Ject>> subjectTypes = new LinkedHashSet<>();
+    // Cleared by every change to the vocabulary; registries are filled before they are shared
+    private volatile String version;
 
     /**
      * Creates a new parser registry for the specified ontology.
@@ -37,6 +49,9 @@ public abstract class AbstractParserRegistry implements ParserRegistry {
     public void addRootSubject(String predicateName, Class<? extends Ject> rootSubjectType) {
         if (predicateName != null && !predicateName.isEmpty() && rootSubjectType != null) {
             rootSubjects.put(predicateName, rootSubjectType);
+            subjectTypes.add(rootSubjectType);
+            version = null;
+            JectFactories.register(rootSubjectType);
             log.debug("Added root subject type {} for predicate '{}'", 
                 rootSubjectType.getSimpleName(), predicateName);
         }
@@ -46,8 +61,13 @@ public abstract class AbstractParserRegistry implements ParserRegistry {
     public void addPredicate(Predicate p) {
         if (p != null && !predicates.containsKey(p.name())) {
             predicates.put(p.name(), p);
+            version = null;
             if (p.qualifier() != null) {
                 PredicateQualifier qualifier = p.qualifier();
+                if (qualifier.subjectType() != null) {
+                    subjectTypes.add(qualifier.subjectType());
+                    JectFactories.register(qualifier.subjectType());
+                }
                 if (qualifier.pluralName() != null && !qualifier.pluralName().isEmpty()) {
                     predicates.put(qualifier.pluralName(), p);
                     log.debug("Added predicate '{}' with plural name '{}'", 
@@ -78,6 +98,70 @@ public abstract class AbstractParserRegistry implements ParserRegistry {
         }
     }
 
+    /**
+     * Sets the qualifier policy for RuntimePredicates created in a space.
+     *
+     * @param space The runtime predicate space, e.g. "unknown"
+     * @param qualifier The qualifier shared by all RuntimePredicates of the space
+     */
+    public void addRuntimeQualifier(String space, PredicateQualifier qualifier) {
+        if (space != null && qualifier != null) {
+            runtimeQualifiers.put(space, qualifier);
+            version = null;
+            log.debug("Added runtime qualifier for space '{}'", space);
+        }
+    }
+
+    @Override
+    public PredicateQualifier getRuntimeQualifier(String space) {
+        PredicateQualifier qualifier = runtimeQualifiers.get(space);
+        return qualifier != null ? qualifier : RuntimePredicate.DEFAULT_QUALIFIER;
+    }
+
+    @Override
+    public Set<Class<? extends Ject>> getSubjectTypes() {
+        return Collections.unmodifiableSet(subjectTypes);
+    }
+
+    /**
+     * Gets a fingerprint of the registered predicates, root subjects and runtime qualifiers, so
+     * that changing any of them changes the version without a version number to maintain. The
+     * fingerprint is a SHA-256 hash, as strong as the cache keys that include it. It is computed
+     * once and kept until the vocabulary changes.
+     */
+    @Override
+    public String getVersion() {
+        String v = version;
+        if (v == null) {
+            version = v = computeVersion();
+        }
+        return v;
+    }
+
+    private String computeVersion() {
+        StringBuilder vocabulary = new StringBuilder(getClass().getName());
+        new TreeMap<>(predicates).forEach((key, p) -> vocabulary.append('|').append(key).append('=')
+                .append(p.fqName()).append(describe(p.qualifier())));
+        new TreeMap<>(rootSubjects).forEach((key, type) -> vocabulary.append('|').append(key).append(':').append(type.getName()));
+        new TreeMap<>(runtimeQualifiers).forEach((space, q) -> vocabulary.append('|').append(space).append(describe(q)));
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        byte[] hash = digest.digest(vocabulary.toString().getBytes(StandardCharsets.UTF_8));
+        return getClass().getSimpleName() + "-" + HexFormat.of().formatHex(hash);
+    }
+
+    private static String describe(PredicateQualifier qualifier) {
+        if (qualifier == null) {
+            return "";
+        }
+        return "(" + qualifier.single() + "," + qualifier.required() + "," + qualifier.pluralName() + ","
+                + qualifier.objectTypes() + "," + qualifier.subjectType() + "," + qualifier.scalarType() + ")";
+    }
+
     @Override
     public Predicate getPredicate(String key, String contextOntology) {
         return predicates.get(key);
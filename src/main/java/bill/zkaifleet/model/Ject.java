@@ -3,15 +3,14 @@ package bill.zkaifleet.model ;
 //In bill.zkaifleet.model (base package for models)
 
 //bill.zkaifleet.model.Ject
+import com.fasterxml.jackson.annotation.JsonIgnore ;
 import com.fasterxml.jackson.annotation.JsonInclude ;
 
+import lombok.AccessLevel ;
 import lombok.Getter ;
 import lombok.Setter ;
-import lombok.EqualsAndHashCode ;
 import lombok.extern.slf4j.Slf4j ;
 
-import java.lang.reflect.InvocationTargetException ;
-import java.lang.reflect.Method ;
 import java.util.* ;
 
 /**
@@ -36,11 +35,11 @@ import java.util.* ;
  *   <li>RuntimeJects are used when specific typed Jects aren't available</li>
  *   <li>Simple properties are stored as scalar values (Strings, numbers, etc.)</li>
  *   <li>Bidirectional relationships are maintained - when A has B as a subject, B has A in its isObjectOf collection</li>
+ *   <li>Jects are equal only to themselves; {@link JectStructure} compares the graphs behind two Jects</li>
  * </ul>
  */
 @Getter
 @Setter
-@EqualsAndHashCode
 @Slf4j
 @JsonInclude ( JsonInclude.Include.NON_NULL )
 public abstract class Ject {
@@ -50,9 +49,18 @@ public abstract class Ject {
 	private String evolutionNotes ;
 	protected final String typeName ;
 	protected String ontology ;
-	protected final Map <Predicate, List <Ject>> subjects = new LinkedHashMap <> ( ) ;
-	protected final Map <Predicate, List <Ject>> isObjectOf = new LinkedHashMap <> ( ) ;
-	protected final Map <Predicate, List <Object>> scalars = new LinkedHashMap <> ( ) ;
+	@Getter ( AccessLevel.NONE )
+	protected final PredicateSlots <Ject> subjects = new PredicateSlots <> ( ) ;
+	@Getter ( AccessLevel.NONE )
+	protected final PredicateSlots <Ject> isObjectOf = new PredicateSlots <> ( ) ;
+	@Getter ( AccessLevel.NONE )
+	protected final PredicateSlots <Object> scalars = new PredicateSlots <> ( ) ;
+	/**
+	 * The index of the ontology this Ject is part of, once that ontology is indexed.
+	 */
+	@Getter ( AccessLevel.NONE )
+	@Setter ( AccessLevel.NONE )
+	private OntologyIndex index ;
 
 	/**
 	 * Creates a new Ject with the specified type name and ontology.
@@ -65,18 +73,77 @@ public abstract class Ject {
 		this.ontology = ontology ;
 	}
 
+	/**
+	 * Sets the id of this Ject.
+	 *
+	 * @param id The id
+	 */
+	public void setId ( String id ) {
+		String previous = this.id ;
+		this.id = id ;
+		if ( index != null ) {
+			index.idChanged ( this, previous ) ;
+		}
+	}
+
+	OntologyIndex index ( ) {
+		return index ;
+	}
+
+	void index ( OntologyIndex index ) {
+		this.index = index ;
+	}
+
+	/**
+	 * Gets the subjects of this Ject by predicate. The map and its lists are live.
+	 *
+	 * @return The subjects, in the order their predicates were first used
+	 */
+	public Map <Predicate, List <Ject>> getSubjects ( ) {
+		return subjects ;
+	}
+
+	/**
+	 * Gets the Jects that have this Ject as a subject, by predicate. The map and its lists are live.
+	 *
+	 * @return The backlinks, in the order their predicates were first used
+	 */
+	public Map <Predicate, List <Ject>> getIsObjectOf ( ) {
+		return isObjectOf ;
+	}
+
+	/**
+	 * Gets the scalar values of this Ject by predicate. The map and its lists are live.
+	 *
+	 * @return The scalars, in the order their predicates were first used
+	 */
+	public Map <Predicate, List <Object>> getScalars ( ) {
+		return scalars ;
+	}
+
 	/**
 	 * Gets subjects connected to this Ject by a specific predicate and casts them to the specified type.
+	 * <p>
+	 * Subjects are checked against their types as they are added or replaced, so when all of them
+	 * are resolved instances of the type, the result is a live read-only view of the relation,
+	 * returned without checking, copying or writing anything; concurrent reads of a built graph
+	 * stay safe. Otherwise the matching subjects are copied, with a warning for each one that does
+	 * not match.
 	 *
 	 * @param <T> The target type for the subjects
 	 * @param pred The predicate connecting this Ject to its subjects
 	 * @param type The class object for type T
-	 * @return A list of subjects cast to type T
+	 * @return A read-only list of subjects cast to type T
 	 */
 	public <T extends Ject> List <T> getTypedSubjects ( Predicate pred, Class <T> type ) {
-		List <Ject> raw = subjects.getOrDefault ( pred, Collections.emptyList ( ) ) ;
+		List <T> view = subjects.checkedView ( pred, type ) ;
+		if ( view != null ) {
+			return view ;
+		}
+		List <Ject> raw = subjects.get ( pred ) ;
 		List <T> typed = new ArrayList <> ( ) ;
-		for ( Ject item : raw ) {
+		for ( Ject reference : raw ) {
+			Ject item = reference.resolveReference ( ) ;
 			if ( type.isInstance ( item ) ) {
 				typed.add ( type.cast ( item ) ) ;
 			} else {
@@ -96,8 +163,29 @@ public abstract class Ject {
 	 * @return This Ject instance for method chaining
 	 */
 	public <T extends Ject> Ject addTypedSubject ( Predicate pred, T obj ) {
-		subjects.computeIfAbsent ( pred, k -> new ArrayList <> ( ) ).add ( obj ) ;
+		subjects.add ( pred, obj ) ;
 		obj.addIsObjectOf ( pred, this ) ;
+		if ( index != null ) {
+			index.added ( this, pred, obj ) ;
+		}
+		return this ; // Fluent
+	}
+
+	/**
+	 * Adds a typed subject to this Ject without adding this Ject to the isObjectOf list of the
+	 * subject. The caller adds the backlink later with {@link #addIsObjectOf(Predicate, Ject)}, as
+	 * when the subject belongs to a graph that must not change yet.
+	 *
+	 * @param <T> The type of the subject
+	 * @param pred The predicate to connect this Ject to the subject
+	 * @param obj The subject to add
+	 * @return This Ject instance for method chaining
+	 */
+	public <T extends Ject> Ject addTypedSubjectWithoutBacklink ( Predicate pred, T obj ) {
+		subjects.add ( pred, obj ) ;
+		if ( index != null ) {
+			index.added ( this, pred, obj ) ;
+		}
 		return this ; // Fluent
 	}
 
@@ -136,12 +224,14 @@ public abstract class Ject {
 	 * @param p The predicate
 	 */
 	public void removeTypedSubjects ( Predicate p ) {
-		List <Ject> items = subjects.get ( p ) ;
+		List <Ject> items = subjects.remove ( p ) ;
 		if ( items != null ) {
 			for ( Ject item : items ) {
 				item.removeIsObjectOf ( p, this ) ;
 			}
-			subjects.remove ( p ) ;
+			if ( index != null ) {
+				index.removed ( this, p, items ) ;
+			}
 		}
 	}
 
@@ -154,7 +244,12 @@ public abstract class Ject {
 	protected void removeIsObjectOf ( Predicate p, Ject ject ) {
 		List <Ject> items = isObjectOf.get ( p ) ;
 		if ( items != null ) {
-			items.remove ( ject ) ;
+			for ( int i = 0 ; i < items.size ( ) ; i++ ) {
+				if ( items.get ( i ) == ject ) {
+					items.remove ( i ) ;
+					break ;
+				}
+			}
 			if ( items.isEmpty ( ) ) {
 				isObjectOf.remove ( p ) ;
 			}
@@ -168,7 +263,7 @@ public abstract class Ject {
 	 * @param subj The Ject to which this Ject is added
 	 */
 	public void addIsObjectOf ( Predicate pred, Ject subj ) {
-		isObjectOf.computeIfAbsent ( pred, k -> new ArrayList <> ( ) ).add ( subj ) ;
+		isObjectOf.add ( pred, subj ) ;
 	}
 
 	/**
@@ -177,10 +272,14 @@ public abstract class Ject {
 	 * @param <T> The target type for the Jects
 	 * @param pred The predicate
 	 * @param type The class object for type T
-	 * @return A list of Jects cast to type T
+	 * @return A read-only list of Jects cast to type T, a view as for {@link #getTypedSubjects(Predicate, Class)}
 	 */
 	public <T extends Ject> List <T> getTypedIsObjectOf ( Predicate pred, Class <T> type ) {
-		List <Ject> raw = isObjectOf.getOrDefault ( pred, Collections.emptyList ( ) ) ;
+		List <T> view = isObjectOf.checkedView ( pred, type ) ;
+		if ( view != null ) {
+			return view ;
+		}
+		List <Ject> raw = isObjectOf.get ( pred ) ;
 		List <T> typed = new ArrayList <> ( ) ;
 		for ( Ject item : raw ) {
 			if ( type.isInstance ( item ) ) {
@@ -217,37 +316,75 @@ public abstract class Ject {
 		return typed ;
 	}
 
+	/**
+	 * Gets the single numeric scalar of a predicate as a double. Numbers are held unboxed, so
+	 * this reads them without allocating, unlike {@link #getScalar(Predicate, Class)}.
+	 *
+	 * @param pred The predicate
+	 * @param absent The value to return if this Ject has no scalar for the predicate
+	 * @return The scalar, widened to a double
+	 * @throws IllegalStateException if there are several scalars or the scalar is not a number
+	 */
+	public double getDouble ( Predicate pred, double absent ) {
+		return scalars.getDouble ( pred, absent ) ;
+	}
+
+	/**
+	 * Gets the single integral scalar of a predicate as a long, without allocating.
+	 *
+	 * @param pred The predicate
+	 * @param absent The value to return if this Ject has no scalar for the predicate
+	 * @return The scalar, widened to a long
+	 * @throws IllegalStateException if there are several scalars or the scalar is not an integral number
+	 */
+	public long getLong ( Predicate pred, long absent ) {
+		return scalars.getLong ( pred, absent ) ;
+	}
+
 	public void setScalars ( Predicate pred, List <Object> values ) {
 		if ( values == null || values.isEmpty ( ) ) {
 			scalars.remove ( pred ) ; // Clear if empty
 		} else {
 			scalars.put ( pred, new ArrayList <> ( values ) ) ;
 		}
+		if ( index != null ) {
+			index.scalarsChanged ( this, pred ) ;
+		}
 	}
 
 	public void addScalar ( Predicate pred, Object scalar ) {
-		scalars.computeIfAbsent ( pred, k -> new ArrayList <> ( ) ).add ( scalar ) ;
-		// If the predicate has a qualifier, we could also handle it here
-		// For example, if pred.qualifier() is not null, we might want to do something specific
-		// This is commented out as it depends on the specific use case
-		if ( pred.qualifier ( ) != null && pred.qualifier ( ).setter ( ) != null ) {
+		scalars.add ( pred, scalar ) ;
+		if ( index != null ) {
+			index.scalarsChanged ( this, pred ) ;
+		}
+		PredicateQualifier qualifier = pred.qualifier ( ) ;
+		if ( qualifier != null && qualifier.setter ( ) != null ) {
 			// If the predicate has a setter, we can use it to set the scalar value
-			pred.qualifier ( ).setter ( ).accept ( scalar, this ) ;
+			qualifier.setter ( ).accept ( scalar, this ) ;
 		} else {
-			if ( ! attemptSet ( pred, scalar, "add" ) ) {
-				attemptSet ( pred, scalar, "set" ) ;
-			}
+			ScalarBinders.bind ( this, pred.name ( ), scalar ) ;
 		}
 	}
 
-	private boolean attemptSet ( Predicate pred, Object scalar, String m ) {
-		try {
-			Method setter = getClass ( ).getMethod ( m + pred.name ( ).substring ( 0, 1 ).toUpperCase ( ) + pred.name ( ).substring ( 1 ), scalar.getClass ( ) ) ;
-			setter.invoke ( this, scalar ) ;
-			return true ;
-		} catch ( NoSuchMethodException | SecurityException | IllegalAccessException | InvocationTargetException e ) {
-			return false ; // Method not found or invocation failed
-		}
+	/**
+	 * Gets the Ject this node stands for. References that are resolved lazily return their
+	 * target, swapping it into the slots that held them.
+	 *
+	 * @return This Ject
+	 */
+	public Ject resolveReference ( ) {
+		return this ;
+	}
+
+	/**
+	 * Gets whether this node only stands in for another Ject, such as the placeholder of a
+	 * {@code ref:}. Typed reads of a relation that holds one go through {@link #resolveReference()}.
+	 *
+	 * @return false for a Ject that is itself the node
+	 */
+	@JsonIgnore
+	public boolean isReference ( ) {
+		return false ;
 	}
 
 	public Object resolveLiterals() {
@@ -264,6 +401,28 @@ public abstract class Ject {
 	           && ject.getSubjects().isEmpty() ;
 	}
 
+	/**
+	 * Jects are equal only to themselves. Comparing their relations would walk the whole graph,
+	 * including the backlinks, on every comparison; {@link JectStructure} does that on request.
+	 *
+	 * @param other The object to compare with
+	 * @return true if other is this Ject
+	 */
+	@Override
+	public boolean equals ( Object other ) {
+		return this == other ;
+	}
+
+	/**
+	 * Gets the identity hash code of this Ject, consistent with {@link #equals(Object)}.
+	 *
+	 * @return The identity hash code
+	 */
+	@Override
+	public int hashCode ( ) {
+		return System.identityHashCode ( this ) ;
+	}
+
 	/**
 	 * Provides a string representation of this Ject.
 	 *
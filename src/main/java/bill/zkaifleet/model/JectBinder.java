@@ -0,0 +1,28 @@
+package bill.zkaifleet.model ;
+
+/**
+ * Binds scalar values to the properties of one Ject class without reflection.
+ * <p>
+ * Implementations are generated at build time by {@code bill.zkaifleet.processor.JectBinderProcessor}
+ * and discovered via Java's ServiceLoader mechanism. {@link ScalarBinders} consults them before
+ * falling back to its reflective resolution.
+ */
+public interface JectBinder {
+
+	/**
+	 * Gets the exact Ject class this binder handles.
+	 *
+	 * @return The Ject class
+	 */
+	Class <? extends Ject> jectType ( ) ;
+
+	/**
+	 * Assigns a value to the property a predicate name maps to.
+	 *
+	 * @param target The Ject to update, an instance of {@link #jectType()}
+	 * @param property The predicate name
+	 * @param value The non-null value
+	 * @return true if a matching adder or setter was called
+	 */
+	boolean bind ( Ject target, String property, Object value ) ;
+}
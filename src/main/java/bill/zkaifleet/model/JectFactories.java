@@ -0,0 +1,86 @@
+package bill.zkaifleet.model ;
+
+import java.lang.invoke.CallSite ;
+import java.lang.invoke.LambdaMetafactory ;
+import java.lang.invoke.MethodHandle ;
+import java.lang.invoke.MethodHandles ;
+import java.lang.invoke.MethodType ;
+import java.lang.reflect.Modifier ;
+import java.util.function.Supplier ;
+
+import lombok.extern.slf4j.Slf4j ;
+
+/**
+ * Cache of no-argument factories for Ject subclasses.
+ * <p>
+ * Each public, concrete Ject class with a public no-argument constructor gets a {@link Supplier}
+ * generated once through {@link LambdaMetafactory}, so creating a node while parsing is a plain
+ * interface call. Parser registries register the subject types they declare, which moves that
+ * one-time cost to registry initialization.
+ */
+@Slf4j
+public final class JectFactories {
+
+	private static final ClassValue <Supplier <? extends Ject>> FACTORIES = new ClassValue <> ( ) {
+		@Override
+		protected Supplier <? extends Ject> computeValue ( Class <?> type ) {
+			return compile ( type.asSubclass ( Ject.class ) ) ;
+		}
+	} ;
+
+	private JectFactories ( ) {
+	}
+
+	/**
+	 * Compiles and caches the factory for a Ject class ahead of its first use.
+	 *
+	 * @param type The Ject class; null is ignored
+	 */
+	public static void register ( Class <? extends Ject> type ) {
+		if ( type != null ) {
+			FACTORIES.get ( type ) ;
+		}
+	}
+
+	/**
+	 * Gets the factory for a Ject class.
+	 *
+	 * @param type The Ject class
+	 * @return The factory, or null if the class cannot be created without arguments
+	 */
+	public static Supplier <? extends Ject> factory ( Class <? extends Ject> type ) {
+		return FACTORIES.get ( type ) ;
+	}
+
+	@SuppressWarnings ( "unchecked" )
+	private static Supplier <? extends Ject> compile ( Class <? extends Ject> type ) {
+		if ( ! Modifier.isPublic ( type.getModifiers ( ) ) || Modifier.isAbstract ( type.getModifiers ( ) ) ) {
+			return null ;
+		}
+		MethodHandle constructor ;
+		try {
+			constructor = MethodHandles.publicLookup ( ).findConstructor ( type, MethodType.methodType ( void.class ) ) ;
+		} catch ( NoSuchMethodException | IllegalAccessException e ) {
+			log.debug ( "No public no-arg constructor for {}", type.getName ( ) ) ;
+			return null ;
+		}
+		try {
+			CallSite site = LambdaMetafactory.metafactory ( MethodHandles.lookup ( ), "get", MethodType.methodType ( Supplier.class ),
+					MethodType.methodType ( Object.class ), constructor, MethodType.methodType ( type ) ) ;
+			return ( Supplier <? extends Ject> ) site.getTarget ( ).invoke ( ) ;
+		} catch ( Throwable t ) {
+			// Hidden classes cannot always link against classes from another loader; the handle still works
+			log.debug ( "Falling back to a method handle factory for {}: {}", type.getName ( ), t.getMessage ( ) ) ;
+			MethodHandle handle = constructor.asType ( MethodType.methodType ( Ject.class ) ) ;
+			return ( ) -> {
+				try {
+					return ( Ject ) handle.invokeExact ( ) ;
+				} catch ( RuntimeException | Error e ) {
+					throw e ;
+				} catch ( Throwable e ) {
+					throw new IllegalStateException ( "Error while creating " + type.getName ( ) + ": " + e.getMessage ( ), e ) ;
+				}
+			} ;
+		}
+	}
+}
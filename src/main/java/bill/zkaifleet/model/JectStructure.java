@@ -0,0 +1,166 @@
+package bill.zkaifleet.model ;
+
+import java.util.ArrayDeque ;
+import java.util.Deque ;
+import java.util.HashMap ;
+import java.util.HashSet ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.Objects ;
+import java.util.Set ;
+
+/**
+ * Structural comparison of Ject graphs, for when two Jects should count as equal because they
+ * describe the same graph rather than because they are the same node.
+ * <p>
+ * {@link #equivalent(Ject, Ject)} walks both graphs side by side, from the two Jects along subjects
+ * and backlinks, pairing up the nodes it meets. Each node is compared once, so cycles end the walk
+ * instead of recursing, and the pairing must be one to one: two nodes of one graph that match a
+ * single node of the other do not count as equal. Nodes match when they have the same class, id,
+ * type name, ontology, description, evolution notes and scalars, and relations with the same
+ * predicates whose lists match in order. Fields that typed Jects bind from their scalars are
+ * covered by the scalars. References are compared by what they resolve to.
+ * <p>
+ * {@link #hash(Ject)} is consistent with it: it combines the content of every reachable node
+ * without regard to the order the nodes are visited in. Both walks use explicit stacks, so deep
+ * graphs do not overflow the call stack.
+ */
+public final class JectStructure {
+
+	private JectStructure ( ) {
+	}
+
+	/**
+	 * Compares the graphs behind two Jects.
+	 *
+	 * @param left One Ject
+	 * @param right The other Ject
+	 * @return true if the graphs reachable from both Jects match node for node
+	 */
+	public static boolean equivalent ( Ject left, Ject right ) {
+		Walk walk = new Walk ( ) ;
+		if ( ! walk.pair ( left, right ) ) {
+			return false ;
+		}
+		while ( ! walk.pending.isEmpty ( ) ) {
+			Ject [ ] pair = walk.pending.pop ( ) ;
+			if ( ! sameNode ( pair [ 0 ], pair [ 1 ] )
+					|| ! walk.pairAll ( pair [ 0 ].getSubjects ( ), pair [ 1 ].getSubjects ( ) )
+					|| ! walk.pairAll ( pair [ 0 ].getIsObjectOf ( ), pair [ 1 ].getIsObjectOf ( ) ) ) {
+				return false ;
+			}
+		}
+		return true ;
+	}
+
+	/**
+	 * Computes a hash code of the graph behind a Ject, consistent with {@link #equivalent(Ject, Ject)}.
+	 *
+	 * @param root The Ject
+	 * @return The hash code
+	 */
+	public static int hash ( Ject root ) {
+		if ( root == null ) {
+			return 0 ;
+		}
+		Set <Ject> seen = new HashSet <> ( ) ;
+		Deque <Ject> pending = new ArrayDeque <> ( ) ;
+		Ject start = root.resolveReference ( ) ;
+		seen.add ( start ) ;
+		pending.push ( start ) ;
+		int hash = 0 ;
+		while ( ! pending.isEmpty ( ) ) {
+			Ject node = pending.pop ( ) ;
+			hash += nodeHash ( node ) ;
+			for ( Map <Predicate, List <Ject>> relations : List.of ( node.getSubjects ( ), node.getIsObjectOf ( ) ) ) {
+				for ( List <Ject> items : relations.values ( ) ) {
+					for ( Ject item : items ) {
+						Ject target = item.resolveReference ( ) ;
+						if ( seen.add ( target ) ) {
+							pending.push ( target ) ;
+						}
+					}
+				}
+			}
+		}
+		return hash ;
+	}
+
+	private static boolean sameNode ( Ject left, Ject right ) {
+		return left.getClass ( ) == right.getClass ( )
+				&& Objects.equals ( left.getId ( ), right.getId ( ) )
+				&& Objects.equals ( left.getTypeName ( ), right.getTypeName ( ) )
+				&& Objects.equals ( left.getOntology ( ), right.getOntology ( ) )
+				&& Objects.equals ( left.getDescription ( ), right.getDescription ( ) )
+				&& Objects.equals ( left.getEvolutionNotes ( ), right.getEvolutionNotes ( ) )
+				&& left.getScalars ( ).equals ( right.getScalars ( ) ) ;
+	}
+
+	/**
+	 * Hashes what {@link #sameNode(Ject, Ject)} compares, plus the predicates and sizes of the
+	 * relations, summed so the order of the predicates does not matter.
+	 */
+	private static int nodeHash ( Ject node ) {
+		int hash = Objects.hash ( node.getClass ( ).getName ( ), node.getId ( ), node.getTypeName ( ), node.getOntology ( ),
+				node.getDescription ( ), node.getEvolutionNotes ( ) ) ;
+		for ( Map.Entry <Predicate, List <Ject>> entry : node.getSubjects ( ).entrySet ( ) ) {
+			hash += 31 * entry.getKey ( ).fqName ( ).hashCode ( ) + entry.getValue ( ).size ( ) ;
+		}
+		for ( Map.Entry <Predicate, List <Ject>> entry : node.getIsObjectOf ( ).entrySet ( ) ) {
+			hash += 37 * entry.getKey ( ).fqName ( ).hashCode ( ) + entry.getValue ( ).size ( ) ;
+		}
+		for ( Map.Entry <Predicate, List <Object>> entry : node.getScalars ( ).entrySet ( ) ) {
+			hash += entry.getKey ( ).fqName ( ).hashCode ( ) ^ entry.getValue ( ).hashCode ( ) ;
+		}
+		return hash ;
+	}
+
+	/**
+	 * The pairing of the nodes of two graphs, and the pairs still to compare.
+	 */
+	private static final class Walk {
+
+		// Keyed by Ject equality, so views of one stored node (MappedJect) pair as one node
+		private final Map <Ject, Ject> forward = new HashMap <> ( ) ;
+		private final Map <Ject, Ject> backward = new HashMap <> ( ) ;
+		private final Deque <Ject [ ]> pending = new ArrayDeque <> ( ) ;
+
+		boolean pair ( Ject left, Ject right ) {
+			if ( left == null || right == null ) {
+				return left == right ;
+			}
+			left = left.resolveReference ( ) ;
+			right = right.resolveReference ( ) ;
+			Ject paired = forward.get ( left ) ;
+			if ( paired != null ) {
+				return paired.equals ( right ) ;
+			}
+			if ( backward.containsKey ( right ) ) {
+				return false ;
+			}
+			forward.put ( left, right ) ;
+			backward.put ( right, left ) ;
+			pending.push ( new Ject [ ] { left, right } ) ;
+			return true ;
+		}
+
+		boolean pairAll ( Map <Predicate, List <Ject>> left, Map <Predicate, List <Ject>> right ) {
+			if ( left.size ( ) != right.size ( ) ) {
+				return false ;
+			}
+			for ( Map.Entry <Predicate, List <Ject>> entry : left.entrySet ( ) ) {
+				List <Ject> items = entry.getValue ( ) ;
+				List <Ject> others = right.get ( entry.getKey ( ) ) ;
+				if ( others == null || others.size ( ) != items.size ( ) ) {
+					return false ;
+				}
+				for ( int i = 0 ; i < items.size ( ) ; i++ ) {
+					if ( ! pair ( items.get ( i ), others.get ( i ) ) ) {
+						return false ;
+					}
+				}
+			}
+			return true ;
+		}
+	}
+}
@@ -2,13 +2,9 @@ package bill.zkaifleet.model;
 
 import java.util.List ;
 
+import com.fasterxml.jackson.annotation.JsonIgnore ;
 import com.fasterxml.jackson.annotation.JsonInclude ;
 
-import lombok.Data ;
-import lombok.EqualsAndHashCode ;
-
-@Data
-@EqualsAndHashCode(callSuper = true)
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class Ontology extends Ject {
 
@@ -29,6 +25,36 @@ public class Ontology extends Ject {
         return this;
     }
 
+	/**
+	 * Gets the index of the Jects of this ontology, building it on first use. The index is then
+	 * kept up to date by the mutators of the Jects (see {@link OntologyIndex}).
+	 *
+	 * @return The index
+	 * @throws IllegalStateException if this ontology is part of the indexed graph of another one
+	 */
+	@JsonIgnore
+	public OntologyIndex getIndex ( ) {
+		OntologyIndex index = index ( ) ;
+		if ( index == null ) {
+			return new OntologyIndex ( this ) ;
+		}
+		if ( index.getOntology ( ) != this ) {
+			throw new IllegalStateException ( "Ontology " + getId ( ) + " is indexed as part of ontology " + index.getOntology ( ).getId ( ) ) ;
+		}
+		return index ;
+	}
+
+	/**
+	 * Drops the index of this ontology, if it has one, so the next {@link #getIndex()} builds it
+	 * again. Needed after the graph was changed through the live maps of its Jects.
+	 */
+	public void resetIndex ( ) {
+		OntologyIndex index = index ( ) ;
+		if ( index != null && index.getOntology ( ) == this ) {
+			index.clear ( ) ;
+		}
+	}
+
 	@Override
 	public String toString() {
 		return "Ontology{" +
@@ -0,0 +1,366 @@
+package bill.zkaifleet.model ;
+
+import java.util.ArrayDeque ;
+import java.util.ArrayList ;
+import java.util.Collection ;
+import java.util.Collections ;
+import java.util.Deque ;
+import java.util.HashMap ;
+import java.util.LinkedHashMap ;
+import java.util.LinkedHashSet ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.Set ;
+import java.util.function.Consumer ;
+
+/**
+ * An index of the Jects of an {@link Ontology} by id, type name, class and predicate, so lookups
+ * like "role R2D2" or "all WrunkJects" do not walk the graph.
+ * <p>
+ * The index is built by one walk over the subjects reachable from the ontology the first time
+ * {@link Ontology#getIndex()} is called, and is then kept up to date by the mutators of the Jects
+ * it holds: {@link Ject#addTypedSubject(Predicate, Ject)} adds the relation and any Jects it
+ * brings into the graph, {@link Ject#removeTypedSubjects(Predicate)} removes the relations and the
+ * Jects no longer owned by any Ject in the graph, and {@link Ject#setId(String)},
+ * {@link Ject#addScalar(Predicate, Object)} and {@link Ject#setScalars(Predicate, List)} update the
+ * id and scalar entries. Changes made through the live maps of a Ject bypass the index; after such
+ * changes, {@link Ontology#resetIndex()} drops it to be built again.
+ * <p>
+ * A Ject belongs to at most one index; a Ject already held by the index of another ontology is
+ * left to that index. Like Jects, the index is not thread safe.
+ */
+public final class OntologyIndex {
+
+	private final Ontology ontology ;
+	private final Map <String, List <Ject>> byId = new HashMap <> ( ) ;
+	private final Map <String, Set <Ject>> byTypeName = new HashMap <> ( ) ;
+	private final Map <Class <?>, Set <Ject>> byClass = new LinkedHashMap <> ( ) ;
+	private final Map <Predicate, Map <Edge, Integer>> byPredicate = new HashMap <> ( ) ;
+	private final Map <Predicate, Set <Ject>> byScalar = new HashMap <> ( ) ;
+	private int size ;
+
+	OntologyIndex ( Ontology ontology ) {
+		this.ontology = ontology ;
+		register ( ontology ) ;
+	}
+
+	/**
+	 * Gets the ontology this index belongs to.
+	 *
+	 * @return The ontology
+	 */
+	public Ontology getOntology ( ) {
+		return ontology ;
+	}
+
+	/**
+	 * Gets the number of Jects in the index.
+	 *
+	 * @return The number of Jects
+	 */
+	public int size ( ) {
+		return size ;
+	}
+
+	/**
+	 * Checks whether a Ject is in the index.
+	 *
+	 * @param ject The Ject
+	 * @return true if the Ject is part of the indexed graph
+	 */
+	public boolean contains ( Ject ject ) {
+		return ject.index ( ) == this ;
+	}
+
+	/**
+	 * Finds a Ject by id.
+	 *
+	 * @param id The id
+	 * @return The Ject, or null if there is none; if several Jects share the id, the first indexed
+	 */
+	public Ject find ( String id ) {
+		List <Ject> jects = byId.get ( id ) ;
+		return jects == null ? null : jects.get ( 0 ) ;
+	}
+
+	/**
+	 * Finds a Ject by id and type.
+	 *
+	 * @param <T> The type of the Ject
+	 * @param id The id
+	 * @param type The class of the Ject
+	 * @return The Ject, or null if there is none of the type
+	 */
+	public <T extends Ject> T find ( String id, Class <T> type ) {
+		List <Ject> jects = byId.get ( id ) ;
+		if ( jects != null ) {
+			for ( Ject ject : jects ) {
+				if ( type.isInstance ( ject ) ) {
+					return type.cast ( ject ) ;
+				}
+			}
+		}
+		return null ;
+	}
+
+	/**
+	 * Gets the Jects with a type name.
+	 *
+	 * @param typeName The type name, such as {@code role}
+	 * @return A live read-only view of the Jects, in the order they were indexed
+	 */
+	public Collection <Ject> byTypeName ( String typeName ) {
+		Set <Ject> jects = byTypeName.get ( typeName ) ;
+		return jects == null ? Collections.emptySet ( ) : Collections.unmodifiableSet ( jects ) ;
+	}
+
+	/**
+	 * Gets the Jects of a class, including its subclasses.
+	 *
+	 * @param <T> The type of the Jects
+	 * @param type The class
+	 * @return The Jects; a live read-only view when no subclass of the type is indexed
+	 */
+	@SuppressWarnings ( "unchecked" )
+	public <T extends Ject> Collection <T> byType ( Class <T> type ) {
+		List <Set <Ject>> matches = new ArrayList <> ( 1 ) ;
+		for ( Map.Entry <Class <?>, Set <Ject>> entry : byClass.entrySet ( ) ) {
+			if ( type.isAssignableFrom ( entry.getKey ( ) ) ) {
+				matches.add ( entry.getValue ( ) ) ;
+			}
+		}
+		if ( matches.isEmpty ( ) ) {
+			return Collections.emptySet ( ) ;
+		}
+		if ( matches.size ( ) == 1 ) {
+			return ( Collection <T> ) Collections.unmodifiableSet ( matches.get ( 0 ) ) ;
+		}
+		List <T> jects = new ArrayList <> ( ) ;
+		for ( Set <Ject> match : matches ) {
+			jects.addAll ( ( Set <T> ) match ) ;
+		}
+		return jects ;
+	}
+
+	/**
+	 * Gets the relations through a predicate.
+	 *
+	 * @param pred The predicate
+	 * @return A live read-only view of the relations, in the order they were indexed
+	 */
+	public Collection <Edge> edges ( Predicate pred ) {
+		Map <Edge, Integer> edges = byPredicate.get ( pred ) ;
+		return edges == null ? Collections.emptySet ( ) : Collections.unmodifiableSet ( edges.keySet ( ) ) ;
+	}
+
+	/**
+	 * Gets the Jects with scalar values for a predicate.
+	 *
+	 * @param pred The predicate
+	 * @return A live read-only view of the Jects
+	 */
+	public Collection <Ject> withScalar ( Predicate pred ) {
+		Set <Ject> jects = byScalar.get ( pred ) ;
+		return jects == null ? Collections.emptySet ( ) : Collections.unmodifiableSet ( jects ) ;
+	}
+
+	/**
+	 * Records a relation added by a Ject of this index, and indexes the Jects it brings in.
+	 */
+	void added ( Ject owner, Predicate pred, Ject subject ) {
+		Ject target = subject.resolveReference ( ) ;
+		addEdge ( owner, pred, target ) ;
+		if ( target.index ( ) == null ) {
+			register ( target ) ;
+		}
+	}
+
+	/**
+	 * Drops the relations a Ject of this index removed, and unindexes the subjects no Ject of the
+	 * graph owns anymore.
+	 */
+	void removed ( Ject owner, Predicate pred, List <Ject> subjects ) {
+		List <Ject> orphans = new ArrayList <> ( ) ;
+		for ( Ject subject : subjects ) {
+			Ject target = subject.resolveReference ( ) ;
+			removeEdge ( owner, pred, target ) ;
+			if ( target.index ( ) == this && target != ontology && ! hasOwnerIn ( target, null ) ) {
+				orphans.add ( target ) ;
+			}
+		}
+		if ( ! orphans.isEmpty ( ) ) {
+			unregisterUnowned ( orphans ) ;
+		}
+	}
+
+	void idChanged ( Ject ject, String previous ) {
+		if ( previous != null ) {
+			removeFrom ( byId, previous, ject ) ;
+		}
+		if ( ject.getId ( ) != null ) {
+			byId.computeIfAbsent ( ject.getId ( ), id -> new ArrayList <> ( 1 ) ).add ( ject ) ;
+		}
+	}
+
+	void scalarsChanged ( Ject ject, Predicate pred ) {
+		if ( ject.getScalars ( ).containsKey ( pred ) ) {
+			byScalar.computeIfAbsent ( pred, p -> new LinkedHashSet <> ( ) ).add ( ject ) ;
+		} else {
+			removeFrom ( byScalar, pred, ject ) ;
+		}
+	}
+
+	/**
+	 * Takes every Ject out of the index, so the Jects can be indexed again.
+	 */
+	void clear ( ) {
+		for ( Set <Ject> jects : byClass.values ( ) ) {
+			for ( Ject ject : jects ) {
+				ject.index ( null ) ;
+			}
+		}
+		byId.clear ( ) ;
+		byTypeName.clear ( ) ;
+		byClass.clear ( ) ;
+		byPredicate.clear ( ) ;
+		byScalar.clear ( ) ;
+		size = 0 ;
+	}
+
+	/**
+	 * Indexes a Ject and the unindexed Jects reachable from it through subjects.
+	 */
+	private void register ( Ject start ) {
+		Deque <Ject> pending = new ArrayDeque <> ( ) ;
+		start.index ( this ) ;
+		pending.push ( start ) ;
+		while ( ! pending.isEmpty ( ) ) {
+			Ject ject = pending.pop ( ) ;
+			add ( ject ) ;
+			for ( Map.Entry <Predicate, List <Ject>> entry : ject.getSubjects ( ).entrySet ( ) ) {
+				for ( Ject item : entry.getValue ( ) ) {
+					Ject target = item.resolveReference ( ) ;
+					addEdge ( ject, entry.getKey ( ), target ) ;
+					if ( target.index ( ) == null ) {
+						target.index ( this ) ;
+						pending.push ( target ) ;
+					}
+				}
+			}
+		}
+	}
+
+	private void add ( Ject ject ) {
+		size++ ;
+		if ( ject.getId ( ) != null ) {
+			byId.computeIfAbsent ( ject.getId ( ), id -> new ArrayList <> ( 1 ) ).add ( ject ) ;
+		}
+		byTypeName.computeIfAbsent ( ject.getTypeName ( ), name -> new LinkedHashSet <> ( ) ).add ( ject ) ;
+		byClass.computeIfAbsent ( ject.getClass ( ), type -> new LinkedHashSet <> ( ) ).add ( ject ) ;
+		for ( Predicate pred : ject.getScalars ( ).keySet ( ) ) {
+			byScalar.computeIfAbsent ( pred, p -> new LinkedHashSet <> ( ) ).add ( ject ) ;
+		}
+	}
+
+	/**
+	 * Unindexes orphaned Jects and what they own, except the Jects that an indexed Ject outside
+	 * the orphaned part still owns. Only the orphaned part of the graph is walked.
+	 */
+	private void unregisterUnowned ( List <Ject> orphans ) {
+		Set <Ject> candidates = new LinkedHashSet <> ( ) ;
+		Deque <Ject> pending = new ArrayDeque <> ( orphans ) ;
+		while ( ! pending.isEmpty ( ) ) {
+			Ject ject = pending.pop ( ) ;
+			if ( ject.index ( ) == this && ject != ontology && candidates.add ( ject ) ) {
+				forEachSubject ( ject, pending::push ) ;
+			}
+		}
+		Deque <Ject> kept = new ArrayDeque <> ( ) ;
+		for ( Ject candidate : candidates ) {
+			if ( hasOwnerIn ( candidate, candidates ) ) {
+				kept.push ( candidate ) ;
+			}
+		}
+		while ( ! kept.isEmpty ( ) ) {
+			Ject ject = kept.pop ( ) ;
+			if ( candidates.remove ( ject ) ) {
+				forEachSubject ( ject, kept::push ) ;
+			}
+		}
+		for ( Ject ject : candidates ) {
+			remove ( ject ) ;
+		}
+	}
+
+	/**
+	 * Checks whether an indexed Ject, outside a set of Jects if one is given, owns a Ject.
+	 */
+	private boolean hasOwnerIn ( Ject ject, Set <Ject> excluded ) {
+		for ( List <Ject> owners : ject.getIsObjectOf ( ).values ( ) ) {
+			for ( Ject owner : owners ) {
+				if ( owner.index ( ) == this && ( excluded == null || ! excluded.contains ( owner ) ) ) {
+					return true ;
+				}
+			}
+		}
+		return false ;
+	}
+
+	private void remove ( Ject ject ) {
+		size-- ;
+		if ( ject.getId ( ) != null ) {
+			removeFrom ( byId, ject.getId ( ), ject ) ;
+		}
+		removeFrom ( byTypeName, ject.getTypeName ( ), ject ) ;
+		removeFrom ( byClass, ject.getClass ( ), ject ) ;
+		for ( Predicate pred : ject.getScalars ( ).keySet ( ) ) {
+			removeFrom ( byScalar, pred, ject ) ;
+		}
+		for ( Map.Entry <Predicate, List <Ject>> entry : ject.getSubjects ( ).entrySet ( ) ) {
+			for ( Ject item : entry.getValue ( ) ) {
+				removeEdge ( ject, entry.getKey ( ), item.resolveReference ( ) ) ;
+			}
+		}
+		ject.index ( null ) ;
+	}
+
+	private static void forEachSubject ( Ject ject, Consumer <Ject> action ) {
+		for ( List <Ject> items : ject.getSubjects ( ).values ( ) ) {
+			for ( Ject item : items ) {
+				action.accept ( item.resolveReference ( ) ) ;
+			}
+		}
+	}
+
+	private void addEdge ( Ject owner, Predicate pred, Ject subject ) {
+		byPredicate.computeIfAbsent ( pred, p -> new LinkedHashMap <> ( ) ).merge ( new Edge ( owner, subject ), 1, Integer::sum ) ;
+	}
+
+	private void removeEdge ( Ject owner, Predicate pred, Ject subject ) {
+		Map <Edge, Integer> edges = byPredicate.get ( pred ) ;
+		if ( edges != null ) {
+			edges.computeIfPresent ( new Edge ( owner, subject ), ( edge, count ) -> count == 1 ? null : count - 1 ) ;
+			if ( edges.isEmpty ( ) ) {
+				byPredicate.remove ( pred ) ;
+			}
+		}
+	}
+
+	private static <K> void removeFrom ( Map <K, ? extends Collection <Ject>> map, K key, Ject ject ) {
+		Collection <Ject> jects = map.get ( key ) ;
+		if ( jects != null ) {
+			jects.remove ( ject ) ;
+			if ( jects.isEmpty ( ) ) {
+				map.remove ( key ) ;
+			}
+		}
+	}
+
+	/**
+	 * A relation in the graph: the owner has the subject through the predicate it is indexed under.
+	 *
+	 * @param owner The Ject holding the relation
+	 * @param subject The Ject it points to
+	 */
+	public record Edge ( Ject owner, Ject subject ) { ; }
+}
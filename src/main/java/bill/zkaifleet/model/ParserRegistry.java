@@ -1,6 +1,7 @@
 package bill.zkaifleet.model;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * Interface for ontology parser registries that define predicates and root subject types.
@@ -68,6 +69,38 @@ public interface ParserRegistry {
      */
     Class<? extends Ject> getRootSubjectType(String predicateName);
     
+    /**
+     * Gets the Ject classes this registry creates, as root subjects or as the subject types of its
+     * predicates. Lets readers map stored class names back to classes without reflection.
+     * 
+     * @return The known Ject classes (empty by default)
+     */
+    default Set<Class<? extends Ject>> getSubjectTypes() {
+        return Set.of();
+    }
+    
+    /**
+     * Gets the qualifier given to RuntimePredicates created in a space, such as "unknown" for
+     * YAML keys the registry does not know. The same instance is returned on every call.
+     * 
+     * @param space The runtime predicate space
+     * @return The qualifier policy for the space
+     */
+    default PredicateQualifier getRuntimeQualifier(String space) {
+        return RuntimePredicate.DEFAULT_QUALIFIER;
+    }
+    
+    /**
+     * Gets a version of the vocabulary this registry defines, which changes whenever its
+     * predicates or subject types change. Caches of parse results are keyed by it.
+     * 
+     * @return The version (by default the registry class and the implementation version of its package)
+     */
+    default String getVersion() {
+        String implementation = getClass().getPackage().getImplementationVersion();
+        return getClass().getName() + "@" + (implementation != null ? implementation : "dev");
+    }
+    
     /**
      * Checks if this registry can handle the given ontology.
      * 
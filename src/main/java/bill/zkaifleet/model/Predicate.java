@@ -1,9 +1,5 @@
 package bill.zkaifleet.model ;
 
-import java.util.HashMap ;
-import java.util.Map ;
-import java.util.function.Function ;
-
 import com.fasterxml.jackson.annotation.JsonInclude ;
 
 @JsonInclude ( JsonInclude.Include.NON_NULL )
@@ -13,30 +9,25 @@ public interface Predicate {
 
 	public String name ( ) ;
 
+	/**
+	 * Gets the space of this predicate, by default the lowercased class name without its
+	 * "Predicate" suffix. Computed once per class.
+	 *
+	 * @return The predicate space
+	 */
 	public default String space ( ) {
-		String s = getClass ( ).getSimpleName ( ).toLowerCase ( ) ;
-		if ( s.endsWith ( "predicate" ) ) {
-			s = s.substring ( 0, s.length ( ) - "predicate".length ( ) ) ;
-		}
-		return s ;
+		return PredicateNames.space ( this ) ;
 	}
 
 	public String ontology ( ) ;
 
-	public final Function <Predicate, String> namer = new Function <> ( ) {
-
-		private Map <String, String> name = new HashMap <> ( ) ;
-
-		@Override
-		public String apply ( Predicate t ) {
-			if ( ! name.containsKey ( t.name ( ) ) ) {
-				name.put ( t.name ( ), t.ontology ( ) + ":" + t.space ( ) + ":" + t.name ( ) ) ;
-			}
-			return name.get ( t.name ( ) ) ;
-		}
-	} ;
-
+	/**
+	 * Gets the fully qualified name, {@code ontology:space:name}. Enum predicates look it up in a
+	 * table computed once per enum, so the call is cheap and safe under concurrent parses.
+	 *
+	 * @return The fully qualified name
+	 */
 	default String fqName ( ) {
-		return namer.apply ( this ) ;
+		return PredicateNames.fqName ( this ) ;
 	}
 }
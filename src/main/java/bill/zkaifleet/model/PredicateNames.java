@@ -0,0 +1,61 @@
+package bill.zkaifleet.model ;
+
+/**
+ * Lock-free caches behind {@link Predicate#space()} and {@link Predicate#fqName()}.
+ * <p>
+ * The default space of a predicate class is derived from its simple name once per class. Fully
+ * qualified names of enum predicates are computed once per enum class and looked up by ordinal,
+ * so each constant gets its own name even when constants of different ontologies share a
+ * {@code name()}. Other predicates either compose the name on each call or cache it themselves,
+ * as {@link RuntimePredicate} does.
+ */
+final class PredicateNames {
+
+	private static final String SUFFIX = "predicate" ;
+
+	private static final ClassValue <String> SPACES = new ClassValue <> ( ) {
+		@Override
+		protected String computeValue ( Class <?> type ) {
+			String s = type.getSimpleName ( ).toLowerCase ( ) ;
+			if ( s.endsWith ( SUFFIX ) ) {
+				s = s.substring ( 0, s.length ( ) - SUFFIX.length ( ) ) ;
+			}
+			return s ;
+		}
+	} ;
+
+	private static final ClassValue <String []> ENUM_FQ_NAMES = new ClassValue <> ( ) {
+		@Override
+		protected String [] computeValue ( Class <?> type ) {
+			Object [] constants = type.getEnumConstants ( ) ;
+			String [] names = new String [ constants.length ] ;
+			for ( int i = 0 ; i < constants.length ; i++ ) {
+				names [ i ] = compose ( ( Predicate ) constants [ i ] ) ;
+			}
+			return names ;
+		}
+	} ;
+
+	private PredicateNames ( ) {
+	}
+
+	static String space ( Predicate predicate ) {
+		return SPACES.get ( predicateClass ( predicate ) ) ;
+	}
+
+	static String fqName ( Predicate predicate ) {
+		if ( predicate instanceof Enum <?> constant ) {
+			return ENUM_FQ_NAMES.get ( constant.getDeclaringClass ( ) ) [ constant.ordinal ( ) ] ;
+		}
+		return compose ( predicate ) ;
+	}
+
+	static String compose ( Predicate predicate ) {
+		return predicate.ontology ( ) + ":" + predicate.space ( ) + ":" + predicate.name ( ) ;
+	}
+
+	private static Class <?> predicateClass ( Predicate predicate ) {
+		// Enum constants with a body are anonymous subclasses; name them after their enum
+		return predicate instanceof Enum <?> constant ? constant.getDeclaringClass ( ) : predicate.getClass ( ) ;
+	}
+}
@@ -0,0 +1,789 @@
+package bill.zkaifleet.model ;
+
+import java.util.AbstractList ;
+import java.util.AbstractMap ;
+import java.util.AbstractSet ;
+import java.util.ArrayList ;
+import java.util.Arrays ;
+import java.util.Collection ;
+import java.util.Collections ;
+import java.util.ConcurrentModificationException ;
+import java.util.Iterator ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.NoSuchElementException ;
+import java.util.RandomAccess ;
+import java.util.Set ;
+import java.util.function.UnaryOperator ;
+
+/**
+ * The compact map from predicates to values that each Ject keeps its subjects, backlinks and
+ * scalars in.
+ * <p>
+ * Most Jects hold no or one entry per map, and most entries hold a single value, so a
+ * {@code LinkedHashMap} with an {@code ArrayList} per entry costs far more than its content. Here
+ * the entries are slots in one array of alternating keys and values, in insertion order, searched
+ * linearly; a predicate matches by identity first, which is all registered (enum) predicates need.
+ * A slot filled through {@link #add(Predicate, Object)} holds its first value inline, and only
+ * becomes an {@code ArrayList} when a second value arrives. An empty map holds no array at all.
+ * <p>
+ * An inline value of a primitive wrapper type, such as the {@code Double} of a threshold or the
+ * {@code Integer} of a budget, is kept as raw bits in a {@code long} column beside the slots, so
+ * {@link #getDouble(Predicate, double)} and {@link #getLong(Predicate, long)} read it without
+ * boxing or a list. The map view boxes it again, with the wrapper type it was added with.
+ * <p>
+ * The values of a slot are checked as they are added or replaced: the lists of the slots track the
+ * nearest common class of their values and how many of them only stand in for another Ject (see
+ * {@link Ject#isReference()}), and an inline Ject is kept in a read-only view of its slot. Typed
+ * reads of a relation ({@link #checkedView(Predicate, Class)}) then return a view without checking,
+ * copying or writing anything.
+ * <p>
+ * The map behaves like the {@code LinkedHashMap} it replaces: {@link #get(Object)} returns a live
+ * list that writes through, also for a value held inline, and lists passed to {@link #put} are
+ * kept as they are. A list obtained for a slot that is removed afterwards is empty and cannot
+ * grow. The map is not thread safe: it may be read from several threads only while nothing writes
+ * to it, except that a reference may be replaced by its Ject in place, which readers see either
+ * before or after.
+ *
+ * @param <V> The type of the values
+ */
+public final class PredicateSlots <V> extends AbstractMap <Predicate, List <V>> {
+
+	private static final Object [ ] EMPTY = { } ;
+	private static final long [ ] NO_NUMBERS = { } ;
+	private static final int INLINE_SLOTS = Integer.SIZE ;
+
+	private Object [ ] slots = EMPTY ;
+	private int size ;
+	/**
+	 * Bit i is set while slot i holds a single value inline instead of a list.
+	 */
+	private int inline ;
+	/**
+	 * Bit i is set while the inline value of slot i is a number held in {@code numbers[i]}; the
+	 * value slot then holds its wrapper class.
+	 */
+	private int primitive ;
+	private long [ ] numbers = NO_NUMBERS ;
+	private int modCount ;
+
+	/**
+	 * Adds a value to the slot of a predicate, creating the slot if needed.
+	 *
+	 * @param key The predicate
+	 * @param value The value to append
+	 */
+	@SuppressWarnings ( "unchecked" )
+	public void add ( Predicate key, V value ) {
+		int slot = slotOf ( key ) ;
+		if ( slot < 0 ) {
+			slot = append ( key ) ;
+			if ( slot < INLINE_SLOTS ) {
+				storeInline ( slot, value ) ;
+				inline |= 1 << slot ;
+			} else {
+				List <V> values = new SlotList <> ( 1 ) ;
+				values.add ( value ) ;
+				slots [ 2 * slot + 1 ] = values ;
+			}
+		} else if ( isInline ( slot ) ) {
+			promote ( slot ).add ( value ) ;
+		} else {
+			( ( List <V> ) slots [ 2 * slot + 1 ] ).add ( value ) ;
+		}
+	}
+
+	/**
+	 * Gets the single value of a predicate as a double, without boxing it.
+	 *
+	 * @param key The predicate
+	 * @param absent The value to return if the predicate has no value
+	 * @return The value, widened to a double
+	 * @throws IllegalStateException if the predicate has several values or a value that is not a number
+	 */
+	public double getDouble ( Predicate key, double absent ) {
+		int slot = slotOf ( key ) ;
+		if ( isPrimitive ( slot ) ) {
+			long bits = numbers [ slot ] ;
+			return isFloating ( slots [ 2 * slot + 1 ] ) ? Double.longBitsToDouble ( bits ) : bits ;
+		}
+		Object value = single ( key, slot ) ;
+		if ( value == null ) {
+			return absent ;
+		}
+		if ( value instanceof Number number ) {
+			return number.doubleValue ( ) ;
+		}
+		throw new IllegalStateException ( "Type mismatch for scalar: " + key.name ( ) ) ;
+	}
+
+	/**
+	 * Gets the single value of a predicate as a long, without boxing it.
+	 *
+	 * @param key The predicate
+	 * @param absent The value to return if the predicate has no value
+	 * @return The value, widened to a long
+	 * @throws IllegalStateException if the predicate has several values or a value that is not an integral number
+	 */
+	public long getLong ( Predicate key, long absent ) {
+		int slot = slotOf ( key ) ;
+		if ( isPrimitive ( slot ) && ! isFloating ( slots [ 2 * slot + 1 ] ) ) {
+			return numbers [ slot ] ;
+		}
+		Object value = isPrimitive ( slot ) ? inlineValue ( slot ) : single ( key, slot ) ;
+		if ( value == null ) {
+			return absent ;
+		}
+		if ( value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte ) {
+			return ( ( Number ) value ).longValue ( ) ;
+		}
+		throw new IllegalStateException ( "Type mismatch for scalar: " + key.name ( ) ) ;
+	}
+
+	/**
+	 * Gets the values of a predicate as a read-only list of a type, if they are known to be
+	 * instances of it from when they were added. Only reads the map, so it is as safe to call
+	 * concurrently as {@link #get(Object)}.
+	 *
+	 * @param key The predicate
+	 * @param type The type of the values
+	 * @return The live view, an empty list if the predicate has no values, or null if a value is
+	 *         not an instance of the type, is a reference, or sits in a list passed to {@link #put}
+	 */
+	@SuppressWarnings ( "unchecked" )
+	public <T> List <T> checkedView ( Predicate key, Class <T> type ) {
+		int slot = slotOf ( key ) ;
+		if ( slot < 0 ) {
+			return Collections.emptyList ( ) ;
+		}
+		Object value = slots [ 2 * slot + 1 ] ;
+		if ( isInline ( slot ) ) {
+			// Numbers and other scalars held inline have no view; only Jects are kept in one
+			if ( value instanceof Single <?> single && ! isReference ( single.value ) && type.isInstance ( single.value ) ) {
+				return ( List <T> ) single ;
+			}
+			return null ;
+		}
+		if ( value instanceof SlotList <?> values && values.holdsOnly ( type ) ) {
+			return ( List <T> ) values.readOnly ;
+		}
+		return null ;
+	}
+
+	@Override
+	public int size ( ) {
+		return size ;
+	}
+
+	@Override
+	public boolean containsKey ( Object key ) {
+		return slotOf ( key ) >= 0 ;
+	}
+
+	@Override
+	public List <V> get ( Object key ) {
+		int slot = slotOf ( key ) ;
+		return slot < 0 ? null : values ( slot ) ;
+	}
+
+	@Override
+	public List <V> put ( Predicate key, List <V> value ) {
+		int slot = slotOf ( key ) ;
+		List <V> previous = null ;
+		if ( slot < 0 ) {
+			slot = append ( key ) ;
+		} else {
+			previous = detach ( slot ) ;
+		}
+		slots [ 2 * slot + 1 ] = value ;
+		clearInline ( slot ) ;
+		return previous ;
+	}
+
+	@Override
+	public List <V> remove ( Object key ) {
+		int slot = slotOf ( key ) ;
+		if ( slot < 0 ) {
+			return null ;
+		}
+		List <V> previous = detach ( slot ) ;
+		removeSlot ( slot ) ;
+		return previous ;
+	}
+
+	@Override
+	public void clear ( ) {
+		slots = EMPTY ;
+		numbers = NO_NUMBERS ;
+		size = 0 ;
+		inline = 0 ;
+		primitive = 0 ;
+		modCount++ ;
+	}
+
+	@Override
+	public Set <Map.Entry <Predicate, List <V>>> entrySet ( ) {
+		return new AbstractSet <> ( ) {
+
+			@Override
+			public Iterator <Map.Entry <Predicate, List <V>>> iterator ( ) {
+				return new SlotIterator ( ) ;
+			}
+
+			@Override
+			public int size ( ) {
+				return size ;
+			}
+		} ;
+	}
+
+	private int slotOf ( Object key ) {
+		Object [ ] current = slots ;
+		for ( int i = 0 ; i < size ; i++ ) {
+			if ( current [ 2 * i ] == key ) {
+				return i ;
+			}
+		}
+		if ( key instanceof Enum <?> ) {
+			return -1 ;
+		}
+		for ( int i = 0 ; i < size ; i++ ) {
+			if ( current [ 2 * i ].equals ( key ) ) {
+				return i ;
+			}
+		}
+		return -1 ;
+	}
+
+	private int append ( Predicate key ) {
+		if ( 2 * size == slots.length ) {
+			slots = Arrays.copyOf ( slots, Math.max ( 2, 4 * size ) ) ;
+		}
+		slots [ 2 * size ] = key ;
+		modCount++ ;
+		return size++ ;
+	}
+
+	private void removeSlot ( int slot ) {
+		System.arraycopy ( slots, 2 * slot + 2, slots, 2 * slot, 2 * ( size - slot - 1 ) ) ;
+		size-- ;
+		slots [ 2 * size ] = null ;
+		slots [ 2 * size + 1 ] = null ;
+		if ( slot < numbers.length - 1 ) {
+			System.arraycopy ( numbers, slot + 1, numbers, slot, numbers.length - slot - 1 ) ;
+		}
+		inline = shiftOut ( inline, slot ) ;
+		primitive = shiftOut ( primitive, slot ) ;
+		modCount++ ;
+	}
+
+	/**
+	 * Drops the bit of a removed slot from a mask, moving the bits of the slots after it down.
+	 */
+	private static int shiftOut ( int mask, int slot ) {
+		int below = ( 1 << slot ) - 1 ;
+		return ( mask & below ) | ( ( mask >>> 1 ) & ~below ) ;
+	}
+
+	private boolean isInline ( int slot ) {
+		return slot < INLINE_SLOTS && ( inline & ( 1 << slot ) ) != 0 ;
+	}
+
+	private boolean isPrimitive ( int slot ) {
+		return slot >= 0 && slot < INLINE_SLOTS && ( primitive & ( 1 << slot ) ) != 0 ;
+	}
+
+	private void clearInline ( int slot ) {
+		if ( slot < INLINE_SLOTS ) {
+			inline &= ~ ( 1 << slot ) ;
+			primitive &= ~ ( 1 << slot ) ;
+		}
+	}
+
+	/**
+	 * Stores the value of an inline slot, as bits in the number column if it is a primitive wrapper.
+	 */
+	private void storeInline ( int slot, Object value ) {
+		Class <?> type = value == null ? null : value.getClass ( ) ;
+		if ( type == Double.class || type == Float.class ) {
+			column ( slot ) [ slot ] = Double.doubleToRawLongBits ( ( ( Number ) value ).doubleValue ( ) ) ;
+		} else if ( type == Long.class || type == Integer.class || type == Short.class || type == Byte.class ) {
+			column ( slot ) [ slot ] = ( ( Number ) value ).longValue ( ) ;
+		} else {
+			slots [ 2 * slot + 1 ] = value instanceof Ject ? new Single <> ( this, ( Predicate ) slots [ 2 * slot ], value ) : value ;
+			primitive &= ~ ( 1 << slot ) ;
+			return ;
+		}
+		slots [ 2 * slot + 1 ] = type ;
+		primitive |= 1 << slot ;
+	}
+
+	private long [ ] column ( int slot ) {
+		if ( slot >= numbers.length ) {
+			numbers = Arrays.copyOf ( numbers, Math.min ( INLINE_SLOTS, Math.max ( slot + 1, slots.length / 2 ) ) ) ;
+		}
+		return numbers ;
+	}
+
+	/**
+	 * Gets the value of an inline slot, boxing it again if it is held in the number column.
+	 */
+	private Object inlineValue ( int slot ) {
+		Object value = slots [ 2 * slot + 1 ] ;
+		if ( ! isPrimitive ( slot ) ) {
+			return value instanceof Single <?> single ? single.value : value ;
+		}
+		long bits = numbers [ slot ] ;
+		if ( value == Double.class ) {
+			return Double.longBitsToDouble ( bits ) ;
+		} else if ( value == Float.class ) {
+			return ( float ) Double.longBitsToDouble ( bits ) ;
+		} else if ( value == Long.class ) {
+			return bits ;
+		} else if ( value == Integer.class ) {
+			return ( int ) bits ;
+		} else if ( value == Short.class ) {
+			return ( short ) bits ;
+		}
+		return ( byte ) bits ;
+	}
+
+	private static boolean isFloating ( Object type ) {
+		return type == Double.class || type == Float.class ;
+	}
+
+	/**
+	 * Gets whether a value has no type of its own to check: null, or a Ject standing in for another.
+	 */
+	private static boolean isReference ( Object value ) {
+		return value == null || value instanceof Ject ject && ject.isReference ( ) ;
+	}
+
+	/**
+	 * Gets the only value of a slot that does not hold a number inline.
+	 *
+	 * @return The value, or null if the slot does not exist or is empty
+	 */
+	private Object single ( Predicate key, int slot ) {
+		if ( slot < 0 ) {
+			return null ;
+		}
+		if ( isInline ( slot ) ) {
+			return inlineValue ( slot ) ;
+		}
+		List <?> values = ( List <?> ) slots [ 2 * slot + 1 ] ;
+		if ( values.size ( ) > 1 ) {
+			throw new IllegalStateException ( "Multiple scalars found for predicate: " + key.name ( ) ) ;
+		}
+		return values.isEmpty ( ) ? null : values.get ( 0 ) ;
+	}
+
+	/**
+	 * Turns the inline value of a slot into a list.
+	 */
+	@SuppressWarnings ( "unchecked" )
+	private List <V> promote ( int slot ) {
+		List <V> values = new SlotList <> ( 2 ) ;
+		values.add ( ( V ) inlineValue ( slot ) ) ;
+		slots [ 2 * slot + 1 ] = values ;
+		clearInline ( slot ) ;
+		return values ;
+	}
+
+	@SuppressWarnings ( "unchecked" )
+	private List <V> values ( int slot ) {
+		if ( isInline ( slot ) ) {
+			return new InlineValues ( ( Predicate ) slots [ 2 * slot ] ) ;
+		}
+		return ( List <V> ) slots [ 2 * slot + 1 ] ;
+	}
+
+	/**
+	 * Gets the values of a slot that is about to be replaced or removed, as a list of their own.
+	 */
+	@SuppressWarnings ( "unchecked" )
+	private List <V> detach ( int slot ) {
+		if ( isInline ( slot ) ) {
+			List <V> values = new ArrayList <> ( 1 ) ;
+			values.add ( ( V ) inlineValue ( slot ) ) ;
+			return values ;
+		}
+		return ( List <V> ) slots [ 2 * slot + 1 ] ;
+	}
+
+	/**
+	 * The live list of a slot that holds its value inline. Every access finds the slot again, so
+	 * the view stays valid when other slots move or this one is promoted to a list.
+	 */
+	private final class InlineValues extends AbstractList <V> implements RandomAccess {
+
+		private final Predicate key ;
+
+		InlineValues ( Predicate key ) {
+			this.key = key ;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public V get ( int index ) {
+			int slot = slotOf ( key ) ;
+			if ( slot >= 0 && ! isInline ( slot ) ) {
+				return ( ( List <V> ) slots [ 2 * slot + 1 ] ).get ( index ) ;
+			}
+			checkIndex ( slot, index ) ;
+			return ( V ) inlineValue ( slot ) ;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public int size ( ) {
+			int slot = slotOf ( key ) ;
+			if ( slot < 0 ) {
+				return 0 ;
+			}
+			return isInline ( slot ) ? 1 : ( ( List <V> ) slots [ 2 * slot + 1 ] ).size ( ) ;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public V set ( int index, V value ) {
+			int slot = slotOf ( key ) ;
+			if ( slot >= 0 && ! isInline ( slot ) ) {
+				return ( ( List <V> ) slots [ 2 * slot + 1 ] ).set ( index, value ) ;
+			}
+			checkIndex ( slot, index ) ;
+			V previous = ( V ) inlineValue ( slot ) ;
+			storeInline ( slot, value ) ;
+			return previous ;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public void add ( int index, V value ) {
+			int slot = slotOf ( key ) ;
+			if ( slot < 0 ) {
+				throw new IllegalStateException ( "The slot of predicate " + key.name ( ) + " was removed" ) ;
+			}
+			List <V> values = isInline ( slot ) ? promote ( slot ) : ( List <V> ) slots [ 2 * slot + 1 ] ;
+			values.add ( index, value ) ;
+			modCount++ ;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public V remove ( int index ) {
+			int slot = slotOf ( key ) ;
+			if ( slot >= 0 && ! isInline ( slot ) ) {
+				modCount++ ;
+				return ( ( List <V> ) slots [ 2 * slot + 1 ] ).remove ( index ) ;
+			}
+			checkIndex ( slot, index ) ;
+			V previous = ( V ) inlineValue ( slot ) ;
+			// Like a list in a LinkedHashMap, an emptied slot stays until it is removed
+			slots [ 2 * slot + 1 ] = new SlotList <V> ( 1 ) ;
+			clearInline ( slot ) ;
+			modCount++ ;
+			return previous ;
+		}
+
+		private void checkIndex ( int slot, int index ) {
+			if ( slot < 0 || index != 0 ) {
+				throw new IndexOutOfBoundsException ( "Index " + index + " out of bounds for length " + ( slot < 0 ? 0 : 1 ) ) ;
+			}
+		}
+	}
+
+	/**
+	 * The read-only view of a slot that holds a single Ject inline, kept in the slot in place of the
+	 * Ject. Every access finds the slot again, so the view stays live when the slot is promoted to a
+	 * list, given another value or removed. Its fields are final, so a view stored in place of
+	 * another reaches concurrent readers complete.
+	 */
+	private static final class Single <V> extends AbstractList <V> implements RandomAccess {
+
+		private final PredicateSlots <V> owner ;
+		private final Predicate key ;
+		private final V value ;
+
+		@SuppressWarnings ( "unchecked" )
+		Single ( PredicateSlots <V> owner, Predicate key, Object value ) {
+			this.owner = owner ;
+			this.key = key ;
+			this.value = ( V ) value ;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public V get ( int index ) {
+			int slot = owner.slotOf ( key ) ;
+			if ( slot >= 0 && owner.slots [ 2 * slot + 1 ] == this && index == 0 ) {
+				return value ;
+			}
+			if ( slot >= 0 && ! owner.isInline ( slot ) ) {
+				return ( ( List <V> ) owner.slots [ 2 * slot + 1 ] ).get ( index ) ;
+			}
+			if ( slot < 0 || index != 0 ) {
+				throw new IndexOutOfBoundsException ( "Index " + index + " out of bounds for length " + size ( ) ) ;
+			}
+			return ( V ) owner.inlineValue ( slot ) ;
+		}
+
+		@Override
+		public int size ( ) {
+			int slot = owner.slotOf ( key ) ;
+			if ( slot < 0 ) {
+				return 0 ;
+			}
+			return owner.isInline ( slot ) ? 1 : ( ( List <?> ) owner.slots [ 2 * slot + 1 ] ).size ( ) ;
+		}
+	}
+
+	/**
+	 * The list of a slot once it holds more than one value. It tracks the nearest common class of
+	 * the values it holds, and how many of them are references, as values are added, replaced or
+	 * removed; removing a value keeps the common class, which stays a superclass of the rest. A
+	 * sublist can replace values behind the list's back, so taking one stops the tracking.
+	 * <p>
+	 * Replacing a reference with its Ject ({@link #set}) stores the element and the common class
+	 * before it lowers the volatile reference count, so a reader that finds no references left
+	 * also sees the Jects that replaced them. This is what lets a lazily resolved placeholder be
+	 * swapped in while the graph is read.
+	 */
+	private static final class SlotList <V> extends ArrayList <V> {
+
+		/**
+		 * The nearest common class of the values that are not references, or null if there are none.
+		 */
+		private Class <?> common ;
+		private volatile int references ;
+		private boolean untracked ;
+		private final List <V> readOnly = Collections.unmodifiableList ( this ) ;
+
+		SlotList ( int capacity ) {
+			super ( capacity ) ;
+		}
+
+		boolean holdsOnly ( Class <?> type ) {
+			return ! untracked && references == 0 && ( common == null || type.isAssignableFrom ( common ) ) ;
+		}
+
+		private void track ( Object value ) {
+			if ( isReference ( value ) ) {
+				references++ ;
+			} else {
+				Class <?> type = value.getClass ( ) ;
+				Class <?> shared = common == null ? type : common ;
+				while ( ! shared.isAssignableFrom ( type ) ) {
+					shared = shared.getSuperclass ( ) ;
+				}
+				common = shared ;
+			}
+		}
+
+		private void untrack ( Object value ) {
+			if ( isReference ( value ) ) {
+				references-- ;
+			}
+			if ( isEmpty ( ) ) {
+				common = null ;
+			}
+		}
+
+		private void retrack ( ) {
+			common = null ;
+			references = 0 ;
+			for ( V value : this ) {
+				track ( value ) ;
+			}
+		}
+
+		@Override
+		public boolean add ( V value ) {
+			track ( value ) ;
+			return super.add ( value ) ;
+		}
+
+		@Override
+		public void add ( int index, V value ) {
+			super.add ( index, value ) ;
+			track ( value ) ;
+		}
+
+		@Override
+		public boolean addAll ( Collection <? extends V> values ) {
+			values.forEach ( this::track ) ;
+			return super.addAll ( values ) ;
+		}
+
+		@Override
+		public boolean addAll ( int index, Collection <? extends V> values ) {
+			boolean changed = super.addAll ( index, values ) ;
+			values.forEach ( this::track ) ;
+			return changed ;
+		}
+
+		@Override
+		public V set ( int index, V value ) {
+			V previous = super.set ( index, value ) ;
+			track ( value ) ;
+			untrack ( previous ) ;
+			return previous ;
+		}
+
+		@Override
+		public V remove ( int index ) {
+			V previous = super.remove ( index ) ;
+			untrack ( previous ) ;
+			return previous ;
+		}
+
+		@Override
+		public boolean remove ( Object value ) {
+			int index = indexOf ( value ) ;
+			if ( index < 0 ) {
+				return false ;
+			}
+			remove ( index ) ;
+			return true ;
+		}
+
+		@Override
+		public V removeFirst ( ) {
+			if ( isEmpty ( ) ) {
+				throw new NoSuchElementException ( ) ;
+			}
+			return remove ( 0 ) ;
+		}
+
+		@Override
+		public V removeLast ( ) {
+			if ( isEmpty ( ) ) {
+				throw new NoSuchElementException ( ) ;
+			}
+			return remove ( size ( ) - 1 ) ;
+		}
+
+		@Override
+		public void clear ( ) {
+			super.clear ( ) ;
+			retrack ( ) ;
+		}
+
+		@Override
+		public boolean removeIf ( java.util.function.Predicate <? super V> filter ) {
+			boolean changed = super.removeIf ( filter ) ;
+			retrack ( ) ;
+			return changed ;
+		}
+
+		@Override
+		public boolean removeAll ( Collection <?> values ) {
+			boolean changed = super.removeAll ( values ) ;
+			retrack ( ) ;
+			return changed ;
+		}
+
+		@Override
+		public boolean retainAll ( Collection <?> values ) {
+			boolean changed = super.retainAll ( values ) ;
+			retrack ( ) ;
+			return changed ;
+		}
+
+		@Override
+		public void replaceAll ( UnaryOperator <V> operator ) {
+			super.replaceAll ( operator ) ;
+			retrack ( ) ;
+		}
+
+		@Override
+		public List <V> subList ( int fromIndex, int toIndex ) {
+			untracked = true ;
+			return super.subList ( fromIndex, toIndex ) ;
+		}
+	}
+
+	/**
+	 * Iterates the slots in insertion order, supporting removal.
+	 */
+	private final class SlotIterator implements Iterator <Map.Entry <Predicate, List <V>>> {
+
+		private int next ;
+		private int last = -1 ;
+		private int expectedModCount = modCount ;
+
+		@Override
+		public boolean hasNext ( ) {
+			return next < size ;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public Map.Entry <Predicate, List <V>> next ( ) {
+			if ( modCount != expectedModCount ) {
+				throw new ConcurrentModificationException ( ) ;
+			}
+			if ( next >= size ) {
+				throw new NoSuchElementException ( ) ;
+			}
+			last = next++ ;
+			return new SlotEntry ( ( Predicate ) slots [ 2 * last ] ) ;
+		}
+
+		@Override
+		public void remove ( ) {
+			if ( last < 0 ) {
+				throw new IllegalStateException ( ) ;
+			}
+			if ( modCount != expectedModCount ) {
+				throw new ConcurrentModificationException ( ) ;
+			}
+			removeSlot ( last ) ;
+			next = last ;
+			last = -1 ;
+			expectedModCount = modCount ;
+		}
+	}
+
+	/**
+	 * An entry that reads and writes its slot through the map.
+	 */
+	private final class SlotEntry implements Map.Entry <Predicate, List <V>> {
+
+		private final Predicate key ;
+
+		SlotEntry ( Predicate key ) {
+			this.key = key ;
+		}
+
+		@Override
+		public Predicate getKey ( ) {
+			return key ;
+		}
+
+		@Override
+		public List <V> getValue ( ) {
+			return get ( key ) ;
+		}
+
+		@Override
+		public List <V> setValue ( List <V> value ) {
+			return put ( key, value ) ;
+		}
+
+		@Override
+		public boolean equals ( Object other ) {
+			return other instanceof Map.Entry <?, ?> entry && key.equals ( entry.getKey ( ) ) && getValue ( ).equals ( entry.getValue ( ) ) ;
+		}
+
+		@Override
+		public int hashCode ( ) {
+			return key.hashCode ( ) ^ getValue ( ).hashCode ( ) ;
+		}
+
+		@Override
+		public String toString ( ) {
+			return key + "=" + getValue ( ) ;
+		}
+	}
+}
@@ -4,8 +4,6 @@ package bill.zkaifleet.model ;
 
 // bill.zkaifleet.model.RuntimeJect
 import com.fasterxml.jackson.annotation.JsonInclude ;
-import lombok.Data ;
-import lombok.EqualsAndHashCode ;
 import lombok.ToString ;
 
 /**
@@ -24,8 +22,6 @@ import lombok.ToString ;
  *   <li>RuntimeJects maintain bidirectional relationships - when A has B as a subject, B has A in its isObjectOf collection</li>
  * </ul>
  */
-@Data
-@EqualsAndHashCode ( callSuper = true )
 @ToString(callSuper = true)
 @JsonInclude ( JsonInclude.Include.NON_NULL )
 public class RuntimeJect extends Ject {
@@ -57,7 +53,7 @@ public class RuntimeJect extends Ject {
 	 * @return This RuntimeJect instance for method chaining
 	 */
 	public RuntimeJect addRuntimeSubject(String predKey, Ject obj) {
-	    Predicate pred = new RuntimePredicate(predKey, "runtime", ontology);
+	    Predicate pred = RuntimePredicate.of(predKey, "runtime", ontology);
 	    addTypedSubject(pred, obj);
 	    return this;
 	}
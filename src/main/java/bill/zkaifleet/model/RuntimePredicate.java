@@ -1,12 +1,23 @@
 package bill.zkaifleet.model;
 
-import java.util.Collections ;
+import java.lang.ref.Reference ;
+import java.lang.ref.ReferenceQueue ;
+import java.lang.ref.WeakReference ;
+import java.util.IdentityHashMap ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.concurrent.ConcurrentHashMap ;
+import java.util.concurrent.ConcurrentMap ;
 
 //In bill.zkaifleet.model
 
 import com.fasterxml.jackson.annotation.JsonInclude ;
+import lombok.AccessLevel ;
 import lombok.Data ;
 import lombok.EqualsAndHashCode ;
+import lombok.Getter ;
+import lombok.Setter ;
+import lombok.ToString ;
 
 /**
  * A runtime-generated predicate that doesn't need to be pre-defined in a registry.
@@ -20,21 +31,199 @@ import lombok.EqualsAndHashCode ;
  *   <li>Predicate values should be homogeneous - cannot mix Ject types, nor Ject types with scalar types</li>
  *   <li>Predicates act as the edges in the ontology graph, connecting Ject nodes</li>
  *   <li>When creating RuntimePredicates, always ensure they have appropriate qualifiers to define subject and scalar types</li>
+ *   <li>Parsers obtain them through {@link #of(String, String, String)}, which returns one canonical instance per
+ *       (name, space, ontology) and qualifier policy, so map lookups usually succeed on the identity check; equality stays value-based.
+ *       The pool holds its predicates weakly, so a predicate leaves it once no graph uses it anymore</li>
  * </ul>
  */
 @Data
-@EqualsAndHashCode
+@EqualsAndHashCode ( cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY )
 @JsonInclude ( JsonInclude.Include.NON_NULL )
 public class RuntimePredicate implements Predicate {
 
 	private final String name ;
 	private final String space ;
 	private final String ontology ;
+	@Getter ( AccessLevel.NONE )
+	@Setter ( AccessLevel.NONE )
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private String fqName ;
+	@Getter ( AccessLevel.NONE )
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private final PredicateQualifier qualifier ;
+
+	/**
+	 * The qualifier of RuntimePredicates without a registry policy: any Ject or scalar value.
+	 */
+	public static final PredicateQualifier DEFAULT_QUALIFIER = new PredicateQualifier ( false, false, null,
+			List.of ( RuntimeJect.class ), RuntimeJect.class, Object.class, null ) ;
+
+	/**
+	 * Pooled predicates by qualifier policy, then by ontology, space and name. The policies are
+	 * few and compared by identity, so the outer level is a copy-on-write identity map read
+	 * without locking.
+	 */
+	private static volatile Map <PredicateQualifier, ConcurrentMap <Key, Pooled>> pool = new IdentityHashMap <> ( ) ;
+	private static final Object POOL_LOCK = new Object ( ) ;
+	private static final ReferenceQueue <RuntimePredicate> CLEARED = new ReferenceQueue <> ( ) ;
 
 	public RuntimePredicate ( String name, String space, String ontology ) {
+		this ( name, space, ontology, DEFAULT_QUALIFIER ) ;
+	}
+
+	/**
+	 * Creates a RuntimePredicate with a qualifier policy, typically supplied by
+	 * {@link ParserRegistry#getRuntimeQualifier(String)} for the predicate's space.
+	 *
+	 * @param name The predicate name
+	 * @param space The predicate space
+	 * @param ontology The ontology name
+	 * @param qualifier The shared qualifier; not part of equality
+	 */
+	public RuntimePredicate ( String name, String space, String ontology, PredicateQualifier qualifier ) {
 		this.name = name ;
 		this.space = space ;
 		this.ontology = ontology ;
+		this.qualifier = qualifier ;
+	}
+
+	/**
+	 * Gets the canonical RuntimePredicate with the default qualifier for a name, space and ontology,
+	 * creating it if it is not pooled yet.
+	 *
+	 * @param name The predicate name
+	 * @param space The predicate space, e.g. "unknown" or "runtime"
+	 * @param ontology The ontology name
+	 * @return The canonical predicate
+	 */
+	public static RuntimePredicate of ( String name, String space, String ontology ) {
+		return of ( name, space, ontology, null ) ;
+	}
+
+	/**
+	 * Gets the canonical RuntimePredicate for a name, space, ontology and qualifier policy, creating
+	 * it on first use.
+	 * <p>
+	 * A lookup finds the pool of the qualifier by identity, then the predicate with one hash lookup.
+	 * The qualifier is part of the key, so registries with different policies for a space each get
+	 * a canonical predicate of their own, equal to the others, and a pooled predicate is never
+	 * replaced. Predicates with a null component are not pooled.
+	 *
+	 * @param name The predicate name
+	 * @param space The predicate space, e.g. "unknown" or "runtime"
+	 * @param ontology The ontology name
+	 * @param qualifier The qualifier policy for the space, or null for {@link #DEFAULT_QUALIFIER}
+	 * @return The canonical predicate
+	 */
+	public static RuntimePredicate of ( String name, String space, String ontology, PredicateQualifier qualifier ) {
+		PredicateQualifier policy = qualifier != null ? qualifier : DEFAULT_QUALIFIER ;
+		if ( name == null || space == null || ontology == null ) {
+			return new RuntimePredicate ( name, space, ontology, policy ) ;
+		}
+		ConcurrentMap <Key, Pooled> predicates = pool.get ( policy ) ;
+		if ( predicates == null ) {
+			predicates = predicates ( policy ) ;
+		}
+		Key key = new Key ( ontology, space, name ) ;
+		Pooled pooled = predicates.get ( key ) ;
+		RuntimePredicate pred = pooled == null ? null : pooled.get ( ) ;
+		if ( pred == null ) {
+			purge ( ) ;
+			// Purging may have dropped the pool of the policy if it held only collected predicates
+			predicates = pool.get ( policy ) ;
+			if ( predicates == null ) {
+				predicates = predicates ( policy ) ;
+			}
+			RuntimePredicate [ ] created = { null } ;
+			ConcurrentMap <Key, Pooled> owner = predicates ;
+			predicates.compute ( key, ( k, old ) -> {
+				RuntimePredicate live = old == null ? null : old.get ( ) ;
+				if ( live != null ) {
+					created [ 0 ] = live ;
+					return old ;
+				}
+				created [ 0 ] = new RuntimePredicate ( name, space, ontology, policy ) ;
+				return new Pooled ( created [ 0 ], k, owner ) ;
+			} ) ;
+			pred = created [ 0 ] ;
+		}
+		return pred ;
+	}
+
+	/**
+	 * Gets the pool of a qualifier policy, adding it to a copy of the outer map if it is new.
+	 */
+	private static ConcurrentMap <Key, Pooled> predicates ( PredicateQualifier policy ) {
+		synchronized ( POOL_LOCK ) {
+			ConcurrentMap <Key, Pooled> predicates = pool.get ( policy ) ;
+			if ( predicates == null ) {
+				Map <PredicateQualifier, ConcurrentMap <Key, Pooled>> copy = new IdentityHashMap <> ( pool ) ;
+				predicates = new ConcurrentHashMap <> ( ) ;
+				copy.put ( policy, predicates ) ;
+				pool = copy ;
+			}
+			return predicates ;
+		}
+	}
+
+	/**
+	 * Drops the entries of predicates that were collected, and the pools of policies they leave
+	 * empty. A lookup racing with this may pool its predicate in a map that is being dropped; it
+	 * still gets a correct predicate, only not the canonical one.
+	 */
+	private static void purge ( ) {
+		for ( Reference <? extends RuntimePredicate> cleared ; ( cleared = CLEARED.poll ( ) ) != null ; ) {
+			Pooled pooled = ( Pooled ) cleared ;
+			pooled.predicates.remove ( pooled.key, pooled ) ;
+			if ( pooled.predicates.isEmpty ( ) ) {
+				synchronized ( POOL_LOCK ) {
+					if ( pool.get ( pooled.qualifier ) == pooled.predicates && pooled.predicates.isEmpty ( ) ) {
+						Map <PredicateQualifier, ConcurrentMap <Key, Pooled>> copy = new IdentityHashMap <> ( pool ) ;
+						copy.remove ( pooled.qualifier ) ;
+						pool = copy ;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * The key of a pooled predicate within the pool of its qualifier policy.
+	 */
+	private record Key ( String ontology, String space, String name ) {
+	}
+
+	/**
+	 * A pooled predicate, held weakly, with the pool it is kept in.
+	 */
+	private static final class Pooled extends WeakReference <RuntimePredicate> {
+
+		private final Key key ;
+		private final PredicateQualifier qualifier ;
+		private final ConcurrentMap <Key, Pooled> predicates ;
+
+		Pooled ( RuntimePredicate pred, Key key, ConcurrentMap <Key, Pooled> predicates ) {
+			super ( pred, CLEARED ) ;
+			this.key = key ;
+			this.qualifier = pred.qualifier ;
+			this.predicates = predicates ;
+		}
+	}
+
+	/**
+	 * Drops the pooled predicates of an ontology, under every qualifier policy, without waiting for
+	 * them to be collected. Graphs already built keep working since equality is value-based.
+	 *
+	 * @param ontology The ontology name
+	 */
+	public static void releasePool ( String ontology ) {
+		if ( ontology != null ) {
+			for ( ConcurrentMap <Key, Pooled> predicates : pool.values ( ) ) {
+				predicates.keySet ( ).removeIf ( key -> key.ontology ( ).equals ( ontology ) ) ;
+			}
+		}
 	}
 
 	public String name ( ) {
@@ -50,10 +239,18 @@ public class RuntimePredicate implements Predicate {
 		return ontology ;
 	}
 
+	@Override
+	public String fqName ( ) {
+		// Racy single-check caching: concurrent callers at worst compose the same String twice
+		String n = fqName ;
+		if ( n == null ) {
+			fqName = n = PredicateNames.compose ( this ) ;
+		}
+		return n ;
+	}
+
 	@Override
 	public PredicateQualifier qualifier ( ) {
-		return new PredicateQualifier ( false, false, null, 
-		                             Collections.singletonList ( RuntimeJect.class ), 
-		                             RuntimeJect.class, Object.class, null ) ;
+		return qualifier ;
 	}
-}
\ No newline at end of file
+}
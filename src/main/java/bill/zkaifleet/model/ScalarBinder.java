@@ -0,0 +1,24 @@
+package bill.zkaifleet.model ;
+
+/**
+ * Assigns a scalar value to the typed property of a Ject that a predicate maps to.
+ * <p>
+ * Binders are resolved once per (Ject class, predicate name, value type) by {@link ScalarBinders}
+ * and then reused, so binding a scalar does no reflective lookup.
+ */
+@FunctionalInterface
+public interface ScalarBinder {
+
+	/**
+	 * A binder for properties that have no matching adder or setter.
+	 */
+	ScalarBinder NONE = ( target, value ) -> { } ;
+
+	/**
+	 * Assigns the value to the target's property.
+	 *
+	 * @param target The Ject to update
+	 * @param value The scalar value, already known to be of the type the binder was resolved for
+	 */
+	void bind ( Ject target, Object value ) ;
+}
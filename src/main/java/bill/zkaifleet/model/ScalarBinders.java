@@ -0,0 +1,213 @@
+package bill.zkaifleet.model ;
+
+import java.lang.invoke.MethodHandle ;
+import java.lang.invoke.MethodHandles ;
+import java.lang.invoke.MethodType ;
+import java.lang.reflect.Method ;
+import java.lang.reflect.Modifier ;
+import java.util.HashMap ;
+import java.util.Map ;
+import java.util.ServiceLoader ;
+import java.util.concurrent.ConcurrentHashMap ;
+import java.util.concurrent.ConcurrentMap ;
+import java.util.function.BiConsumer ;
+import java.util.function.Function ;
+
+import lombok.extern.slf4j.Slf4j ;
+
+/**
+ * Cache of compiled {@link ScalarBinder}s keyed by Ject class, predicate name and value type.
+ * <p>
+ * For a predicate named {@code fooBar} the binder calls {@code addFooBar} if the Ject class has one
+ * that accepts the value, and {@code setFooBar} otherwise. The method is looked up once, turned into
+ * a {@link MethodHandle} and cached, as is the absence of a method. Binders generated at build time
+ * ({@link JectBinder}) take precedence, so classes compiled with this project bind without reflection.
+ *
+ * <h2>Implementation Notes</h2>
+ * <ul>
+ *   <li>Parameters match by exact type first, then by assignability and unboxing, then by widening
+ *       primitive conversion (e.g. an Integer value binds to {@code setConfidenceThreshold(Double)})</li>
+ *   <li>Lookups do not allocate once a combination has been seen</li>
+ *   <li>Exceptions thrown by the bound method propagate to the caller</li>
+ * </ul>
+ */
+@Slf4j
+public final class ScalarBinders {
+
+	private static final MethodType BIND_TYPE = MethodType.methodType ( void.class, Ject.class, Object.class ) ;
+
+	private static final ClassValue <ConcurrentMap <String, ConcurrentMap <Class <?>, ScalarBinder>>> CACHE = new ClassValue <> ( ) {
+		@Override
+		protected ConcurrentMap <String, ConcurrentMap <Class <?>, ScalarBinder>> computeValue ( Class <?> type ) {
+			return new ConcurrentHashMap <> ( ) ;
+		}
+	} ;
+
+	private static final Map <Class <?>, Class <?>> BOXES = Map.of (
+			boolean.class, Boolean.class, byte.class, Byte.class, short.class, Short.class, char.class, Character.class,
+			int.class, Integer.class, long.class, Long.class, float.class, Float.class, double.class, Double.class ) ;
+
+	private static final Map <Class <?>, JectBinder> GENERATED = loadGenerated ( ) ;
+
+	private ScalarBinders ( ) {
+	}
+
+	/**
+	 * Gets the binder for a property of a Ject class and a value type, resolving it on first use.
+	 *
+	 * @param type The concrete Ject class
+	 * @param property The predicate name
+	 * @param valueType The runtime class of the value to bind
+	 * @return The binder, or {@link ScalarBinder#NONE} if the class has no matching method
+	 */
+	public static ScalarBinder binder ( Class <? extends Ject> type, String property, Class <?> valueType ) {
+		ConcurrentMap <String, ConcurrentMap <Class <?>, ScalarBinder>> byProperty = CACHE.get ( type ) ;
+		ConcurrentMap <Class <?>, ScalarBinder> byValueType = byProperty.get ( property ) ;
+		if ( byValueType == null ) {
+			byValueType = byProperty.computeIfAbsent ( property, k -> new ConcurrentHashMap <> ( ) ) ;
+		}
+		ScalarBinder binder = byValueType.get ( valueType ) ;
+		if ( binder == null ) {
+			binder = byValueType.computeIfAbsent ( valueType, v -> resolve ( type, property, v ) ) ;
+		}
+		return binder ;
+	}
+
+	/**
+	 * Binds a value to the property a predicate name maps to on the target's class.
+	 *
+	 * @param target The Ject to update
+	 * @param property The predicate name
+	 * @param value The value; null values are not bound
+	 */
+	public static void bind ( Ject target, String property, Object value ) {
+		if ( value != null ) {
+			JectBinder generated = GENERATED.get ( target.getClass ( ) ) ;
+			if ( generated == null || ! generated.bind ( target, property, value ) ) {
+				binder ( target.getClass ( ), property, value.getClass ( ) ).bind ( target, value ) ;
+			}
+		}
+	}
+
+	/**
+	 * Creates a qualifier setter that binds through this cache, for predicates whose property
+	 * exists on several Ject classes with different parameter types.
+	 *
+	 * @param property The predicate name
+	 * @return A setter suitable for {@link PredicateQualifier#setter()}
+	 */
+	public static BiConsumer <Object, Ject> setter ( String property ) {
+		return ( value, target ) -> bind ( target, property, value ) ;
+	}
+
+	private static Map <Class <?>, JectBinder> loadGenerated ( ) {
+		Map <Class <?>, JectBinder> generated = new HashMap <> ( ) ;
+		for ( JectBinder binder : ServiceLoader.load ( JectBinder.class, JectBinder.class.getClassLoader ( ) ) ) {
+			generated.put ( binder.jectType ( ), binder ) ;
+		}
+		log.debug ( "Loaded {} generated Ject binders", generated.size ( ) ) ;
+		return generated ;
+	}
+
+	private static ScalarBinder resolve ( Class <?> type, String property, Class <?> valueType ) {
+		String suffix = Character.toUpperCase ( property.charAt ( 0 ) ) + property.substring ( 1 ) ;
+		ScalarBinder binder = resolveMethod ( type, "add" + suffix, valueType ) ;
+		if ( binder == null ) {
+			binder = resolveMethod ( type, "set" + suffix, valueType ) ;
+		}
+		if ( binder == null ) {
+			log.debug ( "No binder for property '{}' of {} with value type {}", property, type.getSimpleName ( ), valueType.getSimpleName ( ) ) ;
+			return ScalarBinder.NONE ;
+		}
+		return binder ;
+	}
+
+	private static ScalarBinder resolveMethod ( Class <?> type, String methodName, Class <?> valueType ) {
+		Method best = null ;
+		int bestRank = Integer.MAX_VALUE ;
+		for ( Method method : type.getMethods ( ) ) {
+			if ( method.getParameterCount ( ) != 1 || Modifier.isStatic ( method.getModifiers ( ) ) || ! method.getName ( ).equals ( methodName ) ) {
+				continue ;
+			}
+			int rank = rank ( method.getParameterTypes ( ) [ 0 ], valueType ) ;
+			if ( rank < bestRank ) {
+				best = method ;
+				bestRank = rank ;
+			}
+		}
+		if ( best == null ) {
+			return null ;
+		}
+		try {
+			MethodHandle handle = MethodHandles.publicLookup ( ).unreflect ( best ) ;
+			Class <?> parameter = best.getParameterTypes ( ) [ 0 ] ;
+			Function <Object, Object> conversion = bestRank == 3 ? widening ( box ( parameter ) ) : null ;
+			handle = handle.asType ( MethodType.methodType ( void.class, handle.type ( ).parameterType ( 0 ), box ( parameter ) ) )
+					.asType ( BIND_TYPE ) ;
+			log.debug ( "Resolved binder {}.{}({}) for value type {}", type.getSimpleName ( ), methodName, parameter.getSimpleName ( ), valueType.getSimpleName ( ) ) ;
+			return new MethodHandleBinder ( handle, conversion ) ;
+		} catch ( IllegalAccessException e ) {
+			log.debug ( "Cannot access {}.{}: {}", type.getSimpleName ( ), methodName, e.getMessage ( ) ) ;
+			return null ;
+		}
+	}
+
+	/**
+	 * Ranks how well a parameter accepts a value type: 0 exact, 1 assignable, 2 unboxing,
+	 * 3 widening primitive conversion, and {@link Integer#MAX_VALUE} when it does not accept it.
+	 */
+	private static int rank ( Class <?> parameter, Class <?> valueType ) {
+		if ( parameter == valueType ) {
+			return 0 ;
+		} else if ( parameter.isAssignableFrom ( valueType ) ) {
+			return 1 ;
+		} else if ( box ( parameter ) == valueType ) {
+			return 2 ;
+		} else if ( widens ( valueType, box ( parameter ) ) ) {
+			return 3 ;
+		}
+		return Integer.MAX_VALUE ;
+	}
+
+	private static Class <?> box ( Class <?> type ) {
+		return type.isPrimitive ( ) ? BOXES.get ( type ) : type ;
+	}
+
+	private static boolean widens ( Class <?> from, Class <?> to ) {
+		if ( to == Double.class ) {
+			return from == Float.class || from == Long.class || from == Integer.class || from == Short.class || from == Byte.class ;
+		} else if ( to == Float.class ) {
+			return from == Long.class || from == Integer.class || from == Short.class || from == Byte.class ;
+		} else if ( to == Long.class ) {
+			return from == Integer.class || from == Short.class || from == Byte.class ;
+		} else if ( to == Integer.class ) {
+			return from == Short.class || from == Byte.class ;
+		}
+		return false ;
+	}
+
+	private static Function <Object, Object> widening ( Class <?> to ) {
+		if ( to == Double.class ) {
+			return v -> ( ( Number ) v ).doubleValue ( ) ;
+		} else if ( to == Float.class ) {
+			return v -> ( ( Number ) v ).floatValue ( ) ;
+		} else if ( to == Long.class ) {
+			return v -> ( ( Number ) v ).longValue ( ) ;
+		}
+		return v -> ( ( Number ) v ).intValue ( ) ;
+	}
+
+	private record MethodHandleBinder ( MethodHandle handle, Function <Object, Object> conversion ) implements ScalarBinder {
+
+		@Override
+		public void bind ( Ject target, Object value ) {
+			try {
+				handle.invokeExact ( target, conversion == null ? value : conversion.apply ( value ) ) ;
+			} catch ( RuntimeException | Error e ) {
+				throw e ;
+			} catch ( Throwable t ) {
+				throw new IllegalStateException ( "Error while binding scalar: " + t.getMessage ( ), t ) ;
+			}
+		}
+	}
+}
@@ -3,11 +3,13 @@ package bill.zkaifleet.model.fleet ;
 import java.util.List ;
 
 import bill.zkaifleet.model.Ject ;
-import lombok.Data ;
-import lombok.EqualsAndHashCode ;
+import lombok.Getter ;
+import lombok.Setter ;
+import lombok.ToString ;
 
-@Data
-@EqualsAndHashCode ( callSuper = true )
+@Getter
+@Setter
+@ToString
 public class FleetJect extends Ject {
 
 	private String name ;
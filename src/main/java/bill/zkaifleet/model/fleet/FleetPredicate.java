@@ -6,6 +6,7 @@ import bill.zkaifleet.model.Ject ;
 import bill.zkaifleet.model.Ontology ;
 import bill.zkaifleet.model.Predicate ;
 import bill.zkaifleet.model.PredicateQualifier ;
+import bill.zkaifleet.model.ScalarBinders ;
 
 //Enum for first-class Predicates (expanded for ontology elements)
 public enum FleetPredicate implements Predicate {
@@ -16,9 +17,9 @@ public enum FleetPredicate implements Predicate {
 	process ( new PredicateQualifier ( false, true, "processes", List.of ( FleetJect.class ), ProcessJect.class, null, null ) ),
 	wrunk ( new PredicateQualifier ( false, true, "wrunks", List.of ( FleetJect.class ), WrunkJect.class, null, null ) ),
 	integration ( new PredicateQualifier ( false, true, "integrations", List.of ( FleetJect.class ), IntegrationJect.class, null, null ) ),
-	capability ( new PredicateQualifier ( false, true, "capabilities", List.of ( RoleJect.class ), null, String.class, ( Object c, Ject f ) -> ( ( RoleJect ) f ).addCapability ( ( String ) c ) ) ),
-	escalationPath ( new PredicateQualifier ( true, false, null, List.of ( BootstrapAgentJect.class, RoleJect.class ), null, String.class, ( Object c, Ject f ) -> ( ( RoleJect ) f ).addEscalationPath ( ( String ) c ) ) ),
-	confidenceThreshold ( new PredicateQualifier ( true, true, null, List.of ( ConstraintsJect.class ), null, Double.class, ( Object d, Ject f ) -> ( ( ConstraintsJect ) f ).setConfidenceThreshold ( ( Double ) d ) ) ),
+	capability ( new PredicateQualifier ( false, true, "capabilities", List.of ( RoleJect.class ), null, String.class, ScalarBinders.setter ( "capability" ) ) ),
+	escalationPath ( new PredicateQualifier ( true, false, null, List.of ( BootstrapAgentJect.class, RoleJect.class ), null, String.class, ScalarBinders.setter ( "escalationPath" ) ) ),
+	confidenceThreshold ( new PredicateQualifier ( true, true, null, List.of ( ConstraintsJect.class ), null, Double.class, ScalarBinders.setter ( "confidenceThreshold" ) ) ),
 	visionStatement ( new PredicateQualifier ( true, true, null, List.of ( FleetJect.class ), VisionStatementJect.class, null, null ) ),
 	humanIntervention ( new PredicateQualifier ( true, false, null, List.of ( FleetJect.class ), HumanInterventionJect.class, null, null ) ),
 	contact ( new PredicateQualifier ( false, true, "contacts", List.of ( HumanInterventionJect.class ), ContactJect.class, null, null ) ),
@@ -6,11 +6,13 @@ import java.util.ArrayList ;
 import java.util.List ;
 
 import com.fasterxml.jackson.annotation.JsonInclude ;
-import lombok.Data ;
-import lombok.EqualsAndHashCode ;
+import lombok.Getter ;
+import lombok.Setter ;
+import lombok.ToString ;
 
-@Data
-@EqualsAndHashCode ( callSuper = true )
+@Getter
+@Setter
+@ToString
 @JsonInclude ( JsonInclude.Include.NON_NULL )
 public class WrunkJect extends Ject {
 
@@ -0,0 +1,144 @@
+package bill.zkaifleet.parser ;
+
+import java.util.ArrayList ;
+import java.util.Collection ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.concurrent.ExecutionException ;
+import java.util.concurrent.ExecutorService ;
+import java.util.concurrent.Executors ;
+import java.util.concurrent.Future ;
+
+import bill.zkaifleet.model.Ject ;
+import bill.zkaifleet.model.ParserRegistry ;
+import bill.zkaifleet.model.ParserRegistryManager ;
+import lombok.Getter ;
+import lombok.Setter ;
+import lombok.extern.slf4j.Slf4j ;
+
+/**
+ * Parses many YAML documents concurrently, one virtual thread per document.
+ * <p>
+ * An {@link OntologyParser} holds a Yaml instance, which is not thread safe, and a parse context
+ * serves one document; so every document gets a parser and a context of its own. They all share
+ * one immutable snapshot of the registry catalog, taken when the batch parser is created, instead
+ * of copying the catalog per parser. The registries in the snapshot are only read while parsing
+ * and must not be changed while a batch runs.
+ * <p>
+ * One document failing does not affect the others: each gets a {@link Result} holding either its
+ * graph or the error its parse failed with. A batch parser can run several batches at once.
+ */
+@Slf4j
+public class BatchOntologyParser {
+
+	@Getter
+	private final Map <String, ParserRegistry> ontologyCatalog ;
+
+	/**
+	 * Whether documents are parsed from the YAML event stream (see {@link OntologyParser#setStreaming(boolean)}).
+	 */
+	@Getter
+	@Setter
+	private volatile boolean streaming = false ;
+
+	/**
+	 * Whether references are resolved on first use (see {@link OntologyParser#setLazyReferences(boolean)}).
+	 */
+	@Getter
+	@Setter
+	private volatile boolean lazyReferences = false ;
+
+	/**
+	 * An optional on-disk cache shared by the parses of all documents.
+	 */
+	@Getter
+	@Setter
+	private volatile ParseCache parseCache ;
+
+	/**
+	 * Creates a batch parser with a snapshot of the registries of the ParserRegistryManager.
+	 */
+	public BatchOntologyParser ( ) {
+		this ( ParserRegistryManager.getInstance ( ).getAllRegistries ( ) ) ;
+	}
+
+	/**
+	 * Creates a batch parser with a snapshot of an explicit registry catalog.
+	 *
+	 * @param ontologyCatalog Map of ontology names to parser registries
+	 */
+	public BatchOntologyParser ( Map <String, ParserRegistry> ontologyCatalog ) {
+		this.ontologyCatalog = Map.copyOf ( ontologyCatalog ) ;
+	}
+
+	/**
+	 * Parses documents concurrently and waits for all of them.
+	 *
+	 * @param documents The YAML content of each document
+	 * @return One result per document, in the iteration order of the documents
+	 */
+	public List <Result> parseAll ( Collection <String> documents ) {
+		List <Future <Result>> pending = new ArrayList <> ( documents.size ( ) ) ;
+		try ( ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor ( ) ) {
+			for ( String document : documents ) {
+				pending.add ( executor.submit ( ( ) -> parse ( document ) ) ) ;
+			}
+		}
+		List <Result> results = new ArrayList <> ( pending.size ( ) ) ;
+		int failed = 0 ;
+		for ( Future <Result> future : pending ) {
+			Result result = join ( future ) ;
+			failed += result.isSuccess ( ) ? 0 : 1 ;
+			results.add ( result ) ;
+		}
+		log.debug ( "Parsed {} documents, {} failed", results.size ( ), failed ) ;
+		return results ;
+	}
+
+	/**
+	 * Parses one document with a parser of its own.
+	 *
+	 * @param document The YAML content
+	 * @return The result of the parse
+	 */
+	public Result parse ( String document ) {
+		OntologyParser parser = new OntologyParser ( ontologyCatalog ) ;
+		parser.setStreaming ( streaming ) ;
+		parser.setLazyReferences ( lazyReferences ) ;
+		parser.setParseCache ( parseCache ) ;
+		try {
+			return new Result ( parser.parse ( document ), null ) ;
+		} catch ( RuntimeException e ) {
+			log.debug ( "Document failed to parse: {}", e.getMessage ( ) ) ;
+			return new Result ( null, e ) ;
+		}
+	}
+
+	private static Result join ( Future <Result> future ) {
+		try {
+			return future.get ( ) ;
+		} catch ( ExecutionException e ) {
+			// parse() catches RuntimeExceptions, so only Errors get here
+			if ( e.getCause ( ) instanceof Error error ) {
+				throw error ;
+			}
+			throw new IllegalStateException ( "Unexpected failure of a document parse", e.getCause ( ) ) ;
+		} catch ( InterruptedException e ) {
+			Thread.currentThread ( ).interrupt ( ) ;
+			throw new IllegalStateException ( "Interrupted while waiting for a document parse", e ) ;
+		}
+	}
+
+	/**
+	 * The outcome of parsing one document.
+	 *
+	 * @param ontology The root Ject object (Ontology), or null if the parse failed
+	 * @param error The error the parse failed with, or null if it succeeded
+	 */
+	public record Result ( Ject ontology, RuntimeException error ) {
+
+		public boolean isSuccess ( ) {
+			return error == null ;
+		}
+	}
+}
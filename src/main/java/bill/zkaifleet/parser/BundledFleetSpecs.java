@@ -0,0 +1,109 @@
+package bill.zkaifleet.parser ;
+
+import java.io.IOException ;
+import java.io.InputStream ;
+import java.io.UncheckedIOException ;
+import java.nio.file.Files ;
+import java.nio.file.Path ;
+import java.nio.file.Paths ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.concurrent.ConcurrentHashMap ;
+
+import bill.zkaifleet.model.Ontology ;
+import lombok.extern.slf4j.Slf4j ;
+
+/**
+ * The fleetspecs bundled as classpath resources, preparsed at build time.
+ * <p>
+ * {@link #main(String[])} runs in the {@code process-classes} phase of the build, loads each
+ * bundled spec with its modules and writes a snapshot next to it in the build output. At runtime
+ * {@link #get(String)} loads the snapshot, which needs neither SnakeYAML nor reflection, and only
+ * parses the YAML when no snapshot was packaged, e.g. when running from an IDE.
+ */
+@Slf4j
+public final class BundledFleetSpecs {
+
+	/**
+	 * Classpath resources of the bundled specs that declare an ontology and can be parsed.
+	 */
+	public static final List <String> SPECS = List.of ( "fleetspec/generic-fleetspec-1.5/fleetspec.yaml" ) ;
+
+	private static final Map <String, Ontology> LOADED = new ConcurrentHashMap <> ( ) ;
+
+	private BundledFleetSpecs ( ) {
+	}
+
+	/**
+	 * Gets a bundled spec, loading it on first use. The graph is shared by all callers and must
+	 * not be modified.
+	 *
+	 * @param spec The classpath resource of the spec, one of {@link #SPECS}
+	 * @return The parsed Ontology
+	 * @throws IllegalArgumentException if the resource does not exist
+	 */
+	public static Ontology get ( String spec ) {
+		return LOADED.computeIfAbsent ( spec, BundledFleetSpecs::load ) ;
+	}
+
+	/**
+	 * Gets the classpath resource of the snapshot for a spec.
+	 *
+	 * @param spec The classpath resource of the spec
+	 * @return The snapshot resource
+	 */
+	public static String snapshotResource ( String spec ) {
+		return spec.replaceFirst ( "\\.ya?ml$", "" ) + ".snapshot" ;
+	}
+
+	private static Ontology load ( String spec ) {
+		try ( InputStream snapshot = resource ( snapshotResource ( spec ) ) ) {
+			if ( snapshot != null ) {
+				log.debug ( "Loading preparsed snapshot of {}", spec ) ;
+				return new OntologySnapshotReader ( ).read ( snapshot ) ;
+			}
+		} catch ( IOException e ) {
+			throw new UncheckedIOException ( "Error while reading the snapshot of " + spec, e ) ;
+		}
+		log.debug ( "No preparsed snapshot of {}, parsing the YAML", spec ) ;
+		return parse ( spec ) ;
+	}
+
+	private static Ontology parse ( String spec ) {
+		// Every module a bundled spec lists is bundled with it, so a missing one fails the build
+		return new ModuleLoader ( ).load ( ClasspathModuleResolver.uri ( spec ) ) ;
+	}
+
+	private static InputStream resource ( String name ) {
+		return BundledFleetSpecs.class.getClassLoader ( ).getResourceAsStream ( name ) ;
+	}
+
+	/**
+	 * Writes the snapshots of all bundled specs.
+	 *
+	 * @param outputDirectory The root of the build output, where the snapshots are packaged from
+	 * @throws IOException if a snapshot cannot be written
+	 */
+	public static void writeSnapshots ( Path outputDirectory ) throws IOException {
+		OntologySnapshotWriter writer = new OntologySnapshotWriter ( ) ;
+		for ( String spec : SPECS ) {
+			Path target = outputDirectory.resolve ( snapshotResource ( spec ) ) ;
+			Files.createDirectories ( target.getParent ( ) ) ;
+			writer.write ( parse ( spec ), target ) ;
+			log.info ( "Preparsed {} into {}", spec, target ) ;
+		}
+	}
+
+	/**
+	 * Build-time entry point.
+	 *
+	 * @param args The build output directory
+	 * @throws IOException if a snapshot cannot be written
+	 */
+	public static void main ( String [ ] args ) throws IOException {
+		if ( args.length != 1 ) {
+			throw new IllegalArgumentException ( "Usage: BundledFleetSpecs <output directory>" ) ;
+		}
+		writeSnapshots ( Paths.get ( args [ 0 ] ) ) ;
+	}
+}
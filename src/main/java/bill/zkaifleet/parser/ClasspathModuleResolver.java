@@ -0,0 +1,78 @@
+package bill.zkaifleet.parser ;
+
+import java.io.FileNotFoundException ;
+import java.io.IOException ;
+import java.io.InputStream ;
+import java.net.URI ;
+
+/**
+ * Resolves {@code classpath:} module URIs against the class loader of the parser.
+ * <p>
+ * Canonical URIs have the form {@code classpath:/dir/module.yaml} and name a resource from the
+ * classpath root. References may also be written {@code classpath://dir/module.yaml} or
+ * {@code classpath://./module.yaml}; these are looked up next to the including module first when
+ * it is on the classpath too, and from the classpath root otherwise, the way an
+ * {@code #include "..."} is searched.
+ */
+public class ClasspathModuleResolver implements ModuleResolver {
+
+	public static final String SCHEME = "classpath" ;
+
+	private final ClassLoader classLoader ;
+
+	public ClasspathModuleResolver ( ) {
+		this ( ClasspathModuleResolver.class.getClassLoader ( ) ) ;
+	}
+
+	public ClasspathModuleResolver ( ClassLoader classLoader ) {
+		this.classLoader = classLoader ;
+	}
+
+	/**
+	 * Builds the canonical URI of a classpath resource.
+	 *
+	 * @param resource The resource name, e.g. {@code fleetspec/generic-fleetspec-1.5/fleetspec.yaml}
+	 * @return The module URI
+	 */
+	public static URI uri ( String resource ) {
+		return URI.create ( SCHEME + ":/" + strip ( resource ) ) ;
+	}
+
+	@Override
+	public boolean supports ( URI uri ) {
+		return SCHEME.equalsIgnoreCase ( uri.getScheme ( ) ) ;
+	}
+
+	@Override
+	public URI resolve ( URI base, URI reference ) {
+		if ( ! supports ( reference ) ) {
+			return ModuleResolver.super.resolve ( base, reference ) ;
+		}
+		String part = reference.getSchemeSpecificPart ( ) ;
+		String name = strip ( part ) ;
+		if ( part.startsWith ( "//" ) && supports ( base ) ) {
+			URI sibling = base.resolve ( name ).normalize ( ) ;
+			if ( classLoader.getResource ( strip ( sibling.getPath ( ) ) ) != null ) {
+				return sibling ;
+			}
+		}
+		return uri ( URI.create ( name ).normalize ( ).getPath ( ) ) ;
+	}
+
+	@Override
+	public InputStream open ( URI uri ) throws IOException {
+		InputStream in = classLoader.getResourceAsStream ( strip ( uri.getPath ( ) ) ) ;
+		if ( in == null ) {
+			throw new FileNotFoundException ( "No classpath resource for module: " + uri ) ;
+		}
+		return in ;
+	}
+
+	private static String strip ( String name ) {
+		int start = 0 ;
+		while ( start < name.length ( ) && name.charAt ( start ) == '/' ) {
+			start++ ;
+		}
+		return name.substring ( start ) ;
+	}
+}
@@ -0,0 +1,25 @@
+package bill.zkaifleet.parser ;
+
+import java.io.IOException ;
+import java.io.InputStream ;
+import java.net.URI ;
+import java.nio.file.Files ;
+import java.nio.file.Path ;
+
+/**
+ * Resolves {@code file:} module URIs against the default file system.
+ */
+public class FileModuleResolver implements ModuleResolver {
+
+	public static final String SCHEME = "file" ;
+
+	@Override
+	public boolean supports ( URI uri ) {
+		return SCHEME.equalsIgnoreCase ( uri.getScheme ( ) ) ;
+	}
+
+	@Override
+	public InputStream open ( URI uri ) throws IOException {
+		return Files.newInputStream ( Path.of ( uri ) ) ;
+	}
+}
@@ -0,0 +1,680 @@
+package bill.zkaifleet.parser ;
+
+import java.util.ArrayDeque ;
+import java.util.ArrayList ;
+import java.util.Deque ;
+import java.util.HashMap ;
+import java.util.LinkedHashMap ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.UUID ;
+import java.util.function.Consumer ;
+
+import org.yaml.snakeyaml.LoaderOptions ;
+import org.yaml.snakeyaml.constructor.SafeConstructor ;
+import org.yaml.snakeyaml.events.AliasEvent ;
+import org.yaml.snakeyaml.events.CollectionEndEvent ;
+import org.yaml.snakeyaml.events.CollectionStartEvent ;
+import org.yaml.snakeyaml.events.Event ;
+import org.yaml.snakeyaml.events.NodeEvent ;
+import org.yaml.snakeyaml.events.ScalarEvent ;
+import org.yaml.snakeyaml.nodes.NodeId ;
+import org.yaml.snakeyaml.nodes.ScalarNode ;
+import org.yaml.snakeyaml.nodes.Tag ;
+import org.yaml.snakeyaml.resolver.Resolver ;
+
+import bill.zkaifleet.model.BasePredicate ;
+import bill.zkaifleet.model.Ject ;
+import bill.zkaifleet.model.Ontology ;
+import bill.zkaifleet.model.ParserRegistry ;
+import bill.zkaifleet.model.Predicate ;
+import bill.zkaifleet.model.PredicateQualifier ;
+import bill.zkaifleet.parser.JectParseContext.ParsePath ;
+import lombok.extern.slf4j.Slf4j ;
+
+/**
+ * Builds a Ject graph directly from a SnakeYAML event stream.
+ * <p>
+ * Unlike {@link JectParseContext#buildJects()}, this front end never materializes the
+ * {@code Map<String, Object>} tree that {@code Yaml.load} returns. Jects are created as soon as
+ * their mapping starts, scalars are bound as they arrive, ids are registered when a mapping ends
+ * and {@code ref} mappings become placeholders on the spot. The only live state is one frame per
+ * open YAML collection, so peak heap stays close to the size of the finished graph.
+ * <p>
+ * The result is a {@link JectParseContext} ready for {@link JectParseContext#resolveAll()}; the
+ * graph it holds is the same one the tree-based parser builds for the same document.
+ *
+ * <h2>Implementation Notes</h2>
+ * <ul>
+ *   <li>Top-level entries that appear before the {@code ontology} key are buffered as events and
+ *       replayed once the ontology (and thus the registry) is known</li>
+ *   <li>In a {@code ref} mapping, {@code ref} must be the first key; any other keys of that
+ *       mapping are ignored, as they are by the tree-based parser</li>
+ *   <li>Anchored nodes are recorded as events and replayed for each alias</li>
+ *   <li>Lists under scalar-typed predicates are the only values materialized as plain Java
+ *       collections, since they are stored as scalars anyway</li>
+ * </ul>
+ */
+@Slf4j
+public class JectEventBuilder {
+
+	private final Map <String, ParserRegistry> ontologyCatalog ;
+	private final Resolver resolver = new Resolver ( ) ;
+	private final ScalarConstructor constructor = new ScalarConstructor ( ) ;
+	private final Deque <NodeSink> sinks = new ArrayDeque <> ( ) ;
+	private final Map <String, List <Event>> anchors = new HashMap <> ( ) ;
+	private final List <Recording> recordings = new ArrayList <> ( ) ;
+	private final List <Event> deferred = new ArrayList <> ( ) ;
+	private int deferDepth = -1 ;
+	private int documents = 0 ;
+
+	private JectParseContext context ;
+	private ParserRegistry ontologyRegistry ;
+	private String ontologyName ;
+
+	/**
+	 * Creates a new builder that resolves predicates and types against the given catalog.
+	 *
+	 * @param ontologyCatalog Map of ontology names to parser registries
+	 */
+	public JectEventBuilder ( Map <String, ParserRegistry> ontologyCatalog ) {
+		this.ontologyCatalog = ontologyCatalog ;
+	}
+
+	/**
+	 * Consumes a YAML event stream and builds the Ject graph it describes.
+	 *
+	 * @param events The events, typically from {@code Yaml.parse}
+	 * @return The parse context holding the built graph, with references not yet resolved
+	 * @throws IllegalArgumentException if the document is not a mapping, has no ontology name or contains duplicate IDs
+	 */
+	public JectParseContext build ( Iterable <Event> events ) {
+		for ( Event event : events ) {
+			feed ( event ) ;
+		}
+		if ( context == null ) {
+			log.error ( "Ontology name is missing or empty" ) ;
+			throw new IllegalArgumentException ( "Ontology name is required" ) ;
+		}
+		return context ;
+	}
+
+	private void feed ( Event event ) {
+		if ( deferDepth >= 0 ) {
+			defer ( event ) ;
+			return ;
+		}
+		if ( ! ( event instanceof AliasEvent ) ) {
+			// Aliases are recorded through the events they expand to
+			record ( event ) ;
+		}
+		switch ( event.getEventId ( ) ) {
+			case StreamStart, StreamEnd, DocumentEnd, Comment -> { }
+			case DocumentStart -> {
+				if ( ++documents > 1 ) {
+					throw new IllegalArgumentException ( "Expected a single document in the stream" ) ;
+				}
+			}
+			case Alias -> replay ( ( AliasEvent ) event ) ;
+			case Scalar -> {
+				if ( sinks.isEmpty ( ) ) {
+					throw new IllegalArgumentException ( "Ontology specification must be a mapping" ) ;
+				}
+				sinks.peek ( ).scalar ( construct ( ( ScalarEvent ) event ), ( ScalarEvent ) event ) ;
+			}
+			case MappingStart -> sinks.push ( sinks.isEmpty ( ) ? new TopSink ( ) : sinks.peek ( ).mapping ( ) ) ;
+			case SequenceStart -> {
+				if ( sinks.isEmpty ( ) ) {
+					throw new IllegalArgumentException ( "Ontology specification must be a mapping" ) ;
+				}
+				sinks.push ( sinks.peek ( ).sequence ( ) ) ;
+			}
+			case MappingEnd, SequenceEnd -> sinks.pop ( ).close ( ) ;
+		}
+	}
+
+	// Anchors ---------------------------------------------------------------
+
+	private void record ( Event event ) {
+		for ( int i = recordings.size ( ) - 1 ; i >= 0 ; i-- ) {
+			Recording recording = recordings.get ( i ) ;
+			if ( recording.add ( event ) ) {
+				anchors.put ( recording.anchor, recording.events ) ;
+				recordings.remove ( i ) ;
+			}
+		}
+		if ( event instanceof NodeEvent nodeEvent && nodeEvent.getAnchor ( ) != null ) {
+			Recording recording = new Recording ( nodeEvent.getAnchor ( ) ) ;
+			if ( recording.add ( event ) ) {
+				anchors.put ( recording.anchor, recording.events ) ;
+			} else {
+				recordings.add ( recording ) ;
+			}
+		}
+	}
+
+	private void replay ( AliasEvent alias ) {
+		List <Event> recorded = anchors.get ( alias.getAnchor ( ) ) ;
+		if ( recorded == null ) {
+			throw new IllegalArgumentException ( "Found undefined alias: " + alias.getAnchor ( ) ) ;
+		}
+		for ( Event event : recorded ) {
+			feed ( event ) ;
+		}
+	}
+
+	private static final class Recording {
+		private final String anchor ;
+		private final List <Event> events = new ArrayList <> ( ) ;
+		private int depth = 0 ;
+
+		private Recording ( String anchor ) {
+			this.anchor = anchor ;
+		}
+
+		/**
+		 * @return true once the anchored node is complete
+		 */
+		private boolean add ( Event event ) {
+			events.add ( event ) ;
+			if ( event instanceof CollectionStartEvent ) {
+				depth++ ;
+			} else if ( event instanceof CollectionEndEvent ) {
+				depth-- ;
+			}
+			return depth == 0 ;
+		}
+	}
+
+	// Deferred top-level entries --------------------------------------------
+
+	private void startDeferring ( ScalarEvent key ) {
+		deferred.add ( key ) ;
+		deferDepth = 0 ;
+	}
+
+	private void defer ( Event event ) {
+		deferred.add ( event ) ;
+		if ( event instanceof CollectionStartEvent ) {
+			deferDepth++ ;
+		} else if ( event instanceof CollectionEndEvent ) {
+			deferDepth-- ;
+		}
+		if ( deferDepth == 0 ) {
+			deferDepth = -1 ;
+		}
+	}
+
+	// Scalars ---------------------------------------------------------------
+
+	private Object construct ( ScalarEvent event ) {
+		Tag tag ;
+		boolean resolved = false ;
+		if ( event.getTag ( ) == null || "!".equals ( event.getTag ( ) ) ) {
+			tag = resolver.resolve ( NodeId.scalar, event.getValue ( ), event.getImplicit ( ).canOmitTagInPlainScalar ( ) ) ;
+			resolved = true ;
+		} else {
+			tag = new Tag ( event.getTag ( ) ) ;
+		}
+		ScalarNode node = new ScalarNode ( tag, resolved, event.getValue ( ), event.getStartMark ( ), event.getEndMark ( ), event.getScalarStyle ( ) ) ;
+		return constructor.construct ( node ) ;
+	}
+
+	/**
+	 * Exposes SnakeYAML's scalar construction so event values get the same types as {@code Yaml.load}.
+	 */
+	private static final class ScalarConstructor extends SafeConstructor {
+		private ScalarConstructor ( ) {
+			super ( new LoaderOptions ( ) ) ;
+		}
+
+		private Object construct ( ScalarNode node ) {
+			return constructObject ( node ) ;
+		}
+	}
+
+	// Graph helpers ---------------------------------------------------------
+
+	private Ject instantiate ( Predicate pred, Class <? extends Ject> subjectType ) {
+		try {
+			return context.instantiate ( subjectType, pred.name ( ), ontologyName ) ;
+		} catch ( ReflectiveOperationException e ) {
+			throw new RuntimeException ( "Error while building Jects: " + e.getMessage ( ), e ) ;
+		}
+	}
+
+	private void finish ( Ject ject, Ject owner, Predicate pred, ParsePath path ) {
+		context.registerIdentity ( ject, path ) ;
+		if ( owner != null ) {
+			owner.addTypedSubject ( pred, ject ) ;
+		}
+	}
+
+	// Sinks -----------------------------------------------------------------
+
+	/**
+	 * Receives the child nodes of one open YAML collection.
+	 */
+	private interface NodeSink {
+		void scalar ( Object value, ScalarEvent event ) ;
+
+		NodeSink mapping ( ) ;
+
+		NodeSink sequence ( ) ;
+
+		void close ( ) ;
+	}
+
+	/**
+	 * The entries of a mapping that is built into a Ject.
+	 */
+	private class JectSink implements NodeSink {
+		protected Ject ject ;
+		protected final Ject owner ;
+		protected final Predicate via ;
+		protected final ParsePath path ;
+		private String pendingKey ;
+		private Predicate pending ;
+
+		private JectSink ( Ject ject, Ject owner, Predicate via, ParsePath path ) {
+			this.ject = ject ;
+			this.owner = owner ;
+			this.via = via ;
+			this.path = path ;
+		}
+
+		protected void key ( String key ) {
+			pendingKey = key ;
+			pending = context.predicateFor ( ontologyRegistry, key, ontologyName ) ;
+		}
+
+		protected boolean awaitingValue ( ) {
+			return pending != null ;
+		}
+
+		private Predicate takePending ( ) {
+			if ( pending == null ) {
+				throw new IllegalArgumentException ( "Complex mapping keys are not supported" ) ;
+			}
+			Predicate pred = pending ;
+			pending = null ;
+			return pred ;
+		}
+
+		@Override
+		public void scalar ( Object value, ScalarEvent event ) {
+			if ( pending == null ) {
+				key ( event.getValue ( ) ) ;
+			} else {
+				ject.addScalar ( takePending ( ), value ) ;
+			}
+		}
+
+		@Override
+		public NodeSink mapping ( ) {
+			String key = pendingKey ;
+			return new NestedJectSink ( ject, takePending ( ), path.child ( key ) ) ;
+		}
+
+		@Override
+		public NodeSink sequence ( ) {
+			String key = pendingKey ;
+			Predicate pred = takePending ( ) ;
+			PredicateQualifier qualifier = pred.qualifier ( ) ;
+			if ( qualifier.subjectType ( ) != null ) {
+				return new JectListSink ( ject, pred, path.child ( key ) ) ;
+			} else if ( qualifier.scalarType ( ) != null ) {
+				return new ValueSink ( new ArrayList <> ( ), value -> ject.addScalar ( pred, value ) ) ;
+			}
+			throw new IllegalArgumentException ( "Invalid predicate qualifier for list: " + key ) ;
+		}
+
+		@Override
+		public void close ( ) {
+			finish ( ject, owner, via, path ) ;
+		}
+	}
+
+	/**
+	 * The top-level mapping, whose {@code ontology} and {@code id} keys configure the root.
+	 */
+	private class TopSink extends JectSink {
+		private String special ;
+		private String rootId ;
+
+		private TopSink ( ) {
+			super ( null, null, null, ParsePath.ROOT ) ;
+		}
+
+		@Override
+		public void scalar ( Object value, ScalarEvent event ) {
+			if ( special != null ) {
+				String key = special ;
+				special = null ;
+				if ( value != null && ! ( value instanceof String ) ) {
+					throw new IllegalArgumentException ( "Top-level '" + key + "' must be a string" ) ;
+				}
+				if ( "ontology".equals ( key ) ) {
+					start ( ( String ) value ) ;
+				} else {
+					rootId = ( String ) value ;
+				}
+			} else if ( awaitingValue ( ) ) {
+				super.scalar ( value, event ) ;
+			} else if ( "ontology".equals ( event.getValue ( ) ) || "id".equals ( event.getValue ( ) ) ) {
+				special = event.getValue ( ) ;
+			} else if ( ject == null ) {
+				startDeferring ( event ) ;
+			} else {
+				super.scalar ( value, event ) ;
+			}
+		}
+
+		private void start ( String name ) {
+			if ( name == null || name.isEmpty ( ) ) {
+				log.error ( "Ontology name is missing or empty" ) ;
+				throw new IllegalArgumentException ( "Ontology name is required" ) ;
+			}
+			log.debug ( "Ontology name: {}", name ) ;
+			ontologyName = name ;
+			ontologyRegistry = ontologyCatalog.get ( name ) ;
+			if ( ontologyRegistry == null ) {
+				ontologyRegistry = ontologyCatalog.get ( "base" ) ;
+			}
+			Ontology ontology = new Ontology ( name ) ;
+			ject = ontology ;
+			context = new JectParseContext ( ontology, ontologyCatalog ) ;
+			List <Event> replay = new ArrayList <> ( deferred ) ;
+			deferred.clear ( ) ;
+			for ( Event event : replay ) {
+				feed ( event ) ;
+			}
+		}
+
+		@Override
+		public NodeSink mapping ( ) {
+			rejectSpecial ( ) ;
+			return super.mapping ( ) ;
+		}
+
+		@Override
+		public NodeSink sequence ( ) {
+			rejectSpecial ( ) ;
+			return super.sequence ( ) ;
+		}
+
+		private void rejectSpecial ( ) {
+			if ( special != null ) {
+				throw new IllegalArgumentException ( "Top-level '" + special + "' must be a string" ) ;
+			}
+		}
+
+		@Override
+		public void close ( ) {
+			if ( ject == null ) {
+				return ;
+			}
+			String id = rootId == null ? UUID.randomUUID ( ).toString ( ) : rootId ;
+			log.debug ( "Using ID: {}", id ) ;
+			ject.addScalar ( BasePredicate.id, id ) ;
+			ject.addScalar ( BasePredicate.ontologyName, ontologyName ) ;
+			super.close ( ) ;
+		}
+	}
+
+	/**
+	 * A mapping value, which is either a {@code ref} to another Ject or a new child Ject.
+	 */
+	private class NestedJectSink extends JectSink {
+		private boolean refPending ;
+		private boolean referenced ;
+
+		private NestedJectSink ( Ject owner, Predicate via, ParsePath path ) {
+			super ( null, owner, via, path ) ;
+		}
+
+		@Override
+		protected void key ( String key ) {
+			if ( "ref".equals ( key ) ) {
+				if ( ject != null ) {
+					throw new IllegalArgumentException ( "'ref' must be the first key of a reference for predicate: " + via.name ( ) ) ;
+				}
+				refPending = true ;
+				return ;
+			}
+			if ( ject == null ) {
+				ject = instantiate ( via, via.qualifier ( ).subjectType ( ) ) ;
+			}
+			super.key ( key ) ;
+		}
+
+		@Override
+		public void scalar ( Object value, ScalarEvent event ) {
+			if ( referenced ) {
+				return ;
+			}
+			if ( refPending ) {
+				if ( ! ( value instanceof String refId ) ) {
+					throw new IllegalArgumentException ( "Reference id must be a string for predicate: " + via.name ( ) ) ;
+				}
+				refPending = false ;
+				referenced = true ;
+				Class <? extends Ject> subjectType = via.qualifier ( ).subjectType ( ) ;
+				if ( subjectType == null ) {
+					throw new IllegalArgumentException ( "No subject type for predicate: " + via.name ( ) ) ;
+				}
+				Placeholder <Ject> placeholder = context.getOrCreatePlaceholder ( refId, subjectType.getSimpleName ( ), ontologyName ) ;
+				owner.addTypedSubject ( via, placeholder ) ;
+				return ;
+			}
+			super.scalar ( value, event ) ;
+		}
+
+		@Override
+		public NodeSink mapping ( ) {
+			if ( referenced ) {
+				return SKIP ;
+			}
+			rejectRefValue ( ) ;
+			return super.mapping ( ) ;
+		}
+
+		@Override
+		public NodeSink sequence ( ) {
+			if ( referenced ) {
+				return SKIP ;
+			}
+			rejectRefValue ( ) ;
+			return super.sequence ( ) ;
+		}
+
+		private void rejectRefValue ( ) {
+			if ( refPending ) {
+				throw new IllegalArgumentException ( "Reference id must be a string for predicate: " + via.name ( ) ) ;
+			}
+		}
+
+		@Override
+		public void close ( ) {
+			if ( referenced ) {
+				return ;
+			}
+			if ( ject == null ) {
+				ject = instantiate ( via, via.qualifier ( ).subjectType ( ) ) ;
+			}
+			super.close ( ) ;
+		}
+	}
+
+	/**
+	 * A list of child Jects under a Ject-typed predicate.
+	 */
+	private class JectListSink implements NodeSink {
+		private final Ject owner ;
+		private final Predicate pred ;
+		private final ParsePath path ;
+		private int index = 0 ;
+		private boolean literalItems ;
+
+		private JectListSink ( Ject owner, Predicate pred, ParsePath path ) {
+			this.owner = owner ;
+			this.pred = pred ;
+			this.path = path ;
+		}
+
+		private Ject child ( ) {
+			return instantiate ( pred, pred.qualifier ( ).subjectType ( ) ) ;
+		}
+
+		@Override
+		public void scalar ( Object value, ScalarEvent event ) {
+			Ject literal = child ( ) ;
+			literalItems = true ;
+			if ( value != null ) {
+				literal.addScalar ( BasePredicate.literal, value ) ;
+			}
+			finish ( literal, owner, pred, path.item ( index++ ) ) ;
+		}
+
+		@Override
+		public NodeSink mapping ( ) {
+			return new JectSink ( child ( ), owner, pred, path.item ( index++ ) ) ;
+		}
+
+		@Override
+		public NodeSink sequence ( ) {
+			return new RootListSink ( child ( ), owner, pred, path.item ( index++ ) ) ;
+		}
+
+		@Override
+		public void close ( ) {
+			if ( literalItems ) {
+				context.addLiteralList ( owner, pred ) ;
+			}
+		}
+	}
+
+	/**
+	 * A list nested directly in another list, whose items become root subjects of a new Ject.
+	 */
+	private class RootListSink implements NodeSink {
+		private final Ject ject ;
+		private final Ject owner ;
+		private final Predicate via ;
+		private final ParsePath path ;
+		private final Class <? extends Ject> subjectType ;
+		private int index = 0 ;
+
+		private RootListSink ( Ject ject, Ject owner, Predicate via, ParsePath path ) {
+			this.ject = ject ;
+			this.owner = owner ;
+			this.via = via ;
+			this.path = path ;
+			this.subjectType = ontologyRegistry.getRootSubjectType ( BasePredicate.root.name ( ) ) ;
+		}
+
+		@Override
+		public void scalar ( Object value, ScalarEvent event ) {
+			throw new IllegalArgumentException ( "Invalid child type for predicate: " + BasePredicate.root.name ( ) ) ;
+		}
+
+		@Override
+		public NodeSink mapping ( ) {
+			return new JectSink ( instantiate ( BasePredicate.root, subjectType ), ject, BasePredicate.root, path.item ( index++ ) ) ;
+		}
+
+		@Override
+		public NodeSink sequence ( ) {
+			throw new IllegalArgumentException ( "Invalid child type for predicate: " + BasePredicate.root.name ( ) ) ;
+		}
+
+		@Override
+		public void close ( ) {
+			finish ( ject, owner, via, path ) ;
+		}
+	}
+
+	/**
+	 * A collection materialized as plain Java values, as {@code Yaml.load} would return it.
+	 */
+	private class ValueSink implements NodeSink {
+		private final List <Object> list ;
+		private final Map <Object, Object> map ;
+		private final Consumer <Object> done ;
+		private Object key ;
+		private boolean hasKey ;
+
+		private ValueSink ( List <Object> list, Consumer <Object> done ) {
+			this.list = list ;
+			this.map = null ;
+			this.done = done ;
+		}
+
+		private ValueSink ( Map <Object, Object> map, Consumer <Object> done ) {
+			this.list = null ;
+			this.map = map ;
+			this.done = done ;
+		}
+
+		private void add ( Object value ) {
+			if ( list != null ) {
+				list.add ( value ) ;
+			} else if ( hasKey ) {
+				map.put ( key, value ) ;
+				hasKey = false ;
+			} else {
+				key = value ;
+				hasKey = true ;
+			}
+		}
+
+		@Override
+		public void scalar ( Object value, ScalarEvent event ) {
+			add ( value ) ;
+		}
+
+		@Override
+		public NodeSink mapping ( ) {
+			if ( map != null && ! hasKey ) {
+				throw new IllegalArgumentException ( "Complex mapping keys are not supported" ) ;
+			}
+			return new ValueSink ( new LinkedHashMap <> ( ), this::add ) ;
+		}
+
+		@Override
+		public NodeSink sequence ( ) {
+			if ( map != null && ! hasKey ) {
+				throw new IllegalArgumentException ( "Complex mapping keys are not supported" ) ;
+			}
+			return new ValueSink ( new ArrayList <> ( ), this::add ) ;
+		}
+
+		@Override
+		public void close ( ) {
+			done.accept ( list != null ? list : map ) ;
+		}
+	}
+
+	/**
+	 * Discards a subtree, such as the remaining keys of a {@code ref} mapping.
+	 */
+	private static final NodeSink SKIP = new NodeSink ( ) {
+		@Override
+		public void scalar ( Object value, ScalarEvent event ) {
+		}
+
+		@Override
+		public NodeSink mapping ( ) {
+			return this ;
+		}
+
+		@Override
+		public NodeSink sequence ( ) {
+			return this ;
+		}
+
+		@Override
+		public void close ( ) {
+		}
+	} ;
+}
@@ -1,24 +1,34 @@
 package bill.zkaifleet.parser ;
 
-import java.lang.reflect.InvocationTargetException ;
+import java.net.URI ;
+import java.util.ArrayDeque ;
 import java.util.ArrayList ;
+import java.util.Collections ;
+import java.util.Deque ;
 import java.util.HashMap ;
 import java.util.IdentityHashMap ;
-import java.util.LinkedList ;
+import java.util.Iterator ;
 import java.util.List ;
 import java.util.Map ;
-import java.util.Queue ;
+import java.util.Set ;
 import java.util.Stack ;
+import java.util.concurrent.ForkJoinPool ;
+import java.util.concurrent.ForkJoinTask ;
+import java.util.function.Supplier ;
 
 import bill.zkaifleet.model.BasePredicate ;
 import bill.zkaifleet.model.Ject ;
+import bill.zkaifleet.model.JectFactories ;
 import bill.zkaifleet.model.Ontology ;
 import bill.zkaifleet.model.ParserRegistry ;
 import bill.zkaifleet.model.Predicate ;
 import bill.zkaifleet.model.PredicateQualifier ;
 import bill.zkaifleet.model.RuntimeJect ;
 import bill.zkaifleet.model.RuntimePredicate;
+import lombok.AccessLevel ;
 import lombok.Data ;
+import lombok.Getter ;
+import lombok.Setter ;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -50,13 +60,47 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class JectParseContext {
 
+	static final String UNKNOWN_SPACE = "unknown" ;
+
+	/**
+	 * The fewest items a task of a parallel list build gets.
+	 */
+	static final int PARALLEL_GRAIN = 64 ;
+
 	private final Map <String, Placeholder <Ject>> placeholders = new HashMap <> ( ) ;
 	private final Map <String, Ject> identityMap = new HashMap <> ( ) ;
-	private Stack <LocalParseContext> contextStack = new Stack <> ( ) ;
+	private final Map <String, ParsePath> identityPaths = new HashMap <> ( ) ;
+	@Getter ( AccessLevel.NONE )
+	private final List <ListSite> literalLists = new ArrayList <> ( ) ;
+	@Getter ( AccessLevel.NONE )
+	private final List <Placeholder <Ject>> absorbedPlaceholders = new ArrayList <> ( ) ;
+	@Getter ( AccessLevel.NONE )
+	private final Map <URI, List <Ject>> builtModules = new HashMap <> ( ) ;
+	@Getter ( AccessLevel.NONE )
+	private final List <ModuleSite> moduleSites = new ArrayList <> ( ) ;
+	@Getter ( AccessLevel.NONE )
+	private final List <Backlink> deferredBacklinks = new ArrayList <> ( ) ;
+	@Getter ( AccessLevel.NONE )
+	private final LocalParseContext root ;
 	private Map <String, ParserRegistry> ontologyCatalog = new HashMap <> ( ) ;
-	private Visitor visitor = new Visitor ( ) ;
 	private Ontology ontology ;
 
+	/**
+	 * Lists with at least this many items have their items built in parallel; 0 builds every
+	 * list on the calling thread.
+	 */
+	private int parallelListThreshold = 0 ;
+
+	/**
+	 * Whether the backlinks to Jects this context did not build, those of the modules it splices in
+	 * and those its references resolve to, are left for {@link #addDeferredBacklinks()}.
+	 */
+	private boolean deferBacklinks ;
+
+	@Getter ( AccessLevel.NONE )
+	@Setter ( AccessLevel.NONE )
+	private Visitor visitor ;
+
 	/**
 	 * Creates a new JectParseContext for building Jects from raw data.
 	 * 
@@ -68,321 +112,779 @@ public class JectParseContext {
 	 * @param ontologyCatalog The catalog of parser registries used for resolving types
 	 */
 	public JectParseContext ( Ject current, String ontologyName, Map <String, Object> rawRemnants, Map <String, ParserRegistry> ontologyCatalog ) {
-		contextStack.push ( new LocalParseContext ( current, ontologyName, rawRemnants ) ) ;
+		this.root = new LocalParseContext ( current, ontologyName, rawRemnants, ParsePath.ROOT ) ;
 		this.ontologyCatalog = ontologyCatalog ;
 		this.ontology = ( Ontology ) current ;
 	}
 
-	@SuppressWarnings ( "unchecked" )
+	/**
+	 * Creates a new JectParseContext with no raw data, for front ends that create Jects themselves
+	 * and only use the context for predicate lookup, identity registration and placeholder resolution.
+	 *
+	 * @param ontology The root Ontology of the graph being built
+	 * @param ontologyCatalog The catalog of parser registries used for resolving types
+	 */
+	public JectParseContext ( Ontology ontology, Map <String, ParserRegistry> ontologyCatalog ) {
+		this ( ontology, ontology.getOntology ( ), Collections.emptyMap ( ), ontologyCatalog ) ;
+	}
+
+	/**
+	 * Builds the Ject graph from the raw data.
+	 */
 	public void buildJects ( ) {
-		LocalParseContext currentContext = contextStack.peek ( ) ;
-		Ject currentJect = currentContext.current ( ) ;
-		String ontologyName = currentContext.ontologyName ( ) ;
-		ParserRegistry ontologyRegistry = ontologyCatalog.get ( ontologyName ) ;
-		if ( ontologyRegistry == null ) {
-			ontologyRegistry = ontologyCatalog.get ( "base" ) ;
+		build ( new BuildFrame ( root.current ( ), root.ontologyName ( ), root.raw ( ), root.path ( ), null, null ) ) ;
+	}
+
+	/**
+	 * Builds the Jects of a module on their own, to be spliced into the Jects that reference it.
+	 * <p>
+	 * The content is built as the items of a list under {@code key}, the key of the list that
+	 * references the module, so its Jects get the types they would get inline. The modules the
+	 * content references must have been built and added first.
+	 *
+	 * @param uri The URI of the module
+	 * @param key The key of the list that references the module
+	 * @param content The loaded module, a map for one Ject or a list of them
+	 * @return The top-level Jects of the module, in order
+	 */
+	List <Ject> buildModule ( URI uri, String key, Object content ) {
+		String ontologyName = root.ontologyName ( ) ;
+		Ject holder = new RuntimeJect ( "module", ontologyName ) ;
+		List <?> items = content instanceof List <?> list ? list : List.of ( content ) ;
+		build ( new BuildFrame ( holder, ontologyName, Map.of ( key, items ), ParsePath.ROOT.child ( "<" + uri + ">" ), null, null ) ) ;
+		Predicate pred = predicateFor ( registryFor ( ontologyName ), key, ontologyName ) ;
+		List <Ject> built = new ArrayList <> ( holder.getSubjects ( ).getOrDefault ( pred, Collections.emptyList ( ) ) ) ;
+		holder.removeTypedSubjects ( pred ) ;
+		// Literal items are converted in the lists they are spliced into
+		literalLists.removeIf ( site -> site.owner ( ) == holder ) ;
+		moduleSites.removeIf ( site -> site.owner ( ) == holder ) ;
+		return built ;
+	}
+
+	/**
+	 * Makes the Jects of a built module available to the {@link ModuleReference}s that name it.
+	 *
+	 * @param uri The URI of the module
+	 * @param jects The top-level Jects of the module, empty for a module that was skipped
+	 */
+	void addBuiltModule ( URI uri, List <Ject> jects ) {
+		builtModules.put ( uri, jects ) ;
+	}
+
+	/**
+	 * Takes over the identities, placeholders and literal lists of a context a module was built
+	 * in, so that one resolution pass covers references between modules.
+	 *
+	 * @param module The context of the module
+	 * @throws IllegalArgumentException if the module defines an id that is already taken
+	 */
+	void absorb ( JectParseContext module ) {
+		for ( Map.Entry <String, Ject> entry : module.identityMap.entrySet ( ) ) {
+			registerIdentity ( entry.getValue ( ), module.identityPaths.get ( entry.getKey ( ) ) ) ;
+		}
+		for ( Placeholder <Ject> placeholder : module.placeholders.values ( ) ) {
+			if ( placeholders.putIfAbsent ( placeholder.getId ( ), placeholder ) != null ) {
+				absorbedPlaceholders.add ( placeholder ) ;
+			}
+		}
+		absorbedPlaceholders.addAll ( module.absorbedPlaceholders ) ;
+		literalLists.addAll ( module.literalLists ) ;
+		moduleSites.addAll ( module.moduleSites ) ;
+		deferredBacklinks.addAll ( module.deferredBacklinks ) ;
+	}
+
+	/**
+	 * Adds the backlinks this context left to other Jects while it deferred them, as when a module
+	 * is rebuilt next to a graph that is read meanwhile and only written once the module is patched
+	 * in.
+	 */
+	void addDeferredBacklinks ( ) {
+		for ( Backlink backlink : deferredBacklinks ) {
+			backlink.subject ( ).addIsObjectOf ( backlink.predicate ( ), backlink.owner ( ) ) ;
 		}
-		Object raw = currentContext.raw ( ) ;
+		deferredBacklinks.clear ( ) ;
+	}
+
+	/**
+	 * Swaps what was absorbed from the context of a module for the context it was rebuilt in.
+	 * <p>
+	 * The rebuilt context must have been resolved, and its ids checked against the others of this
+	 * context, already.
+	 *
+	 * @param stale The context the module was built in before
+	 * @param fresh The context the module was rebuilt in
+	 */
+	void replaceModule ( JectParseContext stale, JectParseContext fresh ) {
+		for ( String id : stale.identityMap.keySet ( ) ) {
+			identityMap.remove ( id ) ;
+			identityPaths.remove ( id ) ;
+		}
+		for ( Map.Entry <String, Ject> entry : fresh.identityMap.entrySet ( ) ) {
+			registerIdentity ( entry.getValue ( ), fresh.identityPaths.get ( entry.getKey ( ) ) ) ;
+		}
+		Set <Object> gone = Collections.newSetFromMap ( new IdentityHashMap <> ( ) ) ;
+		gone.addAll ( stale.placeholders.values ( ) ) ;
+		gone.addAll ( stale.absorbedPlaceholders ) ;
+		gone.addAll ( stale.moduleSites ) ;
+		placeholders.values ( ).removeIf ( gone::contains ) ;
+		absorbedPlaceholders.removeIf ( gone::contains ) ;
+		moduleSites.removeIf ( gone::contains ) ;
+		moduleSites.addAll ( fresh.moduleSites ) ;
+	}
+
+	/**
+	 * Gets the places a module was spliced into, in the order they were built.
+	 * <p>
+	 * Modules spliced straight into the top-level list of another module are not included: their
+	 * Jects became top-level Jects of that module.
+	 *
+	 * @param uri The URI of the module
+	 * @return The owners and predicates of the lists that received the Jects of the module
+	 */
+	List <ModuleSite> moduleSites ( URI uri ) {
+		return moduleSites.stream ( ).filter ( site -> site.uri ( ).equals ( uri ) ).toList ( ) ;
+	}
+
+	/**
+	 * Runs the build walk from a first frame.
+	 * <p>
+	 * The walk is iterative: each node being built is a {@link BuildFrame} on an explicit stack,
+	 * and a frame is popped, registered and attached to its owner as soon as its last child is
+	 * done. The stack is bounded by the nesting depth of the document rather than its size, and
+	 * deeply nested specs cannot overflow the call stack.
+	 */
+	private void build ( BuildFrame first ) {
+		Deque <BuildFrame> stack = new ArrayDeque <> ( ) ;
+		stack.push ( first ) ;
 		try {
+			while ( ! stack.isEmpty ( ) ) {
+				BuildFrame frame = stack.peek ( ) ;
+				BuildFrame child = frame.next ( ) ;
+				if ( child != null ) {
+					stack.push ( child ) ;
+				} else {
+					stack.pop ( ) ;
+					frame.finish ( ) ;
+				}
+			}
+		} catch ( ReflectiveOperationException e ) {
+			throw new RuntimeException ( "Error while building Jects: " + e.getMessage ( ), e ) ;
+		}
+	}
+
+	/**
+	 * One node of the build walk: a Ject, the raw value it is built from, and how far its
+	 * entries (or the list currently being expanded) have been consumed.
+	 * <p>
+	 * A {@link ModuleReference} in a list is replaced by the Jects of the module it names, which
+	 * was built beforehand.
+	 */
+	private final class BuildFrame {
+
+		private final Ject ject ;
+		private final String ontologyName ;
+		private final ParserRegistry registry ;
+		private final ParsePath path ;
+		private final Ject owner ;
+		private final Predicate via ;
+		private final Iterator <Map.Entry <String, Object>> entries ;
+
+		private Predicate listPredicate ;
+		private List <?> list ;
+		private ParsePath listPath ;
+		private int listIndex ;
+		private int listEnd ;
+		private boolean mapItemsOnly ;
+		private boolean literalItems ;
+
+		@SuppressWarnings ( "unchecked" )
+		BuildFrame ( Ject ject, String ontologyName, Object raw, ParsePath path, Ject owner, Predicate via ) {
+			this.ject = ject ;
+			this.ontologyName = ontologyName ;
+			this.registry = registryFor ( ontologyName ) ;
+			this.path = path ;
+			this.owner = owner ;
+			this.via = via ;
 			if ( raw instanceof Map ) {
-				Map <String, Object> rawMap = ( Map <String, Object> ) raw ;
-				for ( String predicateName : rawMap.keySet ( ) ) {
-					Predicate pred = ontologyRegistry.getPredicate ( predicateName, ontologyName ) ;
-					
-					// Handle null predicate by creating a RuntimePredicate
-					if (pred == null) {
-						pred = new RuntimePredicate(predicateName, "unknown", ontologyName);
-						log.debug("Created runtime predicate '{}' for ontology '{}'", predicateName, ontologyName);
-					}
-					
-					PredicateQualifier qualifier = pred.qualifier ( ) ;
-					Object value = rawMap.get ( predicateName ) ;
-					if ( value instanceof Map ) {
-						// Handle nested Ject creation
-						handleNestedJectCreation ( currentContext, pred, ( Map <String, Object> ) value ) ;
-					} else if ( value instanceof List children ) {
-						// Handle lists of Jects
-						if ( qualifier.subjectType ( ) != null ) {
-							handleJestListCreation ( currentContext, pred, children ) ;
-						} else if ( qualifier.scalarType ( ) != null ) {
-							// Handle scalar lists
-							handleScalarListCreation ( currentContext, pred, children ) ;
-						} else {
-							throw new IllegalArgumentException ( "Invalid predicate qualifier for list: " + predicateName ) ;
+				entries = ( ( Map <String, Object> ) raw ).entrySet ( ).iterator ( ) ;
+			} else {
+				entries = Collections.emptyIterator ( ) ;
+				if ( raw instanceof List <?> children ) {
+					// Handle list of Jects at the root level
+					startList ( BasePredicate.root, children, path, true ) ;
+				} else if ( raw != null ) {
+					// Handle scalar properties directly on the Ject
+					ject.addScalar ( BasePredicate.literal, raw ) ;
+				}
+			}
+		}
+
+		/**
+		 * Consumes entries until one needs a child Ject to be built.
+		 *
+		 * @return The frame for the next child, or null when this Ject is complete
+		 */
+		@SuppressWarnings ( "unchecked" )
+		BuildFrame next ( ) throws ReflectiveOperationException {
+			while ( true ) {
+				if ( list != null ) {
+					if ( listIndex < listEnd ) {
+						BuildFrame child = listItem ( ) ;
+						if ( child != null ) {
+							return child ;
 						}
-					} else {
-						// Handle scalar properties
-						currentJect.addScalar ( pred, value ) ;
+						continue ;
+					}
+					if ( literalItems ) {
+						addLiteralList ( ject, listPredicate ) ;
 					}
+					list = null ;
 				}
-			} else if ( raw instanceof List ) {
-				// Handle list of Jects at the root level
-				Predicate pred = BasePredicate.root ;
-				String predicateName = pred.name ( ) ;
-				Class <? extends Ject> subjectType = ontologyRegistry.getRootSubjectType ( predicateName ) ;
-				List <Object> children = ( List <Object> ) raw ;
-				for ( Object child : children ) {
-					if ( child instanceof Map childMap ) {
-						visitor.childContext ( predicateName + "-" + visitor.increment ( ) ) ;
-						Ject newInstance = subjectType.getConstructor ( ).newInstance ( ) ;
-						contextStack.push ( new LocalParseContext ( newInstance, ontologyName, childMap ) ) ;
-						buildJects ( ) ;
-						currentJect.addTypedSubject ( pred, newInstance ) ;
-						visitor.pop ( ) ;
+				if ( ! entries.hasNext ( ) ) {
+					return null ;
+				}
+				Map.Entry <String, Object> entry = entries.next ( ) ;
+				String predicateName = entry.getKey ( ) ;
+				Predicate pred = predicateFor ( registry, predicateName, ontologyName ) ;
+				PredicateQualifier qualifier = pred.qualifier ( ) ;
+				Object value = entry.getValue ( ) ;
+				if ( value instanceof Map ) {
+					// Handle nested Ject creation
+					Map <String, Object> childContent = ( Map <String, Object> ) value ;
+					if ( childContent.containsKey ( "ref" ) ) {
+						String refId = ( String ) childContent.get ( "ref" ) ;
+						ject.addTypedSubject ( pred, getOrCreatePlaceholder ( refId, qualifier.subjectType ( ).getSimpleName ( ), ontologyName ) ) ;
 					} else {
-						throw new IllegalArgumentException ( "Invalid child type for predicate: " + predicateName ) ;
+						Ject child = instantiate ( qualifier.subjectType ( ), predicateName, ontologyName ) ;
+						return new BuildFrame ( child, ontologyName, childContent, path.child ( predicateName ), ject, pred ) ;
 					}
-				}
-			} else {
-				// Handle scalar properties directly on the Ject
-				if ( raw != null ) {
-					currentJect.addScalar ( BasePredicate.literal, raw ) ;
+				} else if ( value instanceof List <?> children ) {
+					// Handle lists of Jects
+					if ( qualifier.subjectType ( ) != null ) {
+						startList ( pred, children, path.child ( predicateName ), false ) ;
+					} else if ( qualifier.scalarType ( ) != null ) {
+						// Handle scalar lists
+						ject.addScalar ( pred, new ArrayList <> ( children ) ) ;
+					} else {
+						throw new IllegalArgumentException ( "Invalid predicate qualifier for list: " + predicateName ) ;
+					}
+				} else {
+					// Handle scalar properties
+					ject.addScalar ( pred, value ) ;
 				}
 			}
-			if ( currentJect.getId ( ) != null ) {
-				identityMap.put ( currentJect.getId ( ), currentJect ) ;
+		}
+
+		private void startList ( Predicate pred, List <?> children, ParsePath childrenPath, boolean mapsOnly ) {
+			listRange ( pred, children, childrenPath, mapsOnly, 0, children.size ( ) ) ;
+			if ( parallelListThreshold > 0 && children.size ( ) >= parallelListThreshold ) {
+				buildListInParallel ( ) ;
 			}
-		} catch ( InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e ) {
-			throw new RuntimeException ( "Error while building Jects: " + e.getMessage ( ), e ) ;
 		}
-	}
 
-	private void handleScalarListCreation ( LocalParseContext currentContext, Predicate pred, List <Object> children ) {
-		Ject currentJect = currentContext.current ( ) ;
-		List <Object> scalarList = new ArrayList <> ( ) ;
-		for ( Object child : children ) {
-			scalarList.add ( child ) ;
+		private void listRange ( Predicate pred, List <?> children, ParsePath childrenPath, boolean mapsOnly, int from, int to ) {
+			listPredicate = pred ;
+			list = children ;
+			listPath = childrenPath ;
+			listIndex = from ;
+			listEnd = to ;
+			mapItemsOnly = mapsOnly ;
+			literalItems = false ;
 		}
-		currentJect.addScalar ( pred, scalarList ) ;
-	}
 
-	private void handleJestListCreation ( LocalParseContext currentContext, Predicate pred, List <Object> children )
-			throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
-		Ject currentJect = currentContext.current ( ) ;
-		String ontologyName = currentContext.ontologyName ( ) ;
-		String predicateName = pred.name ( ) ;
-		PredicateQualifier qualifier = pred.qualifier ( ) ;
-		Class <? extends Ject> subjectType = qualifier.subjectType ( ) ;
-		List <Object> parsedChildren = new ArrayList <> ( ) ;
-
-		for ( Object child : children ) {
-			visitor.childContext ( predicateName + "-" + visitor.increment ( ) ) ;
-			Ject newInstance = null ;
-			if ( RuntimeJect.class.equals ( subjectType ) ) {
-				newInstance = new RuntimeJect ( predicateName, ontologyName ) ;
-			} else {
-				newInstance = subjectType.getConstructor ( ).newInstance ( ) ;
+		/**
+		 * Builds the items of the current list in parallel and attaches them in order.
+		 * <p>
+		 * The items are split into ranges, and each range is built on the ForkJoinPool under a holder
+		 * Ject in a context of its own, the way a module is. The Jects are then moved to this Ject in
+		 * document order and the contexts are absorbed, so the ids, placeholders and literal lists of
+		 * the items are merged before anything is resolved.
+		 */
+		private void buildListInParallel ( ) {
+			int size = listEnd - listIndex ;
+			int grain = Math.max ( PARALLEL_GRAIN, size / ( ForkJoinPool.getCommonPoolParallelism ( ) * 4 ) ) ;
+			List <ForkJoinTask <ListRange>> tasks = new ArrayList <> ( ) ;
+			for ( int from = listIndex ; from < listEnd ; from += grain ) {
+				int start = from ;
+				int end = Math.min ( listEnd, from + grain ) ;
+				tasks.add ( ForkJoinTask.adapt ( ( ) -> buildRange ( start, end ) ) ) ;
 			}
-			parsedChildren.add ( newInstance ) ;
-			contextStack.push ( new LocalParseContext ( newInstance, ontologyName, child ) ) ;
-			buildJects ( ) ;
-			visitor.pop ( ) ;
-		}
-		if ( currentJect != null ) {
-			for ( Object child : parsedChildren ) {
-				if ( child instanceof Ject jectChild ) {
-					currentJect.addTypedSubject ( pred, jectChild ) ;
-				} else {
-					throw new IllegalArgumentException ( "Invalid child type for predicate: " + predicateName ) ;
+			ForkJoinTask.invokeAll ( tasks ) ;
+			List <ListRange> ranges = tasks.stream ( ).map ( ForkJoinTask::join ).toList ( ) ;
+			for ( ListRange range : ranges ) {
+				if ( range.error ( ) != null ) {
+					// The first failing range is the one the sequential build would have failed in
+					throw range.error ( ) ;
+				}
+			}
+			for ( ListRange range : ranges ) {
+				List <Ject> items = range.holder ( ).getSubjects ( ).getOrDefault ( listPredicate, Collections.emptyList ( ) ) ;
+				Set <Ject> spliced = Collections.newSetFromMap ( new IdentityHashMap <> ( ) ) ;
+				for ( Backlink backlink : range.context ( ).deferredBacklinks ) {
+					if ( backlink.owner ( ) == range.holder ( ) ) {
+						spliced.add ( backlink.subject ( ) ) ;
+					}
+				}
+				for ( Ject item : items ) {
+					if ( spliced.contains ( item ) ) {
+						// Its backlink to the holder was deferred, and is moved below
+						ject.addTypedSubjectWithoutBacklink ( listPredicate, item ) ;
+						continue ;
+					}
+					// Jects of modules are shared with other builds
+					synchronized ( item ) {
+						List <Ject> backlinks = item.getIsObjectOf ( ).get ( listPredicate ) ;
+						for ( int i = backlinks.size ( ) - 1 ; i >= 0 ; i-- ) {
+							if ( backlinks.get ( i ) == range.holder ( ) ) {
+								backlinks.remove ( i ) ;
+								break ;
+							}
+						}
+						if ( backlinks.isEmpty ( ) ) {
+							item.getIsObjectOf ( ).remove ( listPredicate ) ;
+						}
+						ject.addTypedSubject ( listPredicate, item ) ;
+					}
 				}
+				range.context ( ).literalLists.replaceAll ( site -> site.owner ( ) == range.holder ( ) ? new ListSite ( ject, site.predicate ( ) ) : site ) ;
+				range.context ( ).moduleSites.replaceAll ( site -> site.owner ( ) == range.holder ( ) ? new ModuleSite ( ject, site.predicate ( ), site.uri ( ) ) : site ) ;
+				range.context ( ).deferredBacklinks.replaceAll ( backlink -> backlink.owner ( ) == range.holder ( ) ? new Backlink ( backlink.subject ( ), backlink.predicate ( ), ject ) : backlink ) ;
+				absorb ( range.context ( ) ) ;
 			}
+			listIndex = listEnd ;
 		}
-	}
 
-	private void handleNestedJectCreation ( LocalParseContext currentContext, Predicate pred, Map <String, Object> value )
-			throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
-		Ject currentJect = currentContext.current ( ) ;
-		PredicateQualifier qualifier = pred.qualifier ( ) ;
-		String predicateName = pred.name ( ) ;
-		String ontologyName = currentContext.ontologyName ( ) ;
-		Map <String, Object> childContent = ( Map <String, Object> ) value ;
-		if ( childContent.containsKey ( "ref" ) ) {
-			String refId = ( String ) childContent.get ( "ref" ) ;
-			Placeholder <Ject> placeholder = getOrCreatePlaceholder ( refId, qualifier.subjectType ( ).getSimpleName ( ), ontologyName ) ;
-			if ( currentJect != null ) {
-				currentJect.addTypedSubject ( pred, placeholder ) ;
+		/**
+		 * Builds a range of the items of the current list in a context of its own.
+		 */
+		private ListRange buildRange ( int from, int to ) {
+			JectParseContext context = new JectParseContext ( ontology, root.ontologyName ( ), Collections.emptyMap ( ), ontologyCatalog ) ;
+			context.builtModules.putAll ( builtModules ) ;
+			context.parallelListThreshold = parallelListThreshold ;
+			context.deferBacklinks = deferBacklinks ;
+			Ject holder = new RuntimeJect ( "items", ontologyName ) ;
+			BuildFrame frame = context.new BuildFrame ( holder, ontologyName, null, path, null, null ) ;
+			frame.listRange ( listPredicate, list, listPath, mapItemsOnly, from, to ) ;
+			try {
+				context.build ( frame ) ;
+			} catch ( RuntimeException e ) {
+				return new ListRange ( context, holder, e ) ;
 			}
-		} else {
-			Class <? extends Ject> subjectType = qualifier.subjectType ( ) ;
-			Ject newInstance = null ;
-			if ( RuntimeJect.class.equals ( subjectType ) ) {
-				newInstance = new RuntimeJect ( predicateName, ontologyName ) ;
-			} else {
-				newInstance = subjectType.getConstructor ( ).newInstance ( ) ;
+			return new ListRange ( context, holder, null ) ;
+		}
+
+		/**
+		 * Takes the next item of the list.
+		 *
+		 * @return The frame for the item, or null if the item was a module reference
+		 */
+		private BuildFrame listItem ( ) throws ReflectiveOperationException {
+			int index = listIndex++ ;
+			Object item = list.get ( index ) ;
+			if ( item instanceof ModuleReference reference ) {
+				splice ( reference.uri ( ) ) ;
+				return null ;
+			}
+			String predicateName = listPredicate.name ( ) ;
+			if ( mapItemsOnly && ! ( item instanceof Map ) ) {
+				throw new IllegalArgumentException ( "Invalid child type for predicate: " + predicateName ) ;
 			}
-			visitor.childContext ( predicateName + "-" + visitor.increment ( ) ) ;
-			contextStack.push ( new LocalParseContext ( newInstance, ontologyName, childContent ) ) ;
-			buildJects ( ) ;
-			if ( currentJect != null ) {
-				currentJect.addTypedSubject ( pred, newInstance ) ;
+			literalItems |= ! ( item instanceof Map || item instanceof List ) ;
+			Class <? extends Ject> subjectType = mapItemsOnly ? registry.getRootSubjectType ( predicateName ) : listPredicate.qualifier ( ).subjectType ( ) ;
+			Ject child = instantiate ( subjectType, predicateName, ontologyName ) ;
+			return new BuildFrame ( child, ontologyName, item, listPath.item ( index ), ject, listPredicate ) ;
+		}
+
+		/**
+		 * Attaches the Jects of a referenced module in place of the reference.
+		 */
+		private void splice ( URI uri ) {
+			List <Ject> built = builtModules.get ( uri ) ;
+			if ( built == null ) {
+				throw new IllegalStateException ( "Module referenced before it was built: " + uri ) ;
+			}
+			moduleSites.add ( new ModuleSite ( ject, listPredicate, uri ) ) ;
+			for ( Ject item : built ) {
+				literalItems |= ! ( item.resolveLiterals ( ) instanceof Ject ) ;
+				if ( deferBacklinks ) {
+					ject.addTypedSubjectWithoutBacklink ( listPredicate, item ) ;
+					deferredBacklinks.add ( new Backlink ( item, listPredicate, ject ) ) ;
+					continue ;
+				}
+				// A module referenced from several modules is attached by parallel builds
+				synchronized ( item ) {
+					ject.addTypedSubject ( listPredicate, item ) ;
+				}
+			}
+		}
+
+		/**
+		 * Registers the completed Ject and attaches it to the Ject that owns it.
+		 */
+		void finish ( ) {
+			registerIdentity ( ject, path ) ;
+			if ( owner != null ) {
+				owner.addTypedSubject ( via, ject ) ;
 			}
-			visitor.pop ( ) ;
 		}
 	}
 
+	/**
+	 * Gets the registry for an ontology, falling back to the base registry.
+	 *
+	 * @param ontologyName The ontology name
+	 * @return The registry to resolve predicates and root types against
+	 */
+	ParserRegistry registryFor ( String ontologyName ) {
+		ParserRegistry ontologyRegistry = ontologyCatalog.get ( ontologyName ) ;
+		return ontologyRegistry == null ? ontologyCatalog.get ( "base" ) : ontologyRegistry ;
+	}
+
+	/**
+	 * Looks up a predicate by its YAML key, creating a RuntimePredicate when the registry has none.
+	 *
+	 * @param ontologyRegistry The registry of the ontology being parsed
+	 * @param predicateName The YAML key
+	 * @param ontologyName The ontology name
+	 * @return The registered predicate, or the pooled RuntimePredicate for unknown keys, carrying the
+	 *         registry's qualifier policy for the "unknown" space
+	 */
+	Predicate predicateFor ( ParserRegistry ontologyRegistry, String predicateName, String ontologyName ) {
+		Predicate pred = ontologyRegistry.getPredicate ( predicateName, ontologyName ) ;
+		if ( pred == null ) {
+			pred = RuntimePredicate.of ( predicateName, UNKNOWN_SPACE, ontologyName, ontologyRegistry.getRuntimeQualifier ( UNKNOWN_SPACE ) ) ;
+			log.debug ( "Using runtime predicate '{}' for ontology '{}'", predicateName, ontologyName ) ;
+		}
+		return pred ;
+	}
+
+	/**
+	 * Creates the Ject for a child node reached through a predicate, using the cached
+	 * factory for its class.
+	 *
+	 * @param subjectType The subject type declared by the predicate's qualifier
+	 * @param predicateName The predicate name, used as the type name of RuntimeJects
+	 * @param ontologyName The ontology name
+	 * @return A new, empty Ject
+	 * @throws ReflectiveOperationException if the subject type has no public no-arg constructor
+	 */
+	Ject instantiate ( Class <? extends Ject> subjectType, String predicateName, String ontologyName ) throws ReflectiveOperationException {
+		if ( subjectType == null ) {
+			throw new IllegalArgumentException ( "No subject type for predicate: " + predicateName ) ;
+		}
+		if ( RuntimeJect.class.equals ( subjectType ) ) {
+			return new RuntimeJect ( predicateName, ontologyName ) ;
+		}
+		Supplier <? extends Ject> factory = JectFactories.factory ( subjectType ) ;
+		if ( factory == null ) {
+			throw new NoSuchMethodException ( subjectType.getName ( ) + ".<init>()" ) ;
+		}
+		return factory.get ( ) ;
+	}
+
+	/**
+	 * Registers a finished Ject under its id, failing on the first id that is already taken.
+	 * <p>
+	 * This is the only duplicate check: every id is recorded exactly once, by the build walk
+	 * that creates its Ject.
+	 *
+	 * @param ject The Ject to register; Jects without an id are ignored
+	 * @param path Where the Ject was found in the document
+	 * @throws IllegalArgumentException if another Ject already uses the same id
+	 */
+	void registerIdentity ( Ject ject, ParsePath path ) {
+		String id = ject.getId ( ) ;
+		if ( id == null ) {
+			return ;
+		}
+		Ject existing = identityMap.putIfAbsent ( id, ject ) ;
+		if ( existing != null && existing != ject ) {
+			log.error ( "Duplicate ID detected: {} at {} and {}", id, identityPaths.get ( id ), path ) ;
+			throw new IllegalArgumentException ( "Duplicate IDs detected: '" + id + "' at " + identityPaths.get ( id ) + " and " + path ) ;
+		}
+		identityPaths.put ( id, path ) ;
+	}
+
 	public Placeholder <Ject> getOrCreatePlaceholder ( String id, String typeName, String ontology ) {
 		return placeholders.computeIfAbsent ( id, k -> new Placeholder <> ( id, typeName, ontology ) ) ;
 	}
 
+	/**
+	 * Makes a placeholder built outside this context known to it, so that {@link #resolveAll()}
+	 * resolves it, or fails if its id is never defined. Placeholders from
+	 * {@link #getOrCreatePlaceholder} are known already.
+	 *
+	 * @param placeholder The placeholder
+	 */
+	@SuppressWarnings ( "unchecked" )
+	void track ( Placeholder <? extends Ject> placeholder ) {
+		Placeholder <Ject> tracked = ( Placeholder <Ject> ) placeholder ;
+		if ( placeholders.putIfAbsent ( tracked.getId ( ), tracked ) != null && placeholders.get ( tracked.getId ( ) ) != tracked ) {
+			absorbedPlaceholders.add ( tracked ) ;
+		}
+	}
+
+	/**
+	 * Resolves every placeholder against the identity map and patches the slots that reference it.
+	 * <p>
+	 * Placeholders record their reference sites as they are attached, so the cost of this step
+	 * scales with the number of {@code ref} usages rather than with the size of the graph.
+	 * Placeholders that were created but never attached may stay unresolved. Placeholders built by
+	 * hand are only resolved once {@linkplain #track tracked}. Lists that received scalar items are
+	 * converted to scalar lists first.
+	 *
+	 * @throws IllegalStateException if a referenced id was never defined, or a list mixes
+	 *         literals with Jects
+	 */
 	public void resolveAll ( ) {
-		for ( Map.Entry <String, Placeholder <Ject>> entry : placeholders.entrySet ( ) ) {
-			String id = entry.getKey ( ) ;
-			Placeholder <Ject> placeholder = entry.getValue ( ) ;
-			Ject ject = identityMap.get ( id ) ;
+		resolveAll ( identityMap ) ;
+	}
+
+	/**
+	 * Resolves every placeholder of this context against the Jects of a larger graph, as when a
+	 * module is rebuilt on its own and its references leave the module.
+	 *
+	 * @param identities The Jects to resolve against, by id
+	 * @throws IllegalStateException if a referenced id is not among them, or a list mixes
+	 *         literals with Jects
+	 */
+	void resolveAll ( Map <String, ? extends Ject> identities ) {
+		for ( ListSite site : literalLists ) {
+			convertLiterals ( site.owner ( ), site.predicate ( ) ) ;
+		}
+		literalLists.clear ( ) ;
+		for ( Placeholder <Ject> placeholder : allPlaceholders ( ) ) {
+			Ject ject = identities.get ( placeholder.getId ( ) ) ;
+			if ( ject == null && placeholder.isReferenced ( ) ) {
+				throw new IllegalStateException ( "Unresolved placeholder in relation: " + placeholder.getId ( ) ) ;
+			}
 			placeholder.resolve ( ject ) ; // Resolve the placeholder with the Ject from identityMap
+			if ( deferBacklinks && ject != null && identityMap.get ( ject.getId ( ) ) != ject ) {
+				placeholder.patchReferences ( ( predicate, owner ) -> deferredBacklinks.add ( new Backlink ( ject, predicate, owner ) ) ) ;
+			} else {
+				placeholder.patchReferences ( ) ;
+			}
 		}
-		Queue <Ject> queue = new LinkedList <> ( ) ;
-		Map <Ject, String> visited = new IdentityHashMap <> ( ) ; // Track visited Jects to avoid cycles
-		queue.add ( ontology ) ; // Start with the root ontology
-		while ( ! queue.isEmpty ( ) ) {
-			Ject current = queue.poll ( ) ;
-			if ( visited.containsKey ( current ) ) {
-				continue ; // Skip already visited Ject to avoid cycles
+	}
+
+	/**
+	 * Prepares placeholders to resolve themselves the first time they are touched, instead of
+	 * patching every reference now. The backlinks of the referenced Jects are added now, so they
+	 * are complete before any reference is touched.
+	 * <p>
+	 * Ids are still checked up front, so a reference to an undefined id fails the parse exactly as
+	 * it does in {@link #resolveAll()}.
+	 *
+	 * @throws IllegalStateException if a referenced id was never defined, or a list mixes
+	 *         literals with Jects
+	 */
+	public void resolveLazily ( ) {
+		for ( ListSite site : literalLists ) {
+			convertLiterals ( site.owner ( ), site.predicate ( ) ) ;
+		}
+		literalLists.clear ( ) ;
+		for ( Placeholder <Ject> placeholder : allPlaceholders ( ) ) {
+			if ( placeholder.isReferenced ( ) && ! identityMap.containsKey ( placeholder.getId ( ) ) ) {
+				throw new IllegalStateException ( "Unresolved placeholder in relation: " + placeholder.getId ( ) ) ;
+			}
+			placeholder.resolveFrom ( identityMap ) ;
+		}
+	}
+
+	private List <Placeholder <Ject>> allPlaceholders ( ) {
+		List <Placeholder <Ject>> all = new ArrayList <> ( placeholders.values ( ) ) ;
+		all.addAll ( absorbedPlaceholders ) ;
+		return all ;
+	}
+
+	/**
+	 * Records a list that received scalar items, to be converted by {@link #resolveAll()}.
+	 *
+	 * @param owner The Ject that owns the list
+	 * @param pred The predicate of the list
+	 */
+	void addLiteralList ( Ject owner, Predicate pred ) {
+		literalLists.add ( new ListSite ( owner, pred ) ) ;
+	}
+
+	/**
+	 * Turns a completed list of literal Jects into a scalar list on its owner.
+	 * <p>
+	 * Scalar items under a Ject-typed predicate are built as literal RuntimeJects. A list made only
+	 * of literals becomes the owner's scalar values for the predicate.
+	 *
+	 * @param owner The Ject that owns the list
+	 * @param pred The predicate of the list
+	 * @throws IllegalStateException if the list mixes literals with Jects or references
+	 */
+	void convertLiterals ( Ject owner, Predicate pred ) {
+		List <Ject> items = owner.getSubjects ( ).get ( pred ) ;
+		if ( items == null || items.isEmpty ( ) ) {
+			return ;
+		}
+		List <Object> literals = new ArrayList <> ( items.size ( ) ) ;
+		boolean jects = false ;
+		for ( Ject item : items ) {
+			Object resolved = item.resolveLiterals ( ) ;
+			if ( resolved instanceof Ject ) {
+				jects = true ;
 			} else {
-				visited.put ( current, "X" ) ; // Mark current Ject as visited
+				literals.add ( resolved ) ;
 			}
-			resolveRelations ( current ) ; // Resolve relations for the current Ject
-			for ( List <Ject> subjects : current.getSubjects ( ).values ( ) ) {
-				queue.addAll ( subjects ); // Add all subjects to the queue for further processing
+			if ( jects && ! literals.isEmpty ( ) ) {
+				throw new IllegalStateException ( "Mixed content detected in list for predicate: " + pred.name ( ) +
+						". Lists must contain either all Jects or all scalar values." ) ;
 			}
 		}
+		if ( ! jects ) {
+			owner.setScalars ( pred, literals ) ;
+			owner.removeTypedSubjects ( pred ) ;
+		}
 	}
 
-	// Update in bill.zkaifleet.parser.OntologyParser (in resolveRelations, handle literal conversion in lists)
+	/**
+	 * Resolves the relations of one Ject: patches the resolved placeholders among its subjects,
+	 * converts its lists of literals to scalars, and checks that its backlinks do not mix literals
+	 * with Jects.
+	 *
+	 * @param ject The Ject
+	 * @throws IllegalStateException if a placeholder among its subjects is not resolved, or a list
+	 *         mixes literals with Jects
+	 * @deprecated {@link #resolveAll()} patches every reference site of a parse without walking
+	 *             the graph Ject by Ject
+	 */
+	@Deprecated
 	public void resolveRelations ( Ject ject ) {
-	    // Create a copy of the subjects to avoid concurrent modification
-	    Map<Predicate, List<Ject>> subjectsCopy = new HashMap<>(ject.getSubjects()) ;
-	    
-	    // Traverse and replace placeholders in subjects
-	    for (Map.Entry<Predicate, List<Ject>> entry : subjectsCopy.entrySet()) {
-			boolean literals = false ;
-			boolean placeHolders = false ;
+		for ( Predicate pred : List.copyOf ( ject.getSubjects ( ).keySet ( ) ) ) {
+			for ( Ject item : List.copyOf ( ject.getSubjects ( ).get ( pred ) ) ) {
+				if ( item instanceof Placeholder <?> placeholder ) {
+					if ( placeholder.getResolved ( ) == null ) {
+						throw new IllegalStateException ( "Unresolved placeholder in relation: " + placeholder.getId ( ) ) ;
+					}
+					placeholder.patchReferences ( ) ;
+				}
+			}
+			convertLiterals ( ject, pred ) ;
+		}
+		for ( Map.Entry <Predicate, List <Ject>> entry : ject.getIsObjectOf ( ).entrySet ( ) ) {
 			boolean jects = false ;
-	        List<Object> resolvedList = new ArrayList<>() ; // Use Object to hold Jects or scalars
-	        for (Ject item : entry.getValue()) {
-	            Object resolvedItem = item.resolveLiterals() ; // Convert if literal
-	            if (resolvedItem instanceof Placeholder) {
-		        	placeHolders = true ;
-	                Placeholder<?> placeholder = (Placeholder<?>) resolvedItem ;
-	                if (placeholder.getResolved() != null) {
-	                    resolvedList.add(placeholder.getResolved().resolveLiterals()) ;
-	                } else {
-	                    throw new IllegalStateException("Unresolved placeholder in relation: " + placeholder.getId()) ;
-	                }
-	            } else if ( ! ( resolvedItem instanceof Ject ) ) {
-	                // If resolvedItem is not a Ject, treat it as a literal scalar
-	                // This is where we handle literals in the relation
-	            	literals = true ;
-	                resolvedList.add(resolvedItem) ;
-	            } else {
-	                // Regular Ject object
-	                jects = true ;
-	                resolvedList.add(resolvedItem) ;
-	            }
-	            
-	            // Check for mixed content (Jects and literals in the same list)
-	            if ((literals && jects) || (literals && placeHolders)) {
-	                throw new IllegalStateException("Mixed content detected in list for predicate: " + entry.getKey().name() +
-	                        ". Lists must contain either all Jects or all scalar values.") ;
-	            }
-	        }
-
-	        if ( placeHolders && literals ) {
-	        	throw new IllegalStateException("Cannot mix Jects and literals in the same relation: " + entry.getKey().name()) ;
-	        } else if ( literals ) {
-	        	ject.setScalars ( entry.getKey ( ), resolvedList ) ; // If all scalars, add as scalar
-	        	ject.removeTypedSubjects ( entry.getKey ( ) ) ; // Remove the relation if only scalars
-	        } else {
-	        	List<Ject> resolvedJects = new ArrayList<>() ;
-	        	for (Object obj : resolvedList) {
-	        	    if (obj instanceof Ject jectObj) {
-	        	        resolvedJects.add(jectObj) ;
-	        	    } else if (obj instanceof Map) {
-	        	        // If we encounter a Map that's not a Ject, that's an error - we don't allow mixed content
-	        	        throw new IllegalStateException("Mixed content detected in list for predicate: " + entry.getKey().name() +
-	        	                ". Found a Map that is not a Ject object.") ;
-	        	    }
-	        	}
-	        	
-	        	// Replace the original list
-	        	if (ject.getSubjects().containsKey(entry.getKey())) {
-	        	    ject.getSubjects().put(entry.getKey(), new ArrayList<>(resolvedJects)) ;
-	        	    
-	        	    // Update back references
-	        	    for (Ject jectItem : resolvedJects) {
-	        	        jectItem.addIsObjectOf(entry.getKey(), ject) ;
-	        	    }
-	        	}
-	        }
-	    }
-
-	    // Create a copy of isObjectOf to avoid concurrent modification
-	    Map<Predicate, List<Ject>> isObjectOfCopy = new HashMap<>(ject.getIsObjectOf()) ;
-	    
-	    // Similarly for isObjectOf
-	    for (Map.Entry<Predicate, List<Ject>> entry : isObjectOfCopy.entrySet()) {
 			boolean literals = false ;
-			boolean jects = false ;
-	        List<Object> resolvedList = new ArrayList<>() ;
-	        for (Ject item : entry.getValue()) {
-	            Object resolvedItem = item.resolveLiterals() ;
-	            if (resolvedItem instanceof Placeholder) {
-	            	jects = true ;
-	                Placeholder<?> placeholder = (Placeholder<?>) resolvedItem ;
-	                if (placeholder.getResolved() != null) {
-	                    resolvedList.add(placeholder.getResolved().resolveLiterals()) ;
-	                } else {
-	                    throw new IllegalStateException("Unresolved placeholder in isObjectOf: " + placeholder.getId()) ;
-	                }
-	            } else if ( ! ( resolvedItem instanceof Ject ) ) {
-	            	literals = true ;
-	                resolvedList.add(resolvedItem) ;
-	            } else {
-	                // Regular Ject object
-	                jects = true ;
-	                resolvedList.add(resolvedItem) ;
-	            }
-	            
-	            // Check for mixed content in isObjectOf
-	            if (literals && jects) {
-	                throw new IllegalStateException("Mixed content detected in isObjectOf list for predicate: " + 
-	                        entry.getKey().name() + ". Lists must contain either all Jects or all scalar values.") ;
-	            }
-	        }
-	        
-	        if ( jects && literals ) {
-	        	throw new IllegalStateException("Cannot mix Jects and literals in the same isObjectOf relation: " + entry.getKey().name()) ;
-	        } else if ( literals ) {
-	        	ject.setScalars ( entry.getKey ( ), resolvedList ) ; // If all scalars, add as scalar
-	        	// Also remove from isObjectOf
-	        	if (ject.getIsObjectOf().containsKey(entry.getKey())) {
-	        	    ject.getIsObjectOf().remove(entry.getKey()) ;
-	        	}
-	        } else {
-	        	List<Ject> resolvedJects = new ArrayList<>() ;
-	        	for (Object obj : resolvedList) {
-	        	    if (obj instanceof Ject jectObj) {
-	        	        resolvedJects.add(jectObj) ;
-	        	    } else if (obj instanceof Map) {
-	        	        // If we encounter a Map that's not a Ject, that's an error
-	        	        throw new IllegalStateException("Mixed content detected in isObjectOf list for predicate: " + 
-	        	                entry.getKey().name() + ". Found a Map that is not a Ject object.") ;
-	        	    }
-	        	}
-	        	
-	        	// Replace the original list
-	        	if (ject.getIsObjectOf().containsKey(entry.getKey())) {
-	        	    ject.getIsObjectOf().put(entry.getKey(), new ArrayList<>(resolvedJects)) ;
-	        	}
-	        }
-	    }
+			for ( Ject owner : entry.getValue ( ) ) {
+				if ( owner.resolveLiterals ( ) instanceof Ject ) {
+					jects = true ;
+				} else {
+					literals = true ;
+				}
+			}
+			if ( jects && literals ) {
+				throw new IllegalStateException ( "Mixed content detected in isObjectOf list for predicate: " + entry.getKey ( ).name ( ) +
+						". Lists must contain either all Jects or all scalar values." ) ;
+			}
+		}
 	}
 
 	public boolean hasSeen ( String id ) {
 		return placeholders.containsKey ( id ) ;
 	}
 
-	private record LocalParseContext ( Ject current, String ontologyName, Object raw ) { ; }
+	private record LocalParseContext ( Ject current, String ontologyName, Object raw, ParsePath path ) { ; }
+
+	private record ListSite ( Ject owner, Predicate predicate ) { ; }
+
+	/**
+	 * A range of list items built in parallel: the context and holder Ject they were built in, or
+	 * the error the build failed with.
+	 */
+	private record ListRange ( JectParseContext context, Ject holder, RuntimeException error ) { ; }
+
+	/**
+	 * A list the Jects of a module were spliced into.
+	 */
+	record ModuleSite ( Ject owner, Predicate predicate, URI uri ) { ; }
+
+	/**
+	 * A backlink to be added to a Ject that another Ject holds as a subject.
+	 */
+	private record Backlink ( Ject subject, Predicate predicate, Ject owner ) { ; }
+
+	/**
+	 * A list item in the raw data that stands for the content of another module, put there by the
+	 * {@link ModuleLoader} in place of the reference string.
+	 */
+	record ModuleReference ( URI uri ) { ; }
+
+	/**
+	 * The location of a node in the YAML document, kept as a chain of segments and only rendered
+	 * (as e.g. {@code $.fleet.roles[2]}) when an error needs to report it.
+	 */
+	record ParsePath ( ParsePath parent, String key, int index ) {
+
+		static final ParsePath ROOT = new ParsePath ( null, null, -1 ) ;
+
+		ParsePath child ( String childKey ) {
+			return new ParsePath ( this, childKey, -1 ) ;
+		}
+
+		ParsePath item ( int itemIndex ) {
+			return new ParsePath ( this, null, itemIndex ) ;
+		}
+
+		@Override
+		public String toString ( ) {
+			// Walked up with a loop, since a path is as deep as the document
+			Deque <ParsePath> segments = new ArrayDeque <> ( ) ;
+			for ( ParsePath segment = this ; segment.parent != null ; segment = segment.parent ) {
+				segments.push ( segment ) ;
+			}
+			StringBuilder rendered = new StringBuilder ( "$" ) ;
+			for ( ParsePath segment : segments ) {
+				if ( segment.key != null ) {
+					rendered.append ( '.' ).append ( segment.key ) ;
+				} else {
+					rendered.append ( '[' ).append ( segment.index ).append ( ']' ) ;
+				}
+			}
+			return rendered.toString ( ) ;
+		}
+	}
+
+	/**
+	 * Gets the Visitor the build used to record its walk in.
+	 *
+	 * @return The Visitor last set, or an empty one
+	 * @deprecated The build walks the data with a stack of its own and records nothing in a Visitor
+	 *             any more
+	 */
+	@Deprecated
+	public Visitor getVisitor ( ) {
+		if ( visitor == null ) {
+			visitor = new Visitor ( ) ;
+		}
+		return visitor ;
+	}
+
+	/**
+	 * Sets the Visitor the build used to record its walk in.
+	 *
+	 * @param visitor The Visitor, which the build leaves untouched
+	 * @deprecated The build records nothing in a Visitor any more
+	 */
+	@Deprecated
+	public void setVisitor ( Visitor visitor ) {
+		this.visitor = visitor ;
+	}
+
+	/**
+	 * Gets the stack of nodes the build pushed while it recursed.
+	 *
+	 * @return An empty stack
+	 * @deprecated The build keeps its frames on a local stack, which is only alive during
+	 *             {@link #buildJects()}
+	 */
+	@Deprecated
+	public Stack <LocalParseContext> getContextStack ( ) {
+		return new Stack <> ( ) ;
+	}
 
 	public void validateAnomalies ( ) {
 		// TODO Auto-generated method stub
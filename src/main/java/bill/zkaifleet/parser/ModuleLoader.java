@@ -0,0 +1,405 @@
+package bill.zkaifleet.parser ;
+
+import java.io.FileNotFoundException ;
+import java.io.IOException ;
+import java.io.InputStream ;
+import java.io.UncheckedIOException ;
+import java.net.URI ;
+import java.net.URISyntaxException ;
+import java.nio.file.NoSuchFileException ;
+import java.util.ArrayList ;
+import java.util.HashMap ;
+import java.util.HashSet ;
+import java.util.LinkedHashSet ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.ServiceLoader ;
+import java.util.Set ;
+import java.util.concurrent.CompletableFuture ;
+import java.util.concurrent.CompletionException ;
+import java.util.concurrent.ConcurrentHashMap ;
+import java.util.concurrent.ExecutorService ;
+import java.util.concurrent.Executors ;
+import java.util.concurrent.ForkJoinPool ;
+import java.util.function.Function ;
+
+import bill.zkaifleet.model.Ject ;
+import bill.zkaifleet.model.Ontology ;
+import bill.zkaifleet.parser.JectParseContext.ModuleReference ;
+import lombok.Getter ;
+import lombok.Setter ;
+import lombok.extern.slf4j.Slf4j ;
+import org.yaml.snakeyaml.Yaml ;
+
+/**
+ * Loads a fleetspec together with the modules it references.
+ * <p>
+ * A list item that is a string naming a {@code .yaml} file, or a URI with a scheme one of the
+ * {@link ModuleResolver}s supports, is a module reference. Relative references resolve against the
+ * module that contains them. The content of a module takes the place of its reference, under the
+ * same predicate, so a list module contributes all of its items and a map module one Ject.
+ * <p>
+ * Loading runs in three phases:
+ * <ol>
+ *   <li>Fetch - each module is read and loaded on its own virtual thread as soon as the module
+ *       referencing it has been loaded</li>
+ *   <li>Build - the references form a dependency DAG, which is checked for cycles. Each module is
+ *       built into Jects in its own context on the ForkJoinPool once the modules it references
+ *       are built, so independent modules are built in parallel</li>
+ *   <li>Resolve - the identities and placeholders of all modules are merged into the context of
+ *       the spec, and one pass resolves every {@code ref}, including those across modules</li>
+ * </ol>
+ * A spec made of many modules therefore loads in about the time of its slowest chain of modules.
+ * <p>
+ * Loaded modules are cached by URI for the lifetime of the loader. A module referenced from several
+ * places, or by several specs, is fetched and parsed once, and within one graph its Jects are
+ * shared by every Ject that references it.
+ */
+@Slf4j
+public class ModuleLoader {
+
+	private final OntologyParser parser ;
+	private final List <ModuleResolver> resolvers ;
+	private final Map <URI, CompletableFuture <LoadedModule>> cache = new ConcurrentHashMap <> ( ) ;
+
+	/**
+	 * Whether a referenced module that does not exist is skipped with a warning instead of failing the load.
+	 */
+	@Getter
+	@Setter
+	private boolean skipMissingModules = false ;
+
+	/**
+	 * Creates a loader with a default parser and the resolvers registered with the ServiceLoader.
+	 */
+	public ModuleLoader ( ) {
+		this ( new OntologyParser ( ), discoverResolvers ( ) ) ;
+	}
+
+	/**
+	 * Creates a loader with explicit collaborators.
+	 *
+	 * @param parser The parser that builds the combined document
+	 * @param resolvers The resolvers to fetch modules with, in order of preference
+	 */
+	public ModuleLoader ( OntologyParser parser, List <ModuleResolver> resolvers ) {
+		this.parser = parser ;
+		this.resolvers = List.copyOf ( resolvers ) ;
+	}
+
+	private static List <ModuleResolver> discoverResolvers ( ) {
+		List <ModuleResolver> discovered = new ArrayList <> ( ) ;
+		ServiceLoader.load ( ModuleResolver.class ).forEach ( discovered::add ) ;
+		log.debug ( "Discovered {} module resolvers", discovered.size ( ) ) ;
+		return discovered ;
+	}
+
+	/**
+	 * Loads a spec and every module it references, directly or through other modules.
+	 *
+	 * @param spec The absolute URI of the spec, e.g. {@code classpath:/fleetspec/fleet.yaml} or {@code file:///specs/fleet.yaml}
+	 * @return The root Ject object (Ontology)
+	 * @throws IllegalArgumentException if the spec or a module cannot be found or is malformed,
+	 *         contains duplicate IDs, or modules include each other in a cycle
+	 * @throws IllegalStateException if references cannot be resolved
+	 * @throws UncheckedIOException if a module cannot be read
+	 */
+	public Ontology load ( URI spec ) {
+		return assemble ( spec ).ontology ( ) ;
+	}
+
+	/**
+	 * Loads a spec like {@link #load(URI)}, keeping what each module was built into.
+	 *
+	 * @param spec The absolute URI of the spec
+	 * @return The graph with its modules
+	 */
+	@SuppressWarnings ( "unchecked" )
+	Assembly assemble ( URI spec ) {
+		URI root = spec.normalize ( ) ;
+		Map <URI, LoadedModule> modules = fetchAll ( root ) ;
+		LoadedModule document = modules.get ( root ) ;
+		if ( document.content ( ) == null ) {
+			throw new IllegalArgumentException ( "Spec not found or empty: " + root ) ;
+		}
+		if ( ! ( document.content ( ) instanceof Map ) ) {
+			throw new IllegalArgumentException ( "Spec is not a YAML map: " + root ) ;
+		}
+		Map <URI, String> keys = new HashMap <> ( ) ;
+		List <URI> order = dependencyOrder ( root, modules, keys ) ;
+		log.debug ( "Loaded {} with {} modules", root, order.size ( ) - 1 ) ;
+
+		JectParseContext context = parser.prepare ( ( Map <String, Object> ) document.content ( ) ) ;
+		// Read by the builds while later ones are still being scheduled
+		Map <URI, CompletableFuture <BuiltModule>> builds = new ConcurrentHashMap <> ( ) ;
+		Function <URI, List <Ject>> built = dependency -> builds.get ( dependency ).join ( ).jects ( ) ;
+		for ( URI uri : order.subList ( 0, order.size ( ) - 1 ) ) {
+			LoadedModule module = modules.get ( uri ) ;
+			CompletableFuture <?> [ ] dependencies = module.dependencies ( ).stream ( ).map ( builds::get ).toArray ( CompletableFuture [ ]::new ) ;
+			builds.put ( uri, CompletableFuture.allOf ( dependencies )
+					.thenApplyAsync ( done -> build ( context, uri, keys.get ( uri ), module, built, false ), ForkJoinPool.commonPool ( ) ) ) ;
+		}
+		Map <URI, BuiltModule> results = new HashMap <> ( ) ;
+		try {
+			for ( URI dependency : document.dependencies ( ) ) {
+				context.addBuiltModule ( dependency, built.apply ( dependency ) ) ;
+			}
+			context.buildJects ( ) ;
+			for ( URI uri : order.subList ( 0, order.size ( ) - 1 ) ) {
+				results.put ( uri, builds.get ( uri ).join ( ) ) ;
+				context.absorb ( results.get ( uri ).context ( ) ) ;
+			}
+		} catch ( CompletionException e ) {
+			throw unwrap ( e ) ;
+		}
+		modules.keySet ( ).retainAll ( order ) ;
+		return new Assembly ( root, ( Ontology ) parser.resolve ( context ), context, modules, results, keys ) ;
+	}
+
+	/**
+	 * Drops a module from the cache, so that the next load reads it again.
+	 *
+	 * @param uri The URI of the module
+	 */
+	public void invalidate ( URI uri ) {
+		cache.remove ( uri.normalize ( ) ) ;
+	}
+
+	/**
+	 * Puts a module back into the cache, as when its changed content was rejected and the spec
+	 * keeps the previous one.
+	 *
+	 * @param uri The URI of the module
+	 * @param module The module as it was loaded before
+	 */
+	void restore ( URI uri, LoadedModule module ) {
+		cache.put ( uri.normalize ( ), CompletableFuture.completedFuture ( module ) ) ;
+	}
+
+	/**
+	 * Gets whether the parser leaves references to be resolved on first use.
+	 */
+	boolean resolvesLazily ( ) {
+		return parser.isLazyReferences ( ) ;
+	}
+
+	/**
+	 * Builds one module in a context of its own, splicing in the modules it references.
+	 *
+	 * @param spec The context of the spec the module belongs to
+	 * @param built Gets the top-level Jects of a module this module references, once built
+	 * @param deferBacklinks Whether the backlinks to the Jects of other modules are left for
+	 *        {@link JectParseContext#addDeferredBacklinks()}, so that they are not written to
+	 */
+	BuiltModule build ( JectParseContext spec, URI uri, String key, LoadedModule module, Function <URI, List <Ject>> built, boolean deferBacklinks ) {
+		JectParseContext context = new JectParseContext ( spec.getOntology ( ), spec.getOntologyCatalog ( ) ) ;
+		context.setParallelListThreshold ( spec.getParallelListThreshold ( ) ) ;
+		context.setDeferBacklinks ( deferBacklinks ) ;
+		for ( URI dependency : module.dependencies ( ) ) {
+			context.addBuiltModule ( dependency, built.apply ( dependency ) ) ;
+		}
+		if ( module.content ( ) == null ) {
+			return new BuiltModule ( context, List.of ( ) ) ;
+		}
+		log.debug ( "Building module {}", uri ) ;
+		return new BuiltModule ( context, context.buildModule ( uri, key, module.content ( ) ) ) ;
+	}
+
+	/**
+	 * Fetches a spec and, transitively, every module it references.
+	 *
+	 * @return The loaded modules by URI, including the spec
+	 */
+	Map <URI, LoadedModule> fetchAll ( URI root ) {
+		try ( ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor ( ) ) {
+			fetch ( root, executor ) ;
+			// Fetches start more fetches, so wait until no new ones appear. Modules cached by an
+			// earlier load may reference modules that failed then and were dropped, so those are
+			// fetched again
+			int count ;
+			do {
+				count = cache.size ( ) ;
+				CompletableFuture.allOf ( cache.values ( ).toArray ( CompletableFuture [ ]::new ) ).join ( ) ;
+				for ( CompletableFuture <LoadedModule> module : List.copyOf ( cache.values ( ) ) ) {
+					module.join ( ).references ( ).forEach ( reference -> fetch ( reference.uri ( ), executor ) ) ;
+				}
+			} while ( cache.size ( ) != count ) ;
+			Map <URI, LoadedModule> modules = new HashMap <> ( ) ;
+			cache.forEach ( ( uri, module ) -> modules.put ( uri, module.join ( ) ) ) ;
+			return modules ;
+		} catch ( CompletionException e ) {
+			cache.values ( ).removeIf ( CompletableFuture::isCompletedExceptionally ) ;
+			throw unwrap ( e ) ;
+		}
+	}
+
+	private CompletableFuture <LoadedModule> fetch ( URI uri, ExecutorService executor ) {
+		return cache.computeIfAbsent ( uri, key -> CompletableFuture.supplyAsync ( ( ) -> read ( key, executor ), executor ) ) ;
+	}
+
+	/**
+	 * Reads and loads one module, then replaces its module references and starts fetching them.
+	 *
+	 * @return The loaded module, without content if it is missing and missing modules are skipped
+	 */
+	private LoadedModule read ( URI uri, ExecutorService executor ) {
+		Object raw ;
+		try ( InputStream in = resolverFor ( uri ).open ( uri ) ) {
+			// Yaml instances are not thread safe
+			raw = new Yaml ( ).load ( in ) ;
+		} catch ( FileNotFoundException | NoSuchFileException e ) {
+			if ( skipMissingModules ) {
+				log.warn ( "Skipping missing module {}", uri ) ;
+				return new LoadedModule ( null, List.of ( ) ) ;
+			}
+			throw new IllegalArgumentException ( "Module not found: " + uri, e ) ;
+		} catch ( IOException e ) {
+			throw new UncheckedIOException ( "Error while reading module " + uri, e ) ;
+		}
+		List <Reference> references = replaceReferences ( uri, raw ) ;
+		for ( Reference reference : references ) {
+			fetch ( reference.uri ( ), executor ) ;
+		}
+		log.debug ( "Loaded module {} with {} references", uri, references.size ( ) ) ;
+		return new LoadedModule ( raw, references ) ;
+	}
+
+	/**
+	 * Walks a loaded module and replaces each module reference in its lists with a
+	 * {@link ModuleReference} to the resolved URI.
+	 *
+	 * @return The references, in document order
+	 */
+	private List <Reference> replaceReferences ( URI base, Object raw ) {
+		List <Reference> references = new ArrayList <> ( ) ;
+		replaceReferences ( base, raw, "", references ) ;
+		return references ;
+	}
+
+	/**
+	 * @param key The key of the map entry the node was found under
+	 */
+	@SuppressWarnings ( "unchecked" )
+	private void replaceReferences ( URI base, Object node, String key, List <Reference> references ) {
+		if ( node instanceof Map <?, ?> map ) {
+			for ( Map.Entry <?, ?> entry : map.entrySet ( ) ) {
+				replaceReferences ( base, entry.getValue ( ), String.valueOf ( entry.getKey ( ) ), references ) ;
+			}
+		} else if ( node instanceof List <?> ) {
+			List <Object> list = ( List <Object> ) node ;
+			for ( int i = 0 ; i < list.size ( ) ; i++ ) {
+				URI reference = list.get ( i ) instanceof String value ? reference ( value ) : null ;
+				if ( reference != null ) {
+					URI target = resolverFor ( reference.getScheme ( ) != null ? reference : base ).resolve ( base, reference ) ;
+					list.set ( i, new ModuleReference ( target ) ) ;
+					references.add ( new Reference ( target, key ) ) ;
+				} else {
+					replaceReferences ( base, list.get ( i ), key, references ) ;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Orders the modules reachable from the spec so that every module comes after the modules it
+	 * references, ending with the spec itself.
+	 *
+	 * @param keys Receives, for each module, the key of the first list that references it. The
+	 *        module is built as items of that list; other references share the same Jects
+	 * @throws IllegalArgumentException if the references form a cycle
+	 */
+	private List <URI> dependencyOrder ( URI root, Map <URI, LoadedModule> modules, Map <URI, String> keys ) {
+		List <URI> order = new ArrayList <> ( ) ;
+		visit ( root, modules, new LinkedHashSet <> ( ), new HashSet <> ( ), keys, order ) ;
+		return order ;
+	}
+
+	private void visit ( URI uri, Map <URI, LoadedModule> modules, Set <URI> path, Set <URI> done, Map <URI, String> keys, List <URI> order ) {
+		if ( done.contains ( uri ) ) {
+			return ;
+		}
+		if ( ! path.add ( uri ) ) {
+			List <URI> cycle = new ArrayList <> ( path ) ;
+			cycle = cycle.subList ( cycle.indexOf ( uri ), cycle.size ( ) ) ;
+			StringBuilder chain = new StringBuilder ( ) ;
+			cycle.forEach ( step -> chain.append ( step ).append ( " -> " ) ) ;
+			throw new IllegalArgumentException ( "Module cycle detected: " + chain + uri ) ;
+		}
+		for ( Reference reference : modules.get ( uri ).references ( ) ) {
+			// A reference in the top-level list of a module is built as items of the same list as the module
+			keys.putIfAbsent ( reference.uri ( ), reference.key ( ).isEmpty ( ) ? keys.get ( uri ) : reference.key ( ) ) ;
+			visit ( reference.uri ( ), modules, path, done, keys, order ) ;
+		}
+		path.remove ( uri ) ;
+		done.add ( uri ) ;
+		order.add ( uri ) ;
+	}
+
+	/**
+	 * Interprets a list item as a module reference.
+	 *
+	 * @return The reference, or null if the item is an ordinary string
+	 */
+	private URI reference ( String value ) {
+		URI uri ;
+		try {
+			uri = new URI ( value.trim ( ) ) ;
+		} catch ( URISyntaxException e ) {
+			return null ;
+		}
+		if ( uri.getScheme ( ) != null ) {
+			return resolvers.stream ( ).anyMatch ( resolver -> resolver.supports ( uri ) ) ? uri : null ;
+		}
+		String path = uri.getPath ( ) ;
+		return path != null && ( path.endsWith ( ".yaml" ) || path.endsWith ( ".yml" ) ) ? uri : null ;
+	}
+
+	private ModuleResolver resolverFor ( URI uri ) {
+		for ( ModuleResolver resolver : resolvers ) {
+			if ( resolver.supports ( uri ) ) {
+				return resolver ;
+			}
+		}
+		throw new IllegalArgumentException ( "No module resolver for: " + uri ) ;
+	}
+
+	private static RuntimeException unwrap ( CompletionException e ) {
+		return e.getCause ( ) instanceof RuntimeException cause ? cause : e ;
+	}
+
+	/**
+	 * A module reference found in a list under {@code key}.
+	 */
+	record Reference ( URI uri, String key ) { ; }
+
+	/**
+	 * A loaded module, with its references replaced. The content is null for a skipped module.
+	 */
+	record LoadedModule ( Object content, List <Reference> references ) {
+
+		/**
+		 * Gets the modules this module references, each once.
+		 */
+		List <URI> dependencies ( ) {
+			Set <URI> distinct = new LinkedHashSet <> ( ) ;
+			references.forEach ( reference -> distinct.add ( reference.uri ( ) ) ) ;
+			return new ArrayList <> ( distinct ) ;
+		}
+	}
+
+	/**
+	 * A built module: the context it was built in and its top-level Jects.
+	 */
+	record BuiltModule ( JectParseContext context, List <Ject> jects ) { ; }
+
+	/**
+	 * A loaded spec together with its modules.
+	 *
+	 * @param context The context of the spec, which absorbed those of the modules
+	 * @param modules The loaded modules by URI, including the spec
+	 * @param built The built modules by URI, excluding the spec
+	 * @param keys For each module, the key of the list it is built as items of
+	 */
+	record Assembly ( URI root, Ontology ontology, JectParseContext context, Map <URI, LoadedModule> modules,
+			Map <URI, BuiltModule> built, Map <URI, String> keys ) { ; }
+}
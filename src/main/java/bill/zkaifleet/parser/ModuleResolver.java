@@ -0,0 +1,47 @@
+package bill.zkaifleet.parser ;
+
+import java.io.IOException ;
+import java.io.InputStream ;
+import java.net.URI ;
+
+/**
+ * Fetches the fleetspec modules referenced from another spec or module.
+ * <p>
+ * Implementations are discovered with the Java ServiceLoader mechanism, so new URI schemes can be
+ * added by registering a resolver in {@code META-INF/services}. The {@link ModuleLoader} asks each
+ * resolver in turn whether it {@link #supports(URI)} a URI, and uses the first that does.
+ */
+public interface ModuleResolver {
+
+	/**
+	 * Checks whether this resolver handles a URI.
+	 *
+	 * @param uri An absolute module URI
+	 * @return true if {@link #open(URI)} can be called with the URI
+	 */
+	boolean supports ( URI uri ) ;
+
+	/**
+	 * Resolves a module reference found in another module into the URI to fetch.
+	 * <p>
+	 * The default resolves relative references against the including module and keeps absolute
+	 * ones as they are.
+	 *
+	 * @param base The URI of the including module
+	 * @param reference The reference as written in the including module
+	 * @return The absolute URI of the referenced module
+	 */
+	default URI resolve ( URI base, URI reference ) {
+		return base.resolve ( reference ).normalize ( ) ;
+	}
+
+	/**
+	 * Opens a module for reading.
+	 *
+	 * @param uri An absolute module URI this resolver supports
+	 * @return The module content
+	 * @throws java.io.FileNotFoundException or {@link java.nio.file.NoSuchFileException} if the module does not exist
+	 * @throws IOException if the module cannot be read
+	 */
+	InputStream open ( URI uri ) throws IOException ;
+}
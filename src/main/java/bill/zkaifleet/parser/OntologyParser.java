@@ -1,11 +1,10 @@
 package bill.zkaifleet.parser ;
 
+import java.io.Reader ;
+import java.io.StringReader ;
 import java.util.HashMap ;
-import java.util.HashSet ;
 import java.util.LinkedHashMap ;
-import java.util.List ;
 import java.util.Map ;
-import java.util.Set ;
 import java.util.UUID ;
 
 import bill.zkaifleet.model.BasePredicate ;
@@ -13,25 +12,69 @@ import bill.zkaifleet.model.Ject ;
 import bill.zkaifleet.model.Ontology ;
 import bill.zkaifleet.model.ParserRegistry ;
 import bill.zkaifleet.model.ParserRegistryManager ;
+import lombok.Getter ;
+import lombok.Setter ;
 import lombok.extern.slf4j.Slf4j ;
 import org.yaml.snakeyaml.Yaml ;
 
 /**
  * Parser for YAML-based ontology specifications that creates a graph of Ject objects.
  * <p>
- * The parser works in three passes:
+ * The parser works in two passes:
  * <ol>
- *   <li>Detect duplicates - ensures all IDs in the YAML are unique</li>
- *   <li>Build placeholders - creates the object structure with placeholders for references</li>
- *   <li>Resolve references - converts placeholders to actual object references</li>
+ *   <li>Build placeholders - creates the object structure with placeholders for references,
+ *       registering each ID as its Ject is built and failing on the first duplicate</li>
+ *   <li>Resolve references - converts placeholders to actual object references, either all at
+ *       once or, with {@link #setLazyReferences(boolean)}, each on first use</li>
  * </ol>
+ * In streaming mode the first pass walks SnakeYAML's event stream (see {@link JectEventBuilder})
+ * instead of a loaded Map tree, so the raw tree is never built.
+ * <p>
+ * With a {@link ParseCache} set, {@link #parse(String)} skips both passes for a document it has
+ * parsed before against the same registries and loads the stored graph instead.
  */
 @Slf4j
 public class OntologyParser {
 
+	/**
+	 * Lists are built on the calling thread unless a threshold is set: a library should not put
+	 * work on the common ForkJoinPool, which the rest of the application shares, without asking.
+	 */
+	public static final int DEFAULT_PARALLEL_LIST_THRESHOLD = 0 ;
+
 	private final Yaml yaml = new Yaml() ;
 	private final Map<String, ParserRegistry> ontologyCatalog ;
 
+	/**
+	 * Whether {@link #parse(String)} builds Jects from the YAML event stream instead of a loaded Map tree.
+	 */
+	@Getter
+	@Setter
+	private boolean streaming = false ;
+
+	/**
+	 * Whether references are resolved on first use instead of all at once after the build pass.
+	 * Suited to specs of which each use reads only a small part.
+	 */
+	@Getter
+	@Setter
+	private boolean lazyReferences = false ;
+
+	/**
+	 * Lists with at least this many items have their items built in parallel on the common
+	 * ForkJoinPool; 0, the default, builds every list on the calling thread.
+	 */
+	@Getter
+	@Setter
+	private int parallelListThreshold = DEFAULT_PARALLEL_LIST_THRESHOLD ;
+
+	/**
+	 * An optional on-disk cache of parsed graphs that {@link #parse(String)} loads unchanged specs from.
+	 */
+	@Getter
+	@Setter
+	private ParseCache parseCache ;
+
 	/**
 	 * Constructor initializes the parser with registries from the ParserRegistryManager.
 	 */
@@ -75,12 +118,42 @@ public class OntologyParser {
 	 */
 	public Ject parse(String yamlContent) {
 		log.debug("Parsing YAML content of length {}", yamlContent.length()) ;
+		if (parseCache != null) {
+			String key = parseCache.key(yamlContent, ontologyCatalog) ;
+			Ontology cached = parseCache.load(key, new OntologySnapshotReader(ontologyCatalog)) ;
+			if (cached != null) {
+				return cached ;
+			}
+			Ject parsed = parseUncached(yamlContent) ;
+			parseCache.store(key, (Ontology) parsed, new OntologySnapshotWriter()) ;
+			return parsed ;
+		}
+		return parseUncached(yamlContent) ;
+	}
+
+	private Ject parseUncached(String yamlContent) {
+		if (streaming) {
+			return parse(new StringReader(yamlContent)) ;
+		}
 		Map<String, Object> raw = yaml.load(yamlContent) ;
-		log.debug("Loaded raw YAML structure with {} top-level keys", raw.size()) ;
+		JectParseContext context = prepare(raw) ;
 
-		// Pass 1: Detect duplicates
-		log.debug("Pass 1: Detecting duplicate IDs") ;
-		detectDuplicates(raw) ;
+		// Pass 1: Build placeholders, registering IDs as they are found
+		log.debug("Pass 1: Building object structure with placeholders") ;
+		context.buildJects() ;
+
+		return resolve(context) ;
+	}
+
+	/**
+	 * Creates the root Ontology of a loaded YAML document and the context to build it in.
+	 *
+	 * @param raw The loaded top-level document
+	 * @return The context, ready for {@link JectParseContext#buildJects()}
+	 * @throws IllegalArgumentException if the document names no ontology
+	 */
+	JectParseContext prepare(Map<String, Object> raw) {
+		log.debug("Loaded raw YAML structure with {} top-level keys", raw.size()) ;
 
 		String ontologyName = (String) raw.get("ontology") ;
 		if (ontologyName == null || ontologyName.isEmpty()) {
@@ -99,96 +172,43 @@ public class OntologyParser {
 		Map<String, Object> rawRemnants = new LinkedHashMap<>(raw) ;
 		rawRemnants.remove("ontology") ;
 		rawRemnants.remove("id") ;
-
-		// Pass 2: Build placeholders
-		log.debug("Pass 2: Building object structure with placeholders") ;
 		JectParseContext context = new JectParseContext(retVal, ontologyName, rawRemnants, ontologyCatalog) ;
-		context.buildJects() ;
-
-		// Pass 3: Resolve
-		log.debug("Pass 3: Resolving references") ;
-		context.resolveAll() ;
-
-		// Validation
-		log.debug("Final validation") ;
-		context.validateAnomalies() ;
-		log.info("Successfully parsed ontology '{}' with ID '{}'", ontologyName, id) ;
-
-		return context.getOntology() ;
+		context.setParallelListThreshold(parallelListThreshold) ;
+		return context ;
 	}
 
 	/**
-	 * Detect duplicate IDs in the YAML structure.
+	 * Parse YAML from a reader into a graph of Ject objects, building Jects straight from the
+	 * YAML event stream without loading the document into a Map tree first.
 	 *
-	 * @param raw The raw YAML structure as a Map
-	 * @throws IllegalArgumentException if duplicate IDs are detected
+	 * @param reader The reader supplying the YAML content
+	 * @return The root Ject object (Ontology)
+	 * @throws IllegalArgumentException if the YAML is malformed or contains duplicate IDs
+	 * @throws IllegalStateException if references cannot be resolved
 	 */
-	private void detectDuplicates(Map<String, Object> raw) {
-		Set<String> ids = new HashSet<>();
-		extractIds(raw, ids);
-		int totalIds = countIdOccurrences(raw);
-		log.debug("Found {} unique IDs out of {} total", ids.size(), totalIds);
-		
-		if (ids.size() != totalIds) {
-			log.error("Duplicate IDs detected: {} unique IDs out of {} total", ids.size(), totalIds);
-			throw new IllegalArgumentException("Duplicate IDs detected");
-		}
+	public Ject parse(Reader reader) {
+		log.debug("Pass 1: Building object structure from the YAML event stream") ;
+		JectEventBuilder builder = new JectEventBuilder(ontologyCatalog) ;
+		return resolve(builder.build(yaml.parse(reader))) ;
 	}
 
-	/**
-	 * Extract all IDs from the YAML structure into a Set.
-	 *
-	 * @param raw The raw YAML structure as a Map
-	 * @param ids The Set to store unique IDs
-	 */
-	@SuppressWarnings("unchecked")
-	private void extractIds(Map<String, Object> raw, Set<String> ids) {
-		for (Map.Entry<String, Object> entry : raw.entrySet()) {
-			Object value = entry.getValue();
-			if (value instanceof Map) {
-				extractIds((Map<String, Object>) value, ids);
-			} else if (value instanceof List) {
-				for (Object item : (List<?>) value) {
-					if (item instanceof Map) {
-						extractIds((Map<String, Object>) item, ids);
-					}
-				}
-			}
-		}
-		if (raw.containsKey("id")) {
-			String id = (String) raw.get("id");
-			if (ids.contains(id)) {
-				log.warn("Duplicate ID detected: {}", id);
-			}
-			ids.add(id);
+	Ject resolve(JectParseContext context) {
+		// Pass 2: Resolve
+		if (lazyReferences) {
+			log.debug("Pass 2: Deferring references until first use") ;
+			context.resolveLazily() ;
+		} else {
+			log.debug("Pass 2: Resolving references") ;
+			context.resolveAll() ;
 		}
-	}
 
-	/**
-	 * Count the total number of ID occurrences in the YAML structure.
-	 *
-	 * @param raw The raw YAML structure as a Map
-	 * @return The total number of IDs
-	 */
-	@SuppressWarnings("unchecked")
-	private int countIdOccurrences(Map<String, Object> raw) {
-		int count = 0;
-		for (Map.Entry<String, Object> entry : raw.entrySet()) {
-			Object value = entry.getValue();
-			if (value instanceof Map) {
-				count += countIdOccurrences((Map<String, Object>) value);
-			} else if (value instanceof List) {
-				for (Object item : (List<?>) value) {
-					if (item instanceof Map) {
-						count += countIdOccurrences((Map<String, Object>) item);
-					}
-				}
-			}
-		}
-		if (raw.containsKey("id")) {
-			count++;
-		}
-		return count;
+		// Validation
+		log.debug("Final validation") ;
+		context.validateAnomalies() ;
+		Ontology ontology = context.getOntology() ;
+		log.info("Successfully parsed ontology '{}' with ID '{}'", ontology.getOntology(), ontology.getId()) ;
+
+		return ontology ;
 	}
 
 	/**
@@ -0,0 +1,274 @@
+package bill.zkaifleet.parser ;
+
+import static bill.zkaifleet.parser.SnapshotFormat.* ;
+
+import java.io.BufferedInputStream ;
+import java.io.DataInputStream ;
+import java.io.IOException ;
+import java.io.InputStream ;
+import java.math.BigDecimal ;
+import java.math.BigInteger ;
+import java.nio.charset.StandardCharsets ;
+import java.nio.file.Files ;
+import java.nio.file.Path ;
+import java.util.ArrayList ;
+import java.util.Date ;
+import java.util.HashMap ;
+import java.util.LinkedHashMap ;
+import java.util.LinkedHashSet ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.Set ;
+import java.util.function.Supplier ;
+
+import bill.zkaifleet.model.BasePredicate ;
+import bill.zkaifleet.model.Ject ;
+import bill.zkaifleet.model.JectFactories ;
+import bill.zkaifleet.model.Ontology ;
+import bill.zkaifleet.model.ParserRegistry ;
+import bill.zkaifleet.model.ParserRegistryManager ;
+import bill.zkaifleet.model.Predicate ;
+import bill.zkaifleet.model.RuntimeJect ;
+import bill.zkaifleet.model.RuntimePredicate ;
+import lombok.extern.slf4j.Slf4j ;
+
+/**
+ * Loads an Ontology graph from a snapshot written by {@link OntologySnapshotWriter}.
+ * <p>
+ * Typed Jects are created through the cached factories of the Ject classes the registries declare,
+ * and predicates are looked up in the registries by name and checked against their stored fqName.
+ * Scalars are replayed through {@link Ject#addScalar}, so typed fields are bound as they are during
+ * a parse. Subjects and backlinks are restored as stored, in order.
+ */
+@Slf4j
+public class OntologySnapshotReader {
+
+	private final Map <String, ParserRegistry> ontologyCatalog ;
+	private final Map <String, Class <? extends Ject>> jectTypes = new HashMap <> ( ) ;
+
+	/**
+	 * Creates a reader that uses the registries of the ParserRegistryManager.
+	 */
+	public OntologySnapshotReader ( ) {
+		this ( new HashMap <> ( ParserRegistryManager.getInstance ( ).getAllRegistries ( ) ) ) ;
+	}
+
+	/**
+	 * Creates a reader with an explicit registry catalog.
+	 *
+	 * @param ontologyCatalog Map of ontology names to parser registries
+	 */
+	public OntologySnapshotReader ( Map <String, ParserRegistry> ontologyCatalog ) {
+		this.ontologyCatalog = ontologyCatalog ;
+		jectTypes.put ( Ontology.class.getName ( ), Ontology.class ) ;
+		jectTypes.put ( RuntimeJect.class.getName ( ), RuntimeJect.class ) ;
+		for ( ParserRegistry registry : ontologyCatalog.values ( ) ) {
+			for ( Class <? extends Ject> type : registry.getSubjectTypes ( ) ) {
+				jectTypes.put ( type.getName ( ), type ) ;
+			}
+		}
+	}
+
+	/**
+	 * Reads a snapshot from a file.
+	 *
+	 * @param path The snapshot file
+	 * @return The root Ontology
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if the file is not a snapshot of a supported version
+	 * @throws IllegalStateException if the snapshot names a Ject class or predicate the registries do not know
+	 */
+	public Ontology read ( Path path ) throws IOException {
+		try ( InputStream in = Files.newInputStream ( path ) ) {
+			return read ( in ) ;
+		}
+	}
+
+	/**
+	 * Reads a snapshot from a stream. The stream is not closed.
+	 *
+	 * @param in The stream to read from
+	 * @return The root Ontology
+	 * @throws IOException if the stream cannot be read
+	 * @throws IllegalArgumentException if the stream is not a snapshot of a supported version
+	 * @throws IllegalStateException if the snapshot names a Ject class or predicate the registries do not know
+	 */
+	public Ontology read ( InputStream in ) throws IOException {
+		DataInputStream data = new DataInputStream ( new BufferedInputStream ( in ) ) ;
+		if ( data.readInt ( ) != MAGIC ) {
+			throw new IllegalArgumentException ( "Not an ontology snapshot" ) ;
+		}
+		int version = data.readUnsignedShort ( ) ;
+		if ( version != VERSION ) {
+			throw new IllegalArgumentException ( "Unsupported snapshot version: " + version ) ;
+		}
+		String [ ] strings = new String [ readVarInt ( data ) ] ;
+		for ( int i = 0 ; i < strings.length ; i++ ) {
+			byte [ ] bytes = new byte [ readVarInt ( data ) ] ;
+			data.readFully ( bytes ) ;
+			strings [ i ] = new String ( bytes, StandardCharsets.UTF_8 ) ;
+		}
+		Predicate [ ] predicates = new Predicate [ readVarInt ( data ) ] ;
+		for ( int i = 0 ; i < predicates.length ; i++ ) {
+			int kind = data.readUnsignedByte ( ) ;
+			predicates [ i ] = predicate ( kind, readString ( data, strings ), readString ( data, strings ), readString ( data, strings ),
+					readString ( data, strings ) ) ;
+		}
+		Ject [ ] jects = new Ject [ readVarInt ( data ) ] ;
+		String [ ] [ ] fields = new String [ jects.length ] [ ] ;
+		for ( int i = 0 ; i < jects.length ; i++ ) {
+			String className = readString ( data, strings ) ;
+			String typeName = readString ( data, strings ) ;
+			String ontology = readString ( data, strings ) ;
+			jects [ i ] = instantiate ( className, typeName, ontology ) ;
+			fields [ i ] = new String [ ] { ontology, readString ( data, strings ), readString ( data, strings ), readString ( data, strings ) } ;
+		}
+		for ( int i = 0 ; i < jects.length ; i++ ) {
+			Ject ject = jects [ i ] ;
+			int scalarCount = readVarInt ( data ) ;
+			for ( int p = 0 ; p < scalarCount ; p++ ) {
+				Predicate pred = predicates [ readVarInt ( data ) ] ;
+				int valueCount = readVarInt ( data ) ;
+				for ( int v = 0 ; v < valueCount ; v++ ) {
+					ject.addScalar ( pred, readValue ( data, strings ) ) ;
+				}
+			}
+			readEdges ( data, ject.getSubjects ( ), predicates, jects ) ;
+			readEdges ( data, ject.getIsObjectOf ( ), predicates, jects ) ;
+			// Scalar setters may have touched these; the stored values win
+			ject.setOntology ( fields [ i ] [ 0 ] ) ;
+			ject.setId ( fields [ i ] [ 1 ] ) ;
+			ject.setDescription ( fields [ i ] [ 2 ] ) ;
+			ject.setEvolutionNotes ( fields [ i ] [ 3 ] ) ;
+		}
+		if ( jects.length == 0 || ! ( jects [ 0 ] instanceof Ontology ontology ) ) {
+			throw new IllegalArgumentException ( "Snapshot does not start with an Ontology" ) ;
+		}
+		log.debug ( "Read snapshot of '{}' with {} Jects", ontology.getOntology ( ), jects.length ) ;
+		return ontology ;
+	}
+
+	private void readEdges ( DataInputStream data, Map <Predicate, List <Ject>> edges, Predicate [ ] predicates, Ject [ ] jects ) throws IOException {
+		int count = readVarInt ( data ) ;
+		for ( int p = 0 ; p < count ; p++ ) {
+			Predicate pred = predicates [ readVarInt ( data ) ] ;
+			int size = readVarInt ( data ) ;
+			List <Ject> items = new ArrayList <> ( size ) ;
+			for ( int j = 0 ; j < size ; j++ ) {
+				items.add ( jects [ readVarInt ( data ) ] ) ;
+			}
+			edges.put ( pred, items ) ;
+		}
+	}
+
+	private Ject instantiate ( String className, String typeName, String ontology ) {
+		Class <? extends Ject> type = jectTypes.get ( className ) ;
+		if ( type == null ) {
+			throw new IllegalStateException ( "Unknown Ject class in snapshot: " + className ) ;
+		}
+		if ( Ontology.class.equals ( type ) ) {
+			return new Ontology ( ontology ) ;
+		}
+		if ( RuntimeJect.class.equals ( type ) ) {
+			return new RuntimeJect ( typeName, ontology ) ;
+		}
+		Supplier <? extends Ject> factory = JectFactories.factory ( type ) ;
+		if ( factory == null ) {
+			throw new IllegalStateException ( "No public no-arg constructor for Ject class in snapshot: " + className ) ;
+		}
+		return factory.get ( ) ;
+	}
+
+	/**
+	 * Resolves a stored predicate: registered predicates through the registry of their ontology,
+	 * RuntimePredicates through the pool with that registry's qualifier policy.
+	 */
+	private Predicate predicate ( int kind, String name, String space, String ontology, String fqName ) {
+		ParserRegistry registry = ontologyCatalog.get ( ontology ) ;
+		if ( registry == null ) {
+			registry = ontologyCatalog.get ( "base" ) ;
+		}
+		if ( kind == PREDICATE_RUNTIME ) {
+			return RuntimePredicate.of ( name, space, ontology, registry == null ? null : registry.getRuntimeQualifier ( space ) ) ;
+		}
+		Predicate pred = registry == null ? null : registry.getPredicate ( name, ontology ) ;
+		if ( pred != null && fqName.equals ( pred.fqName ( ) ) ) {
+			return pred ;
+		}
+		for ( BasePredicate base : BasePredicate.values ( ) ) {
+			if ( fqName.equals ( base.fqName ( ) ) ) {
+				return base ;
+			}
+		}
+		throw new IllegalStateException ( "Unknown predicate in snapshot: " + fqName ) ;
+	}
+
+	private static String readString ( DataInputStream data, String [ ] strings ) throws IOException {
+		int index = readVarInt ( data ) ;
+		return index == 0 ? null : strings [ index - 1 ] ;
+	}
+
+	private static Object readValue ( DataInputStream data, String [ ] strings ) throws IOException {
+		int tag = data.readUnsignedByte ( ) ;
+		switch ( tag ) {
+			case NULL :
+				return null ;
+			case STRING :
+				return strings [ readVarInt ( data ) ] ;
+			case TRUE :
+				return Boolean.TRUE ;
+			case FALSE :
+				return Boolean.FALSE ;
+			case INT :
+				return data.readInt ( ) ;
+			case LONG :
+				return data.readLong ( ) ;
+			case DOUBLE :
+				return data.readDouble ( ) ;
+			case FLOAT :
+				return data.readFloat ( ) ;
+			case BIG_INTEGER :
+				return new BigInteger ( readBytes ( data ) ) ;
+			case BIG_DECIMAL :
+				int scale = data.readInt ( ) ;
+				return new BigDecimal ( new BigInteger ( readBytes ( data ) ), scale ) ;
+			case DATE :
+				return new Date ( data.readLong ( ) ) ;
+			case BYTES :
+				return readBytes ( data ) ;
+			case LIST : {
+				int size = readVarInt ( data ) ;
+				List <Object> list = new ArrayList <> ( size ) ;
+				for ( int i = 0 ; i < size ; i++ ) {
+					list.add ( readValue ( data, strings ) ) ;
+				}
+				return list ;
+			}
+			case SET : {
+				int size = readVarInt ( data ) ;
+				Set <Object> set = new LinkedHashSet <> ( ) ;
+				for ( int i = 0 ; i < size ; i++ ) {
+					set.add ( readValue ( data, strings ) ) ;
+				}
+				return set ;
+			}
+			case MAP : {
+				int size = readVarInt ( data ) ;
+				Map <Object, Object> map = new LinkedHashMap <> ( ) ;
+				for ( int i = 0 ; i < size ; i++ ) {
+					Object key = readValue ( data, strings ) ;
+					map.put ( key, readValue ( data, strings ) ) ;
+				}
+				return map ;
+			}
+			default :
+				throw new IllegalArgumentException ( "Unknown value tag in snapshot: " + tag ) ;
+		}
+	}
+
+	private static byte [ ] readBytes ( DataInputStream data ) throws IOException {
+		byte [ ] bytes = new byte [ readVarInt ( data ) ] ;
+		data.readFully ( bytes ) ;
+		return bytes ;
+	}
+}
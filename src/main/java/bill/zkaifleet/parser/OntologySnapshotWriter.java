@@ -0,0 +1,273 @@
+package bill.zkaifleet.parser ;
+
+import static bill.zkaifleet.parser.SnapshotFormat.* ;
+
+import java.io.BufferedOutputStream ;
+import java.io.DataOutputStream ;
+import java.io.IOException ;
+import java.io.OutputStream ;
+import java.math.BigDecimal ;
+import java.math.BigInteger ;
+import java.nio.charset.StandardCharsets ;
+import java.nio.file.Files ;
+import java.nio.file.Path ;
+import java.util.ArrayDeque ;
+import java.util.ArrayList ;
+import java.util.Collection ;
+import java.util.Date ;
+import java.util.Deque ;
+import java.util.HashMap ;
+import java.util.IdentityHashMap ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.Set ;
+
+import bill.zkaifleet.model.Ject ;
+import bill.zkaifleet.model.Ontology ;
+import bill.zkaifleet.model.Predicate ;
+import bill.zkaifleet.model.RuntimePredicate ;
+import lombok.extern.slf4j.Slf4j ;
+
+/**
+ * Writes a parsed Ontology graph as a compact binary snapshot that {@link OntologySnapshotReader}
+ * loads without YAML or reflection.
+ * <p>
+ * Every Ject reachable from the Ontology through subjects or backlinks gets an int handle. Strings
+ * and predicates are written once, in tables, and referenced by index; predicates are keyed by
+ * their fqName. Lazily resolved references are resolved while writing, so the snapshot never
+ * holds placeholders. See {@link SnapshotFormat} for the layout.
+ */
+@Slf4j
+public class OntologySnapshotWriter {
+
+	/**
+	 * Writes a snapshot of an Ontology graph to a file.
+	 *
+	 * @param ontology The Ontology to write
+	 * @param path The file to create or replace
+	 * @throws IOException if the file cannot be written
+	 * @throws IllegalArgumentException if a scalar value has a type snapshots cannot hold
+	 */
+	public void write ( Ontology ontology, Path path ) throws IOException {
+		try ( OutputStream out = Files.newOutputStream ( path ) ) {
+			write ( ontology, out ) ;
+		}
+	}
+
+	/**
+	 * Writes a snapshot of an Ontology graph to a stream. The stream is flushed but not closed.
+	 *
+	 * @param ontology The Ontology to write
+	 * @param out The stream to write to
+	 * @throws IOException if the stream cannot be written
+	 * @throws IllegalArgumentException if a scalar value has a type snapshots cannot hold
+	 */
+	public void write ( Ontology ontology, OutputStream out ) throws IOException {
+		Tables tables = new Tables ( ) ;
+		tables.collect ( ontology ) ;
+		DataOutputStream data = new DataOutputStream ( new BufferedOutputStream ( out ) ) ;
+		tables.write ( data ) ;
+		data.flush ( ) ;
+		log.debug ( "Wrote snapshot of '{}' with {} Jects, {} predicates and {} strings", ontology.getOntology ( ), tables.jects.size ( ),
+				tables.predicates.size ( ), tables.strings.size ( ) ) ;
+	}
+
+	/**
+	 * The handle, predicate and string tables of one snapshot.
+	 */
+	private static final class Tables {
+
+		private final List <Ject> jects = new ArrayList <> ( ) ;
+		private final Map <Ject, Integer> handles = new IdentityHashMap <> ( ) ;
+		private final List <Predicate> predicates = new ArrayList <> ( ) ;
+		private final Map <Predicate, Integer> predicateIndexes = new HashMap <> ( ) ;
+		private final List <String> strings = new ArrayList <> ( ) ;
+		private final Map <String, Integer> stringIndexes = new HashMap <> ( ) ;
+
+		/**
+		 * Assigns handles, in breadth-first order from the Ontology, and fills the tables.
+		 */
+		void collect ( Ontology ontology ) {
+			Deque <Ject> queue = new ArrayDeque <> ( ) ;
+			handle ( ontology, queue ) ;
+			while ( ! queue.isEmpty ( ) ) {
+				Ject ject = queue.poll ( ) ;
+				string ( ject.getClass ( ).getName ( ) ) ;
+				string ( ject.getTypeName ( ) ) ;
+				string ( ject.getOntology ( ) ) ;
+				string ( ject.getId ( ) ) ;
+				string ( ject.getDescription ( ) ) ;
+				string ( ject.getEvolutionNotes ( ) ) ;
+				for ( Map.Entry <Predicate, List <Object>> entry : ject.getScalars ( ).entrySet ( ) ) {
+					predicate ( entry.getKey ( ) ) ;
+					for ( Object value : entry.getValue ( ) ) {
+						collectValue ( value ) ;
+					}
+				}
+				collectEdges ( ject.getSubjects ( ), queue ) ;
+				collectEdges ( ject.getIsObjectOf ( ), queue ) ;
+			}
+		}
+
+		private void collectEdges ( Map <Predicate, List <Ject>> edges, Deque <Ject> queue ) {
+			for ( Map.Entry <Predicate, List <Ject>> entry : edges.entrySet ( ) ) {
+				predicate ( entry.getKey ( ) ) ;
+				for ( Ject item : entry.getValue ( ) ) {
+					handle ( item.resolveReference ( ), queue ) ;
+				}
+			}
+		}
+
+		private void collectValue ( Object value ) {
+			if ( value instanceof String s ) {
+				string ( s ) ;
+			} else if ( value instanceof Collection <?> items ) {
+				items.forEach ( this::collectValue ) ;
+			} else if ( value instanceof Map <?, ?> map ) {
+				map.forEach ( ( k, v ) -> {
+					collectValue ( k ) ;
+					collectValue ( v ) ;
+				} ) ;
+			}
+		}
+
+		private void handle ( Ject ject, Deque <Ject> queue ) {
+			if ( ! handles.containsKey ( ject ) ) {
+				handles.put ( ject, jects.size ( ) ) ;
+				jects.add ( ject ) ;
+				queue.add ( ject ) ;
+			}
+		}
+
+		private void predicate ( Predicate pred ) {
+			if ( ! predicateIndexes.containsKey ( pred ) ) {
+				predicateIndexes.put ( pred, predicates.size ( ) ) ;
+				predicates.add ( pred ) ;
+				string ( pred.name ( ) ) ;
+				string ( pred.space ( ) ) ;
+				string ( pred.ontology ( ) ) ;
+				string ( pred.fqName ( ) ) ;
+			}
+		}
+
+		private void string ( String s ) {
+			if ( s != null && ! stringIndexes.containsKey ( s ) ) {
+				stringIndexes.put ( s, strings.size ( ) ) ;
+				strings.add ( s ) ;
+			}
+		}
+
+		void write ( DataOutputStream out ) throws IOException {
+			out.writeInt ( MAGIC ) ;
+			out.writeShort ( VERSION ) ;
+			writeVarInt ( out, strings.size ( ) ) ;
+			for ( String s : strings ) {
+				byte [ ] bytes = s.getBytes ( StandardCharsets.UTF_8 ) ;
+				writeVarInt ( out, bytes.length ) ;
+				out.write ( bytes ) ;
+			}
+			writeVarInt ( out, predicates.size ( ) ) ;
+			for ( Predicate pred : predicates ) {
+				out.writeByte ( pred instanceof RuntimePredicate ? PREDICATE_RUNTIME : PREDICATE_REGISTERED ) ;
+				writeString ( out, pred.name ( ) ) ;
+				writeString ( out, pred.space ( ) ) ;
+				writeString ( out, pred.ontology ( ) ) ;
+				writeString ( out, pred.fqName ( ) ) ;
+			}
+			writeVarInt ( out, jects.size ( ) ) ;
+			for ( Ject ject : jects ) {
+				writeString ( out, ject.getClass ( ).getName ( ) ) ;
+				writeString ( out, ject.getTypeName ( ) ) ;
+				writeString ( out, ject.getOntology ( ) ) ;
+				writeString ( out, ject.getId ( ) ) ;
+				writeString ( out, ject.getDescription ( ) ) ;
+				writeString ( out, ject.getEvolutionNotes ( ) ) ;
+			}
+			for ( Ject ject : jects ) {
+				Map <Predicate, List <Object>> scalars = ject.getScalars ( ) ;
+				writeVarInt ( out, scalars.size ( ) ) ;
+				for ( Map.Entry <Predicate, List <Object>> entry : scalars.entrySet ( ) ) {
+					writeVarInt ( out, predicateIndexes.get ( entry.getKey ( ) ) ) ;
+					writeVarInt ( out, entry.getValue ( ).size ( ) ) ;
+					for ( Object value : entry.getValue ( ) ) {
+						writeValue ( out, value ) ;
+					}
+				}
+				writeEdges ( out, ject.getSubjects ( ) ) ;
+				writeEdges ( out, ject.getIsObjectOf ( ) ) ;
+			}
+		}
+
+		private void writeEdges ( DataOutputStream out, Map <Predicate, List <Ject>> edges ) throws IOException {
+			writeVarInt ( out, edges.size ( ) ) ;
+			for ( Map.Entry <Predicate, List <Ject>> entry : edges.entrySet ( ) ) {
+				writeVarInt ( out, predicateIndexes.get ( entry.getKey ( ) ) ) ;
+				writeVarInt ( out, entry.getValue ( ).size ( ) ) ;
+				for ( Ject item : entry.getValue ( ) ) {
+					writeVarInt ( out, handles.get ( item.resolveReference ( ) ) ) ;
+				}
+			}
+		}
+
+		private void writeString ( DataOutputStream out, String s ) throws IOException {
+			writeVarInt ( out, s == null ? 0 : stringIndexes.get ( s ) + 1 ) ;
+		}
+
+		private void writeValue ( DataOutputStream out, Object value ) throws IOException {
+			if ( value == null ) {
+				out.writeByte ( NULL ) ;
+			} else if ( value instanceof String s ) {
+				out.writeByte ( STRING ) ;
+				writeVarInt ( out, stringIndexes.get ( s ) ) ;
+			} else if ( value instanceof Boolean b ) {
+				out.writeByte ( b ? TRUE : FALSE ) ;
+			} else if ( value instanceof Integer i ) {
+				out.writeByte ( INT ) ;
+				out.writeInt ( i ) ;
+			} else if ( value instanceof Long l ) {
+				out.writeByte ( LONG ) ;
+				out.writeLong ( l ) ;
+			} else if ( value instanceof Double d ) {
+				out.writeByte ( DOUBLE ) ;
+				out.writeDouble ( d ) ;
+			} else if ( value instanceof Float f ) {
+				out.writeByte ( FLOAT ) ;
+				out.writeFloat ( f ) ;
+			} else if ( value instanceof BigInteger big ) {
+				out.writeByte ( BIG_INTEGER ) ;
+				writeBytes ( out, big.toByteArray ( ) ) ;
+			} else if ( value instanceof BigDecimal big ) {
+				out.writeByte ( BIG_DECIMAL ) ;
+				out.writeInt ( big.scale ( ) ) ;
+				writeBytes ( out, big.unscaledValue ( ).toByteArray ( ) ) ;
+			} else if ( value instanceof Date date ) {
+				out.writeByte ( DATE ) ;
+				out.writeLong ( date.getTime ( ) ) ;
+			} else if ( value instanceof byte [ ] bytes ) {
+				out.writeByte ( BYTES ) ;
+				writeBytes ( out, bytes ) ;
+			} else if ( value instanceof List <?> || value instanceof Set <?> ) {
+				Collection <?> items = ( Collection <?> ) value ;
+				out.writeByte ( value instanceof List ? LIST : SET ) ;
+				writeVarInt ( out, items.size ( ) ) ;
+				for ( Object item : items ) {
+					writeValue ( out, item ) ;
+				}
+			} else if ( value instanceof Map <?, ?> map ) {
+				out.writeByte ( MAP ) ;
+				writeVarInt ( out, map.size ( ) ) ;
+				for ( Map.Entry <?, ?> entry : map.entrySet ( ) ) {
+					writeValue ( out, entry.getKey ( ) ) ;
+					writeValue ( out, entry.getValue ( ) ) ;
+				}
+			} else {
+				throw new IllegalArgumentException ( "Unsupported scalar type in snapshot: " + value.getClass ( ).getName ( ) ) ;
+			}
+		}
+
+		private void writeBytes ( DataOutputStream out, byte [ ] bytes ) throws IOException {
+			writeVarInt ( out, bytes.length ) ;
+			out.write ( bytes ) ;
+		}
+	}
+}
@@ -0,0 +1,192 @@
+package bill.zkaifleet.parser ;
+
+import java.io.IOException ;
+import java.io.UncheckedIOException ;
+import java.nio.charset.StandardCharsets ;
+import java.nio.file.Files ;
+import java.nio.file.NoSuchFileException ;
+import java.nio.file.Path ;
+import java.nio.file.StandardCopyOption ;
+import java.nio.file.attribute.FileTime ;
+import java.security.MessageDigest ;
+import java.security.NoSuchAlgorithmException ;
+import java.time.Duration ;
+import java.time.Instant ;
+import java.util.ArrayList ;
+import java.util.Comparator ;
+import java.util.HexFormat ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.TreeMap ;
+import java.util.stream.Stream ;
+
+import bill.zkaifleet.model.Ontology ;
+import bill.zkaifleet.model.ParserRegistry ;
+import lombok.Getter ;
+import lombok.extern.slf4j.Slf4j ;
+
+/**
+ * An on-disk cache of parsed graphs, keyed by the content of the YAML they were parsed from.
+ * <p>
+ * The key is a SHA-256 hash of the YAML together with the versions of the registries it was
+ * parsed against (see {@link ParserRegistry#getVersion()}) and the snapshot format version, so a
+ * change to any of them is a miss. Entries are snapshots written by {@link OntologySnapshotWriter},
+ * one file per key. A hit loads the snapshot instead of running the parse passes, which is what
+ * lets CI jobs and restarts that load unchanged specs skip parsing.
+ * <p>
+ * Entries not used for {@code maxAge} are evicted, and then the least recently used ones until the
+ * cache fits in {@code maxBytes}; eviction runs after each store. Entries are written to a temporary
+ * file and moved into place, so several processes can share a directory. The cache is an
+ * optimization only: an entry that cannot be read or written is logged and the spec is parsed.
+ * <p>
+ * A spec without an {@code id} gets a random one on every parse; from the cache it keeps the id
+ * of the parse that stored the entry.
+ */
+@Slf4j
+public class ParseCache {
+
+	private static final String SUFFIX = ".snapshot" ;
+
+	@Getter
+	private final Path directory ;
+	@Getter
+	private final long maxBytes ;
+	@Getter
+	private final Duration maxAge ;
+
+	/**
+	 * Creates a cache in a directory, which is created if needed.
+	 *
+	 * @param directory The cache directory
+	 * @param maxBytes The size the entries are evicted down to
+	 * @param maxAge How long an entry is kept after it was last used
+	 * @throws UncheckedIOException if the directory cannot be created
+	 */
+	public ParseCache ( Path directory, long maxBytes, Duration maxAge ) {
+		this.directory = directory ;
+		this.maxBytes = maxBytes ;
+		this.maxAge = maxAge ;
+		try {
+			Files.createDirectories ( directory ) ;
+		} catch ( IOException e ) {
+			throw new UncheckedIOException ( "Cannot create parse cache " + directory, e ) ;
+		}
+	}
+
+	/**
+	 * Computes the key of a YAML document.
+	 *
+	 * @param yamlContent The YAML content
+	 * @param ontologyCatalog The registries the document is parsed against
+	 * @return The key, as a hex string
+	 */
+	public String key ( String yamlContent, Map <String, ParserRegistry> ontologyCatalog ) {
+		MessageDigest digest ;
+		try {
+			digest = MessageDigest.getInstance ( "SHA-256" ) ;
+		} catch ( NoSuchAlgorithmException e ) {
+			throw new IllegalStateException ( "SHA-256 is not available", e ) ;
+		}
+		digest.update ( ( "snapshot-" + SnapshotFormat.VERSION + "\n" ).getBytes ( StandardCharsets.UTF_8 ) ) ;
+		// Sorted, so the key does not depend on the order the registries were discovered in
+		for ( Map.Entry <String, ParserRegistry> entry : new TreeMap <> ( ontologyCatalog ).entrySet ( ) ) {
+			digest.update ( ( entry.getKey ( ) + "=" + entry.getValue ( ).getVersion ( ) + "\n" ).getBytes ( StandardCharsets.UTF_8 ) ) ;
+		}
+		digest.update ( yamlContent.getBytes ( StandardCharsets.UTF_8 ) ) ;
+		return HexFormat.of ( ).formatHex ( digest.digest ( ) ) ;
+	}
+
+	/**
+	 * Loads the graph stored under a key.
+	 *
+	 * @param key The key of the YAML document
+	 * @param reader The reader to load the snapshot with
+	 * @return The graph, or null on a miss or if the entry cannot be read
+	 */
+	public Ontology load ( String key, OntologySnapshotReader reader ) {
+		Path entry = entry ( key ) ;
+		try {
+			Ontology ontology = reader.read ( entry ) ;
+			Files.setLastModifiedTime ( entry, FileTime.from ( Instant.now ( ) ) ) ;
+			log.debug ( "Parse cache hit for {}", key ) ;
+			return ontology ;
+		} catch ( NoSuchFileException e ) {
+			log.debug ( "Parse cache miss for {}", key ) ;
+		} catch ( IOException | RuntimeException e ) {
+			log.warn ( "Dropping unreadable parse cache entry {}: {}", entry, e.getMessage ( ) ) ;
+			delete ( entry ) ;
+		}
+		return null ;
+	}
+
+	/**
+	 * Stores a graph under a key, then evicts old entries.
+	 *
+	 * @param key The key of the YAML document the graph was parsed from
+	 * @param ontology The graph
+	 * @param writer The writer to store the snapshot with
+	 */
+	public void store ( String key, Ontology ontology, OntologySnapshotWriter writer ) {
+		Path entry = entry ( key ) ;
+		Path temporary = null ;
+		try {
+			temporary = Files.createTempFile ( directory, key, ".tmp" ) ;
+			writer.write ( ontology, temporary ) ;
+			Files.move ( temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE ) ;
+			log.debug ( "Stored parse cache entry {}", key ) ;
+		} catch ( IOException | RuntimeException e ) {
+			log.warn ( "Cannot store parse cache entry {}: {}", entry, e.getMessage ( ) ) ;
+			if ( temporary != null ) {
+				delete ( temporary ) ;
+			}
+			return ;
+		}
+		evict ( ) ;
+	}
+
+	/**
+	 * Deletes the entries not used for {@code maxAge}, then the least recently used ones until
+	 * the rest fit in {@code maxBytes}.
+	 */
+	public void evict ( ) {
+		List <Entry> entries = new ArrayList <> ( ) ;
+		try ( Stream <Path> files = Files.list ( directory ) ) {
+			for ( Path file : ( Iterable <Path> ) files::iterator ) {
+				if ( file.getFileName ( ).toString ( ).endsWith ( SUFFIX ) ) {
+					try {
+						entries.add ( new Entry ( file, Files.size ( file ), Files.getLastModifiedTime ( file ).toInstant ( ) ) ) ;
+					} catch ( IOException e ) {
+						// Evicted by another process meanwhile
+					}
+				}
+			}
+		} catch ( IOException e ) {
+			log.warn ( "Cannot list parse cache {}: {}", directory, e.getMessage ( ) ) ;
+			return ;
+		}
+		entries.sort ( Comparator.comparing ( Entry::used ) ) ;
+		Instant expiry = Instant.now ( ).minus ( maxAge ) ;
+		long total = entries.stream ( ).mapToLong ( Entry::size ).sum ( ) ;
+		for ( Entry entry : entries ) {
+			if ( entry.used ( ).isAfter ( expiry ) && total <= maxBytes ) {
+				break ;
+			}
+			delete ( entry.path ( ) ) ;
+			total -= entry.size ( ) ;
+		}
+	}
+
+	private Path entry ( String key ) {
+		return directory.resolve ( key + SUFFIX ) ;
+	}
+
+	private static void delete ( Path file ) {
+		try {
+			Files.deleteIfExists ( file ) ;
+		} catch ( IOException e ) {
+			log.debug ( "Cannot delete {}: {}", file, e.getMessage ( ) ) ;
+		}
+	}
+
+	private record Entry ( Path path, long size, Instant used ) { ; }
+}
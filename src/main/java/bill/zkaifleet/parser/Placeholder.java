@@ -1,6 +1,9 @@
 package bill.zkaifleet.parser;
 
+import java.util.ArrayList ;
 import java.util.List ;
+import java.util.Map ;
+import java.util.function.BiConsumer ;
 
 import bill.zkaifleet.model.Ject ;
 import bill.zkaifleet.model.Predicate ;
@@ -8,14 +11,43 @@ import bill.zkaifleet.model.Predicate ;
 //In bill.zkaifleet.model
 
 import com.fasterxml.jackson.annotation.JsonInclude;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
-@Data
-@EqualsAndHashCode(callSuper = true)
+/**
+ * A stand-in for a Ject referenced by id ({@code {ref: id}}) before the Ject itself is known.
+ * <p>
+ * Every time an owner attaches the placeholder as a subject, the placeholder records that
+ * reference site. Resolution then patches exactly those slots instead of walking the graph.
+ * <p>
+ * In lazy mode ({@link #resolveFrom(Map)}) the backlinks are added to the Ject up front, so its
+ * {@link Ject#getTypedIsObjectOf} sees every owner, but the owners' slots still hold the
+ * placeholder until it is first touched, through its own accessors or through
+ * {@link Ject#resolveReference()} when an owner reads its subjects. Touching it swaps the Ject into
+ * those slots, one element each and nothing else, under a lock shared by all placeholders of a
+ * parse. The swap is published through the slot (see {@link bill.zkaifleet.model.PredicateSlots}),
+ * and a reader that still finds the placeholder is delegated to its Ject, so a lazily resolved
+ * graph can be read from several threads as long as nothing else writes to it.
+ */
+@Getter
+@Setter
+@ToString
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class Placeholder<T extends Ject> extends Ject {
-    private T resolved = null;
+
+    private volatile T resolved = null;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private volatile Map<String, ? extends Ject> identities;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final List<Site> sites = new ArrayList<>();
 
     public Placeholder(String id, String typeName, String ontology) {
         super(typeName, ontology);
@@ -26,17 +58,263 @@ public class Placeholder<T extends Ject> extends Ject {
         this.resolved = actual;
     }
 
+    /**
+     * Gets whether any owner still references this placeholder.
+     *
+     * @return true if there are reference sites left to patch
+     */
+    public boolean isReferenced() {
+        return !sites.isEmpty();
+    }
+
+    /**
+     * Replaces this placeholder with the resolved Ject at every recorded reference site and adds
+     * the matching backlinks to the resolved Ject.
+     *
+     * @throws IllegalStateException if the placeholder is referenced but not resolved
+     */
+    public void patchReferences() {
+        T target = resolved;
+        patchReferences((predicate, owner) -> target.addIsObjectOf(predicate, owner));
+    }
+
+    /**
+     * Replaces this placeholder with the resolved Ject at every recorded reference site, and leaves
+     * the matching backlinks to the caller.
+     *
+     * @param backlink Adds the backlink of a patched site, given its predicate and owner
+     * @throws IllegalStateException if the placeholder is referenced but not resolved
+     */
+    void patchReferences(BiConsumer<Predicate, Ject> backlink) {
+        if (sites.isEmpty()) {
+            return;
+        }
+        if (resolved == null) {
+            throw new IllegalStateException("Unresolved placeholder in relation: " + getId());
+        }
+        patch(resolved, backlink);
+    }
+
+    /**
+     * Defers patching the reference sites until the placeholder is first touched. The backlinks
+     * are added to the Ject it stands for now.
+     *
+     * @param identities The Jects of the parse by id; shared by all its placeholders, which also
+     *        use it as the lock for patching
+     */
+    @SuppressWarnings("unchecked")
+    public void resolveFrom(Map<String, ? extends Ject> identities) {
+        T target = (T) identities.get(getId());
+        if (target != null) {
+            for (Site site : sites) {
+                target.addIsObjectOf(site.predicate(), site.owner());
+            }
+        }
+        this.identities = identities;
+    }
+
+    /**
+     * Gets the Ject this placeholder stands for, looking it up first in lazy mode.
+     *
+     * @return The resolved Ject, or this placeholder if it cannot be resolved (yet)
+     */
+    @Override
+    public Ject resolveReference() {
+        Ject target = target();
+        return target == null ? this : target;
+    }
+
+    /**
+     * A placeholder stays a reference even once resolved, until the slots holding it are patched.
+     */
+    @Override
+    public boolean isReference() {
+        return true;
+    }
+
+    private T target() {
+        T target = resolved;
+        if (target == null && identities != null) {
+            target = resolveLazily();
+        }
+        return target;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T resolveLazily() {
+        synchronized (identities) {
+            if (resolved == null) {
+                T target = (T) identities.get(getId());
+                if (target != null) {
+                    swap(target);
+                    resolved = target;
+                }
+            }
+            return resolved;
+        }
+    }
+
+    private void patch(T target, BiConsumer<Predicate, Ject> backlink) {
+        for (Site site : sites) {
+            if (site.swap(this, target)) {
+                backlink.accept(site.predicate(), site.owner());
+            }
+        }
+        sites.clear();
+    }
+
+    /**
+     * Swaps the Ject into the reference sites, whose backlinks {@link #resolveFrom(Map)} added.
+     */
+    private void swap(T target) {
+        for (Site site : sites) {
+            site.swap(this, target);
+        }
+        sites.clear();
+    }
+
     @Override
     public <U extends Ject> List<U> getTypedSubjects(Predicate pred, Class<U> type) {
-        if (resolved != null) return resolved.getTypedSubjects(pred, type);
+        T target = target();
+        if (target != null) return target.getTypedSubjects(pred, type);
         return super.getTypedSubjects(pred, type);
     }
 
     @Override
     public <U extends Ject> Ject addTypedSubject(Predicate pred, U obj) {
-        if (resolved != null) return resolved.addTypedSubject(pred, obj);
+        T target = target();
+        if (target != null) return target.addTypedSubject(pred, obj);
         return super.addTypedSubject(pred, obj);
     }
 
-    // Override other methods similarly for consistency
+    @Override
+    public <U extends Ject> List<U> getTypedIsObjectOf(Predicate pred, Class<U> type) {
+        T target = target();
+        if (target != null) return target.getTypedIsObjectOf(pred, type);
+        return super.getTypedIsObjectOf(pred, type);
+    }
+
+    @Override
+    public <U> List<U> getScalars(Predicate pred, Class<U> type) {
+        T target = target();
+        if (target != null) return target.getScalars(pred, type);
+        return super.getScalars(pred, type);
+    }
+
+    @Override
+    public void addScalar(Predicate pred, Object scalar) {
+        T target = target();
+        if (target != null) {
+            target.addScalar(pred, scalar);
+        } else {
+            super.addScalar(pred, scalar);
+        }
+    }
+
+    @Override
+    public void setScalars(Predicate pred, List<Object> values) {
+        T target = target();
+        if (target != null) {
+            target.setScalars(pred, values);
+        } else {
+            super.setScalars(pred, values);
+        }
+    }
+
+    @Override
+    public Map<Predicate, List<Ject>> getSubjects() {
+        T target = target();
+        return target != null ? target.getSubjects() : super.getSubjects();
+    }
+
+    @Override
+    public Map<Predicate, List<Object>> getScalars() {
+        T target = target();
+        return target != null ? target.getScalars() : super.getScalars();
+    }
+
+    @Override
+    public List<Predicate> getSubjectPredicates() {
+        T target = target();
+        return target != null ? target.getSubjectPredicates() : super.getSubjectPredicates();
+    }
+
+    @Override
+    public List<Predicate> getScalarPredicates() {
+        T target = target();
+        return target != null ? target.getScalarPredicates() : super.getScalarPredicates();
+    }
+
+    /**
+     * Drops the backlink that {@link #resolveFrom(Map)} added to the Ject when an owner lets go of
+     * the placeholder before it is touched.
+     */
+    @Override
+    protected void removeIsObjectOf(Predicate pred, Ject subj) {
+        super.removeIsObjectOf(pred, subj);
+        Map<String, ? extends Ject> lookup = identities;
+        Ject target = resolved == null && lookup != null ? lookup.get(getId()) : null;
+        List<Ject> owners = target == null ? null : target.getIsObjectOf().get(pred);
+        if (owners != null) {
+            for (int i = 0; i < owners.size(); i++) {
+                if (owners.get(i) == subj) {
+                    owners.remove(i);
+                    break;
+                }
+            }
+            if (owners.isEmpty()) {
+                target.getIsObjectOf().remove(pred);
+            }
+        }
+    }
+
+    /**
+     * Records the reference site; called by {@link Ject#addTypedSubject} right after the owner
+     * has appended this placeholder to its subjects.
+     */
+    @Override
+    public void addIsObjectOf(Predicate pred, Ject subj) {
+        super.addIsObjectOf(pred, subj);
+        List<Ject> items = subj.getSubjects().get(pred);
+        sites.add(new Site(subj, pred, items == null ? -1 : items.size() - 1));
+    }
+
+    /**
+     * A slot holding this placeholder: the owner's subject list for a predicate, at an index.
+     */
+    private record Site(Ject owner, Predicate predicate, int index) {
+
+        /**
+         * Replaces the placeholder in the slot with its Ject.
+         *
+         * @return false if the owner no longer holds the placeholder
+         */
+        boolean swap(Ject placeholder, Ject target) {
+            List<Ject> items = owner.getSubjects().get(predicate);
+            int at = indexIn(items, placeholder);
+            if (at < 0) {
+                return false;
+            }
+            items.set(at, target);
+            return true;
+        }
+
+        /**
+         * Finds the slot, falling back to an identity search if the list changed since it was recorded.
+         */
+        int indexIn(List<Ject> items, Ject placeholder) {
+            if (items == null) {
+                return -1;
+            }
+            if (index >= 0 && index < items.size() && items.get(index) == placeholder) {
+                return index;
+            }
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i) == placeholder) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
 }
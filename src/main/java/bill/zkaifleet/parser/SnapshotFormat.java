@@ -0,0 +1,68 @@
+package bill.zkaifleet.parser ;
+
+import java.io.DataInput ;
+import java.io.DataOutput ;
+import java.io.IOException ;
+
+/**
+ * Constants and primitive encodings shared by {@link OntologySnapshotWriter} and
+ * {@link OntologySnapshotReader}.
+ * <p>
+ * A snapshot is laid out as:
+ * <pre>
+ * magic "ZKSN", version (u16)
+ * strings:    count, then (length, UTF-8 bytes) per string
+ * predicates: count, then (kind, name, space, ontology, fqName) per predicate
+ * jects:      count, then (class, typeName, ontology, id, description, evolutionNotes) per Ject
+ * per Ject:   scalars (predicate, values), subjects (predicate, handles), isObjectOf (predicate, handles)
+ * </pre>
+ * Counts, string indexes, predicate indexes and Ject handles are unsigned varints. Nullable
+ * strings are stored as index + 1, with 0 for null. The Ject with handle 0 is the Ontology.
+ */
+final class SnapshotFormat {
+
+	static final int MAGIC = 0x5A4B534E ; // "ZKSN"
+	static final int VERSION = 1 ;
+
+	static final int PREDICATE_REGISTERED = 0 ;
+	static final int PREDICATE_RUNTIME = 1 ;
+
+	static final int NULL = 0 ;
+	static final int STRING = 1 ;
+	static final int TRUE = 2 ;
+	static final int FALSE = 3 ;
+	static final int INT = 4 ;
+	static final int LONG = 5 ;
+	static final int DOUBLE = 6 ;
+	static final int FLOAT = 7 ;
+	static final int BIG_INTEGER = 8 ;
+	static final int BIG_DECIMAL = 9 ;
+	static final int DATE = 10 ;
+	static final int BYTES = 11 ;
+	static final int LIST = 12 ;
+	static final int SET = 13 ;
+	static final int MAP = 14 ;
+
+	private SnapshotFormat ( ) {
+	}
+
+	static void writeVarInt ( DataOutput out, int value ) throws IOException {
+		while ( ( value & ~0x7F ) != 0 ) {
+			out.writeByte ( ( value & 0x7F ) | 0x80 ) ;
+			value >>>= 7 ;
+		}
+		out.writeByte ( value ) ;
+	}
+
+	static int readVarInt ( DataInput in ) throws IOException {
+		int value = 0 ;
+		for ( int shift = 0 ; shift < 32 ; shift += 7 ) {
+			int b = in.readUnsignedByte ( ) ;
+			value |= ( b & 0x7F ) << shift ;
+			if ( ( b & 0x80 ) == 0 ) {
+				return value ;
+			}
+		}
+		throw new IllegalArgumentException ( "Malformed varint in snapshot" ) ;
+	}
+}
@@ -0,0 +1,409 @@
+package bill.zkaifleet.parser ;
+
+import java.io.IOException ;
+import java.net.URI ;
+import java.nio.file.ClosedWatchServiceException ;
+import java.nio.file.FileSystems ;
+import java.nio.file.Path ;
+import java.nio.file.StandardWatchEventKinds ;
+import java.nio.file.WatchEvent ;
+import java.nio.file.WatchKey ;
+import java.nio.file.WatchService ;
+import java.util.ArrayDeque ;
+import java.util.ArrayList ;
+import java.util.Collections ;
+import java.util.Deque ;
+import java.util.HashMap ;
+import java.util.IdentityHashMap ;
+import java.util.LinkedHashSet ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.Set ;
+import java.util.concurrent.ConcurrentHashMap ;
+import java.util.concurrent.atomic.AtomicLong ;
+import java.util.concurrent.locks.ReadWriteLock ;
+import java.util.concurrent.locks.ReentrantReadWriteLock ;
+import java.util.function.Function ;
+
+import bill.zkaifleet.model.Ject ;
+import bill.zkaifleet.model.Ontology ;
+import bill.zkaifleet.model.Predicate ;
+import bill.zkaifleet.parser.JectParseContext.ModuleSite ;
+import bill.zkaifleet.parser.ModuleLoader.Assembly ;
+import bill.zkaifleet.parser.ModuleLoader.BuiltModule ;
+import bill.zkaifleet.parser.ModuleLoader.LoadedModule ;
+import lombok.extern.slf4j.Slf4j ;
+
+/**
+ * A spec loaded through a {@link ModuleLoader} that follows edits to its module files.
+ * <p>
+ * {@link #watch()} registers the directories of the {@code file:} modules with a
+ * {@link WatchService}. When a module changes, only that module is read and built again:
+ * <ol>
+ *   <li>The Jects the module owned are taken out of the graph, together with the backlinks they
+ *       left on Jects of other modules</li>
+ *   <li>The new Jects are spliced in where the module was referenced from</li>
+ *   <li>Only the references leaving the new Jects, and those from other modules into them, are
+ *       resolved again</li>
+ * </ol>
+ * The other modules keep their Jects, so anything holding on to them stays valid.
+ * <p>
+ * A change to the spec itself, to the modules a module references, or to a module whose Jects
+ * cannot be located in the graph (it was empty, missing, made of literals, or spliced straight
+ * into the top-level list of another module) reloads the whole spec instead. Unchanged modules
+ * still come from the cache of the loader.
+ * <p>
+ * Readers go through {@link #read(Function)}. Changed files are read and loaded while readers
+ * carry on; readers are held off only while the rebuilt module is patched in. The parser of the
+ * loader must resolve references eagerly.
+ */
+@Slf4j
+public class WatchedSpec implements AutoCloseable {
+
+	private final ModuleLoader loader ;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock ( ) ;
+	private final AtomicLong revision = new AtomicLong ( ) ;
+	private final Set <Path> directories = ConcurrentHashMap.newKeySet ( ) ;
+	private volatile Assembly assembly ;
+	private WatchService watchService ;
+	private Thread watcher ;
+
+	/**
+	 * Loads a spec to be watched.
+	 *
+	 * @param loader The loader to load the spec and its modules with
+	 * @param spec The absolute URI of the spec
+	 * @throws IllegalArgumentException if the parser of the loader resolves references lazily, or
+	 *         the spec cannot be loaded (see {@link ModuleLoader#load(URI)})
+	 */
+	public WatchedSpec ( ModuleLoader loader, URI spec ) {
+		if ( loader.resolvesLazily ( ) ) {
+			throw new IllegalArgumentException ( "A watched spec needs references resolved eagerly" ) ;
+		}
+		this.loader = loader ;
+		this.assembly = loader.assemble ( spec ) ;
+	}
+
+	/**
+	 * Gets the current graph. Reading it while a change is applied needs {@link #read(Function)}.
+	 *
+	 * @return The root Ject object (Ontology)
+	 */
+	public Ontology getOntology ( ) {
+		return assembly.ontology ( ) ;
+	}
+
+	/**
+	 * Reads the graph without a change being applied at the same time.
+	 *
+	 * @param reader Reads what it needs from the root Ject object (Ontology)
+	 * @return The result of the reader
+	 */
+	public <T> T read ( Function <Ontology, T> reader ) {
+		lock.readLock ( ).lock ( ) ;
+		try {
+			return reader.apply ( assembly.ontology ( ) ) ;
+		} finally {
+			lock.readLock ( ).unlock ( ) ;
+		}
+	}
+
+	/**
+	 * Gets the number of changes applied since the spec was loaded.
+	 */
+	public long getRevision ( ) {
+		return revision.get ( ) ;
+	}
+
+	/**
+	 * Starts watching the directories of the {@code file:} modules of the spec for changes, on a
+	 * daemon thread. Directories of modules added later are watched as they appear.
+	 *
+	 * @throws IOException if the watch service cannot be created
+	 */
+	public synchronized void watch ( ) throws IOException {
+		if ( watcher != null ) {
+			return ;
+		}
+		watchService = FileSystems.getDefault ( ).newWatchService ( ) ;
+		register ( assembly ) ;
+		watcher = Thread.ofPlatform ( ).daemon ( ).name ( "fleetspec-watcher" ).start ( this::run ) ;
+	}
+
+	@Override
+	public synchronized void close ( ) throws IOException {
+		if ( watcher != null ) {
+			watcher.interrupt ( ) ;
+			watchService.close ( ) ;
+			watcher = null ;
+		}
+	}
+
+	/**
+	 * Reads a module again and applies its changes to the graph.
+	 *
+	 * @param module The URI of the module, or of the spec
+	 * @return true if the module belongs to the spec and the graph was updated
+	 * @throws IllegalArgumentException if the changed module is malformed or defines an id that is
+	 *         already taken; the graph keeps its previous state
+	 * @throws IllegalStateException if references cannot be resolved any more; the graph keeps
+	 *         its previous state
+	 */
+	public synchronized boolean refresh ( URI module ) {
+		URI uri = module.normalize ( ) ;
+		Assembly current = assembly ;
+		LoadedModule previous = current.modules ( ).get ( uri ) ;
+		if ( previous == null ) {
+			return false ;
+		}
+		loader.invalidate ( uri ) ;
+		try {
+			LoadedModule fresh = loader.fetchAll ( uri ).get ( uri ) ;
+			if ( ! uri.equals ( current.root ( ) ) && fresh.dependencies ( ).equals ( previous.dependencies ( ) ) ) {
+				Patch patch = prepare ( current, uri, fresh ) ;
+				if ( patch != null ) {
+					lock.writeLock ( ).lock ( ) ;
+					try {
+						apply ( current, uri, fresh, patch ) ;
+						// The patch rewires the live lists, which the index does not follow
+						current.ontology ( ).resetIndex ( ) ;
+						revision.incrementAndGet ( ) ;
+					} finally {
+						lock.writeLock ( ).unlock ( ) ;
+					}
+					log.info ( "Patched changed module {} into {}", uri, current.root ( ) ) ;
+					return true ;
+				}
+			}
+			Assembly reloaded = loader.assemble ( current.root ( ) ) ;
+			lock.writeLock ( ).lock ( ) ;
+			try {
+				assembly = reloaded ;
+			} finally {
+				lock.writeLock ( ).unlock ( ) ;
+			}
+		} catch ( RuntimeException e ) {
+			// Otherwise the next reload, for a change to any other module, would fail on it too
+			loader.restore ( uri, previous ) ;
+			throw e ;
+		}
+		revision.incrementAndGet ( ) ;
+		log.info ( "Reloaded {} after a change to {}", current.root ( ), uri ) ;
+		return true ;
+	}
+
+	/**
+	 * Rebuilds one module and resolves its references, without writing to the graph: the backlinks
+	 * its Jects leave on the Jects of other modules are deferred to {@link #apply}.
+	 *
+	 * @return The rebuilt module and where it goes, or null if the Jects of the module cannot be
+	 *         located, and the spec must be reloaded
+	 */
+	private Patch prepare ( Assembly current, URI uri, LoadedModule fresh ) {
+		BuiltModule stale = current.built ( ).get ( uri ) ;
+		List <ModuleSite> sites = current.context ( ).moduleSites ( uri ) ;
+		if ( sites.isEmpty ( ) || stale.jects ( ).isEmpty ( ) ) {
+			return null ;
+		}
+		for ( ModuleSite site : sites ) {
+			List <Ject> items = site.owner ( ).getSubjects ( ).get ( site.predicate ( ) ) ;
+			if ( items == null || ! items.contains ( stale.jects ( ).get ( 0 ) ) ) {
+				return null ;
+			}
+		}
+		Set <Ject> others = identitySet ( ) ;
+		current.built ( ).forEach ( ( other, built ) -> {
+			if ( ! other.equals ( uri ) ) {
+				others.addAll ( built.jects ( ) ) ;
+			}
+		} ) ;
+		Set <Ject> staleJects = owned ( stale, others ) ;
+
+		BuiltModule rebuilt = loader.build ( current.context ( ), uri, current.keys ( ).get ( uri ), fresh,
+				dependency -> current.built ( ).get ( dependency ).jects ( ), true ) ;
+		Map <String, Ject> identities = new HashMap <> ( current.context ( ).getIdentityMap ( ) ) ;
+		identities.keySet ( ).removeAll ( stale.context ( ).getIdentityMap ( ).keySet ( ) ) ;
+		for ( Map.Entry <String, Ject> entry : rebuilt.context ( ).getIdentityMap ( ).entrySet ( ) ) {
+			String id = entry.getKey ( ) ;
+			if ( identities.putIfAbsent ( id, entry.getValue ( ) ) != null ) {
+				throw new IllegalArgumentException ( "Duplicate IDs detected: '" + id + "' at " +
+						current.context ( ).getIdentityPaths ( ).get ( id ) + " and " + rebuilt.context ( ).getIdentityPaths ( ).get ( id ) ) ;
+			}
+		}
+		rebuilt.context ( ).resolveAll ( identities ) ;
+		List <Redirect> redirects = new ArrayList <> ( ) ;
+		collectRedirects ( stale, staleJects, sites, rebuilt, redirects ) ;
+		return new Patch ( stale, staleJects, sites, rebuilt, redirects ) ;
+	}
+
+	/**
+	 * Splices a rebuilt module into the graph in place of its previous Jects.
+	 */
+	private void apply ( Assembly current, URI uri, LoadedModule fresh, Patch patch ) {
+		BuiltModule stale = patch.stale ( ) ;
+		BuiltModule rebuilt = patch.rebuilt ( ) ;
+		detach ( patch.staleJects ( ) ) ;
+		for ( ModuleSite site : patch.sites ( ) ) {
+			List <Ject> items = site.owner ( ).getSubjects ( ).get ( site.predicate ( ) ) ;
+			int at = items.indexOf ( stale.jects ( ).get ( 0 ) ) ;
+			Set <Ject> replaced = identitySet ( ) ;
+			replaced.addAll ( stale.jects ( ) ) ;
+			items.removeIf ( replaced::contains ) ;
+			items.addAll ( at, rebuilt.jects ( ) ) ;
+			rebuilt.jects ( ).forEach ( ject -> ject.addIsObjectOf ( site.predicate ( ), site.owner ( ) ) ) ;
+			if ( items.isEmpty ( ) ) {
+				site.owner ( ).getSubjects ( ).remove ( site.predicate ( ) ) ;
+			}
+		}
+		for ( Redirect redirect : patch.redirects ( ) ) {
+			List <Ject> items = redirect.owner ( ).getSubjects ( ).get ( redirect.predicate ( ) ) ;
+			items.set ( items.indexOf ( redirect.from ( ) ), redirect.to ( ) ) ;
+			redirect.to ( ).addIsObjectOf ( redirect.predicate ( ), redirect.owner ( ) ) ;
+		}
+		rebuilt.context ( ).addDeferredBacklinks ( ) ;
+		current.context ( ).replaceModule ( stale.context ( ), rebuilt.context ( ) ) ;
+		current.built ( ).put ( uri, rebuilt ) ;
+		current.modules ( ).put ( uri, fresh ) ;
+	}
+
+	/**
+	 * Finds the references from other modules into the previous Jects of a module, and the Jects
+	 * of the rebuilt module with the same ids to point them at instead.
+	 *
+	 * @throws IllegalStateException if a referenced id is no longer defined by the module
+	 */
+	private void collectRedirects ( BuiltModule stale, Set <Ject> staleJects, List <ModuleSite> sites, BuiltModule rebuilt, List <Redirect> redirects ) {
+		Set <Ject> spliced = identitySet ( ) ;
+		spliced.addAll ( stale.jects ( ) ) ;
+		for ( Ject ject : staleJects ) {
+			for ( Map.Entry <Predicate, List <Ject>> entry : ject.getIsObjectOf ( ).entrySet ( ) ) {
+				for ( Ject owner : entry.getValue ( ) ) {
+					if ( staleJects.contains ( owner ) || spliced.contains ( ject ) && isSite ( sites, owner, entry.getKey ( ) ) ) {
+						continue ;
+					}
+					Ject target = ject.getId ( ) == null ? null : rebuilt.context ( ).getIdentityMap ( ).get ( ject.getId ( ) ) ;
+					if ( target == null ) {
+						throw new IllegalStateException ( "Unresolved placeholder in relation: " + ject.getId ( ) ) ;
+					}
+					redirects.add ( new Redirect ( owner, entry.getKey ( ), ject, target ) ) ;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Collects the Jects a built module owns: its top-level Jects and everything nested in them,
+	 * but not the Jects of other modules or the Jects its references point at.
+	 */
+	private static Set <Ject> owned ( BuiltModule module, Set <Ject> others ) {
+		Map <String, Ject> identities = module.context ( ).getIdentityMap ( ) ;
+		Set <Ject> owned = identitySet ( ) ;
+		Deque <Ject> pending = new ArrayDeque <> ( module.jects ( ) ) ;
+		while ( ! pending.isEmpty ( ) ) {
+			Ject ject = pending.pop ( ) ;
+			if ( ! owned.add ( ject ) ) {
+				continue ;
+			}
+			for ( List <Ject> subjects : ject.getSubjects ( ).values ( ) ) {
+				for ( Ject subject : subjects ) {
+					if ( ! owned.contains ( subject ) && ! others.contains ( subject )
+							&& ( subject.getId ( ) == null || identities.get ( subject.getId ( ) ) == subject ) ) {
+						pending.push ( subject ) ;
+					}
+				}
+			}
+		}
+		return owned ;
+	}
+
+	/**
+	 * Removes the backlinks a set of Jects left on the Jects outside of it.
+	 */
+	private static void detach ( Set <Ject> jects ) {
+		for ( Ject ject : jects ) {
+			for ( Map.Entry <Predicate, List <Ject>> entry : ject.getSubjects ( ).entrySet ( ) ) {
+				for ( Ject subject : entry.getValue ( ) ) {
+					if ( jects.contains ( subject ) ) {
+						continue ;
+					}
+					List <Ject> backlinks = subject.getIsObjectOf ( ).get ( entry.getKey ( ) ) ;
+					if ( backlinks != null && backlinks.remove ( ject ) ) {
+						if ( backlinks.isEmpty ( ) ) {
+							subject.getIsObjectOf ( ).remove ( entry.getKey ( ) ) ;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private static boolean isSite ( List <ModuleSite> sites, Ject owner, Predicate predicate ) {
+		for ( ModuleSite site : sites ) {
+			if ( site.owner ( ) == owner && site.predicate ( ).equals ( predicate ) ) {
+				return true ;
+			}
+		}
+		return false ;
+	}
+
+	private static Set <Ject> identitySet ( ) {
+		return Collections.newSetFromMap ( new IdentityHashMap <> ( ) ) ;
+	}
+
+	private void register ( Assembly watched ) {
+		for ( URI uri : watched.modules ( ).keySet ( ) ) {
+			if ( ! FileModuleResolver.SCHEME.equalsIgnoreCase ( uri.getScheme ( ) ) ) {
+				continue ;
+			}
+			Path directory = Path.of ( uri ).getParent ( ) ;
+			if ( directories.add ( directory ) ) {
+				try {
+					directory.register ( watchService, StandardWatchEventKinds.ENTRY_CREATE,
+							StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE ) ;
+					log.debug ( "Watching {}", directory ) ;
+				} catch ( IOException e ) {
+					directories.remove ( directory ) ;
+					log.warn ( "Cannot watch {}: {}", directory, e.getMessage ( ) ) ;
+				}
+			}
+		}
+	}
+
+	private void run ( ) {
+		while ( true ) {
+			WatchKey key ;
+			try {
+				key = watchService.take ( ) ;
+			} catch ( InterruptedException | ClosedWatchServiceException e ) {
+				return ;
+			}
+			Path directory = ( Path ) key.watchable ( ) ;
+			Set <URI> changed = new LinkedHashSet <> ( ) ;
+			for ( WatchEvent <?> event : key.pollEvents ( ) ) {
+				if ( event.context ( ) instanceof Path name ) {
+					changed.add ( directory.resolve ( name ).toUri ( ) ) ;
+				}
+			}
+			key.reset ( ) ;
+			for ( URI uri : changed ) {
+				try {
+					if ( refresh ( uri ) ) {
+						register ( assembly ) ;
+					}
+				} catch ( RuntimeException e ) {
+					log.warn ( "Keeping the previous graph, cannot apply the change to {}: {}", uri, e.getMessage ( ) ) ;
+				}
+			}
+		}
+	}
+
+	/**
+	 * A reference from another module to a Ject of the rebuilt module, to be pointed at its new Ject.
+	 */
+	private record Redirect ( Ject owner, Predicate predicate, Ject from, Ject to ) { ; }
+
+	/**
+	 * A rebuilt module, resolved and ready to be spliced into the graph.
+	 */
+	private record Patch ( BuiltModule stale, Set <Ject> staleJects, List <ModuleSite> sites, BuiltModule rebuilt, List <Redirect> redirects ) { ; }
+}
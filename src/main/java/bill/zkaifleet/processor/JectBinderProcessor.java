@@ -0,0 +1,339 @@
+package bill.zkaifleet.processor ;
+
+import java.io.IOException ;
+import java.io.Writer ;
+import java.util.ArrayList ;
+import java.util.LinkedHashMap ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.Optional ;
+import java.util.Set ;
+import java.util.TreeSet ;
+
+import javax.annotation.processing.AbstractProcessor ;
+import javax.annotation.processing.RoundEnvironment ;
+import javax.annotation.processing.SupportedAnnotationTypes ;
+import javax.lang.model.SourceVersion ;
+import javax.lang.model.element.AnnotationMirror ;
+import javax.lang.model.element.AnnotationValue ;
+import javax.lang.model.element.Element ;
+import javax.lang.model.element.ElementKind ;
+import javax.lang.model.element.ExecutableElement ;
+import javax.lang.model.element.Modifier ;
+import javax.lang.model.element.NestingKind ;
+import javax.lang.model.element.TypeElement ;
+import javax.lang.model.element.VariableElement ;
+import javax.lang.model.type.DeclaredType ;
+import javax.lang.model.type.PrimitiveType ;
+import javax.lang.model.type.TypeKind ;
+import javax.lang.model.type.TypeMirror ;
+import javax.lang.model.util.ElementFilter ;
+import javax.tools.Diagnostic ;
+import javax.tools.FileObject ;
+import javax.tools.JavaFileObject ;
+import javax.tools.StandardLocation ;
+
+/**
+ * Generates a {@code bill.zkaifleet.model.JectBinder} for every public, concrete, top-level Ject
+ * subclass in the compilation.
+ * <p>
+ * The generated binder switches on the predicate name and calls the {@code add<Name>} or
+ * {@code set<Name>} method directly, following the same rules as the runtime resolution in
+ * {@code ScalarBinders}: adders before setters, exact and assignable parameter types before
+ * widening primitive conversions. An {@code Object} parameter accepts any value, so it is tried
+ * last for its prefix and ends the case. Setters that Lombok will generate from {@code @Data} and
+ * {@code @Setter} are included, so the processor does not depend on running after Lombok.
+ * The binders are listed in {@code META-INF/services} for ServiceLoader discovery.
+ *
+ * <h2>Implementation Notes</h2>
+ * <ul>
+ *   <li>The processor claims no annotations; it looks at every root element</li>
+ *   <li>Jects compiled in other modules simply have no generated binder and use the runtime path</li>
+ * </ul>
+ */
+@SupportedAnnotationTypes ( "*" )
+public class JectBinderProcessor extends AbstractProcessor {
+
+	static final String JECT = "bill.zkaifleet.model.Ject" ;
+	static final String BINDER = "bill.zkaifleet.model.JectBinder" ;
+	static final String SUFFIX = "_JectBinder" ;
+	static final String OBJECT = "java.lang.Object" ;
+
+	private static final List <String> WIDENING_SOURCES = List.of ( "java.lang.Byte", "java.lang.Short", "java.lang.Integer", "java.lang.Long", "java.lang.Float" ) ;
+
+	private final Set <String> generated = new TreeSet <> ( ) ;
+
+	@Override
+	public SourceVersion getSupportedSourceVersion ( ) {
+		return SourceVersion.latestSupported ( ) ;
+	}
+
+	@Override
+	public boolean process ( Set <? extends TypeElement> annotations, RoundEnvironment roundEnv ) {
+		TypeElement ject = processingEnv.getElementUtils ( ).getTypeElement ( JECT ) ;
+		if ( ject == null ) {
+			return false ;
+		}
+		if ( roundEnv.processingOver ( ) ) {
+			writeServices ( ) ;
+			return false ;
+		}
+		TypeMirror jectType = processingEnv.getTypeUtils ( ).erasure ( ject.asType ( ) ) ;
+		for ( TypeElement type : ElementFilter.typesIn ( roundEnv.getRootElements ( ) ) ) {
+			if ( isBindable ( type, jectType ) ) {
+				generate ( type ) ;
+			}
+		}
+		return false ;
+	}
+
+	private boolean isBindable ( TypeElement type, TypeMirror jectType ) {
+		return type.getKind ( ) == ElementKind.CLASS && type.getNestingKind ( ) == NestingKind.TOP_LEVEL
+				&& type.getModifiers ( ).contains ( Modifier.PUBLIC ) && ! type.getModifiers ( ).contains ( Modifier.ABSTRACT )
+				&& processingEnv.getTypeUtils ( ).isSubtype ( processingEnv.getTypeUtils ( ).erasure ( type.asType ( ) ), jectType ) ;
+	}
+
+	private void generate ( TypeElement type ) {
+		String qualifiedName = type.getQualifiedName ( ).toString ( ) ;
+		String packageName = processingEnv.getElementUtils ( ).getPackageOf ( type ).getQualifiedName ( ).toString ( ) ;
+		String binderName = type.getSimpleName ( ) + SUFFIX ;
+		String rawType = processingEnv.getTypeUtils ( ).erasure ( type.asType ( ) ).toString ( ) ;
+
+		Map <String, List <Accessor>> properties = new LinkedHashMap <> ( ) ;
+		for ( Accessor accessor : accessors ( type ) ) {
+			properties.computeIfAbsent ( accessor.property ( ), k -> new ArrayList <> ( ) ).add ( accessor ) ;
+		}
+
+		StringBuilder src = new StringBuilder ( ) ;
+		if ( ! packageName.isEmpty ( ) ) {
+			src.append ( "package " ).append ( packageName ).append ( ";\n\n" ) ;
+		}
+		src.append ( "@javax.annotation.processing.Generated(\"" ).append ( JectBinderProcessor.class.getName ( ) ).append ( "\")\n" ) ;
+		src.append ( "public final class " ).append ( binderName ).append ( " implements " ).append ( BINDER ).append ( " {\n\n" ) ;
+		src.append ( "    @Override\n" ) ;
+		src.append ( "    public Class<? extends " ).append ( JECT ).append ( "> jectType() {\n" ) ;
+		src.append ( "        return " ).append ( rawType ).append ( ".class;\n" ) ;
+		src.append ( "    }\n\n" ) ;
+		src.append ( "    @Override\n" ) ;
+		src.append ( "    @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n" ) ;
+		src.append ( "    public boolean bind(" ).append ( JECT ).append ( " target, String property, Object value) {\n" ) ;
+		src.append ( "        " ).append ( rawType ).append ( " ject = (" ).append ( rawType ).append ( ") target;\n" ) ;
+		src.append ( "        switch (property) {\n" ) ;
+		int var = 0 ;
+		for ( Map.Entry <String, List <Accessor>> entry : properties.entrySet ( ) ) {
+			src.append ( "            case \"" ).append ( entry.getKey ( ) ).append ( "\": {\n" ) ;
+			Accessor catchAll = null ;
+			for ( String prefix : List.of ( "add", "set" ) ) {
+				for ( Accessor accessor : entry.getValue ( ) ) {
+					if ( accessor.prefix ( ).equals ( prefix ) ) {
+						if ( accessor.boxed ( ).equals ( OBJECT ) ) {
+							catchAll = catchAll == null ? accessor : catchAll ;
+						} else {
+							appendCall ( src, accessor, accessor.boxed ( ), "v" + var++, null ) ;
+						}
+					}
+				}
+				for ( Accessor accessor : entry.getValue ( ) ) {
+					if ( accessor.prefix ( ).equals ( prefix ) ) {
+						for ( String source : widenings ( accessor.boxed ( ) ) ) {
+							appendCall ( src, accessor, source, "v" + var++, conversion ( accessor.boxed ( ) ) ) ;
+						}
+					}
+				}
+				// An Object parameter takes any value, so nothing after it is reachable
+				if ( catchAll != null ) {
+					break ;
+				}
+			}
+			if ( catchAll != null ) {
+				src.append ( "                ject." ).append ( catchAll.method ( ) ).append ( "(value);\n" ) ;
+				src.append ( "                return true;\n" ) ;
+			} else {
+				src.append ( "                return false;\n" ) ;
+			}
+			src.append ( "            }\n" ) ;
+		}
+		src.append ( "            default:\n" ) ;
+		src.append ( "                return false;\n" ) ;
+		src.append ( "        }\n" ) ;
+		src.append ( "    }\n" ) ;
+		src.append ( "}\n" ) ;
+
+		String binderQualifiedName = packageName.isEmpty ( ) ? binderName : packageName + "." + binderName ;
+		try {
+			JavaFileObject file = processingEnv.getFiler ( ).createSourceFile ( binderQualifiedName, type ) ;
+			try ( Writer writer = file.openWriter ( ) ) {
+				writer.write ( src.toString ( ) ) ;
+			}
+			generated.add ( binderQualifiedName ) ;
+		} catch ( IOException e ) {
+			processingEnv.getMessager ( ).printMessage ( Diagnostic.Kind.ERROR, "Cannot write binder for " + qualifiedName + ": " + e.getMessage ( ), type ) ;
+		}
+	}
+
+	private void appendCall ( StringBuilder src, Accessor accessor, String instanceType, String var, String conversion ) {
+		src.append ( "                if (value instanceof " ).append ( instanceType ).append ( ' ' ).append ( var ).append ( ") {\n" ) ;
+		src.append ( "                    ject." ).append ( accessor.method ( ) ).append ( '(' ) ;
+		src.append ( var ) ;
+		if ( conversion != null ) {
+			src.append ( '.' ).append ( conversion ).append ( "()" ) ;
+		}
+		src.append ( ");\n" ) ;
+		src.append ( "                    return true;\n" ) ;
+		src.append ( "                }\n" ) ;
+	}
+
+	/**
+	 * Collects the public one-argument adders and setters of a type and its superclasses, plus
+	 * the setters Lombok will generate for it.
+	 */
+	private List <Accessor> accessors ( TypeElement type ) {
+		Map <String, Accessor> bySignature = new LinkedHashMap <> ( ) ;
+		for ( TypeElement current = type ; current != null ; current = superclass ( current ) ) {
+			Set <String> declaredNames = new TreeSet <> ( ) ;
+			for ( ExecutableElement method : ElementFilter.methodsIn ( current.getEnclosedElements ( ) ) ) {
+				declaredNames.add ( method.getSimpleName ( ).toString ( ) ) ;
+				if ( method.getModifiers ( ).contains ( Modifier.PUBLIC ) && ! method.getModifiers ( ).contains ( Modifier.STATIC )
+						&& method.getParameters ( ).size ( ) == 1 ) {
+					accessor ( method.getSimpleName ( ).toString ( ), method.getParameters ( ).get ( 0 ).asType ( ) ).ifPresent (
+							a -> bySignature.putIfAbsent ( a.method ( ) + "(" + a.boxed ( ) + ")", a ) ) ;
+				}
+			}
+			boolean classSetters = hasPublicLombok ( current, "Data" ) || hasPublicLombok ( current, "Setter" ) ;
+			for ( VariableElement field : ElementFilter.fieldsIn ( current.getEnclosedElements ( ) ) ) {
+				Set <Modifier> modifiers = field.getModifiers ( ) ;
+				if ( modifiers.contains ( Modifier.STATIC ) || modifiers.contains ( Modifier.FINAL ) ) {
+					continue ;
+				}
+				// A field-level @Setter overrides the class-level one, e.g. @Setter(AccessLevel.NONE)
+				if ( hasLombok ( field, "Setter" ) ? ! hasPublicLombok ( field, "Setter" ) : ! classSetters ) {
+					continue ;
+				}
+				String setter = "set" + capitalize ( lombokPropertyName ( field ) ) ;
+				if ( ! declaredNames.contains ( setter ) ) {
+					accessor ( setter, field.asType ( ) ).ifPresent ( a -> bySignature.putIfAbsent ( a.method ( ) + "(" + a.boxed ( ) + ")", a ) ) ;
+				}
+			}
+		}
+		return new ArrayList <> ( bySignature.values ( ) ) ;
+	}
+
+	private Optional <Accessor> accessor ( String method, TypeMirror parameter ) {
+		String prefix ;
+		if ( method.startsWith ( "add" ) && method.length ( ) > 3 ) {
+			prefix = "add" ;
+		} else if ( method.startsWith ( "set" ) && method.length ( ) > 3 ) {
+			prefix = "set" ;
+		} else {
+			return Optional.empty ( ) ;
+		}
+		String property = Character.toLowerCase ( method.charAt ( 3 ) ) + method.substring ( 4 ) ;
+		String boxed ;
+		if ( parameter.getKind ( ).isPrimitive ( ) ) {
+			boxed = processingEnv.getTypeUtils ( ).boxedClass ( ( PrimitiveType ) parameter ).getQualifiedName ( ).toString ( ) ;
+		} else if ( parameter.getKind ( ) == TypeKind.DECLARED || parameter.getKind ( ) == TypeKind.ARRAY || parameter.getKind ( ) == TypeKind.TYPEVAR ) {
+			boxed = processingEnv.getTypeUtils ( ).erasure ( parameter ).toString ( ) ;
+		} else {
+			return Optional.empty ( ) ;
+		}
+		return Optional.of ( new Accessor ( prefix, property, method, boxed ) ) ;
+	}
+
+	private TypeElement superclass ( TypeElement type ) {
+		TypeMirror superclass = type.getSuperclass ( ) ;
+		if ( superclass.getKind ( ) != TypeKind.DECLARED ) {
+			return null ;
+		}
+		TypeElement element = ( TypeElement ) ( ( DeclaredType ) superclass ).asElement ( ) ;
+		return element.getQualifiedName ( ).contentEquals ( "java.lang.Object" ) ? null : element ;
+	}
+
+	private boolean hasLombok ( Element element, String simpleName ) {
+		for ( AnnotationMirror mirror : element.getAnnotationMirrors ( ) ) {
+			if ( ( ( TypeElement ) mirror.getAnnotationType ( ).asElement ( ) ).getQualifiedName ( ).contentEquals ( "lombok." + simpleName ) ) {
+				return true ;
+			}
+		}
+		return false ;
+	}
+
+	/**
+	 * Checks for a Lombok annotation that generates public members. Lombok annotations have
+	 * source retention, so this only sees types in the current compilation.
+	 */
+	private boolean hasPublicLombok ( Element element, String simpleName ) {
+		for ( AnnotationMirror mirror : element.getAnnotationMirrors ( ) ) {
+			TypeElement annotation = ( TypeElement ) mirror.getAnnotationType ( ).asElement ( ) ;
+			if ( annotation.getQualifiedName ( ).contentEquals ( "lombok." + simpleName ) ) {
+				for ( Map.Entry <? extends ExecutableElement, ? extends AnnotationValue> value : mirror.getElementValues ( ).entrySet ( ) ) {
+					if ( value.getKey ( ).getSimpleName ( ).contentEquals ( "value" ) && ! value.getValue ( ).toString ( ).endsWith ( "PUBLIC" ) ) {
+						return false ;
+					}
+				}
+				return true ;
+			}
+		}
+		return false ;
+	}
+
+	private String lombokPropertyName ( VariableElement field ) {
+		String name = field.getSimpleName ( ).toString ( ) ;
+		if ( field.asType ( ).getKind ( ) == TypeKind.BOOLEAN && name.length ( ) > 2 && name.startsWith ( "is" ) && Character.isUpperCase ( name.charAt ( 2 ) ) ) {
+			return name.substring ( 2 ) ;
+		}
+		return name ;
+	}
+
+	private static String capitalize ( String name ) {
+		return Character.toUpperCase ( name.charAt ( 0 ) ) + name.substring ( 1 ) ;
+	}
+
+	private static List <String> widenings ( String boxed ) {
+		int limit = switch ( boxed ) {
+			case "java.lang.Double" -> 5 ;
+			case "java.lang.Float" -> 4 ;
+			case "java.lang.Long" -> 3 ;
+			case "java.lang.Integer" -> 2 ;
+			default -> 0 ;
+		} ;
+		return WIDENING_SOURCES.subList ( 0, limit ) ;
+	}
+
+	private static String conversion ( String boxed ) {
+		return switch ( boxed ) {
+			case "java.lang.Double" -> "doubleValue" ;
+			case "java.lang.Float" -> "floatValue" ;
+			case "java.lang.Long" -> "longValue" ;
+			default -> "intValue" ;
+		} ;
+	}
+
+	private void writeServices ( ) {
+		if ( generated.isEmpty ( ) ) {
+			return ;
+		}
+		try {
+			FileObject file = processingEnv.getFiler ( ).createResource ( StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + BINDER ) ;
+			try ( Writer writer = file.openWriter ( ) ) {
+				for ( String name : generated ) {
+					writer.write ( name ) ;
+					writer.write ( '\n' ) ;
+				}
+			}
+		} catch ( IOException e ) {
+			processingEnv.getMessager ( ).printMessage ( Diagnostic.Kind.ERROR, "Cannot write binder services: " + e.getMessage ( ) ) ;
+		}
+	}
+
+	/**
+	 * A one-argument adder or setter.
+	 *
+	 * @param prefix "add" or "set"
+	 * @param property The predicate name the method binds
+	 * @param method The method name
+	 * @param boxed The erased, boxed parameter type used for the instanceof check; generic
+	 *        parameters receive the raw value through an unchecked conversion
+	 */
+	private record Accessor ( String prefix, String property, String method, String boxed ) {
+	}
+}
@@ -0,0 +1,73 @@
+package bill.zkaifleet.store ;
+
+/**
+ * Layout constants of the memory-mapped store written by {@link MappedStoreWriter}.
+ * <p>
+ * All numbers are big-endian ints unless noted, and all positions are absolute byte offsets
+ * into the file. The file is laid out as:
+ * <pre>
+ * header:     magic "ZKMS", version, string count, predicate count, node count,
+ *             and the positions of the six sections below
+ * strings:    offsets (count + 1, relative to the string data), then the UTF-8 string data
+ * predicates: fixed-width records (kind, name, space, ontology, fqName)
+ * nodes:      fixed-width records (class, typeName, ontology, id, description, evolutionNotes,
+ *             then start and count of its scalar, subject and backlink groups)
+ * groups:     fixed-width records (predicate, count, start): one run per node and kind
+ * targets:    node handles, the edge arrays the subject and backlink groups index into
+ * scalars:    tagged values, which scalar groups point to by offset from the section start
+ * </pre>
+ * String fields hold a string index, or -1 for null. Node 0 is the Ontology. Int offsets limit
+ * a store to 2 GB.
+ */
+final class MappedFormat {
+
+	static final int MAGIC = 0x5A4B4D53 ; // "ZKMS"
+	static final int VERSION = 1 ;
+
+	static final int HEADER_INTS = 11 ;
+	static final int STRING_COUNT = 2 ;
+	static final int PREDICATE_COUNT = 3 ;
+	static final int NODE_COUNT = 4 ;
+	static final int STRINGS_POS = 5 ;
+	static final int PREDICATES_POS = 6 ;
+	static final int NODES_POS = 7 ;
+	static final int GROUPS_POS = 8 ;
+	static final int TARGETS_POS = 9 ;
+	static final int SCALARS_POS = 10 ;
+
+	static final int PREDICATE_INTS = 5 ;
+	static final int NODE_INTS = 12 ;
+	static final int GROUP_INTS = 3 ;
+
+	static final int NODE_CLASS = 0 ;
+	static final int NODE_TYPE_NAME = 1 ;
+	static final int NODE_ONTOLOGY = 2 ;
+	static final int NODE_ID = 3 ;
+	static final int NODE_DESCRIPTION = 4 ;
+	static final int NODE_EVOLUTION_NOTES = 5 ;
+	static final int NODE_SCALARS = 6 ;
+	static final int NODE_SUBJECTS = 8 ;
+	static final int NODE_BACKLINKS = 10 ;
+
+	static final int PREDICATE_REGISTERED = 0 ;
+	static final int PREDICATE_RUNTIME = 1 ;
+
+	static final byte NULL = 0 ;
+	static final byte STRING = 1 ;
+	static final byte TRUE = 2 ;
+	static final byte FALSE = 3 ;
+	static final byte INT = 4 ;
+	static final byte LONG = 5 ;
+	static final byte DOUBLE = 6 ;
+	static final byte FLOAT = 7 ;
+	static final byte BIG_INTEGER = 8 ;
+	static final byte BIG_DECIMAL = 9 ;
+	static final byte DATE = 10 ;
+	static final byte BYTES = 11 ;
+	static final byte LIST = 12 ;
+	static final byte SET = 13 ;
+	static final byte MAP = 14 ;
+
+	private MappedFormat ( ) {
+	}
+}
@@ -0,0 +1,336 @@
+package bill.zkaifleet.store ;
+
+import static bill.zkaifleet.store.MappedFormat.* ;
+
+import java.util.ArrayList ;
+import java.util.Collections ;
+import java.util.LinkedHashMap ;
+import java.util.List ;
+import java.util.Map ;
+
+import bill.zkaifleet.model.Ject ;
+import bill.zkaifleet.model.Predicate ;
+import lombok.extern.slf4j.Slf4j ;
+
+/**
+ * A read-only view of one node of a {@link MappedOntologyStore}.
+ * <p>
+ * The accessors of {@link Ject} read from the mapping on each call instead of from heap maps;
+ * nothing is cached in the view. Views are not instances of the typed Ject classes they were
+ * written from, so the typed lookups of {@link Ject} match on {@link Ject} or {@link MappedJect}
+ * only, and skip other nodes with a warning, as on the heap. Typed getters such as
+ * {@code FleetJect.getRoles()} are therefore not available; {@link #getStoredSubjects} and
+ * {@link #getStoredIsObjectOf} select related nodes by the class they were written from instead,
+ * and {@link #getStoredType()} names that class. Every mutator throws
+ * {@link UnsupportedOperationException}.
+ */
+@Slf4j
+public final class MappedJect extends Ject {
+
+	private final MappedOntologyStore store ;
+	private final int handle ;
+
+	MappedJect ( MappedOntologyStore store, int handle ) {
+		super ( store.string ( store.node ( handle, NODE_TYPE_NAME ) ), store.string ( store.node ( handle, NODE_ONTOLOGY ) ) ) ;
+		this.store = store ;
+		this.handle = handle ;
+	}
+
+	/**
+	 * Gets the handle of this node in its store.
+	 *
+	 * @return The node handle
+	 */
+	public int getHandle ( ) {
+		return handle ;
+	}
+
+	/**
+	 * Gets the name of the Ject class this node was written from.
+	 *
+	 * @return The fully qualified class name
+	 */
+	public String getStoredType ( ) {
+		return store.string ( store.node ( handle, NODE_CLASS ) ) ;
+	}
+
+	/**
+	 * Gets whether this node was written from a class or a subclass of it.
+	 *
+	 * @param type The Ject class
+	 * @return false if it was not, or its class is not on the class path
+	 */
+	public boolean isStoredAs ( Class <? extends Ject> type ) {
+		Class <? extends Ject> stored = store.storedClass ( handle ) ;
+		return stored != null && type.isAssignableFrom ( stored ) ;
+	}
+
+	/**
+	 * Gets the subjects of a predicate that were written from a class or a subclass of it; the
+	 * mapped counterpart of {@link #getTypedSubjects}.
+	 *
+	 * @param pred The predicate
+	 * @param type The Ject class
+	 * @return The views of the matching subjects, in order
+	 */
+	public List <MappedJect> getStoredSubjects ( Predicate pred, Class <? extends Ject> type ) {
+		return stored ( NODE_SUBJECTS, pred, type ) ;
+	}
+
+	/**
+	 * Gets the Jects holding this one under a predicate that were written from a class or a
+	 * subclass of it; the mapped counterpart of {@link #getTypedIsObjectOf}.
+	 *
+	 * @param pred The predicate
+	 * @param type The Ject class
+	 * @return The views of the matching owners, in order
+	 */
+	public List <MappedJect> getStoredIsObjectOf ( Predicate pred, Class <? extends Ject> type ) {
+		return stored ( NODE_BACKLINKS, pred, type ) ;
+	}
+
+	@Override
+	public String getId ( ) {
+		return store.string ( store.node ( handle, NODE_ID ) ) ;
+	}
+
+	@Override
+	public String getDescription ( ) {
+		return store.string ( store.node ( handle, NODE_DESCRIPTION ) ) ;
+	}
+
+	@Override
+	public String getEvolutionNotes ( ) {
+		return store.string ( store.node ( handle, NODE_EVOLUTION_NOTES ) ) ;
+	}
+
+	@Override
+	public <T extends Ject> List <T> getTypedSubjects ( Predicate pred, Class <T> type ) {
+		return edges ( NODE_SUBJECTS, pred, type ) ;
+	}
+
+	@Override
+	public <T extends Ject> List <T> getTypedIsObjectOf ( Predicate pred, Class <T> type ) {
+		return edges ( NODE_BACKLINKS, pred, type ) ;
+	}
+
+	@Override
+	public <T> List <T> getScalars ( Predicate pred, Class <T> type ) {
+		int group = group ( NODE_SCALARS, pred ) ;
+		if ( group < 0 ) {
+			return new ArrayList <> ( ) ;
+		}
+		List <T> typed = new ArrayList <> ( ) ;
+		for ( Object item : store.scalarValues ( group ) ) {
+			if ( type.isInstance ( item ) ) {
+				typed.add ( type.cast ( item ) ) ;
+			} else {
+				throw new IllegalStateException ( "Type mismatch for scalar: " + pred.name ( ) ) ;
+			}
+		}
+		return typed ;
+	}
+
+	@Override
+	public double getDouble ( Predicate pred, double absent ) {
+		Object value = getScalar ( pred, Object.class ) ;
+		if ( value == null ) {
+			return absent ;
+		}
+		if ( value instanceof Number number ) {
+			return number.doubleValue ( ) ;
+		}
+		throw new IllegalStateException ( "Type mismatch for scalar: " + pred.name ( ) ) ;
+	}
+
+	@Override
+	public long getLong ( Predicate pred, long absent ) {
+		Object value = getScalar ( pred, Object.class ) ;
+		if ( value == null ) {
+			return absent ;
+		}
+		if ( value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte ) {
+			return ( ( Number ) value ).longValue ( ) ;
+		}
+		throw new IllegalStateException ( "Type mismatch for scalar: " + pred.name ( ) ) ;
+	}
+
+	@Override
+	public Map <Predicate, List <Ject>> getSubjects ( ) {
+		return edgeMap ( NODE_SUBJECTS ) ;
+	}
+
+	@Override
+	public Map <Predicate, List <Ject>> getIsObjectOf ( ) {
+		return edgeMap ( NODE_BACKLINKS ) ;
+	}
+
+	@Override
+	public Map <Predicate, List <Object>> getScalars ( ) {
+		Map <Predicate, List <Object>> map = new LinkedHashMap <> ( ) ;
+		int start = store.node ( handle, NODE_SCALARS ) ;
+		int end = start + store.node ( handle, NODE_SCALARS + 1 ) ;
+		for ( int group = start ; group < end ; group++ ) {
+			map.put ( store.predicate ( store.groupPredicate ( group ) ), Collections.unmodifiableList ( store.scalarValues ( group ) ) ) ;
+		}
+		return Collections.unmodifiableMap ( map ) ;
+	}
+
+	@Override
+	public List <Predicate> getSubjectPredicates ( ) {
+		return new ArrayList <> ( getSubjects ( ).keySet ( ) ) ;
+	}
+
+	@Override
+	public List <Predicate> getIsObjectOfPredicates ( ) {
+		return new ArrayList <> ( getIsObjectOf ( ).keySet ( ) ) ;
+	}
+
+	@Override
+	public List <Predicate> getScalarPredicates ( ) {
+		return new ArrayList <> ( getScalars ( ).keySet ( ) ) ;
+	}
+
+	/**
+	 * Finds this node's group for a predicate among its groups of one kind.
+	 *
+	 * @return The group index, or -1 if the node has none for the predicate
+	 */
+	private int group ( int kind, Predicate pred ) {
+		int predicate = store.predicateIndex ( pred ) ;
+		if ( predicate < 0 ) {
+			return -1 ;
+		}
+		int start = store.node ( handle, kind ) ;
+		int end = start + store.node ( handle, kind + 1 ) ;
+		for ( int group = start ; group < end ; group++ ) {
+			if ( store.groupPredicate ( group ) == predicate ) {
+				return group ;
+			}
+		}
+		return -1 ;
+	}
+
+	private <T extends Ject> List <T> edges ( int kind, Predicate pred, Class <T> type ) {
+		List <T> typed = new ArrayList <> ( ) ;
+		int group = group ( kind, pred ) ;
+		if ( group < 0 ) {
+			return typed ;
+		}
+		boolean views = type.isAssignableFrom ( MappedJect.class ) ;
+		int start = store.groupStart ( group ) ;
+		int end = start + store.groupSize ( group ) ;
+		for ( int i = start ; i < end ; i++ ) {
+			MappedJect item = store.ject ( store.target ( i ) ) ;
+			if ( views ) {
+				typed.add ( type.cast ( item ) ) ;
+			} else {
+				log.warn ( "Type mismatch for predicate {}: expected {}, got a view of {}; use getStoredSubjects or getStoredIsObjectOf",
+						pred.name ( ), type.getSimpleName ( ), item.getStoredType ( ) ) ;
+			}
+		}
+		return typed ;
+	}
+
+	private List <MappedJect> stored ( int kind, Predicate pred, Class <? extends Ject> type ) {
+		List <MappedJect> items = new ArrayList <> ( ) ;
+		int group = group ( kind, pred ) ;
+		if ( group < 0 ) {
+			return items ;
+		}
+		int start = store.groupStart ( group ) ;
+		int end = start + store.groupSize ( group ) ;
+		for ( int i = start ; i < end ; i++ ) {
+			int target = store.target ( i ) ;
+			Class <? extends Ject> stored = store.storedClass ( target ) ;
+			if ( stored != null && type.isAssignableFrom ( stored ) ) {
+				items.add ( store.ject ( target ) ) ;
+			}
+		}
+		return items ;
+	}
+
+	private Map <Predicate, List <Ject>> edgeMap ( int kind ) {
+		Map <Predicate, List <Ject>> map = new LinkedHashMap <> ( ) ;
+		int start = store.node ( handle, kind ) ;
+		int end = start + store.node ( handle, kind + 1 ) ;
+		for ( int group = start ; group < end ; group++ ) {
+			List <Ject> items = new ArrayList <> ( store.groupSize ( group ) ) ;
+			int first = store.groupStart ( group ) ;
+			for ( int i = first ; i < first + store.groupSize ( group ) ; i++ ) {
+				items.add ( store.ject ( store.target ( i ) ) ) ;
+			}
+			map.put ( store.predicate ( store.groupPredicate ( group ) ), Collections.unmodifiableList ( items ) ) ;
+		}
+		return Collections.unmodifiableMap ( map ) ;
+	}
+
+	private static UnsupportedOperationException readOnly ( ) {
+		return new UnsupportedOperationException ( "Mapped Jects are read-only" ) ;
+	}
+
+	@Override
+	public void setId ( String id ) {
+		throw readOnly ( ) ;
+	}
+
+	@Override
+	public void setDescription ( String description ) {
+		throw readOnly ( ) ;
+	}
+
+	@Override
+	public void setEvolutionNotes ( String evolutionNotes ) {
+		throw readOnly ( ) ;
+	}
+
+	@Override
+	public void setOntology ( String ontology ) {
+		throw readOnly ( ) ;
+	}
+
+	@Override
+	public <T extends Ject> Ject addTypedSubject ( Predicate pred, T obj ) {
+		throw readOnly ( ) ;
+	}
+
+	@Override
+	public void removeTypedSubjects ( Predicate p ) {
+		throw readOnly ( ) ;
+	}
+
+	@Override
+	protected void removeIsObjectOf ( Predicate p, Ject ject ) {
+		throw readOnly ( ) ;
+	}
+
+	@Override
+	public void addIsObjectOf ( Predicate pred, Ject subj ) {
+		throw readOnly ( ) ;
+	}
+
+	@Override
+	public void addScalar ( Predicate pred, Object scalar ) {
+		throw readOnly ( ) ;
+	}
+
+	@Override
+	public void setScalars ( Predicate pred, List <Object> values ) {
+		throw readOnly ( ) ;
+	}
+
+	@Override
+	public boolean equals ( Object o ) {
+		return o instanceof MappedJect other && other.store == store && other.handle == handle ;
+	}
+
+	@Override
+	public int hashCode ( ) {
+		return System.identityHashCode ( store ) * 31 + handle ;
+	}
+
+	@Override
+	public String toString ( ) {
+		return "MappedJect[handle=" + handle + ", id=" + getId ( ) + ", typeName=" + getTypeName ( ) + ", storedType=" + getStoredType ( ) + "]" ;
+	}
+}
@@ -0,0 +1,345 @@
+package bill.zkaifleet.store ;
+
+import static bill.zkaifleet.store.MappedFormat.* ;
+
+import java.io.IOException ;
+import java.math.BigDecimal ;
+import java.math.BigInteger ;
+import java.nio.ByteBuffer ;
+import java.nio.channels.FileChannel ;
+import java.nio.charset.StandardCharsets ;
+import java.nio.file.Path ;
+import java.nio.file.StandardOpenOption ;
+import java.util.ArrayList ;
+import java.util.Date ;
+import java.util.HashMap ;
+import java.util.LinkedHashMap ;
+import java.util.LinkedHashSet ;
+import java.util.List ;
+import java.util.Map ;
+
+import bill.zkaifleet.model.BasePredicate ;
+import bill.zkaifleet.model.Ject ;
+import bill.zkaifleet.model.Ontology ;
+import bill.zkaifleet.model.ParserRegistry ;
+import bill.zkaifleet.model.ParserRegistryManager ;
+import bill.zkaifleet.model.Predicate ;
+import bill.zkaifleet.model.RuntimePredicate ;
+import lombok.extern.slf4j.Slf4j ;
+
+/**
+ * A read-only Ontology graph kept in a memory-mapped file rather than on the heap.
+ * <p>
+ * The file holds fixed-width node records, per-node runs of predicate groups over one shared edge
+ * array, and a string pool (see {@link MappedFormat}). Nodes are read through {@link MappedJect}
+ * views, which decode only what a caller asks for. The mapping is read-only, so processes that
+ * open the same file share one page-cached copy, and only absolute reads are used, so one store
+ * can serve any number of threads. The classes the nodes were written from are resolved once, when
+ * the store is opened.
+ */
+@Slf4j
+public final class MappedOntologyStore {
+
+	private final ByteBuffer buffer ;
+	private final int nodeCount ;
+	private final int stringsPos ;
+	private final int stringDataPos ;
+	private final int nodesPos ;
+	private final int groupsPos ;
+	private final int targetsPos ;
+	private final int scalarsPos ;
+	private final String [ ] strings ;
+	private final Predicate [ ] predicates ;
+	private final Map <String, Integer> predicateIndexes = new HashMap <> ( ) ;
+	private final Map <Integer, Class <? extends Ject>> classes = new HashMap <> ( ) ;
+
+	private MappedOntologyStore ( ByteBuffer buffer, Map <String, ParserRegistry> ontologyCatalog ) {
+		this.buffer = buffer ;
+		if ( buffer.capacity ( ) < HEADER_INTS * 4 || buffer.getInt ( 0 ) != MAGIC ) {
+			throw new IllegalArgumentException ( "Not a mapped ontology store" ) ;
+		}
+		int version = buffer.getInt ( 4 ) ;
+		if ( version != VERSION ) {
+			throw new IllegalArgumentException ( "Unsupported mapped store version: " + version ) ;
+		}
+		int stringCount = header ( STRING_COUNT ) ;
+		this.nodeCount = header ( NODE_COUNT ) ;
+		this.stringsPos = header ( STRINGS_POS ) ;
+		this.stringDataPos = stringsPos + ( stringCount + 1 ) * 4 ;
+		this.nodesPos = header ( NODES_POS ) ;
+		this.groupsPos = header ( GROUPS_POS ) ;
+		this.targetsPos = header ( TARGETS_POS ) ;
+		this.scalarsPos = header ( SCALARS_POS ) ;
+		this.strings = new String [ stringCount ] ;
+		this.predicates = new Predicate [ header ( PREDICATE_COUNT ) ] ;
+		int predicatesPos = header ( PREDICATES_POS ) ;
+		for ( int i = 0 ; i < predicates.length ; i++ ) {
+			int record = predicatesPos + i * PREDICATE_INTS * 4 ;
+			String fqName = string ( buffer.getInt ( record + 16 ) ) ;
+			predicates [ i ] = predicate ( ontologyCatalog, buffer.getInt ( record ), string ( buffer.getInt ( record + 4 ) ),
+					string ( buffer.getInt ( record + 8 ) ), string ( buffer.getInt ( record + 12 ) ), fqName ) ;
+			predicateIndexes.put ( fqName, i ) ;
+		}
+		for ( int handle = 0 ; handle < nodeCount ; handle++ ) {
+			int name = node ( handle, NODE_CLASS ) ;
+			if ( ! classes.containsKey ( name ) ) {
+				classes.put ( name, jectClass ( string ( name ) ) ) ;
+			}
+		}
+	}
+
+	/**
+	 * Writes an Ontology graph as a store file.
+	 *
+	 * @param ontology The Ontology to write
+	 * @param path The file to create or replace
+	 * @throws IOException if the file cannot be written
+	 * @throws IllegalArgumentException if the graph exceeds 2 GB or holds a scalar type the store cannot hold
+	 */
+	public static void write ( Ontology ontology, Path path ) throws IOException {
+		new MappedStoreWriter ( ).write ( ontology, path ) ;
+	}
+
+	/**
+	 * Maps a store file, resolving its predicates through the registries of the ParserRegistryManager.
+	 *
+	 * @param path The store file
+	 * @return The store
+	 * @throws IOException if the file cannot be mapped
+	 * @throws IllegalArgumentException if the file is not a store of a supported version
+	 */
+	public static MappedOntologyStore open ( Path path ) throws IOException {
+		return open ( path, ParserRegistryManager.getInstance ( ).getAllRegistries ( ) ) ;
+	}
+
+	/**
+	 * Maps a store file.
+	 *
+	 * @param path The store file
+	 * @param ontologyCatalog Map of ontology names to parser registries, used to resolve predicates
+	 * @return The store
+	 * @throws IOException if the file cannot be mapped
+	 * @throws IllegalArgumentException if the file is not a store of a supported version
+	 */
+	public static MappedOntologyStore open ( Path path, Map <String, ParserRegistry> ontologyCatalog ) throws IOException {
+		try ( FileChannel channel = FileChannel.open ( path, StandardOpenOption.READ ) ) {
+			if ( channel.size ( ) > Integer.MAX_VALUE ) {
+				throw new IllegalArgumentException ( "Mapped store too large: " + path ) ;
+			}
+			// The mapping stays valid after the channel is closed
+			ByteBuffer buffer = channel.map ( FileChannel.MapMode.READ_ONLY, 0, channel.size ( ) ) ;
+			MappedOntologyStore store = new MappedOntologyStore ( buffer, ontologyCatalog ) ;
+			log.debug ( "Mapped store {} with {} Jects", path, store.size ( ) ) ;
+			return store ;
+		}
+	}
+
+	/**
+	 * Gets the view of the Ontology the store was written from.
+	 *
+	 * @return The root view
+	 */
+	public MappedJect root ( ) {
+		return ject ( 0 ) ;
+	}
+
+	/**
+	 * Gets the view of a node. Views are cheap and created on every call; two views of the same
+	 * node are equal.
+	 *
+	 * @param handle The node handle, from 0 to {@link #size()} - 1
+	 * @return The view
+	 */
+	public MappedJect ject ( int handle ) {
+		if ( handle < 0 || handle >= nodeCount ) {
+			throw new IndexOutOfBoundsException ( "No Ject with handle " + handle ) ;
+		}
+		return new MappedJect ( this, handle ) ;
+	}
+
+	/**
+	 * Gets the number of Jects in the store.
+	 *
+	 * @return The node count
+	 */
+	public int size ( ) {
+		return nodeCount ;
+	}
+
+	private int header ( int field ) {
+		return buffer.getInt ( field * 4 ) ;
+	}
+
+	int node ( int handle, int field ) {
+		return buffer.getInt ( nodesPos + ( handle * NODE_INTS + field ) * 4 ) ;
+	}
+
+	int groupPredicate ( int group ) {
+		return buffer.getInt ( groupsPos + group * GROUP_INTS * 4 ) ;
+	}
+
+	int groupSize ( int group ) {
+		return buffer.getInt ( groupsPos + group * GROUP_INTS * 4 + 4 ) ;
+	}
+
+	int groupStart ( int group ) {
+		return buffer.getInt ( groupsPos + group * GROUP_INTS * 4 + 8 ) ;
+	}
+
+	int target ( int index ) {
+		return buffer.getInt ( targetsPos + index * 4 ) ;
+	}
+
+	Predicate predicate ( int index ) {
+		return predicates [ index ] ;
+	}
+
+	int predicateIndex ( Predicate pred ) {
+		Integer index = predicateIndexes.get ( pred.fqName ( ) ) ;
+		return index == null ? -1 : index ;
+	}
+
+	/**
+	 * Gets the class a node was written from, as resolved when the store was opened.
+	 *
+	 * @return The Ject class, or null if it is not on the class path
+	 */
+	Class <? extends Ject> storedClass ( int handle ) {
+		return classes.get ( node ( handle, NODE_CLASS ) ) ;
+	}
+
+	/**
+	 * Decodes a pooled string. Decoded strings are cached; racing threads decode the same value.
+	 */
+	String string ( int index ) {
+		if ( index < 0 ) {
+			return null ;
+		}
+		String s = strings [ index ] ;
+		if ( s == null ) {
+			int start = buffer.getInt ( stringsPos + index * 4 ) ;
+			int end = buffer.getInt ( stringsPos + index * 4 + 4 ) ;
+			byte [ ] bytes = new byte [ end - start ] ;
+			buffer.get ( stringDataPos + start, bytes ) ;
+			s = new String ( bytes, StandardCharsets.UTF_8 ) ;
+			strings [ index ] = s ;
+		}
+		return s ;
+	}
+
+	/**
+	 * Decodes the values of a scalar group.
+	 */
+	List <Object> scalarValues ( int group ) {
+		int size = groupSize ( group ) ;
+		List <Object> values = new ArrayList <> ( size ) ;
+		int [ ] cursor = { scalarsPos + groupStart ( group ) } ;
+		for ( int i = 0 ; i < size ; i++ ) {
+			values.add ( value ( cursor ) ) ;
+		}
+		return values ;
+	}
+
+	private Object value ( int [ ] cursor ) {
+		int position = cursor [ 0 ] ;
+		byte tag = buffer.get ( position++ ) ;
+		Object value ;
+		switch ( tag ) {
+			case NULL -> value = null ;
+			case STRING -> {
+				value = string ( buffer.getInt ( position ) ) ;
+				position += 4 ;
+			}
+			case TRUE -> value = Boolean.TRUE ;
+			case FALSE -> value = Boolean.FALSE ;
+			case INT -> {
+				value = buffer.getInt ( position ) ;
+				position += 4 ;
+			}
+			case LONG -> {
+				value = buffer.getLong ( position ) ;
+				position += 8 ;
+			}
+			case DOUBLE -> {
+				value = buffer.getDouble ( position ) ;
+				position += 8 ;
+			}
+			case FLOAT -> {
+				value = buffer.getFloat ( position ) ;
+				position += 4 ;
+			}
+			case DATE -> {
+				value = new Date ( buffer.getLong ( position ) ) ;
+				position += 8 ;
+			}
+			case BIG_INTEGER, BYTES -> {
+				byte [ ] bytes = new byte [ buffer.getInt ( position ) ] ;
+				buffer.get ( position + 4, bytes ) ;
+				position += 4 + bytes.length ;
+				value = tag == BYTES ? bytes : new BigInteger ( bytes ) ;
+			}
+			case BIG_DECIMAL -> {
+				int scale = buffer.getInt ( position ) ;
+				byte [ ] bytes = new byte [ buffer.getInt ( position + 4 ) ] ;
+				buffer.get ( position + 8, bytes ) ;
+				position += 8 + bytes.length ;
+				value = new BigDecimal ( new BigInteger ( bytes ), scale ) ;
+			}
+			case LIST, SET, MAP -> {
+				int size = buffer.getInt ( position ) ;
+				cursor [ 0 ] = position + 4 ;
+				if ( tag == MAP ) {
+					Map <Object, Object> map = new LinkedHashMap <> ( ) ;
+					for ( int i = 0 ; i < size ; i++ ) {
+						Object key = value ( cursor ) ;
+						map.put ( key, value ( cursor ) ) ;
+					}
+					return map ;
+				}
+				List <Object> items = new ArrayList <> ( size ) ;
+				for ( int i = 0 ; i < size ; i++ ) {
+					items.add ( value ( cursor ) ) ;
+				}
+				return tag == SET ? new LinkedHashSet <> ( items ) : items ;
+			}
+			default -> throw new IllegalStateException ( "Unknown value tag in mapped store: " + tag ) ;
+		}
+		cursor [ 0 ] = position ;
+		return value ;
+	}
+
+	private static Class <? extends Ject> jectClass ( String name ) {
+		ClassLoader loader = Thread.currentThread ( ).getContextClassLoader ( ) ;
+		try {
+			Class <?> type = Class.forName ( name, false, loader != null ? loader : MappedOntologyStore.class.getClassLoader ( ) ) ;
+			return Ject.class.isAssignableFrom ( type ) ? type.asSubclass ( Ject.class ) : null ;
+		} catch ( ClassNotFoundException | LinkageError e ) {
+			log.debug ( "Stored Ject class {} is not on the class path", name ) ;
+			return null ;
+		}
+	}
+
+	/**
+	 * Resolves a stored predicate through the registry of its ontology. Predicates the registries
+	 * no longer know become RuntimePredicates with the same fqName, so lookups still match.
+	 */
+	private static Predicate predicate ( Map <String, ParserRegistry> ontologyCatalog, int kind, String name, String space, String ontology, String fqName ) {
+		ParserRegistry registry = ontologyCatalog.get ( ontology ) ;
+		if ( registry == null ) {
+			registry = ontologyCatalog.get ( "base" ) ;
+		}
+		if ( kind == PREDICATE_REGISTERED ) {
+			Predicate pred = registry == null ? null : registry.getPredicate ( name, ontology ) ;
+			if ( pred != null && fqName.equals ( pred.fqName ( ) ) ) {
+				return pred ;
+			}
+			for ( BasePredicate base : BasePredicate.values ( ) ) {
+				if ( fqName.equals ( base.fqName ( ) ) ) {
+					return base ;
+				}
+			}
+			log.debug ( "Predicate {} is not registered, using a runtime predicate", fqName ) ;
+		}
+		return RuntimePredicate.of ( name, space, ontology, registry == null ? null : registry.getRuntimeQualifier ( space ) ) ;
+	}
+}
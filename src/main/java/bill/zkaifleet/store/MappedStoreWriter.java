@@ -0,0 +1,280 @@
+package bill.zkaifleet.store ;
+
+import static bill.zkaifleet.store.MappedFormat.* ;
+
+import java.io.BufferedOutputStream ;
+import java.io.ByteArrayOutputStream ;
+import java.io.DataOutputStream ;
+import java.io.IOException ;
+import java.io.OutputStream ;
+import java.math.BigDecimal ;
+import java.math.BigInteger ;
+import java.nio.charset.StandardCharsets ;
+import java.nio.file.Files ;
+import java.nio.file.Path ;
+import java.util.ArrayDeque ;
+import java.util.ArrayList ;
+import java.util.Collection ;
+import java.util.Date ;
+import java.util.Deque ;
+import java.util.HashMap ;
+import java.util.IdentityHashMap ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.Set ;
+
+import bill.zkaifleet.model.Ject ;
+import bill.zkaifleet.model.Ontology ;
+import bill.zkaifleet.model.Predicate ;
+import bill.zkaifleet.model.RuntimePredicate ;
+
+/**
+ * Lays out an Ontology graph in the fixed-width format of {@link MappedFormat}.
+ * <p>
+ * Jects get handles in breadth-first order from the Ontology, over subjects and backlinks, so
+ * every Ject a handle refers to is in the file.
+ */
+final class MappedStoreWriter {
+
+	private final List <Ject> jects = new ArrayList <> ( ) ;
+	private final Map <Ject, Integer> handles = new IdentityHashMap <> ( ) ;
+	private final List <Predicate> predicates = new ArrayList <> ( ) ;
+	private final Map <Predicate, Integer> predicateIndexes = new HashMap <> ( ) ;
+	private final List <String> strings = new ArrayList <> ( ) ;
+	private final Map <String, Integer> stringIndexes = new HashMap <> ( ) ;
+
+	private final ByteArrayOutputStream groupBytes = new ByteArrayOutputStream ( ) ;
+	private final DataOutputStream groups = new DataOutputStream ( groupBytes ) ;
+	private final ByteArrayOutputStream targetBytes = new ByteArrayOutputStream ( ) ;
+	private final DataOutputStream targets = new DataOutputStream ( targetBytes ) ;
+	private final ByteArrayOutputStream scalarBytes = new ByteArrayOutputStream ( ) ;
+	private final DataOutputStream scalars = new DataOutputStream ( scalarBytes ) ;
+	private int groupCount ;
+	private int targetCount ;
+
+	void write ( Ontology ontology, Path path ) throws IOException {
+		collect ( ontology ) ;
+		// Nodes and predicates intern strings, so the string section comes last
+		byte [ ] nodes = nodes ( ) ;
+		byte [ ] predicateSection = predicates ( ) ;
+		byte [ ] stringSection = strings ( ) ;
+
+		int [ ] header = new int [ HEADER_INTS ] ;
+		header [ 0 ] = MAGIC ;
+		header [ 1 ] = VERSION ;
+		header [ STRING_COUNT ] = strings.size ( ) ;
+		header [ PREDICATE_COUNT ] = predicates.size ( ) ;
+		header [ NODE_COUNT ] = jects.size ( ) ;
+		long position = HEADER_INTS * 4L ;
+		header [ STRINGS_POS ] = checked ( position ) ;
+		position += stringSection.length ;
+		header [ PREDICATES_POS ] = checked ( position ) ;
+		position += predicateSection.length ;
+		header [ NODES_POS ] = checked ( position ) ;
+		position += nodes.length ;
+		header [ GROUPS_POS ] = checked ( position ) ;
+		position += groupBytes.size ( ) ;
+		header [ TARGETS_POS ] = checked ( position ) ;
+		position += targetBytes.size ( ) ;
+		header [ SCALARS_POS ] = checked ( position ) ;
+		checked ( position + scalarBytes.size ( ) ) ;
+
+		try ( OutputStream file = Files.newOutputStream ( path ) ; DataOutputStream out = new DataOutputStream ( new BufferedOutputStream ( file ) ) ) {
+			for ( int value : header ) {
+				out.writeInt ( value ) ;
+			}
+			out.write ( stringSection ) ;
+			out.write ( predicateSection ) ;
+			out.write ( nodes ) ;
+			groupBytes.writeTo ( out ) ;
+			targetBytes.writeTo ( out ) ;
+			scalarBytes.writeTo ( out ) ;
+		}
+	}
+
+	private static int checked ( long position ) {
+		if ( position > Integer.MAX_VALUE ) {
+			throw new IllegalArgumentException ( "Ontology too large for a mapped store" ) ;
+		}
+		return ( int ) position ;
+	}
+
+	private void collect ( Ontology ontology ) {
+		Deque <Ject> queue = new ArrayDeque <> ( ) ;
+		handle ( ontology, queue ) ;
+		while ( ! queue.isEmpty ( ) ) {
+			Ject ject = queue.poll ( ) ;
+			for ( Map.Entry <Predicate, List <Ject>> entry : ject.getSubjects ( ).entrySet ( ) ) {
+				for ( Ject item : entry.getValue ( ) ) {
+					handle ( item.resolveReference ( ), queue ) ;
+				}
+			}
+			for ( Map.Entry <Predicate, List <Ject>> entry : ject.getIsObjectOf ( ).entrySet ( ) ) {
+				for ( Ject item : entry.getValue ( ) ) {
+					handle ( item.resolveReference ( ), queue ) ;
+				}
+			}
+		}
+	}
+
+	private void handle ( Ject ject, Deque <Ject> queue ) {
+		if ( ! handles.containsKey ( ject ) ) {
+			handles.put ( ject, jects.size ( ) ) ;
+			jects.add ( ject ) ;
+			queue.add ( ject ) ;
+		}
+	}
+
+	private int predicate ( Predicate pred ) {
+		Integer index = predicateIndexes.get ( pred ) ;
+		if ( index == null ) {
+			index = predicates.size ( ) ;
+			predicateIndexes.put ( pred, index ) ;
+			predicates.add ( pred ) ;
+		}
+		return index ;
+	}
+
+	private int string ( String s ) {
+		if ( s == null ) {
+			return -1 ;
+		}
+		Integer index = stringIndexes.get ( s ) ;
+		if ( index == null ) {
+			index = strings.size ( ) ;
+			stringIndexes.put ( s, index ) ;
+			strings.add ( s ) ;
+		}
+		return index ;
+	}
+
+	private byte [ ] nodes ( ) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream ( jects.size ( ) * NODE_INTS * 4 ) ;
+		DataOutputStream out = new DataOutputStream ( bytes ) ;
+		for ( Ject ject : jects ) {
+			out.writeInt ( string ( ject.getClass ( ).getName ( ) ) ) ;
+			out.writeInt ( string ( ject.getTypeName ( ) ) ) ;
+			out.writeInt ( string ( ject.getOntology ( ) ) ) ;
+			out.writeInt ( string ( ject.getId ( ) ) ) ;
+			out.writeInt ( string ( ject.getDescription ( ) ) ) ;
+			out.writeInt ( string ( ject.getEvolutionNotes ( ) ) ) ;
+			out.writeInt ( groupCount ) ;
+			out.writeInt ( scalarGroups ( ject.getScalars ( ) ) ) ;
+			out.writeInt ( groupCount ) ;
+			out.writeInt ( edgeGroups ( ject.getSubjects ( ) ) ) ;
+			out.writeInt ( groupCount ) ;
+			out.writeInt ( edgeGroups ( ject.getIsObjectOf ( ) ) ) ;
+		}
+		return bytes.toByteArray ( ) ;
+	}
+
+	private int scalarGroups ( Map <Predicate, List <Object>> values ) throws IOException {
+		for ( Map.Entry <Predicate, List <Object>> entry : values.entrySet ( ) ) {
+			groups.writeInt ( predicate ( entry.getKey ( ) ) ) ;
+			groups.writeInt ( entry.getValue ( ).size ( ) ) ;
+			groups.writeInt ( scalars.size ( ) ) ;
+			for ( Object value : entry.getValue ( ) ) {
+				writeValue ( value ) ;
+			}
+			groupCount++ ;
+		}
+		return values.size ( ) ;
+	}
+
+	private int edgeGroups ( Map <Predicate, List <Ject>> edges ) throws IOException {
+		for ( Map.Entry <Predicate, List <Ject>> entry : edges.entrySet ( ) ) {
+			groups.writeInt ( predicate ( entry.getKey ( ) ) ) ;
+			groups.writeInt ( entry.getValue ( ).size ( ) ) ;
+			groups.writeInt ( targetCount ) ;
+			for ( Ject item : entry.getValue ( ) ) {
+				targets.writeInt ( handles.get ( item.resolveReference ( ) ) ) ;
+				targetCount++ ;
+			}
+			groupCount++ ;
+		}
+		return edges.size ( ) ;
+	}
+
+	private void writeValue ( Object value ) throws IOException {
+		if ( value == null ) {
+			scalars.writeByte ( NULL ) ;
+		} else if ( value instanceof String s ) {
+			scalars.writeByte ( STRING ) ;
+			scalars.writeInt ( string ( s ) ) ;
+		} else if ( value instanceof Boolean b ) {
+			scalars.writeByte ( b ? TRUE : FALSE ) ;
+		} else if ( value instanceof Integer i ) {
+			scalars.writeByte ( INT ) ;
+			scalars.writeInt ( i ) ;
+		} else if ( value instanceof Long l ) {
+			scalars.writeByte ( LONG ) ;
+			scalars.writeLong ( l ) ;
+		} else if ( value instanceof Double d ) {
+			scalars.writeByte ( DOUBLE ) ;
+			scalars.writeDouble ( d ) ;
+		} else if ( value instanceof Float f ) {
+			scalars.writeByte ( FLOAT ) ;
+			scalars.writeFloat ( f ) ;
+		} else if ( value instanceof BigInteger big ) {
+			scalars.writeByte ( BIG_INTEGER ) ;
+			writeBytes ( big.toByteArray ( ) ) ;
+		} else if ( value instanceof BigDecimal big ) {
+			scalars.writeByte ( BIG_DECIMAL ) ;
+			scalars.writeInt ( big.scale ( ) ) ;
+			writeBytes ( big.unscaledValue ( ).toByteArray ( ) ) ;
+		} else if ( value instanceof Date date ) {
+			scalars.writeByte ( DATE ) ;
+			scalars.writeLong ( date.getTime ( ) ) ;
+		} else if ( value instanceof byte [ ] bytes ) {
+			scalars.writeByte ( BYTES ) ;
+			writeBytes ( bytes ) ;
+		} else if ( value instanceof List <?> || value instanceof Set <?> ) {
+			Collection <?> items = ( Collection <?> ) value ;
+			scalars.writeByte ( value instanceof List ? LIST : SET ) ;
+			scalars.writeInt ( items.size ( ) ) ;
+			for ( Object item : items ) {
+				writeValue ( item ) ;
+			}
+		} else if ( value instanceof Map <?, ?> map ) {
+			scalars.writeByte ( MAP ) ;
+			scalars.writeInt ( map.size ( ) ) ;
+			for ( Map.Entry <?, ?> entry : map.entrySet ( ) ) {
+				writeValue ( entry.getKey ( ) ) ;
+				writeValue ( entry.getValue ( ) ) ;
+			}
+		} else {
+			throw new IllegalArgumentException ( "Unsupported scalar type in mapped store: " + value.getClass ( ).getName ( ) ) ;
+		}
+	}
+
+	private void writeBytes ( byte [ ] bytes ) throws IOException {
+		scalars.writeInt ( bytes.length ) ;
+		scalars.write ( bytes ) ;
+	}
+
+	private byte [ ] predicates ( ) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream ( predicates.size ( ) * PREDICATE_INTS * 4 ) ;
+		DataOutputStream out = new DataOutputStream ( bytes ) ;
+		for ( Predicate pred : predicates ) {
+			out.writeInt ( pred instanceof RuntimePredicate ? PREDICATE_RUNTIME : PREDICATE_REGISTERED ) ;
+			out.writeInt ( string ( pred.name ( ) ) ) ;
+			out.writeInt ( string ( pred.space ( ) ) ) ;
+			out.writeInt ( string ( pred.ontology ( ) ) ) ;
+			out.writeInt ( string ( pred.fqName ( ) ) ) ;
+		}
+		return bytes.toByteArray ( ) ;
+	}
+
+	private byte [ ] strings ( ) throws IOException {
+		ByteArrayOutputStream data = new ByteArrayOutputStream ( ) ;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream ( ) ;
+		DataOutputStream offsets = new DataOutputStream ( bytes ) ;
+		for ( String s : strings ) {
+			offsets.writeInt ( data.size ( ) ) ;
+			data.write ( s.getBytes ( StandardCharsets.UTF_8 ) ) ;
+		}
+		offsets.writeInt ( data.size ( ) ) ;
+		data.writeTo ( offsets ) ;
+		return bytes.toByteArray ( ) ;
+	}
+}
@@ -0,0 +1,47 @@
+package bill.zkaifleet.model;
+
+import bill.zkaifleet.model.fleet.FleetJect;
+import bill.zkaifleet.model.fleet.FleetParserRegistry;
+import bill.zkaifleet.model.fleet.RoleJect;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JectFactoriesTest {
+
+    @Test
+    public void testFactoryCreatesFreshInstances() {
+        Supplier<? extends Ject> factory = JectFactories.factory(RoleJect.class);
+        assertNotNull(factory);
+        Ject first = factory.get();
+        Ject second = factory.get();
+        assertInstanceOf(RoleJect.class, first);
+        assertNotSame(first, second);
+        assertEquals("role", first.getTypeName());
+    }
+
+    @Test
+    public void testFactoryIsCached() {
+        assertSame(JectFactories.factory(Ontology.class), JectFactories.factory(Ontology.class));
+    }
+
+    @Test
+    public void testNoFactoryWithoutNoArgConstructor() {
+        assertNull(JectFactories.factory(RuntimeJect.class));
+        assertNull(JectFactories.factory(Ject.class));
+    }
+
+    @Test
+    public void testRegistrySubjectTypesHaveFactories() {
+        FleetParserRegistry registry = new FleetParserRegistry();
+        assertTrue(registry.getSubjectTypes().contains(FleetJect.class));
+        assertTrue(registry.getSubjectTypes().contains(RoleJect.class));
+        for (Class<? extends Ject> type : registry.getSubjectTypes()) {
+            Supplier<? extends Ject> factory = JectFactories.factory(type);
+            assertNotNull(factory, type.getName());
+            assertInstanceOf(type, factory.get());
+        }
+    }
+}
@@ -251,4 +251,48 @@ public class JectModelTest {
         // Verify relationship was removed
         assertNull(parent.getSingleTypedSubject(childPred, Ject.class)) ;
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testNumericScalarAccessors() {
+        RuntimeJect ject = new RuntimeJect("constraints", "testOntology") ;
+        Predicate budget = new RuntimePredicate("tokenBudget", "test", "testOntology") ;
+        Predicate threshold = new RuntimePredicate("confidenceThreshold", "test", "testOntology") ;
+        ject.addScalar(budget, 4000) ;
+        ject.addScalar(threshold, 0.8) ;
+
+        assertEquals(4000L, ject.getLong(budget, 0)) ;
+        assertEquals(0.8, ject.getDouble(threshold, 0)) ;
+        assertEquals(4000, ject.getScalar(budget, Integer.class)) ;
+        assertEquals(0.5, ject.getDouble(new RuntimePredicate("missing", "test", "testOntology"), 0.5)) ;
+
+        ject.setScalars(threshold, List.of(0.9)) ;
+        assertEquals(0.9, ject.getDouble(threshold, 0)) ;
+        ject.addScalar(threshold, 0.95) ;
+        assertThrows(IllegalStateException.class, () -> ject.getDouble(threshold, 0)) ;
+    }
+
+    @Test
+    public void testTypedSubjectsAreCheckedViews() {
+        RuntimeJect parent = new RuntimeJect("parent", "testOntology") ;
+        Predicate childPred = new RuntimePredicate("child", "test", "testOntology") ;
+        RuntimeJect child1 = new RuntimeJect("child", "testOntology") ;
+        parent.addTypedSubject(childPred, child1) ;
+
+        List<RuntimeJect> children = parent.getTypedSubjects(childPred, RuntimeJect.class) ;
+        assertSame(children, parent.getTypedSubjects(childPred, RuntimeJect.class)) ;
+        assertSame(children, parent.getTypedSubjects(childPred, Ject.class)) ;
+        assertThrows(UnsupportedOperationException.class, () -> children.clear()) ;
+        assertSame(parent, child1.getTypedIsObjectOf(childPred, RuntimeJect.class).get(0)) ;
+
+        RuntimeJect child2 = new RuntimeJect("child", "testOntology") ;
+        parent.addTypedSubject(childPred, child2) ;
+        assertEquals(2, children.size()) ;
+        assertSame(child2, parent.getTypedSubjects(childPred, RuntimeJect.class).get(1)) ;
+
+        parent.addTypedSubject(childPred, new Ontology()) ;
+        List<RuntimeJect> filtered = parent.getTypedSubjects(childPred, RuntimeJect.class) ;
+        assertEquals(List.of(child1, child2), filtered) ;
+        assertNotSame(filtered, parent.getTypedSubjects(childPred, RuntimeJect.class)) ;
+        assertTrue(parent.getTypedSubjects(new RuntimePredicate("none", "test", "testOntology"), Ject.class).isEmpty()) ;
+    }
+}
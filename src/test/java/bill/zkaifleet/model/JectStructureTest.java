@@ -0,0 +1,130 @@
+package bill.zkaifleet.model;
+
+import bill.zkaifleet.model.fleet.FleetPredicate;
+import bill.zkaifleet.model.fleet.RoleJect;
+import bill.zkaifleet.parser.OntologyParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link JectStructure} and the identity equality of Jects.
+ */
+public class JectStructureTest {
+
+    private static final String YAML = """
+            ontology: fleet
+            id: fleet1
+            fleet:
+              name: Fleet
+              roles:
+                - id: Lead
+                  escalationPath: Dev
+                - id: Dev
+                  interactions:
+                    - with: {ref: Lead}
+            """;
+
+    private static final Predicate NEXT = new RuntimePredicate("next", "test", "test");
+
+    private static RuntimeJect node(String id) {
+        RuntimeJect ject = new RuntimeJect("node", "test");
+        ject.setId(id);
+        return ject;
+    }
+
+    @Test
+    public void testJectsAreEqualOnlyToThemselves() {
+        RuntimeJect a = node("same");
+        RuntimeJect b = node("same");
+
+        assertNotEquals(a, b);
+        assertEquals(System.identityHashCode(a), a.hashCode());
+        Set<Ject> set = new HashSet<>();
+        set.add(a);
+        assertFalse(set.contains(b));
+        assertTrue(JectStructure.equivalent(a, b));
+    }
+
+    @Test
+    public void testParsesOfOneSpecAreEquivalent() {
+        Ject first = new OntologyParser().parse(YAML);
+        Ject second = new OntologyParser().parse(YAML);
+
+        assertNotEquals(first, second);
+        assertTrue(JectStructure.equivalent(first, second));
+        assertEquals(JectStructure.hash(first), JectStructure.hash(second));
+
+        Ject changed = new OntologyParser().parse(YAML.replace("escalationPath: Dev", "escalationPath: Lead"));
+        assertFalse(JectStructure.equivalent(first, changed));
+        Ject renamed = new OntologyParser().parse(YAML.replace("name: Fleet", "name: Other"));
+        assertFalse(JectStructure.equivalent(first, renamed));
+    }
+
+    @Test
+    public void testCyclesAreWalkedOnce() {
+        RuntimeJect a = node("a");
+        RuntimeJect b = node("b");
+        a.addTypedSubject(NEXT, b);
+        b.addTypedSubject(NEXT, a);
+        RuntimeJect c = node("a");
+        RuntimeJect d = node("b");
+        c.addTypedSubject(NEXT, d);
+        d.addTypedSubject(NEXT, c);
+
+        assertTrue(JectStructure.equivalent(a, c));
+        assertEquals(JectStructure.hash(a), JectStructure.hash(c));
+        assertFalse(JectStructure.equivalent(a, d));
+    }
+
+    @Test
+    public void testPairingIsOneToOne() {
+        // x -> y1, y2 (two distinct nodes) against x -> y, y (one node twice)
+        RuntimeJect x1 = node("x");
+        x1.addTypedSubject(NEXT, node("y"));
+        x1.addTypedSubject(NEXT, node("y"));
+        RuntimeJect x2 = node("x");
+        RuntimeJect y = node("y");
+        x2.addTypedSubject(NEXT, y);
+        x2.addTypedSubject(NEXT, y);
+
+        assertFalse(JectStructure.equivalent(x1, x2));
+    }
+
+    @Test
+    public void testDeepChainsDoNotOverflow() {
+        RuntimeJect left = node("0");
+        RuntimeJect right = node("0");
+        RuntimeJect l = left;
+        RuntimeJect r = right;
+        for (int i = 1; i < 50_000; i++) {
+            RuntimeJect nl = node(String.valueOf(i));
+            RuntimeJect nr = node(String.valueOf(i));
+            l.addTypedSubject(NEXT, nl);
+            r.addTypedSubject(NEXT, nr);
+            l = nl;
+            r = nr;
+        }
+
+        assertTrue(JectStructure.equivalent(left, right));
+        assertEquals(JectStructure.hash(left), JectStructure.hash(right));
+    }
+
+    @Test
+    public void testRemovingASubjectDropsOnlyItsOwnBacklink() {
+        RoleJect lead = new RoleJect();
+        lead.setId("Lead");
+        RuntimeJect first = node("owner");
+        RuntimeJect second = node("owner");
+        first.addTypedSubject(FleetPredicate.role, lead);
+        second.addTypedSubject(FleetPredicate.role, lead);
+
+        second.removeTypedSubjects(FleetPredicate.role);
+
+        assertEquals(1, lead.getIsObjectOf().get(FleetPredicate.role).size());
+        assertSame(first, lead.getIsObjectOf().get(FleetPredicate.role).get(0));
+    }
+}
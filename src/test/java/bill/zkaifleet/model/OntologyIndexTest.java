@@ -0,0 +1,140 @@
+package bill.zkaifleet.model;
+
+import bill.zkaifleet.model.fleet.FleetJect;
+import bill.zkaifleet.model.fleet.FleetPredicate;
+import bill.zkaifleet.model.fleet.InteractionJect;
+import bill.zkaifleet.model.fleet.RoleJect;
+import bill.zkaifleet.parser.OntologyParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link OntologyIndex}.
+ */
+public class OntologyIndexTest {
+
+    private static final String YAML = """
+            ontology: fleet
+            id: fleet1
+            fleet:
+              id: Fleet
+              name: Fleet
+              roles:
+                - id: R2D2
+                  escalationPath: C3PO
+                - id: C3PO
+                  interactions:
+                    - id: Talk
+                      with: {ref: R2D2}
+            """;
+
+    private Ontology ontology;
+    private FleetJect fleet;
+    private OntologyIndex index;
+
+    @BeforeEach
+    public void setup() {
+        ontology = (Ontology) new OntologyParser().parse(YAML);
+        fleet = ontology.getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class);
+        index = ontology.getIndex();
+    }
+
+    @Test
+    public void testLooksUpByIdTypeAndPredicate() {
+        RoleJect r2d2 = fleet.getRoles().get(0);
+
+        assertSame(index, ontology.getIndex());
+        assertSame(r2d2, index.find("R2D2"));
+        assertSame(r2d2, index.find("R2D2", RoleJect.class));
+        assertNull(index.find("R2D2", FleetJect.class));
+        assertNull(index.find("BB8"));
+        assertEquals(Set.copyOf(fleet.getRoles()), Set.copyOf(index.byType(RoleJect.class)));
+        assertEquals(2, index.byTypeName("role").size());
+        assertTrue(index.byType(Ject.class).contains(ontology));
+        assertTrue(index.edges(FleetPredicate.role).contains(new OntologyIndex.Edge(fleet, r2d2)));
+        assertEquals(2, index.edges(FleetPredicate.role).size());
+        assertEquals(List.of(r2d2), List.copyOf(index.withScalar(FleetPredicate.escalationPath)));
+        assertTrue(index.contains(r2d2));
+    }
+
+    @Test
+    public void testFollowsAddedSubjects() {
+        RoleJect bb8 = new RoleJect();
+        bb8.setId("BB8");
+        InteractionJect beep = new InteractionJect();
+        beep.setId("Beep");
+        bb8.addTypedSubject(FleetPredicate.interaction, beep);
+        int size = index.size();
+
+        fleet.addTypedSubject(FleetPredicate.role, bb8);
+
+        assertEquals(size + 2, index.size());
+        assertSame(bb8, index.find("BB8", RoleJect.class));
+        assertSame(beep, index.find("Beep"));
+        assertTrue(index.edges(FleetPredicate.interaction).contains(new OntologyIndex.Edge(bb8, beep)));
+        assertEquals(3, index.byType(RoleJect.class).size());
+
+        bb8.setId("BB9");
+        assertNull(index.find("BB8"));
+        assertSame(bb8, index.find("BB9"));
+
+        bb8.setScalars(FleetPredicate.escalationPath, List.of("R2D2"));
+        assertTrue(index.withScalar(FleetPredicate.escalationPath).contains(bb8));
+        bb8.setScalars(FleetPredicate.escalationPath, List.of());
+        assertFalse(index.withScalar(FleetPredicate.escalationPath).contains(bb8));
+    }
+
+    @Test
+    public void testRemovedSubjectsLeaveUnlessOwnedElsewhere() {
+        RoleJect r2d2 = fleet.getRoles().get(0);
+        RoleJect c3po = fleet.getRoles().get(1);
+        Ject talk = index.find("Talk");
+        assertNotNull(talk);
+
+        fleet.removeTypedSubjects(FleetPredicate.role);
+
+        // Nothing in the graph owns the roles or the interaction anymore, although they reference each other
+        assertNull(index.find("R2D2"));
+        assertNull(index.find("C3PO"));
+        assertNull(index.find("Talk"));
+        assertFalse(index.contains(talk));
+        assertTrue(index.byType(RoleJect.class).isEmpty());
+        assertTrue(index.edges(FleetPredicate.role).isEmpty());
+        assertTrue(index.withScalar(FleetPredicate.escalationPath).isEmpty());
+
+        fleet.addTypedSubject(FleetPredicate.role, r2d2);
+        RuntimeJect holder = new RuntimeJect("holder", "fleet");
+        fleet.addTypedSubject(FleetPredicate.process, holder);
+        holder.addTypedSubject(FleetPredicate.role, c3po);
+        assertSame(c3po, index.find("C3PO"));
+        assertSame(talk, index.find("Talk"));
+
+        holder.removeTypedSubjects(FleetPredicate.role);
+        fleet.addTypedSubject(FleetPredicate.wrunk, talk);
+        assertNull(index.find("C3PO"));
+        assertSame(talk, index.find("Talk"));
+        assertSame(r2d2, index.find("R2D2"));
+    }
+
+    @Test
+    public void testResetIndexBuildsAgain() {
+        RoleJect c3po = fleet.getRoles().get(1);
+        // Edits through the live maps bypass the index until it is reset
+        fleet.getSubjects().get(FleetPredicate.role).remove(c3po);
+
+        assertSame(c3po, index.find("C3PO"));
+        ontology.resetIndex();
+        OntologyIndex rebuilt = ontology.getIndex();
+
+        assertNotSame(index, rebuilt);
+        assertNull(rebuilt.find("C3PO"));
+        assertFalse(rebuilt.contains(c3po));
+        assertNull(rebuilt.find("Talk"));
+        assertNotNull(rebuilt.find("R2D2"));
+    }
+}
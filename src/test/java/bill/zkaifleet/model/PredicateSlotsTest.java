@@ -0,0 +1,245 @@
+package bill.zkaifleet.model;
+
+import bill.zkaifleet.model.fleet.FleetPredicate;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link PredicateSlots}.
+ */
+public class PredicateSlotsTest {
+
+    @Test
+    public void testAddKeepsInsertionOrderAndPromotes() {
+        PredicateSlots<String> slots = new PredicateSlots<>();
+        slots.add(FleetPredicate.role, "a");
+        slots.add(FleetPredicate.process, "b");
+        slots.add(FleetPredicate.role, "c");
+
+        assertEquals(2, slots.size());
+        assertEquals(List.of("a", "c"), slots.get(FleetPredicate.role));
+        assertEquals(List.of("b"), slots.get(FleetPredicate.process));
+        assertEquals(List.of(FleetPredicate.role, FleetPredicate.process), new ArrayList<>(slots.keySet()));
+        assertNull(slots.get(FleetPredicate.wrunk));
+    }
+
+    @Test
+    public void testInlineViewWritesThrough() {
+        PredicateSlots<String> slots = new PredicateSlots<>();
+        slots.add(FleetPredicate.role, "a");
+        List<String> view = slots.get(FleetPredicate.role);
+
+        view.set(0, "b");
+        assertEquals(List.of("b"), slots.get(FleetPredicate.role));
+
+        view.add("c");
+        assertEquals(List.of("b", "c"), slots.get(FleetPredicate.role));
+        assertEquals(List.of("b", "c"), view);
+
+        slots.add(FleetPredicate.role, "d");
+        assertEquals(List.of("b", "c", "d"), view);
+    }
+
+    @Test
+    public void testEmptiedSlotStaysUntilRemoved() {
+        PredicateSlots<String> slots = new PredicateSlots<>();
+        slots.add(FleetPredicate.role, "a");
+        List<String> view = slots.get(FleetPredicate.role);
+
+        view.remove("a");
+
+        assertTrue(slots.containsKey(FleetPredicate.role));
+        assertTrue(slots.get(FleetPredicate.role).isEmpty());
+
+        slots.add(FleetPredicate.process, "b");
+        slots.remove(FleetPredicate.role);
+        List<String> removed = slots.get(FleetPredicate.process);
+        slots.remove(FleetPredicate.process);
+        assertTrue(removed.isEmpty());
+        assertThrows(IllegalStateException.class, () -> removed.add("c"));
+    }
+
+    @Test
+    public void testRemoveShiftsInlineSlots() {
+        PredicateSlots<String> slots = new PredicateSlots<>();
+        slots.add(FleetPredicate.role, "a");
+        slots.add(FleetPredicate.role, "b");
+        slots.add(FleetPredicate.process, "c");
+        slots.add(FleetPredicate.wrunk, "d");
+        slots.add(FleetPredicate.wrunk, "e");
+
+        assertEquals(List.of("a", "b"), slots.remove(FleetPredicate.role));
+
+        assertEquals(List.of("c"), slots.get(FleetPredicate.process));
+        assertEquals(List.of("d", "e"), slots.get(FleetPredicate.wrunk));
+        slots.add(FleetPredicate.process, "f");
+        assertEquals(List.of("c", "f"), slots.get(FleetPredicate.process));
+    }
+
+    @Test
+    public void testPutKeepsTheGivenList() {
+        PredicateSlots<String> slots = new PredicateSlots<>();
+        slots.add(FleetPredicate.role, "a");
+        List<String> values = new ArrayList<>(List.of("x"));
+
+        assertEquals(List.of("a"), slots.put(FleetPredicate.role, values));
+        slots.add(FleetPredicate.role, "y");
+
+        assertSame(values, slots.get(FleetPredicate.role));
+        assertEquals(List.of("x", "y"), values);
+    }
+
+    @Test
+    public void testIteratorRemovalAndMapEquality() {
+        PredicateSlots<String> slots = new PredicateSlots<>();
+        Map<Predicate, List<String>> expected = new LinkedHashMap<>();
+        for (FleetPredicate predicate : FleetPredicate.values()) {
+            slots.add(predicate, predicate.name());
+            expected.put(predicate, new ArrayList<>(List.of(predicate.name())));
+        }
+        assertEquals(expected, slots);
+        assertEquals(expected.hashCode(), slots.hashCode());
+
+        Iterator<Map.Entry<Predicate, List<String>>> it = slots.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getKey() != FleetPredicate.wrunk) {
+                it.remove();
+            }
+        }
+
+        assertEquals(Map.of(FleetPredicate.wrunk, List.of("wrunk")), slots);
+    }
+
+    @Test
+    public void testRuntimePredicatesMatchByEquality() {
+        PredicateSlots<Object> slots = new PredicateSlots<>();
+        slots.add(new RuntimePredicate("budget", "ops", "fleet"), 1);
+        slots.add(new RuntimePredicate("budget", "ops", "fleet"), 2);
+
+        assertEquals(1, slots.size());
+        assertEquals(List.of(1, 2), slots.get(new RuntimePredicate("budget", "ops", "fleet")));
+    }
+
+    @Test
+    public void testNumbersAreHeldUnboxed() {
+        PredicateSlots<Object> slots = new PredicateSlots<>();
+        slots.add(FleetPredicate.role, "text");
+        slots.add(FleetPredicate.confidenceThreshold, 0.75);
+        slots.add(FleetPredicate.process, 4000);
+        slots.add(FleetPredicate.wrunk, 2.5f);
+
+        assertEquals(0.75, slots.getDouble(FleetPredicate.confidenceThreshold, -1));
+        assertEquals(4000L, slots.getLong(FleetPredicate.process, -1));
+        assertEquals(4000.0, slots.getDouble(FleetPredicate.process, -1));
+        assertEquals(2.5, slots.getDouble(FleetPredicate.wrunk, -1));
+        assertEquals(-1, slots.getDouble(FleetPredicate.integration, -1));
+        assertThrows(IllegalStateException.class, () -> slots.getLong(FleetPredicate.confidenceThreshold, -1));
+        assertThrows(IllegalStateException.class, () -> slots.getDouble(FleetPredicate.role, -1));
+
+        assertEquals(List.of(0.75), slots.get(FleetPredicate.confidenceThreshold));
+        assertEquals(Integer.class, slots.get(FleetPredicate.process).get(0).getClass());
+        assertEquals(Float.class, slots.get(FleetPredicate.wrunk).get(0).getClass());
+    }
+
+    @Test
+    public void testNumbersFollowSlotChanges() {
+        PredicateSlots<Object> slots = new PredicateSlots<>();
+        slots.add(FleetPredicate.role, 1L);
+        slots.add(FleetPredicate.process, 2L);
+        slots.add(FleetPredicate.wrunk, 3L);
+
+        slots.remove(FleetPredicate.role);
+        assertEquals(2L, slots.getLong(FleetPredicate.process, -1));
+        assertEquals(3L, slots.getLong(FleetPredicate.wrunk, -1));
+
+        slots.get(FleetPredicate.process).set(0, "two");
+        assertEquals(List.of("two"), slots.get(FleetPredicate.process));
+        slots.get(FleetPredicate.process).set(0, 0.5);
+        assertEquals(0.5, slots.getDouble(FleetPredicate.process, -1));
+
+        slots.add(FleetPredicate.wrunk, 4L);
+        assertEquals(List.of(3L, 4L), slots.get(FleetPredicate.wrunk));
+        assertThrows(IllegalStateException.class, () -> slots.getLong(FleetPredicate.wrunk, -1));
+
+        slots.put(FleetPredicate.process, new ArrayList<>(List.of(7)));
+        assertEquals(7L, slots.getLong(FleetPredicate.process, -1));
+    }
+
+    @Test
+    public void testCheckedViewFollowsTheValuesAdded() {
+        PredicateSlots<Ject> slots = new PredicateSlots<>();
+        RuntimeJect a = new RuntimeJect("a", "test");
+        slots.add(FleetPredicate.role, a);
+        assertTrue(slots.checkedView(FleetPredicate.process, RuntimeJect.class).isEmpty());
+
+        List<RuntimeJect> view = slots.checkedView(FleetPredicate.role, RuntimeJect.class);
+        assertEquals(List.of(a), view);
+        assertSame(view, slots.checkedView(FleetPredicate.role, RuntimeJect.class));
+        assertSame(view, slots.checkedView(FleetPredicate.role, Ject.class));
+        assertNull(slots.checkedView(FleetPredicate.role, Ontology.class));
+        assertThrows(UnsupportedOperationException.class, () -> view.add(a));
+
+        RuntimeJect b = new RuntimeJect("b", "test");
+        slots.add(FleetPredicate.role, b);
+        assertEquals(List.of(a, b), view);
+        List<RuntimeJect> listView = slots.checkedView(FleetPredicate.role, RuntimeJect.class);
+        assertEquals(List.of(a, b), listView);
+        assertThrows(UnsupportedOperationException.class, () -> listView.add(a));
+
+        slots.add(FleetPredicate.role, new Ontology());
+        assertNull(slots.checkedView(FleetPredicate.role, RuntimeJect.class));
+        assertNotNull(slots.checkedView(FleetPredicate.role, Ject.class));
+        // The common class only widens until the list is emptied, so the replaced Ontology still counts
+        slots.get(FleetPredicate.role).set(2, a);
+        assertNull(slots.checkedView(FleetPredicate.role, RuntimeJect.class));
+        slots.get(FleetPredicate.role).clear();
+        slots.add(FleetPredicate.role, a);
+        assertSame(listView, slots.checkedView(FleetPredicate.role, RuntimeJect.class));
+
+        slots.remove(FleetPredicate.role);
+        assertTrue(view.isEmpty());
+    }
+
+    @Test
+    public void testReferencesHaveNoCheckedView() {
+        PredicateSlots<Ject> slots = new PredicateSlots<>();
+        RuntimeJect reference = new RuntimeJect("ref", "test") {
+            @Override
+            public boolean isReference() {
+                return true;
+            }
+        };
+        RuntimeJect target = new RuntimeJect("target", "test");
+        slots.add(FleetPredicate.role, reference);
+        assertNull(slots.checkedView(FleetPredicate.role, Ject.class));
+
+        slots.get(FleetPredicate.role).set(0, target);
+        assertEquals(List.of(target), slots.checkedView(FleetPredicate.role, Ject.class));
+
+        slots.add(FleetPredicate.role, reference);
+        assertNull(slots.checkedView(FleetPredicate.role, Ject.class));
+        slots.get(FleetPredicate.role).set(1, target);
+        assertNotNull(slots.checkedView(FleetPredicate.role, Ject.class));
+        slots.get(FleetPredicate.role).add(reference);
+        slots.get(FleetPredicate.role).remove(reference);
+        assertNotNull(slots.checkedView(FleetPredicate.role, Ject.class));
+    }
+
+    @Test
+    public void testOnlyTrackedListsOfJectsHaveViews() {
+        PredicateSlots<Object> slots = new PredicateSlots<>();
+        slots.add(FleetPredicate.role, "a");
+        assertNull(slots.checkedView(FleetPredicate.role, String.class));
+        assertEquals(List.of("a"), slots.get(FleetPredicate.role));
+
+        slots.put(FleetPredicate.process, new ArrayList<>(List.of(new RuntimeJect("a", "test"))));
+        assertNull(slots.checkedView(FleetPredicate.process, RuntimeJect.class));
+    }
+}
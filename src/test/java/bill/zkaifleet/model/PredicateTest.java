@@ -1,7 +1,14 @@
 package bill.zkaifleet.model;
 
+import bill.zkaifleet.model.fleet.FleetPredicate;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -102,4 +109,37 @@ public class PredicateTest {
         String name3 = p2.fqName();
         assertNotEquals(name1, name3);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFqNameDistinguishesOntologies() {
+        // Both enums have an "id" constant; each must keep its own ontology and space
+        assertEquals("base:base:id", BasePredicate.id.fqName());
+        assertEquals("fleet:fleet:id", FleetPredicate.id.fqName());
+        assertEquals("fleet:fleet:role", FleetPredicate.role.fqName());
+    }
+
+    @Test
+    public void testRuntimePredicateFqName() {
+        RuntimePredicate p = new RuntimePredicate("title", "unknown", "docs");
+        assertEquals("docs:unknown:title", p.fqName());
+        assertSame(p.fqName(), p.fqName());
+        assertEquals(p, new RuntimePredicate("title", "unknown", "docs"));
+    }
+
+    @Test
+    public void testFqNameUnderConcurrentAccess() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(pool.submit(() -> BasePredicate.id.fqName().equals("base:base:id")
+                        && FleetPredicate.id.fqName().equals("fleet:fleet:id")));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package bill.zkaifleet.model;
+
+import bill.zkaifleet.parser.JectParseContext;
+import bill.zkaifleet.parser.OntologyParser;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuntimePredicateTest {
+
+    @Test
+    public void testOfReturnsCanonicalInstance() {
+        RuntimePredicate first = RuntimePredicate.of("color", "unknown", "pooltest");
+        assertSame(first, RuntimePredicate.of("color", "unknown", "pooltest"));
+        assertNotSame(first, RuntimePredicate.of("color", "runtime", "pooltest"));
+        assertNotSame(first, RuntimePredicate.of("color", "unknown", "otherpool"));
+    }
+
+    @Test
+    public void testEqualityStaysValueBased() {
+        RuntimePredicate pooled = RuntimePredicate.of("size", "unknown", "pooltest");
+        RuntimePredicate fresh = new RuntimePredicate("size", "unknown", "pooltest");
+        assertEquals(pooled, fresh);
+        assertEquals(pooled.hashCode(), fresh.hashCode());
+    }
+
+    @Test
+    public void testNullComponentsAreNotPooled() {
+        assertNotSame(RuntimePredicate.of("x", "unknown", null), RuntimePredicate.of("x", "unknown", null));
+    }
+
+    @Test
+    public void testReleasePool() {
+        RuntimePredicate before = RuntimePredicate.of("shape", "unknown", "released");
+        RuntimePredicate.releasePool("released");
+        RuntimePredicate after = RuntimePredicate.of("shape", "unknown", "released");
+        assertNotSame(before, after);
+        assertEquals(before, after);
+    }
+
+    @Test
+    public void testPoolDoesNotKeepUnusedPredicates() throws InterruptedException {
+        WeakReference<RuntimePredicate> unused = new WeakReference<>(RuntimePredicate.of("ephemeral", "unknown", "weaktest"));
+        for (int i = 0; i < 50 && unused.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(unused.get());
+        assertEquals("ephemeral", RuntimePredicate.of("ephemeral", "unknown", "weaktest").name());
+    }
+
+    @Test
+    public void testParserSharesPredicatesAcrossJects() {
+        String yaml = """
+                ontology: pooled
+                id: root
+                jects:
+                  - id: a
+                    colour: red
+                  - id: b
+                    colour: blue
+                """;
+        Ject root = new OntologyParser().parse(yaml);
+        List<Ject> jects = root.getTypedSubjects(RuntimePredicate.of("jects", "unknown", "pooled"), Ject.class);
+        assertEquals(2, jects.size());
+        Predicate first = jects.get(0).getScalars().keySet().stream().filter(p -> p.name().equals("colour")).findFirst().orElseThrow();
+        Predicate second = jects.get(1).getScalars().keySet().stream().filter(p -> p.name().equals("colour")).findFirst().orElseThrow();
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testRuntimeSubjectsUsePooledPredicate() {
+        RuntimeJect owner = new RuntimeJect("owner", "pooltest");
+        owner.addRuntimeSubject("link", new RuntimeJect("a", "pooltest"));
+        owner.addRuntimeSubject("link", new RuntimeJect("b", "pooltest"));
+        assertEquals(1, owner.getSubjects().size());
+        assertSame(RuntimePredicate.of("link", "runtime", "pooltest"), owner.getSubjects().keySet().iterator().next());
+    }
+
+    @Test
+    public void testQualifierIsShared() {
+        RuntimePredicate p = new RuntimePredicate("any", "unknown", "pooltest");
+        assertSame(RuntimePredicate.DEFAULT_QUALIFIER, p.qualifier());
+        assertSame(p.qualifier(), p.qualifier());
+        assertSame(RuntimePredicate.DEFAULT_QUALIFIER, new BaseParserRegistry().getRuntimeQualifier("unknown"));
+    }
+
+    @Test
+    public void testPoliciesKeepTheirOwnCanonicalPredicates() {
+        PredicateQualifier scalarsOnly = new PredicateQualifier(false, false, null, null, null, String.class, null);
+        RuntimePredicate strict = RuntimePredicate.of("mode", "unknown", "policytest", scalarsOnly);
+        RuntimePredicate loose = RuntimePredicate.of("mode", "unknown", "policytest");
+
+        assertNotSame(strict, loose);
+        assertEquals(strict, loose);
+        assertSame(scalarsOnly, strict.qualifier());
+        assertSame(RuntimePredicate.DEFAULT_QUALIFIER, loose.qualifier());
+        // Alternating policies no longer replace each other's predicate
+        assertSame(strict, RuntimePredicate.of("mode", "unknown", "policytest", scalarsOnly));
+        assertSame(loose, RuntimePredicate.of("mode", "unknown", "policytest", RuntimePredicate.DEFAULT_QUALIFIER));
+        // Policies are told apart by identity, so a predicate always carries the qualifier it was asked for
+        PredicateQualifier copy = new PredicateQualifier(false, false, null, null, null, String.class, null);
+        RuntimePredicate copied = RuntimePredicate.of("mode", "unknown", "policytest", copy);
+        assertSame(copy, copied.qualifier());
+        assertSame(copied, RuntimePredicate.of("mode", "unknown", "policytest", copy));
+        assertEquals(strict, copied);
+    }
+
+    @Test
+    public void testRegistryQualifierPolicyIsUsedWhileParsing() {
+        PredicateQualifier scalarsOnly = new PredicateQualifier(false, false, null, null, null, String.class, null);
+        BaseParserRegistry registry = new BaseParserRegistry();
+        registry.addRuntimeQualifier("unknown", scalarsOnly);
+        assertSame(scalarsOnly, registry.getRuntimeQualifier("unknown"));
+        assertSame(RuntimePredicate.DEFAULT_QUALIFIER, registry.getRuntimeQualifier("runtime"));
+
+        Ontology ontology = new Ontology("policytest");
+        Map<String, Object> raw = new LinkedHashMap<>();
+        raw.put("tags", List.of("a", "b"));
+        JectParseContext context = new JectParseContext(ontology, "policytest", raw, Map.of("policytest", registry, "base", new BaseParserRegistry()));
+        context.buildJects();
+
+        RuntimePredicate tags = RuntimePredicate.of("tags", "unknown", "policytest", scalarsOnly);
+        assertSame(scalarsOnly, tags.qualifier());
+        assertTrue(ontology.getScalars().keySet().stream().anyMatch(p -> p == tags));
+        assertNull(ontology.getSubjects().get(tags), "Policy should make the list scalar");
+        assertEquals(List.of(List.of("a", "b")), ontology.getScalars().get(tags));
+    }
+}
@@ -0,0 +1,74 @@
+package bill.zkaifleet.model;
+
+import bill.zkaifleet.model.fleet.BootstrapAgentJect;
+import bill.zkaifleet.model.fleet.ConstraintsJect;
+import bill.zkaifleet.model.fleet.FleetPredicate;
+import bill.zkaifleet.model.fleet.RoleJect;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScalarBindersTest {
+
+    @Test
+    public void testBinderIsCachedPerClassPropertyAndValueType() {
+        ScalarBinder first = ScalarBinders.binder(ConstraintsJect.class, "focus", String.class);
+        assertSame(first, ScalarBinders.binder(ConstraintsJect.class, "focus", String.class));
+        assertNotSame(first, ScalarBinders.binder(ConstraintsJect.class, "tokenBudget", Integer.class));
+    }
+
+    @Test
+    public void testMissingPropertyResolvesToNone() {
+        assertSame(ScalarBinder.NONE, ScalarBinders.binder(ConstraintsJect.class, "noSuchProperty", String.class));
+        assertSame(ScalarBinder.NONE, ScalarBinders.binder(ConstraintsJect.class, "focus", Integer.class));
+    }
+
+    @Test
+    public void testAdderPreferredOverSetter() {
+        RoleJect role = new RoleJect();
+        role.addScalar(FleetPredicate.capability, "planning");
+        role.addScalar(FleetPredicate.capability, "review");
+        assertEquals(List.of("planning", "review"), role.getCapabilities());
+    }
+
+    @Test
+    public void testListValueFallsBackToSetter() {
+        RoleJect role = new RoleJect();
+        role.addScalar(new RuntimePredicate("capabilities", "unknown", "fleet"), List.of("a", "b"));
+        assertEquals(List.of("a", "b"), role.getCapabilities());
+    }
+
+    @Test
+    public void testIntegerWidensToDouble() {
+        ConstraintsJect constraints = new ConstraintsJect();
+        constraints.addScalar(FleetPredicate.confidenceThreshold, 1);
+        assertEquals(1.0, constraints.getConfidenceThreshold());
+
+        BootstrapAgentJect agent = new BootstrapAgentJect();
+        agent.addScalar(FleetPredicate.confidenceThreshold, 0.5);
+        assertEquals(0.5, agent.getConfidenceThreshold());
+        agent.addScalar(FleetPredicate.confidenceThreshold, 2);
+        assertEquals(2.0, agent.getConfidenceThreshold());
+    }
+
+    @Test
+    public void testQualifierSettersTolerateOtherJectClasses() {
+        BootstrapAgentJect agent = new BootstrapAgentJect();
+        assertDoesNotThrow(() -> agent.addScalar(FleetPredicate.escalationPath, "human"));
+        assertDoesNotThrow(() -> agent.addScalar(FleetPredicate.capability, "triage"));
+
+        RuntimeJect runtime = new RuntimeJect("thing", "fleet");
+        assertDoesNotThrow(() -> runtime.addScalar(FleetPredicate.confidenceThreshold, 0.9));
+        assertEquals(0.9, runtime.getScalar(FleetPredicate.confidenceThreshold, Double.class));
+    }
+
+    @Test
+    public void testNullValueIsStoredButNotBound() {
+        ConstraintsJect constraints = new ConstraintsJect();
+        constraints.setFocus("precision");
+        constraints.addScalar(new RuntimePredicate("focus", "unknown", "fleet"), null);
+        assertEquals("precision", constraints.getFocus());
+    }
+}
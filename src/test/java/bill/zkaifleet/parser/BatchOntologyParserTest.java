@@ -0,0 +1,97 @@
+package bill.zkaifleet.parser;
+
+import bill.zkaifleet.model.Ject;
+import bill.zkaifleet.model.fleet.FleetJect;
+import bill.zkaifleet.model.fleet.FleetParserRegistry;
+import bill.zkaifleet.model.fleet.FleetPredicate;
+import bill.zkaifleet.model.fleet.RoleJect;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link BatchOntologyParser}.
+ */
+public class BatchOntologyParserTest {
+
+    private static String spec(int n) {
+        return """
+                ontology: fleet
+                id: fleet%d
+                fleet:
+                  name: Fleet %d
+                  roles:
+                    - id: Lead%d
+                      escalationPath: Dev%d
+                    - id: Dev%d
+                      interactions:
+                        - with: {ref: Lead%d}
+                """.formatted(n, n, n, n, n, n);
+    }
+
+    @Test
+    public void testParsesDocumentsConcurrentlyInOrder() {
+        List<String> documents = IntStream.range(0, 200).mapToObj(BatchOntologyParserTest::spec).toList();
+        BatchOntologyParser batch = new BatchOntologyParser();
+
+        List<BatchOntologyParser.Result> results = batch.parseAll(documents);
+
+        assertEquals(200, results.size());
+        OntologyParser sequential = new OntologyParser();
+        for (int i = 0; i < results.size(); i++) {
+            BatchOntologyParser.Result result = results.get(i);
+            assertTrue(result.isSuccess(), () -> String.valueOf(result.error()));
+            assertEquals("fleet" + i, result.ontology().getId());
+            FleetJect fleet = result.ontology().getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class);
+            RoleJect lead = fleet.getRoles().get(0);
+            Ject interaction = fleet.getRoles().get(1).getTypedSubjects(FleetPredicate.interaction, Ject.class).get(0);
+            assertSame(lead, interaction.getTypedSubjects(interaction.getSubjectPredicates().get(0), Ject.class).get(0));
+            assertEquals(JectEventBuilderTest.describe(sequential.parse(documents.get(i))), JectEventBuilderTest.describe(result.ontology()));
+        }
+    }
+
+    @Test
+    public void testFailuresAreReportedPerDocument() {
+        List<String> documents = List.of(
+                spec(1),
+                "ontology: fleet\nfleet:\n  roles:\n    - id: A\n    - id: A\n",
+                "ontology: fleet\nfleet:\n  roles:\n    - id: A\n      with: {ref: Missing}\n",
+                "fleet: [unclosed",
+                spec(2));
+
+        List<BatchOntologyParser.Result> results = new BatchOntologyParser().parseAll(documents);
+
+        assertTrue(results.get(0).isSuccess());
+        assertInstanceOf(IllegalArgumentException.class, results.get(1).error());
+        assertTrue(results.get(1).error().getMessage().contains("Duplicate IDs detected"));
+        assertInstanceOf(IllegalStateException.class, results.get(2).error());
+        assertNull(results.get(2).ontology());
+        assertFalse(results.get(3).isSuccess());
+        assertEquals("fleet2", results.get(4).ontology().getId());
+    }
+
+    @Test
+    public void testBatchesShareOneParserAcrossThreads() {
+        BatchOntologyParser batch = new BatchOntologyParser(Map.of("fleet", new FleetParserRegistry()));
+        batch.setStreaming(true);
+        List<CompletableFuture<List<BatchOntologyParser.Result>>> runs = new ArrayList<>();
+        for (int run = 0; run < 8; run++) {
+            int offset = run * 50;
+            List<String> documents = IntStream.range(offset, offset + 50).mapToObj(BatchOntologyParserTest::spec).toList();
+            runs.add(CompletableFuture.supplyAsync(() -> batch.parseAll(documents)));
+        }
+        for (int run = 0; run < runs.size(); run++) {
+            List<BatchOntologyParser.Result> results = runs.get(run).join();
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals("fleet" + (run * 50 + i), results.get(i).ontology().getId());
+            }
+        }
+        assertThrows(UnsupportedOperationException.class, () -> batch.getOntologyCatalog().put("other", new FleetParserRegistry()));
+    }
+}
@@ -0,0 +1,69 @@
+package bill.zkaifleet.parser;
+
+import bill.zkaifleet.model.Ject;
+import bill.zkaifleet.model.Ontology;
+import bill.zkaifleet.model.fleet.FleetJect;
+import bill.zkaifleet.model.fleet.FleetPredicate;
+import bill.zkaifleet.model.fleet.RoleJect;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link BundledFleetSpecs}.
+ */
+public class BundledFleetSpecsTest {
+
+    private static final String SPEC = "fleetspec/generic-fleetspec-1.5/fleetspec.yaml";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testGetLoadsAndSharesSpec() {
+        Ontology ontology = BundledFleetSpecs.get(SPEC);
+
+        FleetJect fleet = ontology.getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class);
+        assertEquals("AIFleetPrototype", fleet.getName());
+        assertSame(ontology, BundledFleetSpecs.get(SPEC));
+    }
+
+    @Test
+    public void testEveryListedModuleIsBundled() {
+        FleetJect fleet = BundledFleetSpecs.get(SPEC).getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class);
+
+        assertEquals(List.of("R2D2", "C3PO", "ObiWan", "Hari", "HumanCEO"), fleet.getRoles().stream().map(RoleJect::getId).toList());
+        assertEquals(List.of("PairProgramming"), fleet.getProcesses().stream().map(Ject::getId).toList());
+    }
+
+    @Test
+    public void testWriteSnapshotsMatchesParsedSpec() throws IOException {
+        BundledFleetSpecs.main(new String[] { dir.toString() });
+
+        Path snapshot = dir.resolve("fleetspec/generic-fleetspec-1.5/fleetspec.snapshot");
+        assertTrue(Files.isRegularFile(snapshot));
+        Ontology loaded = new OntologySnapshotReader().read(snapshot);
+        Ontology parsed = BundledFleetSpecs.get(SPEC);
+        // The spec has no root id, so each parse generates one
+        assertEquals(JectEventBuilderTest.describe(parsed).replace(parsed.getId(), "<id>"),
+                JectEventBuilderTest.describe(loaded).replace(loaded.getId(), "<id>"));
+    }
+
+    @Test
+    public void testSnapshotResource() {
+        assertEquals("fleetspec/generic-fleetspec-1.5/fleetspec.snapshot", BundledFleetSpecs.snapshotResource(SPEC));
+        assertEquals("specs/other.snapshot", BundledFleetSpecs.snapshotResource("specs/other.yml"));
+    }
+
+    @Test
+    public void testUnknownSpec() {
+        assertThrows(IllegalArgumentException.class, () -> BundledFleetSpecs.get("fleetspec/missing.yaml"));
+        assertThrows(IllegalArgumentException.class, () -> BundledFleetSpecs.main(new String[0]));
+    }
+}
@@ -0,0 +1,46 @@
+package bill.zkaifleet.parser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared setup for tests that load modules from a temporary directory: a {@link ModuleLoader}
+ * whose file resolver counts how often each module is opened.
+ */
+abstract class CountingModuleFixture {
+
+    @TempDir
+    Path dir;
+
+    final Map<URI, AtomicInteger> opened = new ConcurrentHashMap<>();
+    ModuleLoader loader;
+
+    @BeforeEach
+    public void setupLoader() {
+        ModuleResolver counting = new FileModuleResolver() {
+            @Override
+            public InputStream open(URI uri) throws IOException {
+                opened.computeIfAbsent(uri, k -> new AtomicInteger()).incrementAndGet();
+                return super.open(uri);
+            }
+        };
+        loader = new ModuleLoader(new OntologyParser(), List.of(new ClasspathModuleResolver(), counting));
+    }
+
+    Path write(String name, String yaml) throws IOException {
+        Path file = dir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, yaml);
+        return file;
+    }
+}
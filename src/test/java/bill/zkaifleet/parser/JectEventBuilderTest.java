@@ -0,0 +1,224 @@
+package bill.zkaifleet.parser;
+
+import bill.zkaifleet.model.Ject;
+import bill.zkaifleet.model.Ontology;
+import bill.zkaifleet.model.Predicate;
+import bill.zkaifleet.model.RuntimePredicate;
+import bill.zkaifleet.model.fleet.FleetJect;
+import bill.zkaifleet.model.fleet.FleetPredicate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the event-stream front end, mostly by checking that it builds the same
+ * graph as the tree-based parser.
+ */
+public class JectEventBuilderTest {
+
+    private OntologyParser treeParser;
+    private OntologyParser streamingParser;
+
+    @BeforeEach
+    public void setup() {
+        treeParser = new OntologyParser();
+        streamingParser = new OntologyParser();
+        streamingParser.setStreaming(true);
+    }
+
+    @Test
+    public void testSameGraphAsTreeParser() {
+        String yaml = """
+                ontology: test
+                id: root
+                jects:
+                  - id: j1
+                    type: unknown
+                    scalarProp: value123
+                    refProp: {ref: j2}
+                    listProp: [itemA, itemB]
+                    numbers: [1, 2.5, true]
+                  - id: j2
+                    type: unknown2
+                    nestedJect:
+                      id: j3
+                      type: nested
+                      scalar: nestedValue
+                      backRef: {ref: j1}
+                """;
+
+        assertEquals(describe(treeParser.parse(yaml)), describe(streamingParser.parse(yaml)));
+    }
+
+    @Test
+    public void testBundledFleetSpecMatchesTreeParser() throws IOException {
+        String yaml = readResource("/fleetspec/generic-fleetspec-1.5/fleetspec.yaml")
+                .replace("ontology: fleet", "ontology: fleet\nid: generic");
+
+        Ject streamed = streamingParser.parse(yaml);
+        assertEquals(describe(treeParser.parse(yaml)), describe(streamed));
+
+        FleetJect fleet = streamed.getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class);
+        assertNotNull(fleet);
+        assertEquals("AIFleetPrototype", fleet.getName());
+        assertEquals(4, fleet.getRoles().size());
+    }
+
+    @Test
+    public void testParseFromReader() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/fleetspec/generic-fleetspec-1.5/fleetspec.yaml");
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            Ject root = treeParser.parse(reader);
+            assertInstanceOf(Ontology.class, root);
+            assertEquals("fleet", root.getOntology());
+        }
+    }
+
+    @Test
+    public void testEntriesBeforeOntologyKeyAreReplayed() {
+        String yaml = """
+                jects:
+                  - id: j1
+                    value: first
+                id: late
+                ontology: test
+                tail: done
+                """;
+
+        Ject root = streamingParser.parse(yaml);
+        assertEquals("late", root.getId());
+        assertEquals("done", root.getScalar(pred("tail"), String.class));
+        List<Ject> jects = root.getTypedSubjects(pred("jects"), Ject.class);
+        assertEquals(1, jects.size());
+        assertEquals("first", jects.get(0).getScalar(pred("value"), String.class));
+    }
+
+    @Test
+    public void testAnchorsAndAliases() {
+        String yaml = """
+                ontology: test
+                id: root
+                shared: &common [a, b]
+                jects:
+                  - id: j1
+                    tags: *common
+                  - id: j2
+                    tags: *common
+                """;
+
+        assertEquals(describe(treeParser.parse(yaml)), describe(streamingParser.parse(yaml)));
+    }
+
+    @Test
+    public void testDuplicateIdsFailFast() {
+        String yaml = """
+                ontology: test
+                jects:
+                  - id: duplicate
+                  - id: duplicate
+                """;
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> streamingParser.parse(yaml));
+        assertTrue(exception.getMessage().contains("Duplicate IDs detected"));
+        assertTrue(exception.getMessage().contains("$.jects[0] and $.jects[1]"),
+                "Exception should report both conflicting paths");
+    }
+
+    @Test
+    public void testMissingOntology() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> streamingParser.parse("id: root\nvalue: 1\n"));
+        assertTrue(exception.getMessage().contains("Ontology name is required"));
+    }
+
+    @Test
+    public void testUnresolvedReference() {
+        String yaml = """
+                ontology: test
+                jects:
+                  - id: j1
+                    refToNonExistent: {ref: nonExistent}
+                """;
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> streamingParser.parse(yaml));
+        assertTrue(exception.getMessage().contains("Unresolved placeholder"));
+    }
+
+    @Test
+    public void testRefMustComeFirst() {
+        String yaml = """
+                ontology: test
+                jects:
+                  - id: j1
+                  - id: j2
+                    other: {note: late, ref: j1}
+                """;
+
+        assertThrows(IllegalArgumentException.class, () -> streamingParser.parse(yaml));
+    }
+
+    @Test
+    public void testNonMappingDocument() {
+        assertThrows(IllegalArgumentException.class, () -> streamingParser.parse("- a\n- b\n"));
+    }
+
+    private Predicate pred(String name) {
+        return RuntimePredicate.of(name, "unknown", "test");
+    }
+
+    private String readResource(String path) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream(path)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Renders a graph as a canonical string, printing each Ject once and referring back to it by position.
+     */
+    static String describe(Ject root) {
+        StringBuilder out = new StringBuilder();
+        describe(root, out, new IdentityHashMap<>(), "");
+        return out.toString();
+    }
+
+    private static void describe(Ject ject, StringBuilder out, Map<Ject, Integer> seen, String indent) {
+        Integer handle = seen.get(ject);
+        if (handle != null) {
+            out.append(indent).append("@").append(handle).append('\n');
+            return;
+        }
+        seen.put(ject, seen.size());
+        out.append(indent).append(ject.getClass().getSimpleName())
+                .append(" id=").append(ject.getId())
+                .append(" type=").append(ject.getTypeName())
+                .append(" ontology=").append(ject.getOntology()).append('\n');
+        Map<String, List<Object>> scalars = new TreeMap<>();
+        ject.getScalars().forEach((p, v) -> scalars.put(p.fqName(), v));
+        scalars.forEach((p, v) -> out.append(indent).append("  ").append(p).append(" = ").append(v).append('\n'));
+        Map<String, List<Ject>> subjects = new TreeMap<>();
+        ject.getSubjects().forEach((p, v) -> subjects.put(p.fqName(), new ArrayList<>(v)));
+        subjects.forEach((p, v) -> {
+            out.append(indent).append("  ").append(p).append(":\n");
+            for (Ject child : v) {
+                describe(child, out, seen, indent + "    ");
+            }
+        });
+        Map<String, Integer> backlinks = new TreeMap<>();
+        ject.getIsObjectOf().forEach((p, v) -> backlinks.put(p.fqName(), v.size()));
+        out.append(indent).append("  isObjectOf=").append(backlinks).append('\n');
+    }
+}
@@ -337,11 +337,21 @@ public class JectParseContextExtraTest {
         // Create a context manually and use it to resolve relations
         JectParseContext context = new JectParseContext(ontology, "test", rawData, ontologyCatalog);
         
+        // 3. A reference to the test Ject, resolved but not patched yet
+        Predicate refPredicate = testRegistry.getPredicate("refChild", "test");
+        Placeholder<Ject> placeholder = context.getOrCreatePlaceholder("testJect", "RuntimeJect", "test");
+        ontology.addTypedSubject(refPredicate, placeholder);
+        placeholder.resolve(testJect);
+        
         // Manually call resolveRelations on the ontology
         context.resolveRelations(ontology);
         
-        // Verify the results - main assertion is that no exceptions are thrown
-        assertNotNull(ontology);
+        // The map stays a scalar, the direct child a subject, and the reference is patched
+        assertEquals(mapData, ontology.getScalar(mapPredicate, Map.class));
+        assertEquals(List.of(testJect), ontology.getTypedSubjects(testRegistry.getPredicate("directChild", "test"), Ject.class));
+        assertSame(testJect, ontology.getSubjects().get(refPredicate).get(0));
+        assertEquals(List.of(ontology), testJect.getIsObjectOf().get(refPredicate));
+        assertFalse(placeholder.isReferenced());
     }
     
     /**
@@ -409,8 +419,9 @@ public class JectParseContextExtraTest {
         // Add the test Ject to the ontology
         ontology.addTypedSubject(new RuntimePredicate("testJect", "test", "test"), testJect);
         
-        // Create context
+        // Create context, and make the placeholder built by hand known to it
         JectParseContext context = new JectParseContext(ontology, "test", new HashMap<>(), ontologyCatalog);
+        context.track(unresolvablePlaceholder);
         
         // This should throw an IllegalStateException
         Exception exception = assertThrows(IllegalStateException.class, () -> {
@@ -470,6 +481,54 @@ public class JectParseContextExtraTest {
                    "Exception message should mention mixed content");
     }
     
+    /**
+     * Test mixed content in a list that received literal items
+     */
+    @Test
+    public void testMixedContentInLiteralList() {
+        // Create ontology
+        Ontology ontology = new Ontology("test");
+        
+        // Create test objects
+        RuntimeJect parent = new RuntimeJect("parent", "test");
+        parent.setId("parent");
+        
+        RuntimeJect child = new RuntimeJect("child", "test");
+        child.setId("child");
+        
+        // Create predicate
+        Predicate predicate = testRegistry.getPredicate("items", "test");
+        
+        // Add to ontology
+        ontology.addTypedSubject(new RuntimePredicate("root", "test", "test"), parent);
+        
+        // Create the problematic relationship by mixing a Ject and a literal in the subjects
+        parent.addTypedSubject(predicate, child);
+        
+        // Now add a literal item to the same relationship to cause the mixed content error
+        parent.addTypedSubject(predicate, new RuntimeJect("specialPlaceholder", "test") {
+            @Override
+            public Object resolveLiterals() {
+                // Return a non-Ject value to trigger the mixed content scenario
+                return "string value";
+            }
+        });
+        
+        // Create context
+        JectParseContext context = new JectParseContext(ontology, "test", new HashMap<>(), ontologyCatalog);
+        
+        // Record the list as one that received literal items, as the build does
+        context.addLiteralList(parent, predicate);
+        
+        // This should throw an IllegalStateException for mixed content
+        Exception exception = assertThrows(IllegalStateException.class, () -> {
+            context.resolveAll();
+        });
+        
+        assertTrue(exception.getMessage().contains("Mixed content detected"), 
+                   "Exception message should mention mixed content");
+    }
+    
     /**
      * Test that Maps are properly interpreted as Jects, not scalars
      */
@@ -456,4 +456,49 @@ public class JectParseContextTest {
         assertTrue(context.hasSeen("test-id"), "Should have seen the placeholder");
         assertFalse(context.hasSeen("another-id"), "Should not have seen another placeholder");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testDeeplyNestedDataDoesNotOverflowStack() {
+        Ontology ontology = new Ontology("test");
+        ontology.addScalar(BasePredicate.id, "root");
+
+        int depth = 20_000;
+        Map<String, Object> rawData = new HashMap<>();
+        Map<String, Object> current = rawData;
+        for (int i = 0; i < depth; i++) {
+            Map<String, Object> child = new LinkedHashMap<>();
+            child.put("id", "node" + i);
+            current.put("child", child);
+            current = child;
+        }
+        current.put("scalarLeaf", "bottom");
+
+        JectParseContext context = new JectParseContext(ontology, "test", rawData, ontologyCatalog);
+        context.buildJects();
+        context.resolveAll();
+
+        Predicate child = testRegistry.getPredicate("child", "test");
+        Ject ject = ontology;
+        for (int i = 0; i < depth; i++) {
+            List<Ject> children = ject.getSubjects().get(child);
+            assertNotNull(children, "Missing child at depth " + i);
+            assertEquals(1, children.size());
+            ject = children.get(0);
+            assertEquals("node" + i, ject.getId());
+        }
+        assertEquals("bottom", ject.getScalar(testRegistry.getPredicate("scalarLeaf", "test"), String.class));
+    }
+
+    @Test
+    public void testDeepPathsRenderWithoutOverflowingStack() {
+        JectParseContext.ParsePath path = JectParseContext.ParsePath.ROOT;
+        for (int i = 0; i < 500_000; i++) {
+            path = path.child("c");
+        }
+        path = path.item(3);
+
+        assertEquals("$" + ".c".repeat(500_000) + "[3]", path.toString());
+        assertEquals("$.jects[0].name", JectParseContext.ParsePath.ROOT.child("jects").item(0).child("name").toString());
+        assertEquals("$", JectParseContext.ParsePath.ROOT.toString());
+    }
+}
@@ -0,0 +1,220 @@
+package bill.zkaifleet.parser;
+
+import bill.zkaifleet.model.Ject;
+import bill.zkaifleet.model.Ontology;
+import bill.zkaifleet.model.Predicate;
+import bill.zkaifleet.model.RuntimePredicate;
+import bill.zkaifleet.model.fleet.FleetJect;
+import bill.zkaifleet.model.fleet.FleetPredicate;
+import bill.zkaifleet.model.fleet.RoleJect;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link ModuleLoader} and the bundled module resolvers.
+ */
+public class ModuleLoaderTest extends CountingModuleFixture {
+
+    @Test
+    public void testLoadsBundledModularSpec() {
+        Ontology ontology = loader.load(ClasspathModuleResolver.uri("fleetspec/generic-fleetspec-1.5/fleetspec.yaml"));
+
+        FleetJect fleet = ontology.getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class);
+        assertEquals("AIFleetPrototype", fleet.getName());
+        assertEquals("Yoda", fleet.getBootstrapAgent().getId());
+        assertEquals("VisionStatement", fleet.getVisionStatement().getId());
+        List<String> roles = fleet.getRoles().stream().map(RoleJect::getId).toList();
+        assertTrue(roles.containsAll(List.of("R2D2", "C3PO")), roles.toString());
+        assertEquals(2, fleet.getIntegrations().size());
+        assertEquals(1, fleet.getWrunks().size());
+        assertNotNull(fleet.getHumanIntervention());
+        assertTrue(fleet.getScalars(FleetPredicate.role, Object.class).isEmpty());
+    }
+
+    @Test
+    public void testRelativeAndFileReferencesWithCrossModuleRefs() throws IOException {
+        Path other = write("elsewhere/seniors.yaml", """
+                - id: ObiWan
+                  description: senior
+                """);
+        Path spec = write("spec/fleet.yaml", """
+                ontology: fleet
+                id: modular
+                fleet:
+                  name: Modular
+                  roles:
+                    - ./roles/juniors.yaml
+                    - %s
+                    - id: Inline
+                      escalationPath: ObiWan
+                """.formatted(other.toUri()));
+        write("spec/roles/juniors.yaml", """
+                - id: R2D2
+                  interactions:
+                    - with: {ref: ObiWan}
+                """);
+
+        Ontology ontology = loader.load(spec.toUri());
+
+        FleetJect fleet = ontology.getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class);
+        assertEquals(List.of("R2D2", "ObiWan", "Inline"), fleet.getRoles().stream().map(RoleJect::getId).toList());
+        RoleJect obiWan = fleet.getRoles().get(1);
+        Ject interaction = fleet.getRoles().get(0).getTypedSubjects(FleetPredicate.interaction, Ject.class).get(0);
+        assertSame(obiWan, interaction.getSingleTypedSubject(pred("with"), Ject.class));
+    }
+
+    @Test
+    public void testSharedModuleIsParsedOnceAndShared() throws IOException {
+        write("shared.yaml", """
+                id: SharedProcess
+                description: shared
+                """);
+        Path spec = write("fleet.yaml", """
+                ontology: fleet
+                id: shared
+                fleet:
+                  processes: [./shared.yaml]
+                  roles:
+                    - id: R2D2
+                      steps: [./shared.yaml]
+                """);
+
+        Ontology ontology = loader.load(spec.toUri());
+        loader.load(spec.toUri());
+
+        FleetJect fleet = ontology.getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class);
+        Ject process = fleet.getProcesses().get(0);
+        assertSame(process, fleet.getRoles().get(0).getSingleTypedSubject(pred("steps"), Ject.class));
+        assertEquals(2, process.getIsObjectOf().values().stream().mapToInt(List::size).sum());
+        assertEquals(1, opened.get(dir.resolve("shared.yaml").toUri()).get());
+        assertEquals(1, opened.get(spec.toUri()).get());
+    }
+
+    @Test
+    public void testMissingModule() throws IOException {
+        Path spec = write("fleet.yaml", """
+                ontology: fleet
+                id: missing
+                fleet:
+                  roles: [./missing.yaml, {id: R2D2}]
+                """);
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> loader.load(spec.toUri()));
+        assertTrue(exception.getMessage().contains("Module not found"));
+
+        loader.setSkipMissingModules(true);
+        FleetJect fleet = loader.load(spec.toUri()).getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class);
+        assertEquals(1, fleet.getRoles().size());
+    }
+
+    @Test
+    public void testModuleCycle() throws IOException {
+        write("a.yaml", """
+                - id: A
+                  interactions: [./b.yaml]
+                """);
+        write("b.yaml", """
+                - id: B
+                  constraints: [./a.yaml]
+                """);
+        Path spec = write("fleet.yaml", """
+                ontology: fleet
+                fleet:
+                  roles: [./a.yaml]
+                """);
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> loader.load(spec.toUri()));
+        assertTrue(exception.getMessage().contains("Module cycle detected"), exception.getMessage());
+        assertTrue(exception.getMessage().matches(".*a\\.yaml -> \\S*/b\\.yaml -> \\S*/a\\.yaml"), exception.getMessage());
+    }
+
+    @Test
+    public void testDiamondOfModules() throws IOException {
+        write("left.yaml", """
+                - id: Left
+                  interactions: [./shared.yaml]
+                """);
+        write("right.yaml", """
+                - id: Right
+                  interactions: [./shared.yaml]
+                """);
+        write("shared.yaml", """
+                - id: Shared
+                  with: {ref: Right}
+                """);
+        Path spec = write("fleet.yaml", """
+                ontology: fleet
+                id: diamond
+                fleet:
+                  roles: [./left.yaml, ./right.yaml]
+                """);
+
+        FleetJect fleet = loader.load(spec.toUri()).getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class);
+
+        RoleJect left = fleet.getRoles().get(0);
+        RoleJect right = fleet.getRoles().get(1);
+        Ject shared = left.getSingleTypedSubject(FleetPredicate.interaction, Ject.class);
+        assertEquals("Shared", shared.getId());
+        assertSame(shared, right.getSingleTypedSubject(FleetPredicate.interaction, Ject.class));
+        assertSame(right, shared.getSingleTypedSubject(pred("with"), Ject.class));
+        assertEquals(1, opened.get(dir.resolve("shared.yaml").toUri()).get());
+    }
+
+    @Test
+    public void testDuplicateIdsAcrossModules() throws IOException {
+        write("a.yaml", "- id: R2D2\n");
+        write("b.yaml", "- id: R2D2\n");
+        Path spec = write("fleet.yaml", """
+                ontology: fleet
+                fleet:
+                  roles: [./a.yaml, ./b.yaml]
+                """);
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> loader.load(spec.toUri()));
+        assertTrue(exception.getMessage().contains("Duplicate IDs detected: 'R2D2'"), exception.getMessage());
+        assertTrue(exception.getMessage().contains("b.yaml>"), exception.getMessage());
+    }
+
+    @Test
+    public void testOrdinaryStringsAreNotReferences() throws IOException {
+        Path spec = write("fleet.yaml", """
+                ontology: fleet
+                fleet:
+                  roles:
+                    - id: R2D2
+                      capabilities: [codeGeneration, parseYAML]
+                      wrunkTypesHandled: [codePoint, tddTest]
+                """);
+
+        RoleJect role = loader.load(spec.toUri()).getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class).getRoles().get(0);
+        assertEquals(List.of(List.of("codeGeneration", "parseYAML")), role.getScalars(FleetPredicate.capability, Object.class));
+    }
+
+    @Test
+    public void testClasspathResolution() {
+        ClasspathModuleResolver resolver = new ClasspathModuleResolver();
+        URI base = ClasspathModuleResolver.uri("fleetspec/generic-fleetspec-1.5/fleetspec.yaml");
+
+        assertEquals(URI.create("classpath:/fleetspec/generic-fleetspec-1.5/roles/junior_devs.yaml"),
+                resolver.resolve(base, URI.create("classpath://roles/junior_devs.yaml")));
+        assertEquals(URI.create("classpath:/fleetspec/generic-fleetspec-1.5/bootstrap_agent.yaml"),
+                resolver.resolve(base, URI.create("classpath://./bootstrap_agent.yaml")));
+        assertEquals(URI.create("classpath:/application.properties"),
+                resolver.resolve(base, URI.create("classpath://application.properties")));
+        assertEquals(URI.create("classpath:/roles/junior_devs.yaml"),
+                resolver.resolve(base, URI.create("classpath:/roles/junior_devs.yaml")));
+        assertEquals(URI.create("classpath:/fleetspec/generic-fleetspec-1.5/vision_statement.yaml"),
+                resolver.resolve(base, URI.create("./vision_statement.yaml")));
+        assertThrows(IllegalArgumentException.class, () -> loader.load(URI.create("unknown:/fleet.yaml")));
+    }
+
+    private Predicate pred(String name) {
+        return RuntimePredicate.of(name, "unknown", "fleet");
+    }
+}
@@ -14,10 +14,15 @@ import bill.zkaifleet.model.ParserRegistry ;
 
 import static org.junit.jupiter.api.Assertions.* ;
 	
+import java.util.ArrayList ;
 import java.util.Arrays ;
 import java.util.HashMap ;
 import java.util.List ;
 import java.util.Map ;
+import java.util.concurrent.Callable ;
+import java.util.concurrent.ExecutorService ;
+import java.util.concurrent.Executors ;
+import java.util.concurrent.Future ;
 
 @QuarkusTest
 public class OntologyParserTest {
@@ -83,6 +88,28 @@ public class OntologyParserTest {
 	    ) ;
 	    
 	    assertTrue(exception.getMessage().contains("Duplicate IDs detected")) ;
+	    assertTrue(exception.getMessage().contains("$.jects[0] and $.jects[1]")) ;
+	}
+
+	@Test
+	public void testDuplicateIdsReportNestedPaths() {
+	    String yamlWithDuplicates = """
+	            ontology: test
+	            jects:
+	              - id: outer
+	                nested:
+	                  id: inner
+	                  children:
+	                    - id: outer
+	            """ ;
+
+	    IllegalArgumentException exception = assertThrows(
+	        IllegalArgumentException.class,
+	        () -> parser.parse(yamlWithDuplicates)
+	    ) ;
+
+	    // The nested duplicate is built first, so it is the one already registered
+	    assertTrue(exception.getMessage().contains("'outer' at $.jects[0].nested.children[0] and $.jects[0]")) ;
 	}
 	
 	@Test
@@ -148,6 +175,82 @@ public class OntologyParserTest {
 	    assertTrue(exception.getMessage().contains("Unresolved placeholder")) ;
 	}
 	
+	@Test
+	public void testLazyReferencesResolveOnFirstUse() {
+	    parser.setLazyReferences(true) ;
+	    Ontology ontology = (Ontology) parser.parse(SIMPLE_YAML) ;
+	    List<Ject> jects = ontology.getTypedSubjects(createPred("jects"), Ject.class) ;
+	    Ject j1 = jects.get(0) ;
+	    Ject j2 = jects.get(1) ;
+
+	    // Untouched, the slot still holds the placeholder
+	    assertInstanceOf(Placeholder.class, j1.getSubjects().get(createPred("refProp")).get(0)) ;
+
+	    List<Ject> refProp = j1.getTypedSubjects(createPred("refProp"), Ject.class) ;
+	    assertEquals(1, refProp.size()) ;
+	    assertSame(j2, refProp.get(0)) ;
+	    assertSame(j2, j1.getSubjects().get(createPred("refProp")).get(0)) ;
+	    assertEquals(List.of(j1), j2.getTypedIsObjectOf(createPred("refProp"), Ject.class)) ;
+	}
+
+	@Test
+	public void testLazyReferencesHaveTheirBacklinksUpFront() {
+	    parser.setLazyReferences(true) ;
+	    Ontology ontology = (Ontology) parser.parse(SIMPLE_YAML) ;
+	    List<Ject> jects = ontology.getTypedSubjects(createPred("jects"), Ject.class) ;
+	    Ject j1 = jects.get(0) ;
+	    Ject j2 = jects.get(1) ;
+
+	    assertEquals(List.of(j1), j2.getTypedIsObjectOf(createPred("refProp"), Ject.class)) ;
+	    assertInstanceOf(Placeholder.class, j1.getSubjects().get(createPred("refProp")).get(0)) ;
+
+	    // Dropping the untouched reference drops its backlink too
+	    j1.removeTypedSubjects(createPred("refProp")) ;
+	    assertTrue(j2.getTypedIsObjectOf(createPred("refProp"), Ject.class).isEmpty()) ;
+	}
+
+	@Test
+	public void testLazyReferencesCanBeReadConcurrently() throws Exception {
+	    parser.setLazyReferences(true) ;
+	    Ontology ontology = (Ontology) parser.parse(SIMPLE_YAML) ;
+	    List<Ject> jects = ontology.getTypedSubjects(createPred("jects"), Ject.class) ;
+	    Ject j1 = jects.get(0) ;
+	    Ject j2 = jects.get(1) ;
+
+	    List<Callable<Ject>> readers = new ArrayList<>() ;
+	    for (int i = 0; i < 8; i++) {
+	        readers.add(() -> j1.getTypedSubjects(createPred("refProp"), Ject.class).get(0)) ;
+	    }
+	    ExecutorService pool = Executors.newFixedThreadPool(8) ;
+	    try {
+	        for (Future<Ject> read : pool.invokeAll(readers)) {
+	            assertSame(j2, read.get()) ;
+	        }
+	    } finally {
+	        pool.shutdown() ;
+	    }
+	    assertEquals(List.of(j1), j2.getTypedIsObjectOf(createPred("refProp"), Ject.class)) ;
+	}
+
+	@Test
+	public void testLazyUnresolvedReferenceFailsAtParse() {
+	    parser.setLazyReferences(true) ;
+	    String yamlWithUnresolvedRef = """
+	            ontology: test
+	            jects:
+	              - id: j1
+	                type: type1
+	                refToNonExistent: {ref: nonExistent}
+	            """ ;
+
+	    IllegalStateException exception = assertThrows(
+	        IllegalStateException.class,
+	        () -> parser.parse(yamlWithUnresolvedRef)
+	    ) ;
+
+	    assertTrue(exception.getMessage().contains("Unresolved placeholder")) ;
+	}
+	
 	@Test
 	public void testMissingOntology() {
 	    String yamlWithoutOntology = """
@@ -397,6 +500,83 @@ public class OntologyParserTest {
 	    assertDoesNotThrow(() -> parser.validateAnomalies(jectWithId)) ;
 	}
 
+	@Test
+	public void testLargeListsBuildInParallelLikeSequentially() {
+		String yamlContent = largeYaml ( 700 ) ;
+		assertEquals(0, parser.getParallelListThreshold(), "Parallel builds are opt-in") ;
+		Ject sequential = parser.parse(yamlContent) ;
+		parser.setParallelListThreshold(100) ;
+		Ject parallel = parser.parse(yamlContent) ;
+
+		assertEquals(JectEventBuilderTest.describe(sequential), JectEventBuilderTest.describe(parallel)) ;
+		List<Ject> jects = parallel.getTypedSubjects(createPred("jects"), Ject.class) ;
+		assertEquals(700, jects.size()) ;
+		assertSame(jects.get(0), jects.get(699).getSingleTypedSubject(createPred("next"), Ject.class)) ;
+		assertEquals(List.of(parallel), jects.get(350).getTypedIsObjectOf(createPred("jects"), Ject.class)) ;
+		assertEquals(700, parallel.getScalars(createPred("numbers"), Object.class).size()) ;
+	}
+
+	@Test
+	public void testParallelListErrors() {
+		parser.setParallelListThreshold(100) ;
+		String duplicate = largeYaml ( 300 ).replace("id: j250\n", "id: j10\n") ;
+		Exception exception = assertThrows(IllegalArgumentException.class, () -> parser.parse(duplicate)) ;
+		assertTrue(exception.getMessage().contains("Duplicate IDs detected: 'j10'"), exception.getMessage()) ;
+
+		String unresolved = largeYaml ( 300 ).replace("{ref: j0}", "{ref: missing}") ;
+		assertThrows(IllegalStateException.class, () -> parser.parse(unresolved)) ;
+	}
+
+	@Test
+	public void testDeeplyNestedYaml() {
+	    // SnakeYAML loads documents up to 50 collections deep, which the loaded tree cannot exceed
+	    assertNestedChain(parser.parse(nestedYaml(45)), 45) ;
+
+	    // The event stream has no such limit, and neither has the build
+	    parser.setStreaming(true) ;
+	    assertNestedChain(parser.parse(nestedYaml(20_000)), 20_000) ;
+	}
+
+	/**
+	 * Builds a document with a chain of Jects nested one in the other, in flow style to keep it small.
+	 */
+	private static String nestedYaml(int depth) {
+		StringBuilder yaml = new StringBuilder("ontology: test\nid: deep\nchild: ") ;
+		for (int i = 0 ; i < depth ; i++) {
+			yaml.append("{id: node").append(i).append(", child: ") ;
+		}
+		yaml.append("bottom").append("}".repeat(depth)).append('\n') ;
+		return yaml.toString() ;
+	}
+
+	private void assertNestedChain(Ject root, int depth) {
+		Predicate child = createPred("child") ;
+		Ject ject = root ;
+		for (int i = 0 ; i < depth ; i++) {
+			ject = ject.getSingleTypedSubject(child, Ject.class) ;
+			assertNotNull(ject, "Missing child at depth " + i) ;
+			assertEquals("node" + i, ject.getId()) ;
+		}
+		assertEquals("bottom", ject.getScalar(child, String.class)) ;
+	}
+
+	/**
+	 * Builds a document with a list of Jects that reference each other in a ring, and a list of literals.
+	 */
+	private static String largeYaml(int size) {
+		StringBuilder yaml = new StringBuilder("ontology: test\nid: large\njects:\n") ;
+		for (int i = 0 ; i < size ; i++) {
+			yaml.append("  - id: j").append(i).append('\n')
+				.append("    next: {ref: j").append((i + 1) % size).append("}\n")
+				.append("    nested:\n      - id: n").append(i).append("\n        value: ").append(i).append('\n') ;
+		}
+		yaml.append("numbers:\n") ;
+		for (int i = 0 ; i < size ; i++) {
+			yaml.append("  - ").append(i).append('\n') ;
+		}
+		return yaml.toString() ;
+	}
+
 	private Predicate createPred(String name) {
         return new RuntimePredicate(name, "unknown", "test") ;
     }
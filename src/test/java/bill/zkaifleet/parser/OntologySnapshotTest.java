@@ -0,0 +1,142 @@
+package bill.zkaifleet.parser;
+
+import bill.zkaifleet.model.Ject;
+import bill.zkaifleet.model.Ontology;
+import bill.zkaifleet.model.Predicate;
+import bill.zkaifleet.model.RuntimePredicate;
+import bill.zkaifleet.model.fleet.FleetJect;
+import bill.zkaifleet.model.fleet.FleetPredicate;
+import bill.zkaifleet.model.fleet.RoleJect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link OntologySnapshotWriter} and {@link OntologySnapshotReader}, mostly by checking
+ * that a graph read back from a snapshot matches the parsed one.
+ */
+public class OntologySnapshotTest {
+
+    private OntologyParser parser;
+    private OntologySnapshotWriter writer;
+    private OntologySnapshotReader reader;
+
+    @BeforeEach
+    public void setup() {
+        parser = new OntologyParser();
+        writer = new OntologySnapshotWriter();
+        reader = new OntologySnapshotReader();
+    }
+
+    private Ontology roundTrip(Ject parsed) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write((Ontology) parsed, out);
+        return reader.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    public void testBundledFleetSpecRoundTrip() throws IOException {
+        String yaml;
+        try (InputStream in = getClass().getResourceAsStream("/fleetspec/generic-fleetspec-1.5/fleetspec.yaml")) {
+            yaml = new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("ontology: fleet", "ontology: fleet\nid: generic");
+        }
+        Ject parsed = parser.parse(yaml);
+        Ontology loaded = roundTrip(parsed);
+
+        assertEquals(JectEventBuilderTest.describe(parsed), JectEventBuilderTest.describe(loaded));
+        FleetJect fleet = loaded.getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class);
+        assertNotNull(fleet);
+        assertEquals("AIFleetPrototype", fleet.getName());
+        assertEquals(4, fleet.getRoles().size());
+        RoleJect parsedRole = parsed.getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class).getRoles().get(0);
+        RoleJect loadedRole = fleet.getRoles().get(0);
+        assertEquals(parsedRole.getSeniority(), loadedRole.getSeniority());
+        assertEquals(parsedRole.getCapabilities(), loadedRole.getCapabilities());
+    }
+
+    @Test
+    public void testReferencesScalarsAndBacklinksRoundTrip() throws IOException {
+        String yaml = """
+                ontology: test
+                id: root
+                jects:
+                  - id: j1
+                    count: 3
+                    big: 12345678901
+                    ratio: 0.5
+                    flag: true
+                    empty:
+                    tags: [a, b]
+                    meta: {k: v}
+                    refProp: {ref: j2}
+                  - id: j2
+                    nestedJect:
+                      id: j3
+                      backRef: {ref: j1}
+                """;
+        Ject parsed = parser.parse(yaml);
+        Ontology loaded = roundTrip(parsed);
+
+        assertEquals(JectEventBuilderTest.describe(parsed), JectEventBuilderTest.describe(loaded));
+        assertEquals("root", loaded.getId());
+        List<Ject> jects = loaded.getTypedSubjects(pred("jects"), Ject.class);
+        Ject j1 = jects.get(0);
+        Ject j2 = jects.get(1);
+        assertEquals(3, j1.getScalar(pred("count"), Integer.class));
+        assertEquals(12345678901L, j1.getScalar(pred("big"), Long.class));
+        assertEquals(List.of("a", "b"), j1.getScalars(pred("tags"), String.class));
+        assertEquals("v", j1.getSingleTypedSubject(pred("meta"), Ject.class).getScalar(pred("k"), String.class));
+        assertSame(j2, j1.getSingleTypedSubject(pred("refProp"), Ject.class));
+        assertSame(j1, j2.getTypedIsObjectOf(pred("refProp"), Ject.class).get(0));
+        Ject j3 = j2.getSingleTypedSubject(pred("nestedJect"), Ject.class);
+        assertSame(j1, j3.getSingleTypedSubject(pred("backRef"), Ject.class));
+    }
+
+    @Test
+    public void testLazyReferencesAreWrittenResolved() throws IOException {
+        parser.setLazyReferences(true);
+        String yaml = """
+                ontology: test
+                jects:
+                  - id: j1
+                    refProp: {ref: j2}
+                  - id: j2
+                """;
+        Ontology loaded = roundTrip(parser.parse(yaml));
+
+        List<Ject> jects = loaded.getTypedSubjects(pred("jects"), Ject.class);
+        Ject target = jects.get(0).getSubjects().get(pred("refProp")).get(0);
+        assertSame(jects.get(1), target);
+    }
+
+    @Test
+    public void testFileRoundTrip(@TempDir Path dir) throws IOException {
+        Ject parsed = parser.parse("ontology: test\nid: root\nname: value\n");
+        Path file = dir.resolve("ontology.snapshot");
+        writer.write((Ontology) parsed, file);
+
+        Ontology loaded = reader.read(file);
+        assertEquals(JectEventBuilderTest.describe(parsed), JectEventBuilderTest.describe(loaded));
+    }
+
+    @Test
+    public void testRejectsOtherContent() {
+        byte[] yaml = "ontology: test\n".getBytes(StandardCharsets.UTF_8);
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> reader.read(new ByteArrayInputStream(yaml)));
+        assertTrue(exception.getMessage().contains("Not an ontology snapshot"));
+    }
+
+    private Predicate pred(String name) {
+        return RuntimePredicate.of(name, "unknown", "test");
+    }
+}
@@ -0,0 +1,140 @@
+package bill.zkaifleet.parser;
+
+import bill.zkaifleet.model.Ject;
+import bill.zkaifleet.model.Ontology;
+import bill.zkaifleet.model.ParserRegistry;
+import bill.zkaifleet.model.fleet.FleetJect;
+import bill.zkaifleet.model.fleet.FleetParserRegistry;
+import bill.zkaifleet.model.fleet.FleetPredicate;
+import bill.zkaifleet.model.fleet.RoleJect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link ParseCache} and its use by {@link OntologyParser}.
+ */
+public class ParseCacheTest {
+
+    private static final String YAML = """
+            ontology: fleet
+            id: cached
+            fleet:
+              name: Cached
+              roles:
+                - id: R2D2
+                  seniority: senior
+            """;
+
+    @TempDir
+    Path dir;
+
+    private ParseCache cache;
+    private OntologyParser parser;
+
+    @BeforeEach
+    public void setup() {
+        cache = new ParseCache(dir.resolve("cache"), 1 << 20, Duration.ofDays(7));
+        parser = new OntologyParser();
+        parser.setParseCache(cache);
+    }
+
+    private long entries() throws IOException {
+        try (Stream<Path> files = Files.list(cache.getDirectory())) {
+            return files.filter(file -> file.toString().endsWith(".snapshot")).count();
+        }
+    }
+
+    @Test
+    public void testHitLoadsTheStoredGraph() throws IOException {
+        Ject parsed = parser.parse(YAML);
+        assertEquals(1, entries());
+
+        Ject cached = parser.parse(YAML);
+
+        assertNotSame(parsed, cached);
+        assertEquals(JectEventBuilderTest.describe(parsed), JectEventBuilderTest.describe(cached));
+        RoleJect role = cached.getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class).getRoles().get(0);
+        assertEquals("R2D2", role.getId());
+        assertEquals(1, entries());
+    }
+
+    @Test
+    public void testHitSkipsParsing() throws IOException {
+        Ject parsed = parser.parse(YAML);
+        String key;
+        try (Stream<Path> files = Files.list(cache.getDirectory())) {
+            key = files.findFirst().orElseThrow().getFileName().toString().replace(".snapshot", "");
+        }
+        Ontology other = (Ontology) new OntologyParser().parse(YAML.replace("Cached", "Stored"));
+        new OntologySnapshotWriter().write(other, cache.getDirectory().resolve(key + ".snapshot"));
+
+        Ject cached = parser.parse(YAML);
+
+        assertEquals("Cached", parsed.getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class).getName());
+        assertEquals("Stored", cached.getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class).getName());
+    }
+
+    @Test
+    public void testKeyDependsOnContentAndRegistryVersions() {
+        FleetParserRegistry registry = new FleetParserRegistry();
+        Map<String, ParserRegistry> catalog = Map.of("fleet", registry);
+        String key = cache.key(YAML, catalog);
+
+        assertEquals(key, cache.key(YAML, Map.of("fleet", new FleetParserRegistry())));
+        assertNotEquals(key, cache.key(YAML + "# edited\n", catalog));
+        String version = registry.getVersion();
+        assertTrue(version.matches("FleetParserRegistry-[0-9a-f]{64}"), version);
+        assertSame(version, registry.getVersion());
+        registry.addRootSubject("droid", RoleJect.class);
+        assertNotEquals(version, registry.getVersion());
+        assertNotEquals(key, cache.key(YAML, catalog));
+    }
+
+    @Test
+    public void testUnreadableEntryIsReplaced() throws IOException {
+        parser.parse(YAML);
+        Path entry;
+        try (Stream<Path> files = Files.list(cache.getDirectory())) {
+            entry = files.findFirst().orElseThrow();
+        }
+        Files.writeString(entry, "not a snapshot");
+
+        Ject parsed = parser.parse(YAML);
+
+        assertEquals("Cached", parsed.getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class).getName());
+        assertNotNull(new OntologySnapshotReader().read(entry));
+    }
+
+    @Test
+    public void testEvictsByAgeThenSize() throws IOException {
+        Path directory = cache.getDirectory();
+        Instant now = Instant.now();
+        Path expired = Files.write(directory.resolve("expired.snapshot"), new byte[10]);
+        Files.setLastModifiedTime(expired, FileTime.from(now.minus(Duration.ofDays(8))));
+        Path oldest = Files.write(directory.resolve("oldest.snapshot"), new byte[600_000]);
+        Files.setLastModifiedTime(oldest, FileTime.from(now.minus(Duration.ofHours(2))));
+        Path newest = Files.write(directory.resolve("newest.snapshot"), new byte[600_000]);
+        Files.setLastModifiedTime(newest, FileTime.from(now.minus(Duration.ofHours(1))));
+        Path unrelated = Files.write(directory.resolve("notes.txt"), new byte[10]);
+        Files.setLastModifiedTime(unrelated, FileTime.from(now.minus(Duration.ofDays(30))));
+
+        cache.evict();
+
+        assertFalse(Files.exists(expired));
+        assertFalse(Files.exists(oldest));
+        assertTrue(Files.exists(newest));
+        assertTrue(Files.exists(unrelated));
+    }
+}
@@ -1,10 +1,14 @@
 package bill.zkaifleet.parser;
 
+import bill.zkaifleet.model.BaseParserRegistry;
 import bill.zkaifleet.model.BasePredicate;
+import bill.zkaifleet.model.Ontology;
 import bill.zkaifleet.model.RuntimeJect;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -113,4 +117,55 @@ public class PlaceholderTest {
         assertEquals(1, children.size());
         assertEquals("child-id", children.get(0).getId());
     }
-}
\ No newline at end of file
+    
+    @Test
+    public void testPatchReferencesReplacesOnlyRecordedSlots() {
+        Placeholder<RuntimeJect> placeholder = new Placeholder<>("test-id", "TestType", "test-ontology");
+        RuntimeJect owner = new RuntimeJect("OwnerType", "test-ontology");
+        RuntimeJect sibling = new RuntimeJect("ChildType", "test-ontology");
+        owner.addTypedSubject(BasePredicate.literal, sibling);
+        owner.addTypedSubject(BasePredicate.literal, placeholder);
+        assertTrue(placeholder.isReferenced());
+        
+        RuntimeJect actual = new RuntimeJect("TestType", "test-ontology");
+        actual.setId("test-id");
+        placeholder.resolve(actual);
+        placeholder.patchReferences();
+        
+        List<RuntimeJect> subjects = owner.getTypedSubjects(BasePredicate.literal, RuntimeJect.class);
+        assertEquals(2, subjects.size());
+        assertSame(sibling, subjects.get(0));
+        assertSame(actual, subjects.get(1));
+        assertEquals(1, actual.getTypedIsObjectOf(BasePredicate.literal, RuntimeJect.class).size());
+        assertEquals(1, sibling.getTypedIsObjectOf(BasePredicate.literal, RuntimeJect.class).size());
+        assertFalse(placeholder.isReferenced());
+    }
+    
+    @Test
+    public void testPatchReferencesFailsWhenUnresolved() {
+        Placeholder<RuntimeJect> placeholder = new Placeholder<>("test-id", "TestType", "test-ontology");
+        new RuntimeJect("OwnerType", "test-ontology").addTypedSubject(BasePredicate.literal, placeholder);
+        
+        Exception exception = assertThrows(IllegalStateException.class, placeholder::patchReferences);
+        assertTrue(exception.getMessage().contains("test-id"));
+    }
+    
+    @Test
+    public void testResolveAllResolvesTrackedPlaceholders() {
+        Ontology ontology = new Ontology("test-ontology");
+        RuntimeJect owner = new RuntimeJect("OwnerType", "test-ontology");
+        ontology.addTypedSubject(BasePredicate.literal, owner);
+        Placeholder<RuntimeJect> placeholder = new Placeholder<>("test-id", "TestType", "test-ontology");
+        owner.addTypedSubject(BasePredicate.literal, placeholder);
+        
+        JectParseContext context = new JectParseContext(ontology, "test-ontology", new HashMap<>(), Map.of("base", new BaseParserRegistry()));
+        RuntimeJect actual = new RuntimeJect("TestType", "test-ontology");
+        actual.setId("test-id");
+        context.getIdentityMap().put("test-id", actual);
+        context.track(placeholder);
+        context.resolveAll();
+        
+        assertSame(actual, owner.getSubjects().get(BasePredicate.literal).get(0));
+        assertFalse(placeholder.isReferenced());
+    }
+}
@@ -0,0 +1,177 @@
+package bill.zkaifleet.parser;
+
+import bill.zkaifleet.model.Ject;
+import bill.zkaifleet.model.Ontology;
+import bill.zkaifleet.model.Predicate;
+import bill.zkaifleet.model.RuntimePredicate;
+import bill.zkaifleet.model.fleet.FleetJect;
+import bill.zkaifleet.model.fleet.FleetPredicate;
+import bill.zkaifleet.model.fleet.RoleJect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link WatchedSpec}.
+ */
+public class WatchedSpecTest extends CountingModuleFixture {
+
+    private Path spec;
+    private Path roles;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        spec = write("fleet.yaml", """
+                ontology: fleet
+                id: watched
+                fleet:
+                  name: Watched
+                  roles:
+                    - ./roles.yaml
+                    - id: Inline
+                  processes:
+                    - id: Review
+                      reviewer: {ref: R2D2}
+                """);
+        roles = write("roles.yaml", """
+                - id: R2D2
+                  description: astromech
+                  interactions:
+                    - with: {ref: Inline}
+                """);
+    }
+
+    private static FleetJect fleet(Ontology ontology) {
+        return ontology.getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class);
+    }
+
+    @Test
+    public void testPatchesOnlyTheChangedModule() throws IOException {
+        WatchedSpec watched = new WatchedSpec(loader, spec.toUri());
+        Ontology ontology = watched.getOntology();
+        FleetJect fleet = fleet(ontology);
+        RoleJect inline = fleet.getRoles().get(1);
+        RoleJect oldR2D2 = fleet.getRoles().get(0);
+        Ject review = fleet.getProcesses().get(0);
+
+        write("roles.yaml", """
+                - id: R2D2
+                  description: rebuilt
+                  interactions:
+                    - with: {ref: Inline}
+                - id: C3PO
+                """);
+        assertTrue(watched.refresh(roles.toUri()));
+
+        assertSame(ontology, watched.getOntology());
+        assertEquals(List.of("R2D2", "C3PO", "Inline"), fleet.getRoles().stream().map(RoleJect::getId).toList());
+        RoleJect r2d2 = fleet.getRoles().get(0);
+        assertNotSame(oldR2D2, r2d2);
+        assertEquals("rebuilt", r2d2.getDescription());
+        assertSame(inline, fleet.getRoles().get(2));
+        // The reference into the module points at the new Ject, with its backlink
+        assertSame(r2d2, review.getSingleTypedSubject(pred("reviewer"), Ject.class));
+        assertEquals(List.of(review), r2d2.getTypedIsObjectOf(pred("reviewer"), Ject.class));
+        // The reference out of the module was resolved again and the old backlink removed
+        Ject interaction = r2d2.getTypedSubjects(FleetPredicate.interaction, Ject.class).get(0);
+        assertSame(inline, interaction.getSingleTypedSubject(pred("with"), Ject.class));
+        assertEquals(List.of(interaction), inline.getTypedIsObjectOf(pred("with"), Ject.class));
+        for (RoleJect role : fleet.getRoles()) {
+            assertEquals(List.of(fleet), role.getTypedIsObjectOf(FleetPredicate.role, FleetJect.class));
+        }
+        // Only the changed module was read again
+        assertEquals(2, opened.get(roles.toUri()).get());
+        assertEquals(1, opened.get(spec.toUri()).get());
+        assertEquals(1, watched.getRevision());
+    }
+
+    @Test
+    public void testFailedChangeKeepsTheGraph() throws IOException {
+        WatchedSpec watched = new WatchedSpec(loader, spec.toUri());
+        FleetJect fleet = fleet(watched.getOntology());
+        RoleJect r2d2 = fleet.getRoles().get(0);
+        RoleJect inline = fleet.getRoles().get(1);
+
+        write("roles.yaml", "- id: C3PO\n");
+        Exception exception = assertThrows(IllegalStateException.class, () -> watched.refresh(roles.toUri()));
+        assertTrue(exception.getMessage().contains("R2D2"), exception.getMessage());
+
+        write("roles.yaml", "- id: R2D2\n- id: Inline\n");
+        exception = assertThrows(IllegalArgumentException.class, () -> watched.refresh(roles.toUri()));
+        assertTrue(exception.getMessage().contains("Duplicate IDs detected: 'Inline'"), exception.getMessage());
+
+        assertEquals(List.of(r2d2, inline), fleet.getRoles());
+        assertEquals(1, inline.getIsObjectOf().get(pred("with")).size());
+        assertEquals(0, watched.getRevision());
+    }
+
+    @Test
+    public void testRejectedChangeIsNotReloadedLater() throws IOException {
+        WatchedSpec watched = new WatchedSpec(loader, spec.toUri());
+        write("roles.yaml", "- id: R2D2\n- id: Inline\n");
+        assertThrows(IllegalArgumentException.class, () -> watched.refresh(roles.toUri()));
+
+        // A change to the spec reloads it with the roles the graph still has
+        write("fleet.yaml", Files.readString(spec).replace("name: Watched", "name: Renamed"));
+        assertTrue(watched.refresh(spec.toUri()));
+
+        FleetJect fleet = fleet(watched.getOntology());
+        assertEquals("Renamed", fleet.getName());
+        assertEquals(List.of("R2D2", "Inline"), fleet.getRoles().stream().map(RoleJect::getId).toList());
+        assertEquals("astromech", fleet.getRoles().get(0).getDescription());
+        assertEquals(2, opened.get(roles.toUri()).get());
+    }
+
+    @Test
+    public void testStructuralChangeReloadsTheSpec() throws IOException {
+        WatchedSpec watched = new WatchedSpec(loader, spec.toUri());
+        Ontology before = watched.getOntology();
+
+        write("seniors.yaml", "- id: ObiWan\n");
+        write("roles.yaml", """
+                - id: R2D2
+                  interactions:
+                    - with: {ref: Inline}
+                - ./seniors.yaml
+                """);
+        assertTrue(watched.refresh(roles.toUri()));
+        assertFalse(watched.refresh(dir.resolve("unrelated.yaml").toUri()));
+
+        assertNotSame(before, watched.getOntology());
+        assertEquals(List.of("R2D2", "ObiWan", "Inline"),
+                watched.read(ontology -> fleet(ontology).getRoles().stream().map(RoleJect::getId).toList()));
+        assertEquals(1, opened.get(spec.toUri()).get());
+    }
+
+    @Test
+    public void testWatchAppliesFileChanges() throws Exception {
+        try (WatchedSpec watched = new WatchedSpec(loader, spec.toUri())) {
+            watched.watch();
+            write("roles.yaml", "- id: R2D2\n  description: watched\n");
+            long deadline = System.currentTimeMillis() + 20_000;
+            while (watched.getRevision() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertTrue(watched.getRevision() > 0);
+            assertEquals("watched", watched.read(ontology -> fleet(ontology).getRoles().get(0).getDescription()));
+        }
+    }
+
+    @Test
+    public void testLazyReferencesAreRejected() {
+        OntologyParser parser = new OntologyParser();
+        parser.setLazyReferences(true);
+        ModuleLoader lazy = new ModuleLoader(parser, List.of(new FileModuleResolver()));
+        assertThrows(IllegalArgumentException.class, () -> new WatchedSpec(lazy, spec.toUri()));
+    }
+
+    private Predicate pred(String name) {
+        return RuntimePredicate.of(name, "unknown", "fleet");
+    }
+}
@@ -0,0 +1,155 @@
+package bill.zkaifleet.processor;
+
+import bill.zkaifleet.model.JectBinder;
+import bill.zkaifleet.model.Ontology;
+import bill.zkaifleet.model.fleet.BootstrapAgentJect;
+import bill.zkaifleet.model.fleet.ConstraintsJect;
+import bill.zkaifleet.model.fleet.RoleJect;
+import bill.zkaifleet.parser.Placeholder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the binders generated by {@link JectBinderProcessor} during the main compile.
+ */
+public class JectBinderProcessorTest {
+
+    private static Map<Class<?>, JectBinder> loadBinders() {
+        Map<Class<?>, JectBinder> binders = new HashMap<>();
+        for (JectBinder binder : ServiceLoader.load(JectBinder.class)) {
+            binders.put(binder.jectType(), binder);
+        }
+        return binders;
+    }
+
+    @Test
+    public void testBindersGeneratedForProjectJects() {
+        Map<Class<?>, JectBinder> binders = loadBinders();
+        assertTrue(binders.containsKey(RoleJect.class));
+        assertTrue(binders.containsKey(BootstrapAgentJect.class));
+        assertTrue(binders.containsKey(ConstraintsJect.class));
+        assertTrue(binders.containsKey(Ontology.class));
+    }
+
+    @Test
+    public void testAdderPreferredAndLombokSettersIncluded() {
+        JectBinder binder = loadBinders().get(RoleJect.class);
+        RoleJect role = new RoleJect();
+
+        assertTrue(binder.bind(role, "capability", "planning"));
+        assertEquals(List.of("planning"), role.getCapabilities());
+
+        assertTrue(binder.bind(role, "capabilities", List.of("a", "b")));
+        assertEquals(List.of("a", "b"), role.getCapabilities());
+
+        assertTrue(binder.bind(role, "seniority", "senior"));
+        assertEquals("senior", role.getSeniority());
+
+        assertTrue(binder.bind(role, "description", "inherited from Ject"));
+        assertEquals("inherited from Ject", role.getDescription());
+    }
+
+    @Test
+    public void testWideningConversions() {
+        JectBinder binder = loadBinders().get(ConstraintsJect.class);
+        ConstraintsJect constraints = new ConstraintsJect();
+
+        assertTrue(binder.bind(constraints, "confidenceThreshold", 1));
+        assertEquals(1.0, constraints.getConfidenceThreshold());
+
+        BootstrapAgentJect agent = new BootstrapAgentJect();
+        assertTrue(loadBinders().get(BootstrapAgentJect.class).bind(agent, "confidenceThreshold", 3L));
+        assertEquals(3.0, agent.getConfidenceThreshold());
+    }
+
+    @Test
+    public void testUnknownPropertyOrTypeIsNotBound() {
+        JectBinder binder = loadBinders().get(ConstraintsJect.class);
+        ConstraintsJect constraints = new ConstraintsJect();
+
+        assertFalse(binder.bind(constraints, "noSuchProperty", "x"));
+        assertFalse(binder.bind(constraints, "focus", 42));
+        assertNull(constraints.getFocus());
+    }
+
+    @Test
+    public void testFieldLevelSetterNoneIsNotBound() {
+        JectBinder binder = loadBinders().get(Placeholder.class);
+        assertNotNull(binder);
+        assertFalse(binder.bind(new Placeholder<>("id", "Type", "test"), "identities", new HashMap<String, Object>()));
+    }
+
+    @Test
+    public void testObjectParametersEndTheCase(@TempDir Path dir) throws Exception {
+        Path source = dir.resolve("src/sample/HolderJect.java");
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, """
+                package sample;
+
+                public class HolderJect<T> extends bill.zkaifleet.model.Ject {
+                    public Object payload;
+                    public Object item;
+                    public String name;
+
+                    public HolderJect() { super("Holder", "test"); }
+
+                    public void setPayload(String value) { payload = "string:" + value; }
+                    public void setPayload(Object value) { payload = value; }
+                    public void setPayload(int value) { payload = "int:" + value; }
+                    public void setItem(T value) { item = value; }
+                    public void addName(Object value) { name = "added:" + value; }
+                    public void setName(String value) { name = value; }
+                }
+                """);
+        Path classes = dir.resolve("classes");
+        Files.createDirectories(classes);
+        compile(source, classes);
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { classes.toUri().toURL() }, getClass().getClassLoader())) {
+            Class<?> type = loader.loadClass("sample.HolderJect");
+            JectBinder binder = (JectBinder) loader.loadClass("sample.HolderJect" + JectBinderProcessor.SUFFIX).getDeclaredConstructor().newInstance();
+            bill.zkaifleet.model.Ject holder = (bill.zkaifleet.model.Ject) type.getDeclaredConstructor().newInstance();
+
+            assertTrue(binder.bind(holder, "payload", "x"));
+            assertEquals("string:x", type.getField("payload").get(holder));
+            assertTrue(binder.bind(holder, "payload", (short) 7));
+            assertEquals("int:7", type.getField("payload").get(holder));
+            assertTrue(binder.bind(holder, "payload", List.of(1)));
+            assertEquals(List.of(1), type.getField("payload").get(holder));
+            assertTrue(binder.bind(holder, "item", 2.5));
+            assertEquals(2.5, type.getField("item").get(holder));
+            // The adder takes any value, so the setter is never reached
+            assertTrue(binder.bind(holder, "name", "n"));
+            assertEquals("added:n", type.getField("name").get(holder));
+        }
+    }
+
+    private static void compile(Path source, Path classes) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics,
+                    List.of("-classpath", System.getProperty("java.class.path"), "-d", classes.toString(), "-implicit:class"),
+                    null, files.getJavaFileObjects(source));
+            task.setProcessors(List.of(new JectBinderProcessor()));
+            assertTrue(task.call(), diagnostics.getDiagnostics().toString());
+        }
+    }
+}
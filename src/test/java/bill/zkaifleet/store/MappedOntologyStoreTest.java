@@ -0,0 +1,146 @@
+package bill.zkaifleet.store;
+
+import bill.zkaifleet.model.Ject;
+import bill.zkaifleet.model.Ontology;
+import bill.zkaifleet.model.Predicate;
+import bill.zkaifleet.model.RuntimePredicate;
+import bill.zkaifleet.model.fleet.FleetJect;
+import bill.zkaifleet.model.fleet.FleetPredicate;
+import bill.zkaifleet.model.fleet.RoleJect;
+import bill.zkaifleet.parser.OntologyParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link MappedOntologyStore}, comparing the mapped views with the parsed graph.
+ */
+public class MappedOntologyStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private MappedOntologyStore store(Ject parsed) throws IOException {
+        Path file = dir.resolve("ontology.store");
+        MappedOntologyStore.write((Ontology) parsed, file);
+        return MappedOntologyStore.open(file);
+    }
+
+    @Test
+    public void testBundledFleetSpecMatchesParsedGraph() throws IOException {
+        String yaml;
+        try (InputStream in = getClass().getResourceAsStream("/fleetspec/generic-fleetspec-1.5/fleetspec.yaml")) {
+            yaml = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Ject parsed = new OntologyParser().parse(yaml);
+        MappedOntologyStore store = store(parsed);
+
+        assertSameGraph(parsed, store.root(), new IdentityHashMap<>());
+        FleetJect parsedFleet = parsed.getSingleTypedSubject(FleetPredicate.fleet, FleetJect.class);
+        Ject fleet = store.root().getSingleTypedSubject(FleetPredicate.fleet, Ject.class);
+        assertEquals(FleetJect.class.getName(), ((MappedJect) fleet).getStoredType());
+        List<Ject> roles = fleet.getTypedSubjects(FleetPredicate.role, Ject.class);
+        assertEquals(parsedFleet.getRoles().size(), roles.size());
+        RoleJect parsedRole = parsedFleet.getRoles().get(0);
+        assertEquals(parsedRole.getId(), roles.get(0).getId());
+        assertEquals(fleet, roles.get(0).getTypedIsObjectOf(FleetPredicate.role, Ject.class).get(0));
+        // Views cannot be RoleJects; nodes are selected by the class they were written from instead
+        assertTrue(fleet.getTypedSubjects(FleetPredicate.role, RoleJect.class).isEmpty());
+        assertEquals(roles, ((MappedJect) fleet).getStoredSubjects(FleetPredicate.role, RoleJect.class));
+        assertEquals(roles, ((MappedJect) fleet).getStoredSubjects(FleetPredicate.role, Ject.class));
+        assertTrue(((MappedJect) fleet).getStoredSubjects(FleetPredicate.role, FleetJect.class).isEmpty());
+        assertEquals(List.of(fleet), ((MappedJect) roles.get(0)).getStoredIsObjectOf(FleetPredicate.role, FleetJect.class));
+        assertTrue(((MappedJect) roles.get(0)).isStoredAs(RoleJect.class));
+    }
+
+    @Test
+    public void testReferencesAndScalars() throws IOException {
+        String yaml = """
+                ontology: test
+                id: root
+                jects:
+                  - id: j1
+                    count: 3
+                    ratio: 0.5
+                    tags: [a, b]
+                    refProp: {ref: j2}
+                  - id: j2
+                    description: second
+                """;
+        MappedOntologyStore store = store(new OntologyParser().parse(yaml));
+
+        MappedJect root = store.root();
+        assertEquals("root", root.getId());
+        List<Ject> jects = root.getTypedSubjects(pred("jects"), Ject.class);
+        assertEquals(2, jects.size());
+        Ject j1 = jects.get(0);
+        assertEquals(3, j1.getScalar(pred("count"), Integer.class));
+        assertEquals(0.5, j1.getScalar(pred("ratio"), Double.class));
+        assertEquals(3L, j1.getLong(pred("count"), 0));
+        assertEquals(0.5, j1.getDouble(pred("ratio"), 0));
+        assertEquals(-1, j1.getDouble(pred("missing"), -1));
+        assertEquals(List.of("a", "b"), j1.getScalars(pred("tags"), String.class));
+        assertEquals(jects.get(1), j1.getSingleTypedSubject(pred("refProp"), Ject.class));
+        assertEquals("second", jects.get(1).getDescription());
+        assertTrue(j1.getTypedSubjects(pred("missing"), Ject.class).isEmpty());
+        assertTrue(j1.getTypedSubjects(pred("refProp"), RoleJect.class).isEmpty());
+        assertThrows(IllegalStateException.class, () -> j1.getScalar(pred("count"), String.class));
+    }
+
+    @Test
+    public void testViewsAreReadOnly() throws IOException {
+        MappedJect root = store(new OntologyParser().parse("ontology: test\nid: root\n")).root();
+
+        assertThrows(UnsupportedOperationException.class, () -> root.setId("other"));
+        assertThrows(UnsupportedOperationException.class, () -> root.addScalar(pred("x"), "y"));
+        assertThrows(UnsupportedOperationException.class, () -> root.addTypedSubject(pred("x"), root));
+        assertThrows(UnsupportedOperationException.class, () -> root.getSubjects().put(pred("x"), List.of()));
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("not-a-store");
+        Files.writeString(file, "ontology: test\nid: root\nplus: enough bytes for a header\n");
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> MappedOntologyStore.open(file));
+        assertTrue(exception.getMessage().contains("Not a mapped ontology store"));
+    }
+
+    private void assertSameGraph(Ject heap, Ject mapped, Map<Ject, Boolean> seen) {
+        if (seen.put(heap, Boolean.TRUE) != null) {
+            return;
+        }
+        assertEquals(heap.getId(), mapped.getId());
+        assertEquals(heap.getTypeName(), mapped.getTypeName());
+        assertEquals(heap.getOntology(), mapped.getOntology());
+        assertEquals(heap.getScalars().size(), mapped.getScalars().size());
+        for (Map.Entry<Predicate, List<Object>> entry : heap.getScalars().entrySet()) {
+            assertEquals(entry.getValue(), mapped.getScalars(entry.getKey(), Object.class), entry.getKey().fqName());
+        }
+        for (Map.Entry<Predicate, List<Ject>> entry : heap.getIsObjectOf().entrySet()) {
+            assertEquals(entry.getValue().size(), mapped.getTypedIsObjectOf(entry.getKey(), Ject.class).size());
+        }
+        assertEquals(heap.getSubjects().size(), mapped.getSubjects().size());
+        for (Map.Entry<Predicate, List<Ject>> entry : heap.getSubjects().entrySet()) {
+            List<Ject> children = mapped.getTypedSubjects(entry.getKey(), Ject.class);
+            assertEquals(entry.getValue().size(), children.size());
+            for (int i = 0; i < children.size(); i++) {
+                assertSameGraph(entry.getValue().get(i), children.get(i), seen);
+            }
+        }
+    }
+
+    private Predicate pred(String name) {
+        return RuntimePredicate.of(name, "unknown", "test");
+    }
+}